@@ -0,0 +1,120 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package examples.benchmark;
+
+import java.util.*;
+
+/**
+ * A single benchmark measured by BenchmarkRunner. The throughput of method
+ * operate is measured, setUp and tearDown are not part of the measurement.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public abstract class Benchmark {
+  private String m_name;
+
+  private Map<String, String> m_params;
+
+  /**
+   * @param a_name name of the benchmark, benchmarks differing in parameters
+   * only should have the same name
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Benchmark(String a_name) {
+    m_name = a_name;
+    m_params = new LinkedHashMap<String, String>();
+  }
+
+  /**
+   * Adds a parameter reported along with the results.
+   *
+   * @param a_name name of the parameter
+   * @param a_value value of the parameter
+   * @return this instance
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Benchmark param(String a_name, Object a_value) {
+    m_params.put(a_name, String.valueOf(a_value));
+    return this;
+  }
+
+  public String getName() {
+    return m_name;
+  }
+
+  public Map<String, String> getParams() {
+    return m_params;
+  }
+
+  /**
+   * @return name and parameters, e.g. "clone(gene=IntegerGene)"
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public String getLabel() {
+    if (m_params.isEmpty()) {
+      return m_name;
+    }
+    StringBuffer result = new StringBuffer(m_name).append("(");
+    Iterator<Map.Entry<String, String>> it = m_params.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, String> entry = it.next();
+      result.append(entry.getKey()).append("=").append(entry.getValue());
+      if (it.hasNext()) {
+        result.append(",");
+      }
+    }
+    return result.append(")").toString();
+  }
+
+  /**
+   * Prepares the state operated on, called once before warm-up.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setUp()
+      throws Exception {
+  }
+
+  /**
+   * The operation to measure.
+   *
+   * @return result of the operation, consumed by the runner so that the
+   * operation cannot be optimized away
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public abstract Object operate()
+      throws Exception;
+
+  /**
+   * Releases the state operated on, called once after measuring.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void tearDown()
+      throws Exception {
+  }
+}
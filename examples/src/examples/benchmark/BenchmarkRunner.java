@@ -0,0 +1,284 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package examples.benchmark;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Measures the throughput of benchmarks in the manner of JMH: a number of
+ * warm-up iterations lets the JIT compile the hot paths, followed by the
+ * measured iterations of a fixed duration each. The results can be written
+ * in the JSON format of JMH, so that tools comparing JMH results can be used
+ * to compare releases.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class BenchmarkRunner {
+  /**
+   * Quantile of the normal distribution for a confidence level of 99.9%,
+   * as used by JMH for the score error.
+   */
+  private final static double Z_999 = 3.2905d;
+
+  private int m_warmupIterations;
+
+  private int m_iterations;
+
+  private long m_iterationMillis;
+
+  /**
+   * Consumes the results of the operations.
+   */
+  private volatile Object m_sink;
+
+  /**
+   * Constructor with three warm-up and five measured iterations of one
+   * second each.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public BenchmarkRunner() {
+    this(3, 5, 1000);
+  }
+
+  /**
+   * @param a_warmupIterations number of iterations not measured
+   * @param a_iterations number of iterations measured
+   * @param a_iterationMillis duration of each iteration in milliseconds
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public BenchmarkRunner(int a_warmupIterations, int a_iterations,
+                         long a_iterationMillis) {
+    if (a_warmupIterations < 0 || a_iterations < 1 || a_iterationMillis < 1) {
+      throw new IllegalArgumentException("At least one measured iteration of"
+                                         + " positive duration required!");
+    }
+    m_warmupIterations = a_warmupIterations;
+    m_iterations = a_iterations;
+    m_iterationMillis = a_iterationMillis;
+  }
+
+  /**
+   * Runs a benchmark.
+   *
+   * @param a_benchmark the benchmark to run
+   * @return the measured throughput
+   *
+   * @throws Exception if the benchmark failed
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Result run(Benchmark a_benchmark)
+      throws Exception {
+    a_benchmark.setUp();
+    try {
+      for (int i = 0; i < m_warmupIterations; i++) {
+        iterate(a_benchmark);
+      }
+      double[] scores = new double[m_iterations];
+      for (int i = 0; i < m_iterations; i++) {
+        scores[i] = iterate(a_benchmark);
+      }
+      return new Result(a_benchmark, scores);
+    } finally {
+      a_benchmark.tearDown();
+      m_sink = null;
+    }
+  }
+
+  /**
+   * Runs benchmarks one after another and prints their results.
+   *
+   * @param a_benchmarks the benchmarks to run
+   * @param a_out receives a line per benchmark, may be null
+   * @return the results in the order of the benchmarks
+   *
+   * @throws Exception if a benchmark failed
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public List<Result> runAll(List<Benchmark> a_benchmarks, PrintStream a_out)
+      throws Exception {
+    List<Result> results = new Vector<Result>();
+    for (Benchmark benchmark : a_benchmarks) {
+      Result result = run(benchmark);
+      results.add(result);
+      if (a_out != null) {
+        a_out.println(result);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * @return operations per second within one iteration
+   */
+  private double iterate(Benchmark a_benchmark)
+      throws Exception {
+    long ops = 0;
+    long start = System.nanoTime();
+    long end = start + m_iterationMillis * 1000000L;
+    long now;
+    do {
+      m_sink = a_benchmark.operate();
+      ops++;
+      now = System.nanoTime();
+    } while (now < end);
+    return ops * 1e9d / (now - start);
+  }
+
+  /**
+   * Writes results in the JSON format of JMH (mode throughput).
+   *
+   * @param a_results the results to write
+   * @param a_out the writer to write to
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeJSON(List<Result> a_results, Writer a_out)
+      throws IOException {
+    PrintWriter out = new PrintWriter(a_out);
+    out.println("[");
+    for (int i = 0; i < a_results.size(); i++) {
+      Result result = a_results.get(i);
+      out.println("  {");
+      out.println("    \"benchmark\" : " + quote(result.getBenchmark()) + ",");
+      out.println("    \"mode\" : \"thrpt\",");
+      out.println("    \"threads\" : 1,");
+      out.println("    \"warmupIterations\" : " + m_warmupIterations + ",");
+      out.println("    \"warmupTime\" : " + quote(m_iterationMillis + " ms")
+                  + ",");
+      out.println("    \"measurementIterations\" : " + m_iterations + ",");
+      out.println("    \"measurementTime\" : "
+                  + quote(m_iterationMillis + " ms") + ",");
+      out.print("    \"params\" : {");
+      Iterator<Map.Entry<String, String>> it = result.getParams().entrySet().
+          iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, String> entry = it.next();
+        out.print(quote(entry.getKey()) + " : " + quote(entry.getValue()));
+        if (it.hasNext()) {
+          out.print(", ");
+        }
+      }
+      out.println("},");
+      out.println("    \"primaryMetric\" : {");
+      out.println("      \"score\" : " + result.getScore() + ",");
+      out.println("      \"scoreError\" : " + result.getScoreError() + ",");
+      out.println("      \"scoreUnit\" : \"ops/s\",");
+      out.print("      \"rawData\" : [[");
+      double[] scores = result.getScores();
+      for (int j = 0; j < scores.length; j++) {
+        if (j > 0) {
+          out.print(", ");
+        }
+        out.print(scores[j]);
+      }
+      out.println("]]");
+      out.println("    }");
+      out.println(i < a_results.size() - 1 ? "  }," : "  }");
+    }
+    out.println("]");
+    out.flush();
+  }
+
+  private static String quote(String a_value) {
+    StringBuffer result = new StringBuffer("\"");
+    for (int i = 0; i < a_value.length(); i++) {
+      char c = a_value.charAt(i);
+      if (c == '"' || c == '\\') {
+        result.append('\\');
+      }
+      result.append(c);
+    }
+    return result.append('"').toString();
+  }
+
+  /**
+   * Throughput measured for a benchmark.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static class Result {
+    private String m_benchmark;
+
+    private String m_label;
+
+    private Map<String, String> m_params;
+
+    private double[] m_scores;
+
+    public Result(Benchmark a_benchmark, double[] a_scores) {
+      m_benchmark = a_benchmark.getName();
+      m_label = a_benchmark.getLabel();
+      m_params = a_benchmark.getParams();
+      m_scores = a_scores;
+    }
+
+    public String getBenchmark() {
+      return m_benchmark;
+    }
+
+    public Map<String, String> getParams() {
+      return m_params;
+    }
+
+    /**
+     * @return operations per second of each measured iteration
+     */
+    public double[] getScores() {
+      return m_scores;
+    }
+
+    /**
+     * @return mean operations per second
+     */
+    public double getScore() {
+      double sum = 0;
+      for (int i = 0; i < m_scores.length; i++) {
+        sum += m_scores[i];
+      }
+      return sum / m_scores.length;
+    }
+
+    /**
+     * @return half width of the 99.9% confidence interval of the score, NaN
+     * for a single iteration
+     */
+    public double getScoreError() {
+      int n = m_scores.length;
+      if (n < 2) {
+        return Double.NaN;
+      }
+      double mean = getScore();
+      double sum = 0;
+      for (int i = 0; i < n; i++) {
+        sum += (m_scores[i] - mean) * (m_scores[i] - mean);
+      }
+      return Z_999 * Math.sqrt(sum / (n - 1) / n);
+    }
+
+    public String toString() {
+      return m_label + ": " + Math.round(getScore()) + " +- "
+          + Math.round(getScoreError()) + " ops/s";
+    }
+  }
+}
@@ -0,0 +1,504 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package examples.benchmark;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+import org.jgap.impl.*;
+import examples.gp.symbolicRegression.*;
+
+/**
+ * Benchmarks of the hot paths of JGAP: cloning and mutating chromosomes of
+ * the common gene types, the genetic operators and natural selectors, the GP
+ * interpreter on bundled symbolic regression problems, GP evolution and
+ * whole GA generations at several population sizes.
+ * <p>
+ * Usage: JGAPBenchmarks [-o results.json] [-w warmupIterations]
+ * [-i iterations] [-t iterationMillis] [-d symbolicRegressionDir] [regex]
+ * <br>
+ * Only benchmarks whose label (name and parameters) matches the regular
+ * expression are run. The JSON output can be diffed between releases.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class JGAPBenchmarks {
+  public final static String[] GENE_TYPES = {"IntegerGene", "DoubleGene",
+      "StringGene", "FixedBinaryGene", "CompositeGene"};
+
+  public final static String[] GP_PROBLEMS = {"fib1.conf", "x2.conf",
+      "sqrt_formula.conf"};
+
+  public final static int[] POPULATION_SIZES = {50, 500, 5000};
+
+  private final static int CHROMOSOME_SIZE = 50;
+
+  private final static int POPULATION_SIZE = 200;
+
+  /**
+   * Creates all benchmarks.
+   *
+   * @param a_problemDir directory containing the configuration files of the
+   * symbolic regression problems
+   * @return the benchmarks
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static List<Benchmark> createBenchmarks(String a_problemDir) {
+    List<Benchmark> result = new Vector<Benchmark>();
+    for (String type : GENE_TYPES) {
+      result.add(new CloneBenchmark(type));
+    }
+    for (String type : GENE_TYPES) {
+      result.add(new MutateBenchmark(type));
+    }
+    result.add(new OperatorBenchmark("crossover"));
+    result.add(new OperatorBenchmark("mutation"));
+    result.add(new SelectorBenchmark("WeightedRouletteSelector"));
+    result.add(new SelectorBenchmark("BestChromosomesSelector"));
+    result.add(new SelectorBenchmark("TournamentSelector"));
+    for (String problem : GP_PROBLEMS) {
+      result.add(new GPExecuteBenchmark(new File(a_problemDir, problem)));
+    }
+    for (String problem : GP_PROBLEMS) {
+      result.add(new GPEvolveBenchmark(new File(a_problemDir, problem)));
+    }
+    for (int size : POPULATION_SIZES) {
+      result.add(new GenerationBenchmark(size));
+    }
+    return result;
+  }
+
+  /**
+   * Creates a gene of the given type with the configuration given.
+   *
+   * @param a_conf the configuration to use
+   * @param a_type simple class name of the gene
+   * @return the new gene
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static Gene createGene(Configuration a_conf, String a_type)
+      throws InvalidConfigurationException {
+    if ("IntegerGene".equals(a_type)) {
+      return new IntegerGene(a_conf, 0, 1000);
+    }
+    if ("DoubleGene".equals(a_type)) {
+      return new DoubleGene(a_conf, 0, 1000);
+    }
+    if ("StringGene".equals(a_type)) {
+      return new StringGene(a_conf, 5, 10,
+                            StringGene.ALPHABET_CHARACTERS_LOWER);
+    }
+    if ("FixedBinaryGene".equals(a_type)) {
+      return new FixedBinaryGene(a_conf, 32);
+    }
+    if ("CompositeGene".equals(a_type)) {
+      CompositeGene gene = new CompositeGene(a_conf);
+      gene.addGene(new IntegerGene(a_conf, 0, 1000));
+      gene.addGene(new DoubleGene(a_conf, 0, 1000));
+      return gene;
+    }
+    throw new IllegalArgumentException("Unknown gene type " + a_type);
+  }
+
+  /**
+   * Creates a fresh configuration with a chromosome of the given gene type
+   * as sample.
+   */
+  private static Configuration createConfiguration(String a_type,
+      int a_chromosomeSize)
+      throws InvalidConfigurationException {
+    Configuration.reset();
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new SumFitnessFunction());
+    conf.setSampleChromosome(new Chromosome(conf, createGene(conf, a_type),
+                                            a_chromosomeSize));
+    conf.setPopulationSize(POPULATION_SIZE);
+    return conf;
+  }
+
+  /**
+   * Creates a randomly initialized population whose chromosomes are old
+   * enough to be operated on.
+   */
+  private static Population createPopulation(Configuration a_conf, int a_size)
+      throws InvalidConfigurationException {
+    Population pop = new Population(a_conf, a_size);
+    for (int i = 0; i < a_size; i++) {
+      IChromosome chrom = Chromosome.randomInitialChromosome(a_conf);
+      chrom.increaseAge();
+      pop.addChromosome(chrom);
+    }
+    return pop;
+  }
+
+  /**
+   * Clones a chromosome.
+   */
+  static class CloneBenchmark
+      extends Benchmark {
+    private String m_type;
+
+    private IChromosome m_chrom;
+
+    public CloneBenchmark(String a_type) {
+      super("clone");
+      param("gene", a_type);
+      m_type = a_type;
+    }
+
+    public void setUp()
+        throws Exception {
+      Configuration conf = createConfiguration(m_type, CHROMOSOME_SIZE);
+      m_chrom = Chromosome.randomInitialChromosome(conf);
+    }
+
+    public Object operate() {
+      return m_chrom.clone();
+    }
+  }
+
+  /**
+   * Mutates all genes of a chromosome.
+   */
+  static class MutateBenchmark
+      extends Benchmark {
+    private String m_type;
+
+    private Gene[] m_genes;
+
+    public MutateBenchmark(String a_type) {
+      super("mutate");
+      param("gene", a_type);
+      m_type = a_type;
+    }
+
+    public void setUp()
+        throws Exception {
+      Configuration conf = createConfiguration(m_type, CHROMOSOME_SIZE);
+      // Composite genes cannot be mutated themselves, but their elements.
+      // -----------------------------------------------------------------
+      List<Gene> genes = new Vector<Gene>();
+      Gene[] chromGenes = Chromosome.randomInitialChromosome(conf).getGenes();
+      for (int i = 0; i < chromGenes.length; i++) {
+        if (chromGenes[i] instanceof ICompositeGene) {
+          ICompositeGene composite = (ICompositeGene) chromGenes[i];
+          for (int j = 0; j < composite.size(); j++) {
+            genes.add(composite.geneAt(j));
+          }
+        }
+        else {
+          genes.add(chromGenes[i]);
+        }
+      }
+      m_genes = genes.toArray(new Gene[genes.size()]);
+    }
+
+    public Object operate() {
+      for (int i = 0; i < m_genes.length; i++) {
+        m_genes[i].applyMutation(0, 0.1d);
+      }
+      return m_genes;
+    }
+  }
+
+  /**
+   * Applies a genetic operator to a population.
+   */
+  static class OperatorBenchmark
+      extends Benchmark {
+    private String m_operatorName;
+
+    private GeneticOperator m_operator;
+
+    private Population m_pop;
+
+    private List m_candidates;
+
+    public OperatorBenchmark(String a_operator) {
+      super("operator");
+      param("operator", a_operator);
+      m_operatorName = a_operator;
+    }
+
+    public void setUp()
+        throws Exception {
+      Configuration conf = createConfiguration("IntegerGene", CHROMOSOME_SIZE);
+      if ("crossover".equals(m_operatorName)) {
+        m_operator = new CrossoverOperator(conf);
+      }
+      else {
+        m_operator = new MutationOperator(conf, 10);
+      }
+      m_pop = createPopulation(conf, POPULATION_SIZE);
+      m_candidates = new ArrayList(POPULATION_SIZE * 2);
+    }
+
+    public Object operate() {
+      m_candidates.clear();
+      m_candidates.addAll(m_pop.getChromosomes());
+      m_operator.operate(m_pop, m_candidates);
+      return m_candidates;
+    }
+  }
+
+  /**
+   * Selects half of a population with a natural selector.
+   */
+  static class SelectorBenchmark
+      extends Benchmark {
+    private String m_selectorName;
+
+    private INaturalSelector m_selector;
+
+    private Configuration m_conf;
+
+    private Population m_pop;
+
+    public SelectorBenchmark(String a_selector) {
+      super("select");
+      param("selector", a_selector);
+      m_selectorName = a_selector;
+    }
+
+    public void setUp()
+        throws Exception {
+      m_conf = createConfiguration("IntegerGene", CHROMOSOME_SIZE);
+      if ("WeightedRouletteSelector".equals(m_selectorName)) {
+        m_selector = new WeightedRouletteSelector(m_conf);
+      }
+      else if ("BestChromosomesSelector".equals(m_selectorName)) {
+        m_selector = new BestChromosomesSelector(m_conf);
+      }
+      else {
+        m_selector = new org.jgap.impl.TournamentSelector(m_conf, 3, 0.8d);
+      }
+      m_pop = createPopulation(m_conf, POPULATION_SIZE);
+      for (int i = 0; i < POPULATION_SIZE; i++) {
+        m_pop.getChromosome(i).getFitnessValue();
+      }
+    }
+
+    public Object operate()
+        throws Exception {
+      Population toPop = new Population(m_conf, POPULATION_SIZE / 2);
+      m_selector.select(POPULATION_SIZE / 2, m_pop, toPop);
+      m_selector.empty();
+      return toPop;
+    }
+  }
+
+  /**
+   * Base class for benchmarks of symbolic regression problems.
+   */
+  abstract static class GPBenchmark
+      extends Benchmark {
+    private File m_problem;
+
+    protected GPGenotype m_genotype;
+
+    public GPBenchmark(String a_name, File a_problem) {
+      super(a_name);
+      param("problem", a_problem.getName());
+      m_problem = a_problem;
+    }
+
+    public void setUp()
+        throws Exception {
+      if (!m_problem.isFile()) {
+        throw new FileNotFoundException("Problem not found: " + m_problem
+                                        + ", use option -d to specify the"
+                                        + " directory");
+      }
+      // The problem is described by static fields of SymbolicRegression.
+      // Reset those not necessarily contained in each file.
+      // ----------------------------------------------------------------
+      SymbolicRegression.constants.clear();
+      SymbolicRegression.outputVariable = null;
+      SymbolicRegression.variableNames = null;
+      SymbolicRegression.readFile(m_problem.getPath());
+      SymbolicRegression.verboseOutput = false;
+      SymbolicRegression.bumpPerfect = false;
+      if (SymbolicRegression.outputVariable == null) {
+        SymbolicRegression.outputVariable = SymbolicRegression.
+            numInputVariables;
+      }
+      if (SymbolicRegression.variableNames == null) {
+        int count = SymbolicRegression.numInputVariables + 1;
+        SymbolicRegression.variableNames = new String[count];
+        for (int i = 0; i < count; i++) {
+          SymbolicRegression.variableNames[i] = "V" + i;
+        }
+      }
+      Configuration.reset();
+      GPConfiguration conf = SymbolicRegression.createConfiguration();
+      m_genotype = new SymbolicRegression(conf).create();
+      m_genotype.setVerboseOutput(false);
+    }
+  }
+
+  /**
+   * Evaluates the programs of a population with the GP interpreter.
+   */
+  static class GPExecuteBenchmark
+      extends GPBenchmark {
+    private SymbolicRegression.FormulaFitnessFunction m_fitness;
+
+    private IGPProgram[] m_programs;
+
+    private int m_index;
+
+    public GPExecuteBenchmark(File a_problem) {
+      super("gpExecute", a_problem);
+    }
+
+    public void setUp()
+        throws Exception {
+      super.setUp();
+      m_fitness = new SymbolicRegression.FormulaFitnessFunction();
+      m_programs = m_genotype.getGPPopulation().getGPPrograms();
+    }
+
+    public Object operate() {
+      IGPProgram program = m_programs[m_index];
+      m_index = (m_index + 1) % m_programs.length;
+      return new Double(m_fitness.computeRawFitness(program));
+    }
+  }
+
+  /**
+   * Evolves a GP population by one generation.
+   */
+  static class GPEvolveBenchmark
+      extends GPBenchmark {
+    public GPEvolveBenchmark(File a_problem) {
+      super("gpEvolve", a_problem);
+    }
+
+    public Object operate() {
+      m_genotype.evolve();
+      m_genotype.calcFitness();
+      return m_genotype;
+    }
+  }
+
+  /**
+   * Evolves a GA population by one generation.
+   */
+  static class GenerationBenchmark
+      extends Benchmark {
+    private int m_size;
+
+    private Genotype m_genotype;
+
+    public GenerationBenchmark(int a_size) {
+      super("generation");
+      param("populationSize", new Integer(a_size));
+      m_size = a_size;
+    }
+
+    public void setUp()
+        throws Exception {
+      Configuration conf = createConfiguration("IntegerGene", 20);
+      conf.setPopulationSize(m_size);
+      m_genotype = Genotype.randomInitialGenotype(conf);
+    }
+
+    public Object operate() {
+      m_genotype.evolve();
+      return m_genotype;
+    }
+  }
+
+  /**
+   * Sum of the integer alleles, cheap to compute so that the breeder
+   * dominates the measurement.
+   */
+  static class SumFitnessFunction
+      extends FitnessFunction {
+    protected double evaluate(IChromosome a_subject) {
+      double sum = 1;
+      for (int i = 0; i < a_subject.size(); i++) {
+        Object allele = a_subject.getGene(i).getAllele();
+        if (allele instanceof Integer) {
+          sum += ( (Integer) allele).intValue();
+        }
+      }
+      return sum;
+    }
+  }
+
+  /**
+   * Starts the benchmarks.
+   *
+   * @param args see class description
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static void main(String[] args)
+      throws Exception {
+    String output = null;
+    String problemDir = "examples/src/examples/gp/symbolicRegression";
+    String filter = ".*";
+    int warmup = 3;
+    int iterations = 5;
+    long millis = 1000;
+    for (int i = 0; i < args.length; i++) {
+      if ("-o".equals(args[i])) {
+        output = args[++i];
+      }
+      else if ("-d".equals(args[i])) {
+        problemDir = args[++i];
+      }
+      else if ("-w".equals(args[i])) {
+        warmup = Integer.parseInt(args[++i]);
+      }
+      else if ("-i".equals(args[i])) {
+        iterations = Integer.parseInt(args[++i]);
+      }
+      else if ("-t".equals(args[i])) {
+        millis = Long.parseLong(args[++i]);
+      }
+      else {
+        filter = args[i];
+      }
+    }
+    List<Benchmark> benchmarks = new Vector<Benchmark>();
+    for (Benchmark benchmark : createBenchmarks(problemDir)) {
+      if (benchmark.getLabel().matches(filter)) {
+        benchmarks.add(benchmark);
+      }
+    }
+    BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, millis);
+    List<BenchmarkRunner.Result> results = runner.runAll(benchmarks,
+        System.out);
+    if (output != null) {
+      Writer writer = new FileWriter(output);
+      try {
+        runner.writeJSON(results, writer);
+      } finally {
+        writer.close();
+      }
+      System.out.println("Results written to " + output);
+    }
+    System.exit(0);
+  }
+}
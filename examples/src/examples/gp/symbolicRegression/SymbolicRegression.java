@@ -864,66 +864,16 @@ public class SymbolicRegression
   }
 
   /**
-   * Starts the example.
+   * Creates the configuration from the parameters read (see readFile).
    *
-   * @author Hakan Kjellerstrand
+   * @return the configuration to use for the problem
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
    */
-  public static void main(String[] args)
-      throws Exception {
-    // Use the log4j configuration
-    // Log to stdout instead of file
-    // -----------------------------
-//        org.apache.log4j.PropertyConfigurator.configure("log4j.properties");
-    LOGGER.addAppender(new ConsoleAppender(new SimpleLayout(), "System.out"));
-    //
-    // Read a configuration file, or not...
-    //
-    if (args.length > 0) {
-      String filename = args[0];//e.g. "fahrenheit_celsius.conf"
-      readFile(filename);
-    }
-    else {
-      // Default problem
-      // Fibonacci series, with three input variables to make it
-      // somewhat harder.
-      // -------------------------------------------------------
-      numRows = 21;
-      numInputVariables = 3;
-      // Note: The last array is the output array
-      int[][] indata = { {1, 1, 2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377,
-          610, 987, 1597, 2584, 4181, 6765, 10946}, {1, 2, 3, 5, 8, 13, 21, 34,
-          55, 89, 144, 233, 377, 610, 987, 1597, 2584, 4181, 6765, 10946, 17711},
-          {2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377, 610, 987, 1597, 2584,
-          4181, 6765, 10946, 17711, 28657}, {3, 5, 8, 13, 21, 34, 55, 89, 144,
-          233, 377, 610, 987, 1597, 2584, 4181, 6765, 10946, 17711, 28657,
-          46368}
-      };
-      data = new Double[numInputVariables + 1][numRows];
-      for (int i = 0; i < numInputVariables + 1; i++) {
-        for (int j = 0; j < numRows; j++) {
-          data[i][j] = new Double(indata[i][j]);
-        }
-      }
-      functions = "Multiply,Divide,Add,Subtract".split(",");
-      variableNames = "F1,F2,F3,F4".split(",");
-      presentation = "Fibonacci series";
-    }
-    // Present the problem
-    // -------------------
-    System.out.println("Presentation: " + presentation);
-    if (outputVariable == null) {
-      outputVariable = numInputVariables;
-    }
-    if (variableNames == null) {
-      variableNames = new String[numInputVariables + 1];
-      for (int i = 0; i < numInputVariables + 1; i++) {
-        variableNames[i] = "V" + i;
-      }
-    }
-    System.out.println("output_variable: " + variableNames[outputVariable] +
-                       " (index: " + outputVariable + ")");
-    // Setup the algorithm's parameters.
-    // ---------------------------------
+  public static GPConfiguration createConfiguration()
+      throws InvalidConfigurationException {
     GPConfiguration config = new GPConfiguration();
     // We use a delta fitness evaluator because we compute a defect rate, not
     // a point score!
@@ -984,6 +934,71 @@ public class SymbolicRegression
      * a valid program.
      */
     config.setProgramCreationMaxTries(programCreationMaxTries);
+    return config;
+  }
+
+  /**
+   * Starts the example.
+   *
+   * @author Hakan Kjellerstrand
+   */
+  public static void main(String[] args)
+      throws Exception {
+    // Use the log4j configuration
+    // Log to stdout instead of file
+    // -----------------------------
+//        org.apache.log4j.PropertyConfigurator.configure("log4j.properties");
+    LOGGER.addAppender(new ConsoleAppender(new SimpleLayout(), "System.out"));
+    //
+    // Read a configuration file, or not...
+    //
+    if (args.length > 0) {
+      String filename = args[0];//e.g. "fahrenheit_celsius.conf"
+      readFile(filename);
+    }
+    else {
+      // Default problem
+      // Fibonacci series, with three input variables to make it
+      // somewhat harder.
+      // -------------------------------------------------------
+      numRows = 21;
+      numInputVariables = 3;
+      // Note: The last array is the output array
+      int[][] indata = { {1, 1, 2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377,
+          610, 987, 1597, 2584, 4181, 6765, 10946}, {1, 2, 3, 5, 8, 13, 21, 34,
+          55, 89, 144, 233, 377, 610, 987, 1597, 2584, 4181, 6765, 10946, 17711},
+          {2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377, 610, 987, 1597, 2584,
+          4181, 6765, 10946, 17711, 28657}, {3, 5, 8, 13, 21, 34, 55, 89, 144,
+          233, 377, 610, 987, 1597, 2584, 4181, 6765, 10946, 17711, 28657,
+          46368}
+      };
+      data = new Double[numInputVariables + 1][numRows];
+      for (int i = 0; i < numInputVariables + 1; i++) {
+        for (int j = 0; j < numRows; j++) {
+          data[i][j] = new Double(indata[i][j]);
+        }
+      }
+      functions = "Multiply,Divide,Add,Subtract".split(",");
+      variableNames = "F1,F2,F3,F4".split(",");
+      presentation = "Fibonacci series";
+    }
+    // Present the problem
+    // -------------------
+    System.out.println("Presentation: " + presentation);
+    if (outputVariable == null) {
+      outputVariable = numInputVariables;
+    }
+    if (variableNames == null) {
+      variableNames = new String[numInputVariables + 1];
+      for (int i = 0; i < numInputVariables + 1; i++) {
+        variableNames[i] = "V" + i;
+      }
+    }
+    System.out.println("output_variable: " + variableNames[outputVariable] +
+                       " (index: " + outputVariable + ")");
+    // Setup the algorithm's parameters.
+    // ---------------------------------
+    GPConfiguration config = createConfiguration();
     GPProblem problem = new SymbolicRegression(config);
     // Create the genotype of the problem, i.e., define the GP commands and
     // terminals that can be used, and constrain the structure of the GP
@@ -23,7 +23,8 @@ import org.jgap.util.*;
  * @since 3.0
  */
 public abstract class BaseChromosome
-    implements IChromosome, IInitializer, IPersistentRepresentation, IBusinessKey {
+    implements IChromosome, IInitializer, IPersistentRepresentation, IBusinessKey,
+    IBinaryRepresentation {
   /**
    * This field separates gene class name from the gene persistent representation
    * string. '*' does not work properly with URLEncoder!
@@ -73,6 +74,16 @@ public abstract class BaseChromosome
    */
   private Map<Integer,String> m_uniqueIDTemplates;
 
+  /**
+   * Numeric ID used by the LineageLog, zero if not assigned yet.
+   */
+  private long m_lineageID;
+
+  /**
+   * Loci changed since cloning from the parent, null if unknown.
+   */
+  private transient ChangeSet m_changeSet;
+
   /**
    * The only constructor in this class. Sets the immutable configuration.
    *
@@ -138,6 +149,51 @@ public abstract class BaseChromosome
     return m_uniqueIDTemplates.get(a_index);
   }
 
+  /**
+   * @return ID of the chromosome within a LineageLog, zero if none assigned
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getLineageID() {
+    return m_lineageID;
+  }
+
+  /**
+   * @param a_lineageID ID of the chromosome within a LineageLog, zero for
+   * none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setLineageID(long a_lineageID) {
+    m_lineageID = a_lineageID;
+  }
+
+  /**
+   * @return the loci changed since the chromosome was cloned from its parent,
+   * null if unknown
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public ChangeSet getChangeSet() {
+    return m_changeSet;
+  }
+
+  /**
+   * Sets the loci changed since the chromosome was cloned from its parent.
+   * Used by an IncrementalFitnessFunction.
+   *
+   * @param a_changeSet the changed loci, null if unknown
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setChangeSet(ChangeSet a_changeSet) {
+    m_changeSet = a_changeSet;
+  }
+
   /**
    * @return the configuration used
    *
@@ -264,6 +320,7 @@ public abstract class BaseChromosome
   public void setGenes(Gene[] a_genes)
       throws InvalidConfigurationException {
     m_genes = a_genes;
+    m_changeSet = null;
   }
 
   /**
@@ -283,6 +340,7 @@ public abstract class BaseChromosome
 
   public void setGene(int a_index, Gene a_gene) {
     m_genes[a_index] = a_gene;
+    m_changeSet = null;
   }
 
   /**
@@ -345,13 +403,20 @@ public abstract class BaseChromosome
   }
 
   /**
-   * @return business key of the chromosome
+   * @return business key of the chromosome: the binary representation of its
+   * genes, one character per byte (since 3.7)
    *
    * @author Klaus Meffert
    * @since 3.2
    */
   public String getBusinessKey() {
-    return getGenesPersistentRepresentation().toString();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      writeGenes(new DataOutputStream(bytes));
+      return bytes.toString("ISO-8859-1");
+    } catch (IOException iex) {
+      throw new IllegalStateException(iex.getMessage());
+    }
   }
 
   /**
@@ -437,6 +502,98 @@ public abstract class BaseChromosome
     }
   }
 
+  /**
+   * Writes the fitness value and the genes of the chromosome, see interface
+   * IBinaryRepresentation. Like the persistent representation, this does not
+   * include all information of the chromosome.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeDouble(getFitnessValueDirectly());
+    writeGenes(a_out);
+  }
+
+  /**
+   * Writes the number of genes and each gene with its class name.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeGenes(DataOutput a_out)
+      throws IOException {
+    int size = size();
+    a_out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      BinaryKit.writeTypedGene(getGene(i), a_out);
+    }
+  }
+
+  /**
+   * Counterpart of writeTo. Genes of the chromosome are reused if they are
+   * of the class read.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    setFitnessValueDirectly(a_in.readDouble());
+    int count = a_in.readInt();
+    Gene[] genes = getGenes();
+    if (genes != null && genes.length == count) {
+      for (int i = 0; i < count; i++) {
+        Gene gene = BinaryKit.readTypedGene(getConfiguration(), genes[i],
+            a_in);
+        if (gene != genes[i]) {
+          setGene(i, gene);
+        }
+      }
+    }
+    else {
+      Gene[] newGenes = new Gene[count];
+      for (int i = 0; i < count; i++) {
+        Gene old = genes != null && i < genes.length ? genes[i] : null;
+        newGenes[i] = BinaryKit.readTypedGene(getConfiguration(), old, a_in);
+      }
+      try {
+        setGenes(newGenes);
+      } catch (InvalidConfigurationException iex) {
+        throw new UnsupportedRepresentationException(iex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * @return hash of the genes of the chromosome, the fitness value is not
+   * considered
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getContentHash() {
+    ContentHash hash = new ContentHash();
+    try {
+      writeGenes(hash);
+    } catch (IOException iex) {
+      throw new IllegalStateException(iex.getMessage());
+    }
+    return hash.getValue();
+  }
+
   /**
    * Creates a new Gene instance.<p>
    * Taken from CompositeGene.
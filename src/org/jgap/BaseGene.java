@@ -9,6 +9,7 @@
  */
 package org.jgap;
 
+import java.io.*;
 import java.util.*;
 
 import org.jgap.impl.*;
@@ -21,7 +22,7 @@ import org.jgap.util.*;
  * @since 2.2
  */
 public abstract class BaseGene
-    implements Gene, IBusinessKey {
+    implements Gene, IBusinessKey, IBinaryRepresentation {
   /**
    * Constants for toString()
    */
@@ -165,6 +166,47 @@ public abstract class BaseGene
     return representation;
   }
 
+  /**
+   * Writes the persistent representation of the gene. Override to write the
+   * state directly, as done for the built-in gene types.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    BinaryKit.writeString(getPersistentRepresentation(), a_out);
+  }
+
+  /**
+   * Counterpart of writeTo.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    setValueFromPersistentRepresentation(BinaryKit.readString(a_in));
+  }
+
+  /**
+   * @return hash of the binary representation of the gene
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getContentHash() {
+    return BinaryKit.contentHash(this);
+  }
+
   /**
    * @return the size of the gene, i.e the number of atomic elements. Always 1
    * for non-composed Gene types. Override for composed Gene types
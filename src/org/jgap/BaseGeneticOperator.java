@@ -55,6 +55,63 @@ public abstract class BaseGeneticOperator
     return m_configuration;
   }
 
+  /**
+   * Records the parents of an offspring in the lineage log of the
+   * configuration, if one is set.
+   *
+   * @param a_child the offspring
+   * @param a_parent1 the first parent
+   * @param a_parent2 the second parent, null if none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void recordLineage(IChromosome a_child, IChromosome a_parent1,
+                               IChromosome a_parent2) {
+    LineageLog log = m_configuration.getLineageLog();
+    if (log != null) {
+      log.record(a_child, a_parent1, a_parent2, this,
+                 m_configuration.getGenerationNr());
+    }
+  }
+
+  /**
+   * @return true: changed loci of offspring are recorded, as an
+   * IncrementalFitnessFunction is configured
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected boolean isRecordingChanges() {
+    return m_configuration.getFitnessFunction()
+        instanceof IncrementalFitnessFunction;
+  }
+
+  /**
+   * Records a changed locus of an offspring cloned from the given parent, if
+   * an IncrementalFitnessFunction is configured. Otherwise nothing is done.
+   *
+   * @param a_child the offspring
+   * @param a_parent the chromosome the offspring was cloned from
+   * @param a_locus index of the changed gene
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void recordChange(IChromosome a_child, IChromosome a_parent,
+                              int a_locus) {
+    if (! (a_child instanceof BaseChromosome) || !isRecordingChanges()) {
+      return;
+    }
+    BaseChromosome child = (BaseChromosome) a_child;
+    ChangeSet changes = child.getChangeSet();
+    if (changes == null) {
+      changes = new ChangeSet(a_parent);
+      child.setChangeSet(changes);
+    }
+    changes.add(a_locus);
+  }
+
   /**
    * Compares this GeneticOperator against the specified object. The result is
    * true if the argument is an instance of this class and is equal with respect
@@ -119,6 +119,7 @@ public abstract class BreederBase
     List geneticOperators = a_config.getGeneticOperators();
     Iterator operatorIterator = geneticOperators.iterator();
     boolean monitorActive = a_config.getMonitor() != null;
+    IEvolutionMetrics metrics = a_config.getEvolutionMetrics();
     while (operatorIterator.hasNext()) {
       GeneticOperator operator = (GeneticOperator) operatorIterator.next();
       /**@todo utilize jobs: integrate job into GeneticOperator*/
@@ -135,7 +136,16 @@ public abstract class BreederBase
             a_config.getGenerationNr(),
             new Object[] {operator, a_pop, a_pop.getChromosomes()});
       }
-      operator.operate(a_pop, a_pop.getChromosomes());
+      if (metrics != null) {
+        long start = System.nanoTime();
+        operator.operate(a_pop, a_pop.getChromosomes());
+        metrics.addTime(IEvolutionMetrics.PHASE_OPERATOR
+                        + operator.getClass().getName(),
+                        System.nanoTime() - start);
+      }
+      else {
+        operator.operate(a_pop, a_pop.getChromosomes());
+      }
       if (monitorActive) {
         // Monitor that operator has been performed.
         // -----------------------------------------
@@ -11,6 +11,7 @@ package org.jgap;
 
 import java.util.*;
 import gnu.trove.*;
+import org.jgap.audit.*;
 
 /**
  * The cached fitness function extends the original FitnessFunction
@@ -76,11 +77,20 @@ public abstract class CachedFitnessFunction
     // Evaluate cache.
     // ---------------
     Double fitnessValue = cachedFitnessValues.get(businessKey);
+    Configuration conf = a_subject.getConfiguration();
+    IEvolutionMetrics metrics = conf == null ? null
+        : conf.getEvolutionMetrics();
     if (fitnessValue != null) {
+      if (metrics != null) {
+        metrics.addCount(IEvolutionMetrics.COUNT_CACHE_HITS, 1);
+      }
       // Return cached result.
       // ---------------------
       return fitnessValue.doubleValue();
     }
+    if (metrics != null) {
+      metrics.addCount(IEvolutionMetrics.COUNT_CACHE_MISSES, 1);
+    }
     // Compute fitness value for the first time.
     // -----------------------------------------
     double returnValue = super.getFitnessValue(a_subject);
@@ -0,0 +1,143 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.util.*;
+
+/**
+ * Records which loci of an offspring differ from its parent after a small
+ * genetic change (e.g. a mutation of a few genes or a swap of two genes).
+ * Genetic operators attach a change set to the offspring, an
+ * IncrementalFitnessFunction uses it to compute the fitness of the offspring
+ * from the fitness of the parent.
+ * <p>
+ * The change set is only valid as long as the genes of the parent are not
+ * modified. Besides the parent, its fitness value at the time of recording is
+ * kept. If the fitness value of the parent changed in between, the change set
+ * is ignored and the offspring is evaluated fully.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ChangeSet {
+  private IChromosome m_parent;
+
+  private double m_parentFitness;
+
+  private int[] m_loci;
+
+  private int m_size;
+
+  /**
+   * The loci contained, to check for duplicates in constant time.
+   */
+  private BitSet m_contained;
+
+  /**
+   * @param a_parent the chromosome the offspring was cloned from
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public ChangeSet(IChromosome a_parent) {
+    m_parent = a_parent;
+    m_parentFitness = a_parent.getFitnessValueDirectly();
+    m_loci = new int[4];
+    m_contained = new BitSet(a_parent.size());
+  }
+
+  /**
+   * Marks a locus as changed. Adding the same locus twice has no effect.
+   *
+   * @param a_locus index of the changed gene
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void add(int a_locus) {
+    if (m_contained.get(a_locus)) {
+      return;
+    }
+    m_contained.set(a_locus);
+    if (m_size == m_loci.length) {
+      int[] loci = new int[m_size * 2];
+      System.arraycopy(m_loci, 0, loci, 0, m_size);
+      m_loci = loci;
+    }
+    m_loci[m_size++] = a_locus;
+  }
+
+  /**
+   * @param a_locus index of a gene
+   * @return true: the gene at the given locus was changed
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean contains(int a_locus) {
+    return m_contained.get(a_locus);
+  }
+
+  /**
+   * @return number of changed loci
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int size() {
+    return m_size;
+  }
+
+  /**
+   * @return the changed loci in ascending order
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int[] getLoci() {
+    int[] loci = new int[m_size];
+    System.arraycopy(m_loci, 0, loci, 0, m_size);
+    Arrays.sort(loci);
+    return loci;
+  }
+
+  /**
+   * @return the chromosome the offspring was cloned from
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IChromosome getParent() {
+    return m_parent;
+  }
+
+  /**
+   * @return fitness value of the parent at the time the change set was
+   * created
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getParentFitness() {
+    return m_parentFitness;
+  }
+
+  /**
+   * @return true: the fitness value of the parent is known and has not changed
+   * since the change set was created
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isParentFitnessValid() {
+    return m_parentFitness >= 0
+        && m_parent.getFitnessValueDirectly() == m_parentFitness;
+  }
+}
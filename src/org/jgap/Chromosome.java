@@ -47,6 +47,7 @@ package org.jgap;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Chromosomes represent potential solutions and consist of a fixed-length
@@ -64,6 +65,19 @@ import java.util.*;
  */
 public class Chromosome
     extends BaseChromosome {
+  /**
+   * Constructors of sub classes used for cloning, per class.
+   *
+   * @since 3.7
+   */
+  private final static Map<Class, Object> CLONE_CONSTRUCTORS =
+      new ConcurrentHashMap<Class, Object>();
+
+  /**
+   * Cache entry for sub classes without appropriate constructor.
+   */
+  private final static Object NO_CONSTRUCTOR = new Object();
+
   /**
    * Application-specific data that is attached to this Chromosome.
    * This data may assist the application in evaluating this Chromosome
@@ -82,6 +96,14 @@ public class Chromosome
    */
   private List m_multiObjective;
 
+  /**
+   * Objective values as primitive vector, used by multi-objective
+   * optimization (see NSGA2Selector).
+   *
+   * @since 3.7
+   */
+  private double[] m_objectives;
+
   /**
    * Keeps track of whether or not this Chromosome has been selected by
    * the natural selector to move on to the next generation.
@@ -346,9 +368,17 @@ public class Chromosome
     if (pool != null) {
       copy = pool.acquireChromosome();
       if (copy != null) {
-        Gene[] genes = copy.getGenes();
-        for (int i = 0; i < size(); i++) {
-          genes[i].setAllele(getGene(i).getAllele());
+        if (isRecyclableAs(copy)) {
+          Gene[] genes = copy.getGenes();
+          for (int i = 0; i < size(); i++) {
+            genes[i].setAllele(cloneAllele(getGene(i).getAllele()));
+          }
+        }
+        else {
+          // The pooled chromosome has another structure, e.g. it stems from
+          // another kind of population. Create a new one instead.
+          // ----------------------------------------------------------------
+          copy = null;
         }
       }
     }
@@ -364,25 +394,7 @@ public class Chromosome
           Gene[] copyOfGenes = new Gene[size];
           for (int i = 0; i < size; i++) {
             copyOfGenes[i] = getGene(i).newGene();
-            Object allele = getGene(i).getAllele();
-            if (allele != null) {
-              IJGAPFactory factory = getConfiguration().getJGAPFactory();
-              if (factory != null) {
-                ICloneHandler cloner = factory.
-                    getCloneHandlerFor(allele, allele.getClass());
-                if (cloner != null) {
-                  try {
-                    allele = cloner.perform(allele, null, this);
-                  } catch (Exception ex) {
-                    throw new RuntimeException(ex);
-                  }
-                }
-                else {
-                  /**@todo once output a warning: allele should be cloneable!*/
-                }
-              }
-            }
-            copyOfGenes[i].setAllele(allele);
+            copyOfGenes[i].setAllele(cloneAllele(getGene(i).getAllele()));
           }
           // Now construct a new Chromosome with the copies of the genes and
           // return it. Also clone the IApplicationData object later on.
@@ -395,18 +407,11 @@ public class Chromosome
               // Try dynamic call of constructor. Attention: This may not
               // work for inner classes!
               // --------------------------------------------------------
-              Constructor[] constr = getClass().getDeclaredConstructors();
+              Constructor constr = getCloneConstructor(getClass());
               if (constr != null) {
-                for (int i = 0; i < constr.length; i++) {
-                  Class[] params = constr[i].getParameterTypes();
-                  if (params != null && params.length == 1) {
-                    if (params[0] == Configuration.class) {
-                      copy = (IChromosome) constr[i].newInstance(new Object[] {
-                          getConfiguration()});
-                      copy.setGenes(copyOfGenes);
-                    }
-                  }
-                }
+                copy = (IChromosome) constr.newInstance(new Object[] {
+                    getConfiguration()});
+                copy.setGenes(copyOfGenes);
               }
               if (copy == null) {
                 // Enforce alternative cloning to get at least something.
@@ -446,6 +451,12 @@ public class Chromosome
     } catch (Exception ex) {
       throw new IllegalStateException(ex.getMessage());
     }
+    // Objective vectors are not modified once set, so the copy may share
+    // the values. A recycled copy must not keep values of its former use.
+    // -------------------------------------------------------------------
+    if (copy instanceof Chromosome) {
+      ( (Chromosome) copy).m_objectives = m_objectives;
+    }
     // Clone multi-objective object if necessary and possible.
     // -------------------------------------------------------
     if (m_multiObjective != null) {
@@ -461,6 +472,90 @@ public class Chromosome
     return copy;
   }
 
+  /**
+   * Determines the constructor of a sub class taking only the configuration
+   * as parameter. The result is cached per class, so that cloning does not
+   * need any reflective lookups after the first time.
+   *
+   * @param a_class the chromosome class
+   * @return the constructor, or null if there is none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private static Constructor getCloneConstructor(Class a_class) {
+    Object constr = CLONE_CONSTRUCTORS.get(a_class);
+    if (constr == null) {
+      constr = NO_CONSTRUCTOR;
+      Constructor[] constrs = a_class.getDeclaredConstructors();
+      for (int i = 0; i < constrs.length; i++) {
+        Class[] params = constrs[i].getParameterTypes();
+        if (params.length == 1 && params[0] == Configuration.class) {
+          constr = constrs[i];
+        }
+      }
+      CLONE_CONSTRUCTORS.put(a_class, constr);
+    }
+    if (constr == NO_CONSTRUCTOR) {
+      return null;
+    }
+    return (Constructor) constr;
+  }
+
+  /**
+   * Clones an allele by using the clone handler registered for it.
+   *
+   * @param a_allele the allele to clone, may be null
+   * @return the cloned allele, or the allele itself if no clone handler exists
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private Object cloneAllele(Object a_allele) {
+    if (a_allele != null) {
+      IJGAPFactory factory = getConfiguration().getJGAPFactory();
+      if (factory != null) {
+        ICloneHandler cloner = factory.
+            getCloneHandlerFor(a_allele, a_allele.getClass());
+        if (cloner != null) {
+          try {
+            return cloner.perform(a_allele, null, this);
+          } catch (Exception ex) {
+            throw new RuntimeException(ex);
+          }
+        }
+        else {
+          /**@todo once output a warning: allele should be cloneable!*/
+        }
+      }
+    }
+    return a_allele;
+  }
+
+  /**
+   * Checks if a chromosome acquired from the chromosome pool can take over
+   * the alleles of this chromosome, i.e. if it is of the same class and
+   * contains genes of the same classes.
+   *
+   * @param a_pooled the chromosome acquired from the pool
+   * @return true: the pooled chromosome can be used as a copy of this one
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private boolean isRecyclableAs(IChromosome a_pooled) {
+    if (a_pooled.getClass() != getClass() || a_pooled.size() != size()) {
+      return false;
+    }
+    int size = size();
+    for (int i = 0; i < size; i++) {
+      if (a_pooled.getGene(i).getClass() != getGene(i).getClass()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Clones an object by using clone handlers. If no deep cloning possible, then
    * return the reference.
@@ -933,6 +1028,12 @@ public class Chromosome
     m_fitnessValue = getConfiguration().getFitnessFunction().
         NO_FITNESS_VALUE;
     m_isSelectedForNextGeneration = false;
+    m_multiObjective = null;
+    m_objectives = null;
+    setChangeSet(null);
+    resetAge();
+    resetOperatedOn();
+    setLineageID(0);
     // Next we want to try to release this Chromosome to a ChromosomePool
     // if one has been setup so that we can save a little time and memory
     // next time a Chromosome is needed.
@@ -1118,4 +1219,28 @@ public class Chromosome
   public List getMultiObjectives() {
     return m_multiObjective;
   }
+
+  /**
+   * Sets the objective values for multi-objective optimization. The array
+   * must not be modified afterwards, as clones share it.
+   *
+   * @param a_objectives the objective values, null for none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setObjectives(double[] a_objectives) {
+    m_objectives = a_objectives;
+  }
+
+  /**
+   * @return the objective values for multi-objective optimization, null if
+   * not evaluated yet
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double[] getObjectives() {
+    return m_objectives;
+  }
 }
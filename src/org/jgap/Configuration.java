@@ -336,6 +336,22 @@ public class Configuration
    */
   private IEvolutionMonitor m_monitor;
 
+  /**
+   * Optional collector of timings and counters, null for none.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private transient IEvolutionMetrics m_metrics;
+
+  /**
+   * Optional log of the lineage of chromosomes, null for none.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private transient LineageLog m_lineageLog;
+
   public Configuration() {
     this("", null);
   }
@@ -1304,6 +1320,19 @@ public class Configuration
     return m_generationNr;
   }
 
+  /**
+   * Sets the number of the current generation, e.g. when resuming an
+   * evolution from a checkpoint.
+   *
+   * @param a_generationNr the generation number
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setGenerationNr(int a_generationNr) {
+    m_generationNr = a_generationNr;
+  }
+
   /**
    * Implementation of the Configurable interface.
    * @return ConfigurationHandler
@@ -1889,6 +1918,52 @@ public class Configuration
     return m_monitor;
   }
 
+  /**
+   * Sets the collector of per-phase timings and counters of the evolution.
+   * Contrary to a monitor, no populations are recorded.
+   *
+   * @param a_metrics the metrics to use, null to disable measuring
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setEvolutionMetrics(IEvolutionMetrics a_metrics) {
+    m_metrics = a_metrics;
+  }
+
+  /**
+   * @return collector of timings and counters, null if none set
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IEvolutionMetrics getEvolutionMetrics() {
+    return m_metrics;
+  }
+
+  /**
+   * Sets the log genetic operators record the parents of each offspring in.
+   * Other than a monitor, it does not require unique keys to be active.
+   *
+   * @param a_log the log to use, null to disable lineage tracking
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setLineageLog(LineageLog a_log) {
+    m_lineageLog = a_log;
+  }
+
+  /**
+   * @return log of the lineage of chromosomes, null if none set
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public LineageLog getLineageLog() {
+    return m_lineageLog;
+  }
+
   /**
    * @param a_active true: use unique keys to allow tracking and monitoring
    *
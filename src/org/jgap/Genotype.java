@@ -688,6 +688,35 @@ public class Genotype
     setPopulation(target);
   }
 
+  /**
+   * Evolves the population once by splitting it into pieces, evolving the
+   * pieces in parallel with the given executor, and merging the results.
+   * Completion of the pieces is signalled by the executor, thus there is no
+   * polling involved.
+   *
+   * @param a_splitter splits the population
+   * @param a_merger merges the results
+   * @param a_executor executes the evolve jobs
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void evolve(IPopulationSplitter a_splitter, IPopulationMerger a_merger,
+                     JobExecutor a_executor)
+      throws Exception {
+    List<IEvolveJob> evolves = getEvolves(a_splitter);
+    for (IEvolveJob evolve : evolves) {
+      a_executor.submit(evolve);
+    }
+    List<JobResult> results = a_executor.waitForAll();
+    EvolveResult[] evolveResults = new EvolveResult[results.size()];
+    for (int i = 0; i < evolveResults.length; i++) {
+      evolveResults[i] = (EvolveResult) results.get(i);
+    }
+    mergeResults(a_merger, evolveResults);
+  }
+
   /**
    * Use an evolution monitor, only to be used when running Genotype as a thread.
    * Otherwise use method evolve(IEvolutionMonitor)
@@ -0,0 +1,608 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.apache.log4j.*;
+import org.jgap.util.*;
+
+/**
+ * Binary checkpoint of a running evolution: the population of a genotype
+ * (genes, fitness values, age) together with the generation number and the
+ * state of the random generator. An evolution resumed from a checkpoint
+ * continues exactly as the original one, provided the random generator is
+ * serializable (e.g. StockRandomGenerator). Generators based on
+ * java.util.Random are reseeded by save() for that purpose.
+ * <p>
+ * Checkpoints are appended to a single file. The first checkpoint (and every
+ * n-th one, see setFullInterval) holds the whole population, the others only
+ * the chromosomes changed since the previous checkpoint. Unchanged
+ * chromosomes are referred to by their position in the previous
+ * checkpoint. Each record carries a checksum, incomplete records at the end
+ * of the file (e.g. after a crash) are discarded.
+ * <p>
+ * Application data and multi-objective values of chromosomes are not
+ * saved. Chromosomes are restored as instances of Chromosome.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GenotypeCheckpoint {
+  /**
+   * Magic number at the beginning of a checkpoint file ("JGCP").
+   */
+  public final static int MAGIC = 0x4A474350;
+
+  public final static int VERSION = 1;
+
+  private final static int HEADER_SIZE = 5;
+
+  private final static int TYPE_FULL = 1;
+
+  private final static int TYPE_DELTA = 2;
+
+  private final static int SLOT_NEW = 1;
+
+  private final static int SLOT_UNCHANGED = 2;
+
+  private transient Logger log = Logger.getLogger(getClass());
+
+  private File m_file;
+
+  private int m_fullInterval;
+
+  private boolean m_memoryMapped;
+
+  private boolean m_sync;
+
+  /**
+   * Number of checkpoints in the file, zero if a full checkpoint must be
+   * written next.
+   */
+  private int m_records;
+
+  private long m_length;
+
+  /**
+   * Encoded chromosomes of the latest checkpoint, by position.
+   */
+  private List<ByteBuffer> m_chromosomes;
+
+  /**
+   * Positions of the chromosomes of the latest checkpoint, by content.
+   */
+  private Map<ByteBuffer, Integer> m_positions;
+
+  private List<String> m_classes;
+
+  private Map<String, Integer> m_classIndices;
+
+  private int m_generationNr;
+
+  /**
+   * Random generator of the checkpoint restored, only held until set in the
+   * configuration.
+   */
+  private RandomGenerator m_restoredRandom;
+
+  /**
+   * @param a_file the file to write checkpoints to and restore them from
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GenotypeCheckpoint(File a_file) {
+    m_file = a_file;
+    m_fullInterval = 20;
+    m_chromosomes = new ArrayList<ByteBuffer>();
+    m_positions = new HashMap<ByteBuffer, Integer>();
+    m_classes = new ArrayList<String>();
+    m_classIndices = new HashMap<String, Integer>();
+  }
+
+  /**
+   * @param a_interval a full checkpoint is written after this many
+   * checkpoints, older ones are discarded then. 1 writes full checkpoints
+   * only
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setFullInterval(int a_interval) {
+    if (a_interval < 1) {
+      throw new IllegalArgumentException("Interval must be positive!");
+    }
+    m_fullInterval = a_interval;
+  }
+
+  public int getFullInterval() {
+    return m_fullInterval;
+  }
+
+  /**
+   * @param a_memoryMapped true: incremental checkpoints are written via a
+   * memory-mapped buffer. Full checkpoints always use a regular write as they
+   * replace the file, which some platforms do not allow as long as a mapping
+   * exists
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMemoryMapped(boolean a_memoryMapped) {
+    m_memoryMapped = a_memoryMapped;
+  }
+
+  public boolean isMemoryMapped() {
+    return m_memoryMapped;
+  }
+
+  /**
+   * @param a_sync true: each checkpoint is forced to the disk before save()
+   * returns
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setSync(boolean a_sync) {
+    m_sync = a_sync;
+  }
+
+  public File getFile() {
+    return m_file;
+  }
+
+  /**
+   * @return number of checkpoints in the file since the last full one,
+   * including that
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getRecordCount() {
+    return m_records;
+  }
+
+  /**
+   * @return generation number of the checkpoint saved or restored last
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getGenerationNr() {
+    return m_generationNr;
+  }
+
+  /**
+   * Saves a checkpoint of the genotype and the run state of its
+   * configuration.
+   *
+   * @param a_genotype the genotype to save
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void save(Genotype a_genotype)
+      throws IOException {
+    Configuration conf = a_genotype.getConfiguration();
+    boolean full = m_records == 0 || m_records >= m_fullInterval
+        || !m_file.exists();
+    if (full) {
+      m_classes.clear();
+      m_classIndices.clear();
+    }
+    int classesKnown = m_classes.size();
+    Population pop = a_genotype.getPopulation();
+    int size = pop.size();
+    List<ByteBuffer> chromosomes = new ArrayList<ByteBuffer>(size);
+    ByteArrayOutputStream slots = new ByteArrayOutputStream();
+    DataOutputStream slotsOut = new DataOutputStream(slots);
+    for (int i = 0; i < size; i++) {
+      ByteBuffer chrom = ByteBuffer.wrap(encode(pop.getChromosome(i)));
+      chromosomes.add(chrom);
+      Integer pos = full ? null : m_positions.get(chrom);
+      if (pos != null) {
+        slotsOut.writeByte(SLOT_UNCHANGED);
+        slotsOut.writeInt(pos.intValue());
+      }
+      else {
+        slotsOut.writeByte(SLOT_NEW);
+        slotsOut.writeInt(chrom.capacity());
+        slotsOut.write(chrom.array());
+      }
+    }
+    slotsOut.flush();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(bytes);
+    data.writeByte(full ? TYPE_FULL : TYPE_DELTA);
+    data.writeInt(conf.getGenerationNr());
+    writeRandomGenerator(conf.getRandomGenerator(), data);
+    // Gene classes introduced by this checkpoint.
+    // -------------------------------------------
+    data.writeInt(m_classes.size() - classesKnown);
+    for (int i = classesKnown; i < m_classes.size(); i++) {
+      data.writeUTF(m_classes.get(i));
+    }
+    data.writeInt(size);
+    slots.writeTo(data);
+    data.flush();
+    byte[] record = toRecord(bytes.toByteArray());
+    if (full) {
+      writeFull(record);
+    }
+    else {
+      append(record);
+    }
+    m_records++;
+    m_generationNr = conf.getGenerationNr();
+    setChromosomes(chromosomes);
+  }
+
+  /**
+   * Restores the latest checkpoint. The random generator is set in the given
+   * configuration, which therefore must not be locked yet, i.e. no genotype
+   * must have been created with it.
+   *
+   * @param a_conf the configuration of the evolution to resume
+   * @return the restored genotype, or null if there is no checkpoint
+   *
+   * @throws IOException
+   * @throws InvalidConfigurationException
+   * @throws UnsupportedRepresentationException if a gene could not be
+   * restored
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized Genotype restore(Configuration a_conf)
+      throws IOException, InvalidConfigurationException,
+      UnsupportedRepresentationException {
+    if (!m_file.exists() || !replay()) {
+      return null;
+    }
+    if (m_restoredRandom != null) {
+      a_conf.setRandomGenerator(m_restoredRandom);
+      m_restoredRandom = null;
+    }
+    a_conf.setGenerationNr(m_generationNr);
+    GeneFactory factory = new GeneFactory(a_conf);
+    Population pop = new Population(a_conf, Math.max(1, m_chromosomes.size()));
+    for (ByteBuffer chrom : m_chromosomes) {
+      pop.addChromosome(decode(a_conf, chrom.array(), factory));
+    }
+    return new Genotype(a_conf, pop);
+  }
+
+  /**
+   * Reads all checkpoints of the file and truncates incomplete data at its
+   * end.
+   *
+   * @return true: at least one checkpoint found
+   */
+  private boolean replay()
+      throws IOException {
+    m_records = 0;
+    m_classes.clear();
+    m_classIndices.clear();
+    m_restoredRandom = null;
+    List<ByteBuffer> chromosomes = new ArrayList<ByteBuffer>();
+    long valid = HEADER_SIZE;
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new
+        FileInputStream(m_file)));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new StreamCorruptedException("Not a checkpoint: " + m_file);
+      }
+      int version = in.readUnsignedByte();
+      if (version > VERSION) {
+        throw new IOException("Unsupported version of checkpoint: "
+                              + version);
+      }
+      while (true) {
+        byte[] record;
+        int checksum;
+        try {
+          int len = in.readInt();
+          checksum = in.readInt();
+          if (len < 0 || len > m_file.length()) {
+            break;
+          }
+          record = new byte[len];
+          in.readFully(record);
+        } catch (EOFException eex) {
+          break;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if ( (int) crc.getValue() != checksum) {
+          break;
+        }
+        chromosomes = apply(record, chromosomes);
+        m_records++;
+        valid += 8 + record.length;
+      }
+    } catch (EOFException eex) {
+      // Header incomplete.
+      // ------------------
+      valid = 0;
+    } finally {
+      in.close();
+    }
+    if (m_records == 0) {
+      m_file.delete();
+      m_length = 0;
+      return false;
+    }
+    if (valid < m_file.length()) {
+      log.warn("Discarding " + (m_file.length() - valid)
+               + " bytes of incomplete data at end of checkpoint " + m_file);
+      RandomAccessFile raf = new RandomAccessFile(m_file, "rw");
+      try {
+        raf.setLength(valid);
+      } finally {
+        raf.close();
+      }
+    }
+    m_length = valid;
+    setChromosomes(chromosomes);
+    return true;
+  }
+
+  private List<ByteBuffer> apply(byte[] a_record, List<ByteBuffer> a_previous)
+      throws IOException {
+    DataInputStream data = new DataInputStream(new ByteArrayInputStream(
+        a_record));
+    int type = data.readUnsignedByte();
+    if (type == TYPE_FULL) {
+      m_classes.clear();
+      m_classIndices.clear();
+    }
+    m_generationNr = data.readInt();
+    m_restoredRandom = readRandomGenerator(data);
+    int classes = data.readInt();
+    for (int i = 0; i < classes; i++) {
+      addClass(data.readUTF());
+    }
+    int size = data.readInt();
+    List<ByteBuffer> chromosomes = new ArrayList<ByteBuffer>(size);
+    for (int i = 0; i < size; i++) {
+      int slot = data.readUnsignedByte();
+      if (slot == SLOT_UNCHANGED) {
+        chromosomes.add(a_previous.get(data.readInt()));
+      }
+      else {
+        byte[] chrom = new byte[data.readInt()];
+        data.readFully(chrom);
+        chromosomes.add(ByteBuffer.wrap(chrom));
+      }
+    }
+    return chromosomes;
+  }
+
+  private void setChromosomes(List<ByteBuffer> a_chromosomes) {
+    m_chromosomes = a_chromosomes;
+    m_positions.clear();
+    for (int i = a_chromosomes.size() - 1; i >= 0; i--) {
+      m_positions.put(a_chromosomes.get(i), new Integer(i));
+    }
+  }
+
+  /**
+   * Record layout: length of data, CRC32 of data, data.
+   */
+  private byte[] toRecord(byte[] a_data) {
+    CRC32 crc = new CRC32();
+    crc.update(a_data);
+    ByteBuffer record = ByteBuffer.allocate(8 + a_data.length);
+    record.putInt(a_data.length);
+    record.putInt( (int) crc.getValue());
+    record.put(a_data);
+    return record.array();
+  }
+
+  private void writeFull(byte[] a_record)
+      throws IOException {
+    File tmp = new File(m_file.getPath() + ".tmp");
+    FileOutputStream fos = new FileOutputStream(tmp);
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          fos));
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.write(a_record);
+      out.flush();
+      if (m_sync) {
+        fos.getFD().sync();
+      }
+    } finally {
+      fos.close();
+    }
+    if (m_file.exists() && !m_file.delete() || !tmp.renameTo(m_file)) {
+      throw new IOException("Could not replace checkpoint " + m_file);
+    }
+    m_records = 0;
+    m_length = HEADER_SIZE + a_record.length;
+  }
+
+  private void append(byte[] a_record)
+      throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(m_file, "rw");
+    try {
+      FileChannel channel = raf.getChannel();
+      if (m_memoryMapped) {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE,
+                                           m_length, a_record.length);
+        buf.put(a_record);
+        if (m_sync) {
+          buf.force();
+        }
+      }
+      else {
+        ByteBuffer buf = ByteBuffer.wrap(a_record);
+        long pos = m_length;
+        while (buf.hasRemaining()) {
+          pos += channel.write(buf, pos);
+        }
+        if (m_sync) {
+          channel.force(false);
+        }
+      }
+    } finally {
+      raf.close();
+    }
+    m_length += a_record.length;
+  }
+
+  /**
+   * Random generators based on java.util.Random reseed themselves when
+   * deserialized. Therefore they are reseeded with a number drawn from them,
+   * which is saved along with them.
+   */
+  private void writeRandomGenerator(RandomGenerator a_random,
+                                    DataOutputStream a_out)
+      throws IOException {
+    if (! (a_random instanceof Serializable)) {
+      a_out.writeInt( -1);
+      return;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bytes);
+    oos.writeObject(a_random);
+    oos.close();
+    a_out.writeInt(bytes.size());
+    bytes.writeTo(a_out);
+    if (a_random instanceof Random) {
+      long seed = a_random.nextLong();
+      ( (Random) a_random).setSeed(seed);
+      a_out.writeBoolean(true);
+      a_out.writeLong(seed);
+    }
+    else {
+      a_out.writeBoolean(false);
+    }
+  }
+
+  private RandomGenerator readRandomGenerator(DataInputStream a_in)
+      throws IOException {
+    int len = a_in.readInt();
+    if (len < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[len];
+    a_in.readFully(bytes);
+    RandomGenerator random;
+    try {
+      random = (RandomGenerator)new ObjectInputStream(new
+          ByteArrayInputStream(bytes)).readObject();
+    } catch (ClassNotFoundException cex) {
+      throw new InvalidClassException(cex.getMessage());
+    }
+    if (a_in.readBoolean()) {
+      long seed = a_in.readLong();
+      if (random instanceof Random) {
+        ( (Random) random).setSeed(seed);
+      }
+    }
+    return random;
+  }
+
+  private int addClass(String a_className) {
+    Integer index = m_classIndices.get(a_className);
+    if (index == null) {
+      index = new Integer(m_classes.size());
+      m_classes.add(a_className);
+      m_classIndices.put(a_className, index);
+    }
+    return index.intValue();
+  }
+
+  /**
+   * Chromosome layout: fitness value, age, operated on, selected flag,
+   * number of genes, per gene the index of its class and its binary (or
+   * persistent) representation.
+   */
+  private byte[] encode(IChromosome a_chrom)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeDouble(a_chrom.getFitnessValueDirectly());
+    out.writeInt(a_chrom.getAge());
+    out.writeInt(a_chrom.operatedOn());
+    out.writeBoolean(a_chrom.isSelectedForNextGeneration());
+    int size = a_chrom.size();
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      Gene gene = a_chrom.getGene(i);
+      out.writeInt(addClass(gene.getClass().getName()));
+      BinaryKit.writeGene(gene, out);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private IChromosome decode(Configuration a_conf, byte[] a_chrom,
+                             GeneFactory a_factory)
+      throws IOException, InvalidConfigurationException,
+      UnsupportedRepresentationException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+        a_chrom));
+    double fitness = in.readDouble();
+    int age = in.readInt();
+    int operatedOn = in.readInt();
+    boolean selected = in.readBoolean();
+    Gene[] genes = new Gene[in.readInt()];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = a_factory.create(i, m_classes.get(in.readInt()));
+      BinaryKit.readGene(genes[i], in);
+    }
+    Chromosome chrom = new Chromosome(a_conf, genes);
+    chrom.setFitnessValueDirectly(fitness);
+    chrom.setAge(age);
+    for (int i = 0; i < operatedOn; i++) {
+      chrom.increaseOperatedOn();
+    }
+    chrom.setIsSelectedForNextGeneration(selected);
+    return chrom;
+  }
+
+  /**
+   * Creates genes like the sample chromosome if possible, so that genes get
+   * its setup (e.g. constraint checkers).
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private static class GeneFactory {
+    private Configuration m_conf;
+
+    private IChromosome m_sample;
+
+    public GeneFactory(Configuration a_conf) {
+      m_conf = a_conf;
+      m_sample = a_conf.getSampleChromosome();
+    }
+
+    public Gene create(int a_locus, String a_className)
+        throws UnsupportedRepresentationException {
+      if (m_sample != null && a_locus < m_sample.size()) {
+        Gene sample = m_sample.getGene(a_locus);
+        if (sample.getClass().getName().equals(a_className)) {
+          return sample.newGene();
+        }
+      }
+      return BinaryKit.createGene(m_conf, a_className);
+    }
+  }
+}
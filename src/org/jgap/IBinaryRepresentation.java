@@ -0,0 +1,62 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.io.*;
+
+/**
+ * Interface for objects (such as genes and chromosomes) that can write their
+ * state in binary form and read it back later on. This is a faster
+ * alternative to IPersistentRepresentation as no strings need to be built
+ * and parsed.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IBinaryRepresentation {
+  /**
+   * Writes the state of the object, including all information needed to
+   * restore it with readFrom.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void writeTo(DataOutput a_out)
+      throws IOException;
+
+  /**
+   * Counterpart of writeTo.
+   *
+   * @param a_in the input to read from, positioned at data written by writeTo
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException if the data read does not
+   * describe a valid state
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException;
+
+  /**
+   * @return 64 bit hash of the content of the object, e.g. of the data
+   * written by writeTo. The hash is the same for objects with equal content,
+   * also across virtual machines. Thus it can be used to find duplicates
+   * without comparing the objects
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  long getContentHash();
+}
@@ -0,0 +1,35 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+/**
+ * Creates the genotype of a single island for an IslandGenotype.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IIslandFactory {
+  /**
+   * Creates the initial genotype of an island. Each island must have its own
+   * Configuration instance with a unique ID (e.g. "island" + a_index), because
+   * the islands are evolved in parallel and Configuration separates its
+   * settings by ID.
+   *
+   * @param a_index the index of the island
+   * @return the initialized genotype of the island
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  Genotype createIsland(int a_index)
+      throws InvalidConfigurationException;
+}
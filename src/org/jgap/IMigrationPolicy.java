@@ -0,0 +1,68 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Policy for exchanging chromosomes between the islands of an IslandGenotype.
+ * Decides which chromosomes emigrate, to which islands they go, and how the
+ * receiving island integrates them into its population.
+ * <p>
+ * Each method is called from within the thread of the island involved, so
+ * implementations must not keep state between calls.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IMigrationPolicy
+    extends Serializable {
+  /**
+   * Selects the chromosomes leaving an island.
+   *
+   * @param a_pop the population of the island
+   * @param a_count number of emigrants requested
+   * @param a_random random generator of the island
+   * @return the emigrants, at most a_count
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  List<IChromosome> selectEmigrants(Population a_pop, int a_count,
+                                    RandomGenerator a_random);
+
+  /**
+   * Determines the islands the emigrants of an island are sent to.
+   *
+   * @param a_island index of the emigrating island
+   * @param a_numberOfIslands total number of islands, at least two
+   * @param a_random random generator of the emigrating island
+   * @return indices of the target islands
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  int[] getTargets(int a_island, int a_numberOfIslands,
+                   RandomGenerator a_random);
+
+  /**
+   * Puts the arrived chromosomes into the population of an island.
+   *
+   * @param a_pop the population of the receiving island
+   * @param a_immigrants the chromosomes arrived
+   * @param a_random random generator of the receiving island
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void insertImmigrants(Population a_pop, List<IChromosome> a_immigrants,
+                        RandomGenerator a_random);
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import org.jgap.audit.*;
+
+/**
+ * Fitness function that computes the fitness of an offspring from the fitness
+ * of its parent plus the change caused by the few genes modified. Genetic
+ * operators performing small changes (MutationOperator,
+ * SwappingMutationOperator) record the changed loci in a ChangeSet attached
+ * to the offspring as long as an instance of this class is configured as
+ * fitness function.
+ * <p>
+ * The full evaluation is used as fallback if no change set is available (e.g.
+ * after crossing over), if the fitness of the parent is unknown or has changed,
+ * if too many loci changed or if the incremental result is negative.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public abstract class IncrementalFitnessFunction
+    extends FitnessFunction {
+  private int m_maxChangedLoci = Integer.MAX_VALUE;
+
+  private int m_verificationRate;
+
+  private int m_incrementalEvaluations;
+
+  /**
+   * Computes the fitness value incrementally if possible, otherwise via
+   * evaluateFully. The change set of the subject is consumed.
+   *
+   * @param a_subject the chromosome to evaluate
+   * @return positive fitness value of the chromosome
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected double evaluate(IChromosome a_subject) {
+    if (a_subject instanceof BaseChromosome) {
+      BaseChromosome subject = (BaseChromosome) a_subject;
+      ChangeSet changes = subject.getChangeSet();
+      if (changes != null) {
+        subject.setChangeSet(null);
+        if (isIncremental(a_subject, changes)) {
+          double fitness = changes.getParentFitness()
+              + evaluateDelta(changes.getParent(), a_subject,
+                              changes.getLoci());
+          if (fitness >= 0) {
+            countIncremental(a_subject, fitness);
+            return fitness;
+          }
+        }
+      }
+    }
+    return evaluateFully(a_subject);
+  }
+
+  /**
+   * Determines whether the fitness of the subject should be computed
+   * incrementally. Override to exclude changes that cannot be evaluated
+   * locally.
+   *
+   * @param a_subject the chromosome to evaluate
+   * @param a_changes the loci changed since cloning from the parent
+   * @return true: use evaluateDelta, false: use evaluateFully
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected boolean isIncremental(IChromosome a_subject, ChangeSet a_changes) {
+    return a_changes.size() <= m_maxChangedLoci
+        && a_changes.isParentFitnessValid();
+  }
+
+  /**
+   * Determines the fitness of the given chromosome from scratch.
+   *
+   * @param a_subject the chromosome to evaluate
+   * @return positive fitness value of the chromosome
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected abstract double evaluateFully(IChromosome a_subject);
+
+  /**
+   * Determines the change of the fitness value caused by the genes changed.
+   * The parent still holds the genes before the change.
+   *
+   * @param a_parent the chromosome the subject was cloned from
+   * @param a_subject the chromosome to evaluate
+   * @param a_loci the changed loci in ascending order
+   * @return fitness of the subject minus fitness of the parent
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected abstract double evaluateDelta(IChromosome a_parent,
+                                          IChromosome a_subject,
+                                          int[] a_loci);
+
+  /**
+   * @param a_maxChangedLoci if more loci changed, the fitness is evaluated
+   * fully
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMaxChangedLoci(int a_maxChangedLoci) {
+    m_maxChangedLoci = a_maxChangedLoci;
+  }
+
+  public int getMaxChangedLoci() {
+    return m_maxChangedLoci;
+  }
+
+  /**
+   * Allows to verify implementations of evaluateDelta: every given number of
+   * incremental evaluations, the fitness is also evaluated fully and compared.
+   *
+   * @param a_rate verify each a_rate-th incremental evaluation, zero or less
+   * for no verification
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setVerificationRate(int a_rate) {
+    m_verificationRate = a_rate;
+  }
+
+  public int getVerificationRate() {
+    return m_verificationRate;
+  }
+
+  private void countIncremental(IChromosome a_subject, double a_fitness) {
+    m_incrementalEvaluations++;
+    Configuration conf = a_subject.getConfiguration();
+    IEvolutionMetrics metrics = conf == null ? null
+        : conf.getEvolutionMetrics();
+    if (metrics != null) {
+      metrics.addCount(IEvolutionMetrics.COUNT_INCREMENTAL_EVALUATIONS, 1);
+    }
+    if (m_verificationRate > 0
+        && m_incrementalEvaluations % m_verificationRate == 0) {
+      double expected = evaluateFully(a_subject);
+      if (Math.abs(expected - a_fitness)
+          > DELTA * Math.max(1.0d, Math.abs(expected))) {
+        throw new IllegalStateException("Incremental fitness value "
+                                        + a_fitness
+                                        + " differs from full evaluation "
+                                        + expected);
+      }
+    }
+  }
+}
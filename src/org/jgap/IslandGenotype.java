@@ -0,0 +1,494 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.jgap.impl.*;
+
+/**
+ * Island model for genetic algorithms. Several Genotype's (islands), each with
+ * its own Configuration, are evolved in parallel within a thread pool. Every
+ * migration interval, chromosomes are exchanged between the islands as
+ * determined by the migration policy (see IMigrationPolicy).
+ * <p>
+ * Migration can be synchronous or asynchronous. With synchronous migration,
+ * all islands wait for each other (barrier) before the immigrants are
+ * integrated, so that a run does not depend on thread scheduling. With
+ * asynchronous migration, each island evolves without waiting and takes
+ * whatever has arrived in its mailbox so far. This avoids idle threads when the
+ * islands differ in speed. For asynchronous migration, the number of threads
+ * should not be lower than the number of islands.
+ * <p>
+ * Emigrants are transferred as persistent representation via lock-free
+ * mailboxes and are rebuilt from the sample chromosome of the receiving island.
+ * Thus, no chromosome instance is shared between the islands.
+ * <p>
+ * The fittest chromosome found on any island is available via
+ * getFittestChromosome. Evolution of all islands stops when a target fitness
+ * value is reached (see setTargetFitness) or stop() is called.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class IslandGenotype {
+  private Genotype[] m_islands;
+
+  private int[] m_islandGenerations;
+
+  private ConcurrentLinkedQueue<String>[] m_mailboxes;
+
+  private IMigrationPolicy m_migrationPolicy;
+
+  private int m_migrationInterval;
+
+  private int m_migrationSize;
+
+  private boolean m_synchronous;
+
+  private int m_threads;
+
+  private double m_targetFitness;
+
+  private volatile boolean m_stopped;
+
+  private IChromosome m_fittest;
+
+  private AtomicLong m_migrants;
+
+  /**
+   * Creates the islands.
+   *
+   * @param a_numberOfIslands the number of islands, at least one
+   * @param a_factory creates the genotype per island
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IslandGenotype(int a_numberOfIslands, IIslandFactory a_factory)
+      throws InvalidConfigurationException {
+    if (a_numberOfIslands < 1) {
+      throw new IllegalArgumentException("Number of islands must be at least"
+                                         + " one!");
+    }
+    m_islands = new Genotype[a_numberOfIslands];
+    m_islandGenerations = new int[a_numberOfIslands];
+    m_mailboxes = new ConcurrentLinkedQueue[a_numberOfIslands];
+    for (int i = 0; i < a_numberOfIslands; i++) {
+      m_islands[i] = a_factory.createIsland(i);
+      for (int j = 0; j < i; j++) {
+        if (m_islands[i].getConfiguration() == m_islands[j].getConfiguration()) {
+          throw new InvalidConfigurationException("Each island must have its"
+              + " own configuration!");
+        }
+      }
+      m_mailboxes[i] = new ConcurrentLinkedQueue<String>();
+    }
+    m_migrationPolicy = new BestToRingMigrationPolicy();
+    m_migrationInterval = 10;
+    m_migrationSize = 2;
+    m_synchronous = true;
+    m_threads = Math.min(a_numberOfIslands,
+                         Runtime.getRuntime().availableProcessors());
+    m_targetFitness = Double.NaN;
+    m_migrants = new AtomicLong();
+  }
+
+  /**
+   * Evolves each island the given number of generations, or until the
+   * evolution is stopped.
+   *
+   * @param a_generations number of generations to evolve
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void evolve(int a_generations) {
+    m_stopped = false;
+    ExecutorService executor = Executors.newFixedThreadPool(m_threads);
+    try {
+      if (m_synchronous) {
+        evolveSynchronous(executor, a_generations);
+      }
+      else {
+        evolveAsynchronous(executor, a_generations);
+      }
+    } catch (InterruptedException iex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Evolution interrupted");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  protected void evolveSynchronous(ExecutorService a_executor,
+                                   int a_generations)
+      throws InterruptedException {
+    final boolean migration = m_islands.length > 1 && m_migrationSize > 0;
+    int remaining = a_generations;
+    while (remaining > 0 && !m_stopped) {
+      int epoch = m_migrationInterval
+          - m_islandGenerations[0] % m_migrationInterval;
+      if (epoch > remaining) {
+        epoch = remaining;
+      }
+      final int generations = epoch;
+      List<Callable<Object>> tasks = new Vector<Callable<Object>>();
+      for (int i = 0; i < m_islands.length; i++) {
+        final int index = i;
+        tasks.add(new Callable<Object>() {
+          public Object call() {
+            for (int j = 0; j < generations && !m_stopped; j++) {
+              evolveIsland(index);
+            }
+            if (migration && isMigrationDue(index)) {
+              emigrate(index);
+            }
+            return null;
+          }
+        });
+      }
+      invokeAll(a_executor, tasks);
+      // All emigrants have arrived: integrate them.
+      // -------------------------------------------
+      if (migration) {
+        tasks.clear();
+        for (int i = 0; i < m_islands.length; i++) {
+          final int index = i;
+          tasks.add(new Callable<Object>() {
+            public Object call() {
+              immigrate(index);
+              return null;
+            }
+          });
+        }
+        invokeAll(a_executor, tasks);
+      }
+      remaining -= epoch;
+    }
+  }
+
+  protected void evolveAsynchronous(ExecutorService a_executor,
+                                    final int a_generations)
+      throws InterruptedException {
+    final boolean migration = m_islands.length > 1 && m_migrationSize > 0;
+    List<Callable<Object>> tasks = new Vector<Callable<Object>>();
+    for (int i = 0; i < m_islands.length; i++) {
+      final int index = i;
+      tasks.add(new Callable<Object>() {
+        public Object call() {
+          for (int j = 0; j < a_generations && !m_stopped; j++) {
+            evolveIsland(index);
+            if (migration && isMigrationDue(index)) {
+              emigrate(index);
+              immigrate(index);
+            }
+          }
+          return null;
+        }
+      });
+    }
+    invokeAll(a_executor, tasks);
+  }
+
+  private void invokeAll(ExecutorService a_executor,
+                         List<Callable<Object>> a_tasks)
+      throws InterruptedException {
+    List<Future<Object>> results = a_executor.invokeAll(a_tasks);
+    for (Future<Object> result : results) {
+      try {
+        result.get();
+      } catch (ExecutionException eex) {
+        Throwable cause = eex.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  private boolean isMigrationDue(int a_island) {
+    return m_islandGenerations[a_island] > 0
+        && m_islandGenerations[a_island] % m_migrationInterval == 0;
+  }
+
+  /**
+   * Evolves an island by one generation and updates the fittest chromosome
+   * found so far.
+   *
+   * @param a_island index of the island
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void evolveIsland(int a_island) {
+    Genotype island = m_islands[a_island];
+    island.evolve(1);
+    m_islandGenerations[a_island]++;
+    IChromosome best = island.getFittestChromosome();
+    if (best == null) {
+      return;
+    }
+    FitnessEvaluator evaluator = island.getConfiguration().
+        getFitnessEvaluator();
+    double fitness = best.getFitnessValue();
+    synchronized (this) {
+      if (m_fittest == null
+          || evaluator.isFitter(fitness, m_fittest.getFitnessValue())) {
+        m_fittest = (IChromosome) best.clone();
+      }
+    }
+    if (!Double.isNaN(m_targetFitness)
+        && !evaluator.isFitter(m_targetFitness, fitness)) {
+      m_stopped = true;
+    }
+  }
+
+  /**
+   * Selects the emigrants of an island and puts them into the mailboxes of
+   * the target islands.
+   *
+   * @param a_island index of the island to emigrate from
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void emigrate(int a_island) {
+    Genotype island = m_islands[a_island];
+    RandomGenerator random = island.getConfiguration().getRandomGenerator();
+    List<IChromosome> emigrants = m_migrationPolicy.selectEmigrants(island.
+        getPopulation(), m_migrationSize, random);
+    int[] targets = m_migrationPolicy.getTargets(a_island, m_islands.length,
+        random);
+    for (IChromosome emigrant : emigrants) {
+      if (! (emigrant instanceof IPersistentRepresentation)) {
+        throw new IllegalArgumentException("Chromosomes must implement"
+            + " IPersistentRepresentation for migration!");
+      }
+      String message = ( (IPersistentRepresentation) emigrant).
+          getPersistentRepresentation();
+      for (int i = 0; i < targets.length; i++) {
+        m_mailboxes[targets[i]].offer(message);
+      }
+    }
+  }
+
+  /**
+   * Takes all chromosomes out of the mailbox of an island and lets the
+   * migration policy integrate them.
+   *
+   * @param a_island index of the island to immigrate into
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void immigrate(int a_island) {
+    Configuration conf = m_islands[a_island].getConfiguration();
+    List<IChromosome> immigrants = new Vector<IChromosome>();
+    String message;
+    while ( (message = m_mailboxes[a_island].poll()) != null) {
+      IChromosome immigrant = (IChromosome) conf.getSampleChromosome().clone();
+      try {
+        ( (IPersistentRepresentation) immigrant).
+            setValueFromPersistentRepresentation(message);
+      } catch (UnsupportedRepresentationException uex) {
+        throw new IllegalStateException(uex.getMessage());
+      }
+      immigrants.add(immigrant);
+    }
+    if (immigrants.isEmpty()) {
+      return;
+    }
+    m_migrationPolicy.insertImmigrants(m_islands[a_island].getPopulation(),
+                                       immigrants, conf.getRandomGenerator());
+    m_migrants.addAndGet(immigrants.size());
+  }
+
+  /**
+   * @return the fittest chromosome found on any island so far, or null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized IChromosome getFittestChromosome() {
+    return m_fittest;
+  }
+
+  /**
+   * Stops the evolution of all islands after their current generation.
+   * May be called from any thread.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void stop() {
+    m_stopped = true;
+  }
+
+  /**
+   * @return true: the last evolution was stopped before all generations had
+   * been evolved
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isStopped() {
+    return m_stopped;
+  }
+
+  /**
+   * @param a_index index of the island
+   * @return the genotype of the island
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Genotype getIsland(int a_index) {
+    return m_islands[a_index];
+  }
+
+  /**
+   * @return number of islands
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getIslandCount() {
+    return m_islands.length;
+  }
+
+  /**
+   * @param a_index index of the island
+   * @return number of generations the island has been evolved
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getGenerations(int a_index) {
+    return m_islandGenerations[a_index];
+  }
+
+  /**
+   * @return total number of chromosomes immigrated into islands so far
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getMigrantCount() {
+    return m_migrants.get();
+  }
+
+  /**
+   * @param a_policy the migration policy to use
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMigrationPolicy(IMigrationPolicy a_policy) {
+    if (a_policy == null) {
+      throw new IllegalArgumentException("Migration policy must not be null!");
+    }
+    m_migrationPolicy = a_policy;
+  }
+
+  public IMigrationPolicy getMigrationPolicy() {
+    return m_migrationPolicy;
+  }
+
+  /**
+   * @param a_generations number of generations between two migrations
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMigrationInterval(int a_generations) {
+    if (a_generations < 1) {
+      throw new IllegalArgumentException("Migration interval must be at least"
+                                         + " one!");
+    }
+    m_migrationInterval = a_generations;
+  }
+
+  public int getMigrationInterval() {
+    return m_migrationInterval;
+  }
+
+  /**
+   * @param a_size number of chromosomes each island sends per migration
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMigrationSize(int a_size) {
+    if (a_size < 0) {
+      throw new IllegalArgumentException("Migration size must not be"
+                                         + " negative!");
+    }
+    m_migrationSize = a_size;
+  }
+
+  public int getMigrationSize() {
+    return m_migrationSize;
+  }
+
+  /**
+   * @param a_synchronous true: islands wait for each other before immigrants
+   * are integrated, false: migration without waiting
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setSynchronousMigration(boolean a_synchronous) {
+    m_synchronous = a_synchronous;
+  }
+
+  public boolean isSynchronousMigration() {
+    return m_synchronous;
+  }
+
+  /**
+   * @param a_threads size of the thread pool the islands are evolved with
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setThreads(int a_threads) {
+    if (a_threads < 1) {
+      throw new IllegalArgumentException("At least one thread is required!");
+    }
+    m_threads = a_threads;
+  }
+
+  public int getThreads() {
+    return m_threads;
+  }
+
+  /**
+   * Sets the fitness value which stops the evolution of all islands as soon
+   * as one island reaches it.
+   *
+   * @param a_fitness the target fitness value, Double.NaN for none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setTargetFitness(double a_fitness) {
+    m_targetFitness = a_fitness;
+  }
+
+  public double getTargetFitness() {
+    return m_targetFitness;
+  }
+}
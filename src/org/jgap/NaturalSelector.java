@@ -66,6 +66,23 @@ public abstract class NaturalSelector
     return m_config;
   }
 
+  /**
+   * Records that a chromosome was cloned during selection in the lineage log
+   * of the configuration, if one is set.
+   *
+   * @param a_clone the clone selected
+   * @param a_original the chromosome cloned
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void recordLineage(IChromosome a_clone, IChromosome a_original) {
+    LineageLog log = m_config.getLineageLog();
+    if (log != null) {
+      log.record(a_clone, a_original, null, this, m_config.getGenerationNr());
+    }
+  }
+
   /**
    * Add a Chromosome instance to this selector's working pool of Chromosomes.
    *
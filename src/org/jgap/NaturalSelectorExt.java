@@ -169,6 +169,7 @@ public abstract class NaturalSelectorExt
           if (m_monitorActive) {
             a_chrom.setUniqueIDTemplate(original.getUniqueID(), 1);
           }
+          recordLineage(a_chrom, original);
         } catch (Exception ex) {
           ex.printStackTrace();
         }
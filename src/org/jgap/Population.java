@@ -497,8 +497,9 @@ public class Population
     // The following construction could be cached but wrt that the
     // evaluator registered with the configuration could change
     // --> Don't cache it!
-    sort(new ChromosomeFitnessComparator(getConfiguration().
-        getFitnessEvaluator()));
+    FitnessEvaluator evaluator = getConfiguration().getFitnessEvaluator();
+    new ChromosomeRanking(new ChromosomeFitnessComparator(evaluator), false).
+        rankFittest(getChromosomes(), getChromosomes().size(), evaluator);
     setChanged(false);
     setSorted(true);
     m_fittestChromosome = (IChromosome) m_chromosomes.get(0);
@@ -14,7 +14,8 @@ import java.util.*;
 import org.jgap.*;
 
 /**
- * Gathers statistical data and returns them on request.
+ * Gathers statistical data and returns them on request. Data may be stored
+ * concurrently, e.g. by an ExperimentRunner.
  *
  * @author Klaus Meffert
  * @since 2.2
@@ -74,13 +75,14 @@ public class Evaluator
     return m_permConf.next();
   }
 
-  public void setValue(double a_value, Comparable a_rowKey,
+  public synchronized void setValue(double a_value, Comparable a_rowKey,
                        Comparable a_columnKey) {
     m_data.setValue(new Double(a_value), a_rowKey, a_columnKey);
 //    fireDatasetChanged();
   }
 
-  public Number getValue(Comparable rowKey, Comparable columnKey) {
+  public synchronized Number getValue(Comparable rowKey,
+                                      Comparable columnKey) {
     return m_data.getValue(rowKey, columnKey);
   }
 
@@ -96,8 +98,9 @@ public class Evaluator
    * @author Klaus Meffert
    * @since 2.2
    */
-  public void setValue(int a_permutation, int a_run, double a_value,
-                       Comparable a_rowKey, Comparable a_columnKey) {
+  public synchronized void setValue(int a_permutation, int a_run,
+                                    double a_value, Comparable a_rowKey,
+                                    Comparable a_columnKey) {
     Object key = createKey(a_permutation, a_run);
     KeyedValues2D a_data = m_permutationData.get(key);
     if (a_data == null) {
@@ -110,7 +113,7 @@ public class Evaluator
     a_data.setValue(new Double(a_value), a_rowKey, a_columnKey);
   }
 
-  protected void addRunNumber(int a_permutation, int a_run) {
+  protected synchronized void addRunNumber(int a_permutation, int a_run) {
     Map v = m_permutationRuns.get(new Integer(a_permutation));
     if (v == null) {
       v = new Hashtable();
@@ -119,8 +122,8 @@ public class Evaluator
     m_permutationRuns.put(new Integer(a_permutation), v);
   }
 
-  public Number getValue(int a_permutation, int a_run, Comparable rowKey,
-                         Comparable columnKey) {
+  public synchronized Number getValue(int a_permutation, int a_run,
+                                      Comparable rowKey, Comparable columnKey) {
     KeyedValues2D a_data = m_permutationData.get(createKey(a_permutation, a_run));
     if (a_data == null) {
       return null;
@@ -147,7 +150,7 @@ public class Evaluator
    * @author Klaus Meffert
    * @since 2.2
    */
-  public KeyedValues2D calcAvgFitness(int a_permutation) {
+  public synchronized KeyedValues2D calcAvgFitness(int a_permutation) {
     if (a_permutation == -1) {
       Iterator it = m_permutationRuns.keySet().iterator();
       Integer permNumberI;
@@ -268,7 +271,7 @@ public class Evaluator
    * @param a_permutation the permutation to determine the number of runs for
    * @return the number of runs for the given permutation
    */
-  public int getNumberOfRuns(int a_permutation) {
+  public synchronized int getNumberOfRuns(int a_permutation) {
     Map runNumbers = m_permutationRuns.get(new Integer(a_permutation));
     if (runNumbers == null) {
       return 0;
@@ -301,7 +304,8 @@ public class Evaluator
    * @author Klaus Meffert
    * @since 3.5 (originally named storeGenotype)
    */
-  public void storePopulation(int a_permutation, int a_run, Population a_pop) {
+  public synchronized void storePopulation(int a_permutation, int a_run,
+                                           Population a_pop) {
     /**@todo implement*/
     // average and maximum fitness value
     //
@@ -345,7 +349,7 @@ public class Evaluator
    * @author Klaus Meffert
    * @since 2.2
    */
-  public GenotypeDataAvg calcPerformance(int a_permutation) {
+  public synchronized GenotypeDataAvg calcPerformance(int a_permutation) {
     int numRuns = getNumberOfRuns(a_permutation);
     GenotypeData data;
     GenotypeDataAvg dataAvg = new GenotypeDataAvg();
@@ -0,0 +1,232 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+/**
+ * Default registry of evolution metrics. Timers and counters are kept in
+ * atomic longs, so recording a value only costs a map lookup and an atomic
+ * addition. The metrics can be published to the platform MBean server via
+ * registerMBean, e.g. for inspection with JConsole.
+ * <p>
+ * Usage: conf.setEvolutionMetrics(new EvolutionMetrics());
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class EvolutionMetrics
+    implements IEvolutionMetrics, EvolutionMetricsMBean {
+  private ConcurrentMap<String, AtomicLong> m_nanos;
+
+  private ConcurrentMap<String, AtomicLong> m_calls;
+
+  private ConcurrentMap<String, AtomicLong> m_counts;
+
+  private ConcurrentMap<String, Double> m_gauges;
+
+  private volatile int m_diversityInterval;
+
+  private ObjectName m_objectName;
+
+  /**
+   * Constructor, diversity is not determined.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public EvolutionMetrics() {
+    this(0);
+  }
+
+  /**
+   * @param a_diversityInterval determine diversity every n-th generation,
+   * zero or less for never
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public EvolutionMetrics(int a_diversityInterval) {
+    m_nanos = new ConcurrentHashMap<String, AtomicLong>();
+    m_calls = new ConcurrentHashMap<String, AtomicLong>();
+    m_counts = new ConcurrentHashMap<String, AtomicLong>();
+    m_gauges = new ConcurrentHashMap<String, Double>();
+    m_diversityInterval = a_diversityInterval;
+  }
+
+  public void addTime(String a_phase, long a_nanos) {
+    getOrCreate(m_nanos, a_phase).addAndGet(a_nanos);
+    getOrCreate(m_calls, a_phase).incrementAndGet();
+  }
+
+  public void addCount(String a_counter, long a_delta) {
+    getOrCreate(m_counts, a_counter).addAndGet(a_delta);
+  }
+
+  public void setGauge(String a_gauge, double a_value) {
+    m_gauges.put(a_gauge, new Double(a_value));
+  }
+
+  public boolean isDiversitySampled(int a_generationNr) {
+    int interval = m_diversityInterval;
+    return interval > 0 && a_generationNr % interval == 0;
+  }
+
+  public int getDiversityInterval() {
+    return m_diversityInterval;
+  }
+
+  public void setDiversityInterval(int a_interval) {
+    m_diversityInterval = a_interval;
+  }
+
+  public String[] getPhases() {
+    return sortedKeys(m_nanos);
+  }
+
+  public String[] getCounters() {
+    return sortedKeys(m_counts);
+  }
+
+  public String[] getGauges() {
+    return sortedKeys(m_gauges);
+  }
+
+  public long getTotalNanos(String a_phase) {
+    return getValue(m_nanos, a_phase);
+  }
+
+  public long getCalls(String a_phase) {
+    return getValue(m_calls, a_phase);
+  }
+
+  public long getCount(String a_counter) {
+    return getValue(m_counts, a_counter);
+  }
+
+  public double getGauge(String a_gauge) {
+    Double value = m_gauges.get(a_gauge);
+    if (value == null) {
+      return Double.NaN;
+    }
+    return value.doubleValue();
+  }
+
+  public double getCacheHitRate() {
+    long hits = getCount(COUNT_CACHE_HITS);
+    long lookups = hits + getCount(COUNT_CACHE_MISSES);
+    if (lookups == 0) {
+      return Double.NaN;
+    }
+    return (double) hits / lookups;
+  }
+
+  public String getReport() {
+    StringBuffer result = new StringBuffer();
+    String[] phases = getPhases();
+    for (int i = 0; i < phases.length; i++) {
+      long nanos = getTotalNanos(phases[i]);
+      long calls = getCalls(phases[i]);
+      result.append(phases[i]).append(": ").append(nanos / 1000000)
+          .append(" ms in ").append(calls).append(" calls");
+      if (calls > 0) {
+        result.append(" (avg ").append(nanos / calls / 1000).append(" us)");
+      }
+      result.append("\n");
+    }
+    String[] counters = getCounters();
+    for (int i = 0; i < counters.length; i++) {
+      result.append(counters[i]).append(": ").append(getCount(counters[i]))
+          .append("\n");
+    }
+    String[] gauges = getGauges();
+    for (int i = 0; i < gauges.length; i++) {
+      result.append(gauges[i]).append(": ").append(getGauge(gauges[i]))
+          .append("\n");
+    }
+    return result.toString();
+  }
+
+  public void reset() {
+    m_nanos.clear();
+    m_calls.clear();
+    m_counts.clear();
+    m_gauges.clear();
+  }
+
+  /**
+   * Registers this instance with the platform MBean server.
+   *
+   * @param a_name object name to register with, e.g.
+   * "org.jgap:type=EvolutionMetrics"
+   *
+   * @throws JMException if the name is invalid or already registered
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void registerMBean(String a_name)
+      throws JMException {
+    if (m_objectName != null) {
+      throw new IllegalStateException("Metrics already registered as "
+                                      + m_objectName);
+    }
+    ObjectName name = new ObjectName(a_name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    m_objectName = name;
+  }
+
+  /**
+   * Removes this instance from the platform MBean server, if registered.
+   *
+   * @throws JMException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void unregisterMBean()
+      throws JMException {
+    if (m_objectName != null) {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(m_objectName);
+      m_objectName = null;
+    }
+  }
+
+  private static AtomicLong getOrCreate(ConcurrentMap<String, AtomicLong> a_map,
+                                        String a_name) {
+    AtomicLong value = a_map.get(a_name);
+    if (value == null) {
+      AtomicLong created = new AtomicLong();
+      value = a_map.putIfAbsent(a_name, created);
+      if (value == null) {
+        value = created;
+      }
+    }
+    return value;
+  }
+
+  private static long getValue(Map<String, AtomicLong> a_map, String a_name) {
+    AtomicLong value = a_map.get(a_name);
+    if (value == null) {
+      return 0;
+    }
+    return value.get();
+  }
+
+  private static String[] sortedKeys(Map<String, ?> a_map) {
+    String[] result = a_map.keySet().toArray(new String[0]);
+    Arrays.sort(result);
+    return result;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+/**
+ * Management interface of EvolutionMetrics for JMX.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface EvolutionMetricsMBean {
+  /**
+   * @return names of all phases timed so far
+   */
+  String[] getPhases();
+
+  /**
+   * @return names of all counters used so far
+   */
+  String[] getCounters();
+
+  /**
+   * @return names of all gauges set so far
+   */
+  String[] getGauges();
+
+  /**
+   * @param a_phase name of the phase
+   * @return total time spent in the phase in nanoseconds
+   */
+  long getTotalNanos(String a_phase);
+
+  /**
+   * @param a_phase name of the phase
+   * @return number of times the phase was timed
+   */
+  long getCalls(String a_phase);
+
+  /**
+   * @param a_counter name of the counter
+   * @return current value of the counter
+   */
+  long getCount(String a_counter);
+
+  /**
+   * @param a_gauge name of the gauge
+   * @return last value of the gauge, NaN if never set
+   */
+  double getGauge(String a_gauge);
+
+  /**
+   * @return cache hits divided by cache lookups, NaN if no lookup happened
+   */
+  double getCacheHitRate();
+
+  int getDiversityInterval();
+
+  void setDiversityInterval(int a_interval);
+
+  /**
+   * @return human-readable summary of all metrics
+   */
+  String getReport();
+
+  /**
+   * Resets all timers, counters and gauges.
+   */
+  void reset();
+}
@@ -0,0 +1,371 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jgap.*;
+
+/**
+ * Executes all runs of all permutations of an Evaluator in parallel within a
+ * thread pool. Each run evolves a genotype created by an IExperimentFactory
+ * for a given number of generations. The fitness value of the fittest
+ * chromosome is stored in the evaluator every sample interval (row key:
+ * permutation index, column key: generation), the final population via
+ * storeGenotype.
+ * <p>
+ * Runs are started in the order run 0 of all permutations, run 1 of all
+ * permutations etc. With early stopping enabled, a permutation is stopped
+ * when it is clearly inferior to the best permutation: both have completed
+ * the minimum number of runs and the average final fitness of the best
+ * permutation is fitter than the average of the permutation plus the given
+ * number of standard errors (in favor of the permutation). Runs of a stopped
+ * permutation not started yet are skipped, thus the stored runs of each
+ * permutation still have consecutive indices starting at zero.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ExperimentRunner {
+  private Evaluator m_evaluator;
+
+  private IExperimentFactory m_factory;
+
+  private int m_runs;
+
+  private int m_generations;
+
+  private int m_sampleInterval;
+
+  private int m_threads;
+
+  private int m_minRuns;
+
+  private double m_deviations;
+
+  private List<Configuration> m_permutations;
+
+  private PermutationStats[] m_stats;
+
+  private FitnessEvaluator m_fitnessEvaluator;
+
+  /**
+   * @param a_evaluator provides the permutations and stores the results
+   * @param a_factory creates the genotype per run
+   * @param a_runs number of runs per permutation
+   * @param a_generations number of generations to evolve per run
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public ExperimentRunner(Evaluator a_evaluator, IExperimentFactory a_factory,
+                          int a_runs, int a_generations) {
+    if (a_runs < 1 || a_generations < 1) {
+      throw new IllegalArgumentException("Number of runs and generations must"
+                                         + " be positive!");
+    }
+    m_evaluator = a_evaluator;
+    m_factory = a_factory;
+    m_runs = a_runs;
+    m_generations = a_generations;
+    m_sampleInterval = 1;
+    m_threads = Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * @param a_threads number of runs executed in parallel
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setThreads(int a_threads) {
+    if (a_threads < 1) {
+      throw new IllegalArgumentException("At least one thread is required!");
+    }
+    m_threads = a_threads;
+  }
+
+  public int getThreads() {
+    return m_threads;
+  }
+
+  /**
+   * @param a_interval the fittest fitness value is stored every this many
+   * generations (and after the last one)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setSampleInterval(int a_interval) {
+    if (a_interval < 1) {
+      throw new IllegalArgumentException("Interval must be positive!");
+    }
+    m_sampleInterval = a_interval;
+  }
+
+  /**
+   * Enables early stopping of clearly inferior permutations.
+   *
+   * @param a_minRuns number of runs a permutation must have completed before
+   * it is compared (at least two), zero to disable early stopping
+   * @param a_deviations number of standard errors by which the best
+   * permutation must be better, e.g. 2.0
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setEarlyStopping(int a_minRuns, double a_deviations) {
+    if (a_minRuns == 1 || a_minRuns < 0 || a_deviations < 0) {
+      throw new IllegalArgumentException("At least two runs and a"
+                                         + " non-negative number of"
+                                         + " deviations are required!");
+    }
+    m_minRuns = a_minRuns;
+    m_deviations = a_deviations;
+  }
+
+  /**
+   * Executes all runs of all remaining permutations of the evaluator and
+   * waits for them to complete.
+   *
+   * @throws InvalidConfigurationException if a genotype could not be created
+   * @throws InterruptedException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void run()
+      throws InvalidConfigurationException, InterruptedException {
+    m_permutations = new ArrayList<Configuration>();
+    while (m_evaluator.hasNext()) {
+      m_permutations.add(m_evaluator.next());
+    }
+    int count = m_permutations.size();
+    m_stats = new PermutationStats[count];
+    for (int i = 0; i < count; i++) {
+      m_stats[i] = new PermutationStats();
+    }
+    if (count == 0) {
+      return;
+    }
+    m_fitnessEvaluator = m_permutations.get(0).getFitnessEvaluator();
+    List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+    for (int run = 0; run < m_runs; run++) {
+      for (int perm = 0; perm < count; perm++) {
+        final int p = perm;
+        final int r = run;
+        tasks.add(new Callable<Object>() {
+          public Object call()
+              throws Exception {
+            execute(p, r);
+            return null;
+          }
+        });
+      }
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(m_threads);
+    try {
+      List<Future<Object>> results = executor.invokeAll(tasks);
+      for (Future<Object> result : results) {
+        try {
+          result.get();
+        } catch (ExecutionException eex) {
+          Throwable cause = eex.getCause();
+          if (cause instanceof InvalidConfigurationException) {
+            throw (InvalidConfigurationException) cause;
+          }
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new RuntimeException(cause);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Executes a single run unless the permutation has been stopped.
+   *
+   * @param a_permutation index of the permutation
+   * @param a_run index of the run as scheduled
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void execute(int a_permutation, int a_run)
+      throws InvalidConfigurationException {
+    // Runs may start out of order in parallel, so the run index is assigned
+    // when starting to keep the stored indices consecutive.
+    // ---------------------------------------------------------------------
+    int run = startRun(a_permutation);
+    if (run < 0) {
+      return;
+    }
+    String id = "experiment" + System.identityHashCode(this) + "_"
+        + a_permutation + "_" + run;
+    // Pool threads are reused, so clear settings possibly left behind.
+    // -----------------------------------------------------------------
+    Configuration.reset(id);
+    Genotype genotype = m_factory.createGenotype(m_permutations.get(
+        a_permutation), a_permutation, run, id);
+    Integer row = new Integer(a_permutation);
+    double fitness = 0;
+    for (int gen = 1; gen <= m_generations; gen++) {
+      genotype.evolve();
+      if (gen % m_sampleInterval == 0 || gen == m_generations) {
+        fitness = genotype.getFittestChromosome().getFitnessValue();
+        m_evaluator.setValue(a_permutation, run, fitness, row,
+                             new Integer(gen));
+      }
+    }
+    m_evaluator.storeGenotype(a_permutation, run, genotype);
+    runCompleted(a_permutation, fitness);
+  }
+
+  /**
+   * @param a_permutation index of the permutation
+   * @return index of the run to start, -1 if the permutation was stopped
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private synchronized int startRun(int a_permutation) {
+    PermutationStats stats = m_stats[a_permutation];
+    if (stats.m_stopped) {
+      return -1;
+    }
+    return stats.m_started++;
+  }
+
+  /**
+   * Records the final fitness value of a run and stops inferior
+   * permutations.
+   *
+   * @param a_permutation index of the permutation
+   * @param a_fitness fitness value of the fittest chromosome of the run
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected synchronized void runCompleted(int a_permutation,
+                                           double a_fitness) {
+    m_stats[a_permutation].add(a_fitness);
+    if (m_minRuns <= 0) {
+      return;
+    }
+    // Determine best permutation by average.
+    // --------------------------------------
+    PermutationStats best = null;
+    for (PermutationStats stats : m_stats) {
+      if (stats.m_count >= m_minRuns && (best == null
+          || m_fitnessEvaluator.isFitter(stats.getMean(), best.getMean()))) {
+        best = stats;
+      }
+    }
+    if (best == null) {
+      return;
+    }
+    for (PermutationStats stats : m_stats) {
+      if (stats == best || stats.m_stopped || stats.m_count < m_minRuns) {
+        continue;
+      }
+      double delta = m_deviations * stats.getStandardError();
+      double optimistic = stats.getMean() + delta;
+      if (!m_fitnessEvaluator.isFitter(optimistic, stats.getMean())) {
+        optimistic = stats.getMean() - delta;
+      }
+      if (m_fitnessEvaluator.isFitter(best.getMean(), optimistic)) {
+        stats.m_stopped = true;
+      }
+    }
+  }
+
+  /**
+   * @param a_permutation index of the permutation
+   * @return true: permutation was stopped early
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized boolean isStopped(int a_permutation) {
+    return m_stats[a_permutation].m_stopped;
+  }
+
+  /**
+   * @param a_permutation index of the permutation
+   * @return number of runs completed for the permutation
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized int getCompletedRuns(int a_permutation) {
+    return m_stats[a_permutation].m_count;
+  }
+
+  /**
+   * @param a_permutation index of the permutation
+   * @return average final fitness value of the completed runs
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized double getMeanFitness(int a_permutation) {
+    return m_stats[a_permutation].getMean();
+  }
+
+  /**
+   * @return number of permutations executed by the last call to run()
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getPermutationCount() {
+    return m_permutations == null ? 0 : m_permutations.size();
+  }
+
+  /**
+   * Final fitness values of the completed runs of a permutation.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private static class PermutationStats {
+    private int m_count;
+
+    private int m_started;
+
+    private double m_sum;
+
+    private double m_sumSquares;
+
+    private boolean m_stopped;
+
+    public void add(double a_value) {
+      m_count++;
+      m_sum += a_value;
+      m_sumSquares += a_value * a_value;
+    }
+
+    public double getMean() {
+      return m_count == 0 ? 0 : m_sum / m_count;
+    }
+
+    public double getStandardError() {
+      double mean = getMean();
+      double variance = Math.max(0, (m_sumSquares - m_count * mean * mean)
+                                 / (m_count - 1));
+      return Math.sqrt(variance / m_count);
+    }
+  }
+}
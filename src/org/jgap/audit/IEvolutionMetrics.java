@@ -0,0 +1,125 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+/**
+ * Lightweight collector of timings, counters and gauges of the evolution
+ * pipeline. Other than IEvolutionMonitor, no populations are recorded, so a
+ * metrics instance may be kept active in production.
+ * <p>
+ * Breeders only measure if a metrics instance is registered with the
+ * configuration (see Configuration.setEvolutionMetrics), otherwise no
+ * overhead occurs. Implementations must be thread-safe.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IEvolutionMetrics {
+  public final static String PHASE_GENERATION = "generation";
+
+  public final static String PHASE_SELECTION_BEFORE = "selection.before";
+
+  public final static String PHASE_SELECTION_AFTER = "selection.after";
+
+  /**
+   * Prefix of the phase of a genetic operator, the class name of the operator
+   * is appended.
+   */
+  public final static String PHASE_OPERATOR = "operator.";
+
+  public final static String PHASE_EVALUATION = "evaluation";
+
+  public final static String PHASE_BULK_EVALUATION = "evaluation.bulk";
+
+  public final static String PHASE_FILL_UP = "fillup";
+
+  public final static String PHASE_READD_FITTEST = "readd_fittest";
+
+  public final static String PHASE_GP_CROSSOVER = "gp.crossover";
+
+  public final static String PHASE_GP_REPRODUCTION = "gp.reproduction";
+
+  public final static String PHASE_GP_CREATION = "gp.creation";
+
+  public final static String COUNT_EVALUATIONS = "evaluations";
+
+  public final static String COUNT_CACHE_HITS = "cache.hits";
+
+  public final static String COUNT_CACHE_MISSES = "cache.misses";
+
+  /**
+   * Number of fitness values computed from the fitness of the parent (see
+   * IncrementalFitnessFunction).
+   */
+  public final static String COUNT_INCREMENTAL_EVALUATIONS =
+      "evaluations.incremental";
+
+  /**
+   * Number of individuals newly created, as an estimate of allocations.
+   */
+  public final static String COUNT_CREATED = "created";
+
+  /**
+   * Number of chromosomes handed back to the chromosome pool.
+   */
+  public final static String COUNT_RECYCLED = "recycled";
+
+  public final static String GAUGE_POPULATION_SIZE = "population.size";
+
+  /**
+   * Ratio of distinct individuals to population size (between 0 and 1).
+   */
+  public final static String GAUGE_DIVERSITY = "diversity";
+
+  /**
+   * Adds the time spent in a phase.
+   *
+   * @param a_phase name of the phase
+   * @param a_nanos elapsed time in nanoseconds
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void addTime(String a_phase, long a_nanos);
+
+  /**
+   * Increases a counter.
+   *
+   * @param a_counter name of the counter
+   * @param a_delta value to add
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void addCount(String a_counter, long a_delta);
+
+  /**
+   * Sets the current value of a gauge.
+   *
+   * @param a_gauge name of the gauge
+   * @param a_value the current value
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void setGauge(String a_gauge, double a_value);
+
+  /**
+   * Determining the diversity of a population requires a pass over all
+   * individuals, hence it is only done for selected generations.
+   *
+   * @param a_generationNr the current generation number
+   * @return true: diversity should be determined for the given generation
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  boolean isDiversitySampled(int a_generationNr);
+}
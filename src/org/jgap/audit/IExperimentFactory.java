@@ -0,0 +1,45 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import org.jgap.*;
+
+/**
+ * Creates the genotype for a single run of a permutation executed by an
+ * ExperimentRunner.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IExperimentFactory {
+  /**
+   * Creates the initial genotype of a run. Called within the thread executing
+   * the run. The genotype must have a Configuration of its own, created with
+   * the ID given, because runs are executed in parallel and Configuration
+   * separates its settings by thread and ID. The configuration of the
+   * permutation is shared by all runs and must only be read, e.g. to
+   * determine the genetic operators and natural selectors to use.
+   *
+   * @param a_permutation configuration of the permutation as returned by
+   * Evaluator.next()
+   * @param a_permutationIndex index of the permutation
+   * @param a_run index of the run of the permutation
+   * @param a_id ID to create the configuration of the run with
+   * @return the initialized genotype
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  Genotype createGenotype(Configuration a_permutation, int a_permutationIndex,
+                          int a_run, String a_id)
+      throws InvalidConfigurationException;
+}
@@ -0,0 +1,387 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.jgap.*;
+
+/**
+ * Compact log of the lineage of chromosomes: each record holds the ID of a
+ * child, the IDs of up to two parents, the operator that created the child
+ * and the generation. Records are appended to a ring buffer outside the Java
+ * heap (direct or memory-mapped file), so the log neither produces garbage
+ * nor holds references to chromosomes. When the buffer is full, the oldest
+ * records are overwritten.
+ * <p>
+ * Set the log via Configuration.setLineageLog. Genetic operators then record
+ * each offspring, IDs are assigned to chromosomes on their first appearance
+ * in the log (see BaseChromosome.getLineageID). Contrary to the unique ID
+ * templates used with an IEvolutionMonitor, no maps are created per
+ * chromosome or gene. The log should be queried after the evolution, as
+ * concurrent appends may be seen incompletely.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class LineageLog {
+  /**
+   * Size of a record in bytes: child, parent 1, parent 2 (longs), operator
+   * and generation (ints).
+   */
+  public final static int RECORD_SIZE = 32;
+
+  /**
+   * ID denoting no chromosome, e.g. the missing second parent of a mutant.
+   */
+  public final static long NONE = 0;
+
+  private ByteBuffer m_buffer;
+
+  private int m_capacity;
+
+  private AtomicLong m_written;
+
+  private AtomicLong m_lastID;
+
+  private RandomAccessFile m_file;
+
+  private ConcurrentMap<Class, Integer> m_operatorIDs;
+
+  private List<String> m_operatorNames;
+
+  /**
+   * Creates a log kept in direct (off-heap) memory.
+   *
+   * @param a_capacity maximum number of records retained
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public LineageLog(int a_capacity) {
+    checkCapacity(a_capacity);
+    init(ByteBuffer.allocateDirect(a_capacity * RECORD_SIZE), a_capacity);
+  }
+
+  /**
+   * Creates a log kept in a memory-mapped file, e.g. to retain more records
+   * than fit into memory. An existing file is overwritten.
+   *
+   * @param a_file the file to map
+   * @param a_capacity maximum number of records retained
+   *
+   * @throws IOException if the file could not be mapped
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public LineageLog(File a_file, int a_capacity)
+      throws IOException {
+    checkCapacity(a_capacity);
+    m_file = new RandomAccessFile(a_file, "rw");
+    long size = (long) a_capacity * RECORD_SIZE;
+    m_file.setLength(size);
+    init(m_file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size),
+         a_capacity);
+  }
+
+  private void checkCapacity(int a_capacity) {
+    if (a_capacity < 1 || a_capacity > Integer.MAX_VALUE / RECORD_SIZE) {
+      throw new IllegalArgumentException("Capacity must be between 1 and "
+                                         + Integer.MAX_VALUE / RECORD_SIZE);
+    }
+  }
+
+  private void init(ByteBuffer a_buffer, int a_capacity) {
+    m_buffer = a_buffer;
+    m_capacity = a_capacity;
+    m_written = new AtomicLong();
+    m_lastID = new AtomicLong();
+    m_operatorIDs = new ConcurrentHashMap<Class, Integer>();
+    m_operatorNames = new CopyOnWriteArrayList<String>();
+  }
+
+  /**
+   * Returns the lineage ID of a chromosome, assigning a new one if the
+   * chromosome has none yet.
+   *
+   * @param a_chrom the chromosome, may be null
+   * @return the lineage ID, NONE for null or chromosomes not derived from
+   * BaseChromosome
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getID(IChromosome a_chrom) {
+    if (! (a_chrom instanceof BaseChromosome)) {
+      return NONE;
+    }
+    BaseChromosome chrom = (BaseChromosome) a_chrom;
+    long id = chrom.getLineageID();
+    if (id == NONE) {
+      id = m_lastID.incrementAndGet();
+      chrom.setLineageID(id);
+    }
+    return id;
+  }
+
+  /**
+   * Returns the ID of an operator, registering the class of the operator on
+   * first use.
+   *
+   * @param a_operator the operator (or natural selector)
+   * @return the ID of the operator's class
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getOperatorID(Object a_operator) {
+    Class clazz = a_operator.getClass();
+    Integer id = m_operatorIDs.get(clazz);
+    if (id == null) {
+      synchronized (m_operatorNames) {
+        id = m_operatorIDs.get(clazz);
+        if (id == null) {
+          m_operatorNames.add(clazz.getName());
+          id = new Integer(m_operatorNames.size() - 1);
+          m_operatorIDs.put(clazz, id);
+        }
+      }
+    }
+    return id.intValue();
+  }
+
+  /**
+   * @param a_operatorID ID of an operator
+   * @return class name of the operator
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public String getOperatorName(int a_operatorID) {
+    return m_operatorNames.get(a_operatorID);
+  }
+
+  /**
+   * Records that a chromosome was derived from one or two parents.
+   *
+   * @param a_child the offspring
+   * @param a_parent1 the first parent
+   * @param a_parent2 the second parent, null if none
+   * @param a_operator the operator creating the offspring
+   * @param a_generation the current generation number
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void record(IChromosome a_child, IChromosome a_parent1,
+                     IChromosome a_parent2, Object a_operator,
+                     int a_generation) {
+    record(getID(a_child), getID(a_parent1), getID(a_parent2),
+           getOperatorID(a_operator), a_generation);
+  }
+
+  /**
+   * Appends a record.
+   *
+   * @param a_child ID of the offspring
+   * @param a_parent1 ID of the first parent
+   * @param a_parent2 ID of the second parent, NONE if none
+   * @param a_operatorID ID of the creating operator
+   * @param a_generation the current generation number
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void record(long a_child, long a_parent1, long a_parent2,
+                     int a_operatorID, int a_generation) {
+    long seq = m_written.getAndIncrement();
+    int offset = (int) (seq % m_capacity) * RECORD_SIZE;
+    // Absolute puts do not touch the position of the buffer, so concurrent
+    // writers of different records do not interfere.
+    // --------------------------------------------------------------------
+    m_buffer.putLong(offset, a_child);
+    m_buffer.putLong(offset + 8, a_parent1);
+    m_buffer.putLong(offset + 16, a_parent2);
+    m_buffer.putInt(offset + 24, a_operatorID);
+    m_buffer.putInt(offset + 28, a_generation);
+  }
+
+  /**
+   * @return number of records appended in total
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getWritten() {
+    return m_written.get();
+  }
+
+  /**
+   * @return sequence number of the oldest record retained
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getFirst() {
+    return Math.max(0, m_written.get() - m_capacity);
+  }
+
+  /**
+   * @return number of records retained
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int size() {
+    return (int) Math.min(m_written.get(), m_capacity);
+  }
+
+  public int getCapacity() {
+    return m_capacity;
+  }
+
+  public long getChildID(long a_seq) {
+    return m_buffer.getLong(offset(a_seq));
+  }
+
+  /**
+   * @param a_seq sequence number of the record
+   * @param a_index 1 for the first parent, 2 for the second one
+   * @return ID of the parent, NONE if none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getParentID(long a_seq, int a_index) {
+    if (a_index != 1 && a_index != 2) {
+      throw new IllegalArgumentException("Parent index must be 1 or 2");
+    }
+    return m_buffer.getLong(offset(a_seq) + a_index * 8);
+  }
+
+  public int getOperatorID(long a_seq) {
+    return m_buffer.getInt(offset(a_seq) + 24);
+  }
+
+  public int getGeneration(long a_seq) {
+    return m_buffer.getInt(offset(a_seq) + 28);
+  }
+
+  private int offset(long a_seq) {
+    if (a_seq < getFirst() || a_seq >= m_written.get()) {
+      throw new IllegalArgumentException("Record " + a_seq
+                                         + " not retained");
+    }
+    return (int) (a_seq % m_capacity) * RECORD_SIZE;
+  }
+
+  /**
+   * Determines the parents of a chromosome by its most recent record.
+   *
+   * @param a_childID lineage ID of the chromosome
+   * @return IDs of the parents (the second one may be NONE), null if no
+   * record of the chromosome is retained
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long[] getParents(long a_childID) {
+    long first = getFirst();
+    for (long seq = m_written.get() - 1; seq >= first; seq--) {
+      if (getChildID(seq) == a_childID) {
+        return new long[] {getParentID(seq, 1), getParentID(seq, 2)};
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param a_parentID lineage ID of a chromosome
+   * @return IDs of all chromosomes derived from the given one
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long[] getChildren(long a_parentID) {
+    List<Long> children = new ArrayList<Long>();
+    long end = m_written.get();
+    for (long seq = getFirst(); seq < end; seq++) {
+      if (getParentID(seq, 1) == a_parentID
+          || getParentID(seq, 2) == a_parentID) {
+        children.add(new Long(getChildID(seq)));
+      }
+    }
+    long[] result = new long[children.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = children.get(i).longValue();
+    }
+    return result;
+  }
+
+  /**
+   * Determines all ancestors of a chromosome retained in the log.
+   *
+   * @param a_childID lineage ID of the chromosome
+   * @return IDs of all ancestors
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Set<Long> getAncestors(long a_childID) {
+    // Index the parents of each child once instead of scanning per ancestor.
+    // ----------------------------------------------------------------------
+    Map<Long, long[]> parents = new HashMap<Long, long[]>();
+    long end = m_written.get();
+    for (long seq = getFirst(); seq < end; seq++) {
+      parents.put(new Long(getChildID(seq)),
+                  new long[] {getParentID(seq, 1), getParentID(seq, 2)});
+    }
+    Set<Long> result = new HashSet<Long>();
+    LinkedList<Long> open = new LinkedList<Long>();
+    open.add(new Long(a_childID));
+    while (!open.isEmpty()) {
+      long[] ids = parents.get(open.removeFirst());
+      if (ids == null) {
+        continue;
+      }
+      for (int i = 0; i < ids.length; i++) {
+        Long id = new Long(ids[i]);
+        if (ids[i] != NONE && result.add(id)) {
+          open.add(id);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes the records to the underlying file (if any) and releases it.
+   * The log must not be used afterwards.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void close()
+      throws IOException {
+    if (m_file != null) {
+      ( (MappedByteBuffer) m_buffer).force();
+      m_file.close();
+      m_file = null;
+    }
+  }
+}
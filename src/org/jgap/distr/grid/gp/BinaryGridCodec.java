@@ -0,0 +1,500 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.homedns.dade.jcgrid.message.*;
+import org.jgap.distr.*;
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Compact binary codec for JGAPRequestGP and JGAPResultGP objects, also when
+ * wrapped in a GridMessageWorkRequest or GridMessageWorkResult.
+ * <p>
+ * The configuration and the node sets are not transmitted, only the ID under
+ * which they are registered in a GridCodecDictionary. Programs are written
+ * with GPProgramOutputStream, i.e. as opcodes plus terminal values and the
+ * fitness. Strategies and other metadata objects are written via Java
+ * serialization, parts not being serializable (like the worker feedback) are
+ * omitted. The data following the header can optionally be compressed.
+ * <p>
+ * Data not starting with the magic number of this format, as well as objects
+ * of other types, are handled by a fallback codec (XML by default). Thus data
+ * written by the XStream based path can still be read.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class BinaryGridCodec
+    implements IGridCodec {
+  /**
+   * Magic number at the beginning of each encoded object ("JGWC").
+   */
+  public final static int MAGIC = 0x4A475743;
+
+  /**
+   * Version of the binary format written.
+   */
+  public final static int VERSION = 1;
+
+  private final static int FLAG_COMPRESSED = 1;
+
+  private final static int TYPE_REQUEST = 1;
+
+  private final static int TYPE_RESULT = 2;
+
+  private final static int TYPE_MESSAGE_REQUEST = 3;
+
+  private final static int TYPE_MESSAGE_RESULT = 4;
+
+  private GridCodecDictionary m_dictionary;
+
+  private IGridCodec m_fallback;
+
+  private boolean m_compress;
+
+  /**
+   * Constructor using an XStreamGridCodec as fallback.
+   *
+   * @param a_dictionary the configurations known to client and workers
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public BinaryGridCodec(GridCodecDictionary a_dictionary) {
+    this(a_dictionary, null);
+  }
+
+  /**
+   * @param a_dictionary the configurations known to client and workers
+   * @param a_fallback codec for objects not supported by the binary format
+   * and for reading data not written in the binary format, null: an
+   * XStreamGridCodec is created when needed
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public BinaryGridCodec(GridCodecDictionary a_dictionary,
+                         IGridCodec a_fallback) {
+    m_dictionary = a_dictionary;
+    m_fallback = a_fallback;
+  }
+
+  /**
+   * @param a_compress true: compress the data following the header with GZIP
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setCompress(boolean a_compress) {
+    m_compress = a_compress;
+  }
+
+  public boolean isCompress() {
+    return m_compress;
+  }
+
+  public synchronized IGridCodec getFallback() {
+    if (m_fallback == null) {
+      m_fallback = new XStreamGridCodec();
+    }
+    return m_fallback;
+  }
+
+  public GridCodecDictionary getDictionary() {
+    return m_dictionary;
+  }
+
+  public void encode(Object a_obj, OutputStream a_out)
+      throws Exception {
+    int type;
+    if (a_obj instanceof JGAPRequestGP) {
+      type = TYPE_REQUEST;
+    }
+    else if (a_obj instanceof JGAPResultGP) {
+      type = TYPE_RESULT;
+    }
+    else if (a_obj instanceof GridMessageWorkRequest
+             && ( (GridMessageWorkRequest) a_obj).getWorkRequest()
+             instanceof JGAPRequestGP) {
+      type = TYPE_MESSAGE_REQUEST;
+    }
+    else if (a_obj instanceof GridMessageWorkResult
+             && ( (GridMessageWorkResult) a_obj).getWorkResult()
+             instanceof JGAPResultGP) {
+      type = TYPE_MESSAGE_RESULT;
+    }
+    else {
+      getFallback().encode(a_obj, a_out);
+      return;
+    }
+    DataOutputStream header = new DataOutputStream(a_out);
+    header.writeInt(MAGIC);
+    header.writeByte(VERSION);
+    header.writeByte(m_compress ? FLAG_COMPRESSED : 0);
+    header.flush();
+    GZIPOutputStream zip = null;
+    DataOutputStream out;
+    if (m_compress) {
+      zip = new GZIPOutputStream(a_out);
+      out = new DataOutputStream(new BufferedOutputStream(zip));
+    }
+    else {
+      out = new DataOutputStream(new BufferedOutputStream(a_out));
+    }
+    out.writeByte(type);
+    switch (type) {
+      case TYPE_REQUEST:
+        writeRequest( (JGAPRequestGP) a_obj, out);
+        break;
+      case TYPE_RESULT:
+        writeResult( (JGAPResultGP) a_obj, out);
+        break;
+      case TYPE_MESSAGE_REQUEST:
+        writeRequest( (JGAPRequestGP) ( (GridMessageWorkRequest) a_obj).
+                     getWorkRequest(), out);
+        break;
+      default:
+        writeResult( (JGAPResultGP) ( (GridMessageWorkResult) a_obj).
+                    getWorkResult(), out);
+    }
+    out.flush();
+    // Finish compressed data without closing the stream of the caller.
+    // ----------------------------------------------------------------
+    if (zip != null) {
+      zip.finish();
+    }
+  }
+
+  public Object decode(InputStream a_in)
+      throws Exception {
+    InputStream in = a_in;
+    if (!in.markSupported()) {
+      in = new BufferedInputStream(in);
+    }
+    in.mark(4);
+    DataInputStream header = new DataInputStream(in);
+    int magic;
+    try {
+      magic = header.readInt();
+    } catch (EOFException eex) {
+      magic = 0;
+    }
+    if (magic != MAGIC) {
+      in.reset();
+      return getFallback().decode(in);
+    }
+    int version = header.readUnsignedByte();
+    if (version > VERSION) {
+      throw new IOException("Unsupported version of binary grid format: "
+                            + version);
+    }
+    int flags = header.readUnsignedByte();
+    DataInputStream data;
+    if ( (flags & FLAG_COMPRESSED) != 0) {
+      data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+          in)));
+    }
+    else {
+      data = header;
+    }
+    int type = data.readUnsignedByte();
+    switch (type) {
+      case TYPE_REQUEST:
+        return readRequest(data);
+      case TYPE_RESULT:
+        return readResult(data);
+      case TYPE_MESSAGE_REQUEST:
+        return new GridMessageWorkRequest(readRequest(data));
+      case TYPE_MESSAGE_RESULT:
+        return new GridMessageWorkResult(readResult(data));
+      default:
+        throw new StreamCorruptedException("Unknown type of grid object: "
+                                           + type);
+    }
+  }
+
+  /**
+   * Writes a request. The grid configuration of the request must be
+   * registered in the dictionary.
+   *
+   * @param a_req the request to write
+   * @param a_out the stream to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeRequest(JGAPRequestGP a_req, DataOutputStream a_out)
+      throws IOException {
+    String dictId = m_dictionary.getId(a_req.getGridConfiguration());
+    if (dictId == null) {
+      throw new NotSerializableException("Grid configuration of request not"
+                                         + " registered in dictionary");
+    }
+    a_out.writeUTF(dictId);
+    writeString(a_req.getSessionName(), a_out);
+    writeString(a_req.getID(), a_out);
+    a_out.writeInt(a_req.getChunk());
+    writeString(a_req.getTitle(), a_out);
+    writeString(a_req.getDescription(), a_out);
+    writeDate(a_req.getRequestDate(), a_out);
+    a_out.writeDouble(a_req.getMinFitness());
+    writeObjects(new Object[] {a_req.getWorkerEvolveStrategy(),
+                 a_req.getWorkerReturnStrategy(),
+                 a_req.getGenotypeInitializer(),
+                 a_req.getRequesterInfo()}, a_out);
+    writePopulation(a_req.getPopulation(), a_out);
+  }
+
+  /**
+   * Reads a request, its grid configuration is taken from the dictionary.
+   *
+   * @param a_in the stream to read from
+   * @return the request read
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected JGAPRequestGP readRequest(DataInputStream a_in)
+      throws Exception {
+    IGridConfigurationGP config = getConfiguration(a_in.readUTF());
+    String sessionName = readString(a_in);
+    String id = readString(a_in);
+    int chunk = a_in.readInt();
+    String title = readString(a_in);
+    String descr = readString(a_in);
+    Date date = readDate(a_in);
+    double minFitness = a_in.readDouble();
+    Object[] objects = readObjects(a_in);
+    GPPopulation pop = readPopulation(config, a_in);
+    JGAPRequestGP req = new JGAPRequestGP(sessionName, id, chunk, config, pop,
+        (IWorkerEvolveStrategyGP) objects[0]);
+    req.setWorkerReturnStrategy( (IWorkerReturnStrategyGP) objects[1]);
+    req.setGenotypeInitializer( (IGenotypeInitializerGP) objects[2]);
+    req.setRequesterInfo( (MasterInfo) objects[3]);
+    req.setTitle(title);
+    req.setDescription(descr);
+    req.setRequestDate(date);
+    req.setMinFitness(minFitness);
+    return req;
+  }
+
+  /**
+   * Writes a result. The configuration of its programs must be registered in
+   * the dictionary.
+   *
+   * @param a_res the result to write
+   * @param a_out the stream to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeResult(JGAPResultGP a_res, DataOutputStream a_out)
+      throws IOException {
+    GPPopulation pop = a_res.getPopulation();
+    IGPProgram fittest = a_res.getFittest();
+    GPConfiguration conf;
+    if (pop != null) {
+      conf = pop.getGPConfiguration();
+    }
+    else if (fittest != null) {
+      conf = fittest.getGPConfiguration();
+    }
+    else {
+      conf = null;
+    }
+    String dictId = m_dictionary.getId(conf);
+    if (dictId == null) {
+      throw new NotSerializableException("Configuration of result not"
+                                         + " registered in dictionary");
+    }
+    a_out.writeUTF(dictId);
+    writeString(a_res.getSessionName(), a_out);
+    writeString(a_res.getID(), a_out);
+    a_out.writeInt(a_res.getChunk());
+    writeString(a_res.getTitle(), a_out);
+    writeString(a_res.getDescription(), a_out);
+    writeDate(a_res.getResponseDate(), a_out);
+    a_out.writeLong(a_res.getUnitDone());
+    a_out.writeLong(a_res.getDurationComputation());
+    writeObjects(new Object[] {a_res.getWorkerInfo(), a_res.getGenericData(),
+                 a_res.getStatistics()}, a_out);
+    if (fittest == null) {
+      a_out.writeBoolean(false);
+    }
+    else {
+      a_out.writeBoolean(true);
+      GPProgramOutputStream progOut = new GPProgramOutputStream(a_out);
+      progOut.writeProgram(fittest);
+      progOut.flush();
+    }
+    writePopulation(pop, a_out);
+  }
+
+  /**
+   * Reads a result, the configuration of its programs is taken from the
+   * dictionary.
+   *
+   * @param a_in the stream to read from
+   * @return the result read
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected JGAPResultGP readResult(DataInputStream a_in)
+      throws Exception {
+    IGridConfigurationGP config = getConfiguration(a_in.readUTF());
+    String sessionName = readString(a_in);
+    String id = readString(a_in);
+    int chunk = a_in.readInt();
+    String title = readString(a_in);
+    String descr = readString(a_in);
+    Date date = readDate(a_in);
+    long unitDone = a_in.readLong();
+    long duration = a_in.readLong();
+    Object[] objects = readObjects(a_in);
+    IGPProgram fittest = null;
+    if (a_in.readBoolean()) {
+      GPProgramInputStream progIn = new GPProgramInputStream(a_in,
+          config.getConfiguration(), config.getNodeSets());
+      fittest = progIn.readProgram();
+    }
+    GPPopulation pop = readPopulation(config, a_in);
+    JGAPResultGP res = new JGAPResultGP(sessionName, id, chunk, pop, unitDone);
+    res.setFittest(fittest);
+    res.setTitle(title);
+    res.setDescription(descr);
+    res.setResponseDate(date);
+    res.setDurationComputation(duration);
+    res.setWorkerInfo( (MasterInfo) objects[0]);
+    res.setGenericData(objects[1]);
+    if (objects.length > 2) {
+      res.setStatistics( (GPPopulationStatistics) objects[2]);
+    }
+    return res;
+  }
+
+  protected void writePopulation(GPPopulation a_pop, DataOutputStream a_out)
+      throws IOException {
+    if (a_pop == null) {
+      a_out.writeBoolean(false);
+    }
+    else {
+      a_out.writeBoolean(true);
+      GPProgramOutputStream progOut = new GPProgramOutputStream(a_out);
+      progOut.writePopulation(a_pop);
+      progOut.flush();
+    }
+  }
+
+  protected GPPopulation readPopulation(IGridConfigurationGP a_config,
+                                        DataInputStream a_in)
+      throws Exception {
+    if (!a_in.readBoolean()) {
+      return null;
+    }
+    GPProgramInputStream progIn = new GPProgramInputStream(a_in,
+        a_config.getConfiguration(), a_config.getNodeSets());
+    return progIn.readPopulation();
+  }
+
+  /**
+   * Writes objects via Java serialization. Objects not being serializable are
+   * written as null.
+   *
+   * @param a_objects the objects to write
+   * @param a_out the stream to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeObjects(Object[] a_objects, DataOutputStream a_out)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bytes);
+    oos.writeInt(a_objects.length);
+    for (Object obj : a_objects) {
+      if (obj instanceof Serializable) {
+        oos.writeObject(obj);
+      }
+      else {
+        oos.writeObject(null);
+      }
+    }
+    oos.close();
+    a_out.writeInt(bytes.size());
+    bytes.writeTo(a_out);
+  }
+
+  protected Object[] readObjects(DataInputStream a_in)
+      throws IOException, ClassNotFoundException {
+    byte[] bytes = new byte[a_in.readInt()];
+    a_in.readFully(bytes);
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(
+        bytes));
+    Object[] result = new Object[ois.readInt()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = ois.readObject();
+    }
+    ois.close();
+    return result;
+  }
+
+  private IGridConfigurationGP getConfiguration(String a_dictId)
+      throws IOException {
+    IGridConfigurationGP config = m_dictionary.getConfiguration(a_dictId);
+    if (config == null) {
+      throw new InvalidObjectException("Grid configuration " + a_dictId
+                                       + " not registered in dictionary");
+    }
+    return config;
+  }
+
+  private static void writeString(String a_value, DataOutputStream a_out)
+      throws IOException {
+    a_out.writeBoolean(a_value != null);
+    if (a_value != null) {
+      a_out.writeUTF(a_value);
+    }
+  }
+
+  private static String readString(DataInputStream a_in)
+      throws IOException {
+    if (a_in.readBoolean()) {
+      return a_in.readUTF();
+    }
+    return null;
+  }
+
+  private static void writeDate(Date a_value, DataOutputStream a_out)
+      throws IOException {
+    a_out.writeBoolean(a_value != null);
+    if (a_value != null) {
+      a_out.writeLong(a_value.getTime());
+    }
+  }
+
+  private static Date readDate(DataInputStream a_in)
+      throws IOException {
+    if (a_in.readBoolean()) {
+      return new Date(a_in.readLong());
+    }
+    return null;
+  }
+}
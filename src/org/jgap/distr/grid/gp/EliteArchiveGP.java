@@ -0,0 +1,196 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Keeps the fittest programs received from workers on behalf of the client.
+ * Results containing only an elite (see EliteReturnStrategyGP) are merged
+ * into the archive instead of replacing the population of the client. Equal
+ * programs are held only once.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class EliteArchiveGP
+    implements Serializable {
+  private GPConfiguration m_conf;
+
+  private int m_capacity;
+
+  private List<IGPProgram> m_programs;
+
+  private Set<String> m_keys;
+
+  private transient GPProgramFitnessComparator m_comparator;
+
+  private GPPopulationStatistics m_lastStatistics;
+
+  /**
+   * @param a_conf the configuration of the client
+   * @param a_capacity maximum number of programs to keep
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public EliteArchiveGP(GPConfiguration a_conf, int a_capacity) {
+    if (a_capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive!");
+    }
+    m_conf = a_conf;
+    m_capacity = a_capacity;
+    m_programs = new ArrayList<IGPProgram>();
+    m_keys = new HashSet<String>();
+  }
+
+  /**
+   * Merges the population and fittest program of a result into the archive.
+   *
+   * @param a_result the result received from a worker
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void add(JGAPResultGP a_result) {
+    add(a_result.getPopulation());
+    if (a_result.getFittest() != null) {
+      add(a_result.getFittest());
+    }
+    if (a_result.getStatistics() != null) {
+      m_lastStatistics = a_result.getStatistics();
+    }
+  }
+
+  /**
+   * @param a_pop programs to merge into the archive, may be null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void add(GPPopulation a_pop) {
+    if (a_pop == null) {
+      return;
+    }
+    IGPProgram[] programs = a_pop.getGPPrograms();
+    for (int i = 0; i < programs.length && programs[i] != null; i++) {
+      add(programs[i]);
+    }
+  }
+
+  /**
+   * Adds a program if it is fitter than the worst one held or the archive is
+   * not full.
+   *
+   * @param a_program the program to add
+   * @return true: program added
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized boolean add(IGPProgram a_program) {
+    String key = getKey(a_program);
+    if (m_keys.contains(key)) {
+      return false;
+    }
+    Comparator comparator = getComparator();
+    int index = Collections.binarySearch(m_programs, a_program, comparator);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    if (index >= m_capacity) {
+      return false;
+    }
+    m_programs.add(index, a_program);
+    m_keys.add(key);
+    if (m_programs.size() > m_capacity) {
+      m_keys.remove(getKey(m_programs.remove(m_capacity)));
+    }
+    return true;
+  }
+
+  /**
+   * @return the programs held, fittest first
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized IGPProgram[] getPrograms() {
+    return m_programs.toArray(new IGPProgram[m_programs.size()]);
+  }
+
+  /**
+   * @return the fittest program held, or null if the archive is empty
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized IGPProgram getFittest() {
+    if (m_programs.isEmpty()) {
+      return null;
+    }
+    return m_programs.get(0);
+  }
+
+  /**
+   * @return the programs held as population, e.g. to be split into requests
+   * by MigrantSplitStrategyGP; null if the archive is empty
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized GPPopulation getPopulation()
+      throws InvalidConfigurationException {
+    if (m_programs.isEmpty()) {
+      return null;
+    }
+    GPPopulation pop = new GPPopulation(m_conf, m_programs.size());
+    pop.setGPPrograms(getPrograms());
+    return pop;
+  }
+
+  /**
+   * @return the statistics of the population evolved by the latest result
+   * received, null if none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized GPPopulationStatistics getLastStatistics() {
+    return m_lastStatistics;
+  }
+
+  public synchronized int size() {
+    return m_programs.size();
+  }
+
+  private GPProgramFitnessComparator getComparator() {
+    if (m_comparator == null) {
+      m_comparator = new GPProgramFitnessComparator(m_conf.
+          getGPFitnessEvaluator());
+    }
+    return m_comparator;
+  }
+
+  private String getKey(IGPProgram a_program) {
+    StringBuffer key = new StringBuffer();
+    for (int i = 0; i < a_program.size(); i++) {
+      key.append(a_program.getChromosome(i).toStringNorm(0));
+      key.append('\n');
+    }
+    return key.toString();
+  }
+}
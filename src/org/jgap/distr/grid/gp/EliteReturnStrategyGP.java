@@ -0,0 +1,110 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Returns only the fittest programs of the evolved population (the elite)
+ * together with summary statistics of the whole population. This reduces the
+ * size of a result by orders of magnitude for large populations.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class EliteReturnStrategyGP
+    implements IWorkerReturnStrategyGP {
+  private int m_eliteSize;
+
+  /**
+   * @param a_eliteSize maximum number of programs to return
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public EliteReturnStrategyGP(int a_eliteSize) {
+    if (a_eliteSize < 1) {
+      throw new IllegalArgumentException("Elite size must be positive!");
+    }
+    m_eliteSize = a_eliteSize;
+  }
+
+  public int getEliteSize() {
+    return m_eliteSize;
+  }
+
+  /**
+   * Assembles a result holding the elite of the evolved population. If no
+   * evolution took place, the elite of the population of the request is
+   * returned.
+   *
+   * @param a_req the request computed
+   * @param a_genotype the evolved genotype, may be null
+   * @return the result containing the elite and statistics
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public JGAPResultGP assembleResult(JGAPRequestGP a_req,
+                                     GPGenotype a_genotype)
+      throws Exception {
+    GPPopulation pop;
+    if (a_genotype != null) {
+      pop = a_genotype.getGPPopulation();
+    }
+    else {
+      pop = a_req.getPopulation();
+    }
+    GPPopulation elite = null;
+    GPPopulationStatistics stats = null;
+    if (pop != null) {
+      IGPProgram[] programs = determineElite(pop, m_eliteSize);
+      if (programs.length > 0) {
+        elite = new GPPopulation(pop.getGPConfiguration(), programs.length);
+        elite.setGPPrograms(programs);
+      }
+      stats = new GPPopulationStatistics(pop);
+    }
+    JGAPResultGP result = new JGAPResultGP(a_req.getSessionName(),
+        a_req.getID(), a_req.getChunk(), elite, 1);
+    result.setStatistics(stats);
+    return result;
+  }
+
+  /**
+   * Determines the fittest programs of a population without changing the
+   * order of the population.
+   *
+   * @param a_pop the population, may contain empty slots
+   * @param a_count maximum number of programs to determine
+   * @return the fittest programs, fittest first
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static IGPProgram[] determineElite(GPPopulation a_pop, int a_count) {
+    List<IGPProgram> programs = new ArrayList<IGPProgram>();
+    if (a_pop != null) {
+      IGPProgram[] all = a_pop.getGPPrograms();
+      for (int i = 0; i < all.length && all[i] != null; i++) {
+        programs.add(all[i]);
+      }
+      Collections.sort(programs, new GPProgramFitnessComparator(a_pop.
+          getGPConfiguration().getGPFitnessEvaluator()));
+    }
+    int count = Math.min(a_count, programs.size());
+    return programs.subList(0, count).toArray(new IGPProgram[count]);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Summary statistics of a population. Returned by workers instead of the
+ * whole population (see EliteReturnStrategyGP).
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GPPopulationStatistics
+    implements Serializable {
+  private int m_size;
+
+  private int m_evaluated;
+
+  private double m_bestFitness;
+
+  private double m_worstFitness;
+
+  private double m_meanFitness;
+
+  private double m_fitnessDeviation;
+
+  private double m_meanNodes;
+
+  /**
+   * Computes the statistics of a population. Only programs with a fitness
+   * value are considered for the fitness statistics.
+   *
+   * @param a_pop the population to compute the statistics for
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPPopulationStatistics(GPPopulation a_pop) {
+    IGPFitnessEvaluator evaluator = a_pop.getGPConfiguration().
+        getGPFitnessEvaluator();
+    double sum = 0;
+    double sumSquares = 0;
+    long nodes = 0;
+    m_bestFitness = Double.NaN;
+    m_worstFitness = Double.NaN;
+    IGPProgram[] programs = a_pop.getGPPrograms();
+    for (int i = 0; i < programs.length && programs[i] != null; i++) {
+      IGPProgram prog = programs[i];
+      m_size++;
+      for (int j = 0; j < prog.size(); j++) {
+        nodes += prog.getChromosome(j).size();
+      }
+      double fitness = prog.getFitnessValue();
+      if (Double.isNaN(fitness) || Math.abs(fitness
+          - FitnessFunction.NO_FITNESS_VALUE) < FitnessFunction.DELTA) {
+        continue;
+      }
+      if (m_evaluated == 0) {
+        m_bestFitness = fitness;
+        m_worstFitness = fitness;
+      }
+      else {
+        if (evaluator.isFitter(fitness, m_bestFitness)) {
+          m_bestFitness = fitness;
+        }
+        if (evaluator.isFitter(m_worstFitness, fitness)) {
+          m_worstFitness = fitness;
+        }
+      }
+      m_evaluated++;
+      sum += fitness;
+      sumSquares += fitness * fitness;
+    }
+    if (m_evaluated > 0) {
+      m_meanFitness = sum / m_evaluated;
+      m_fitnessDeviation = Math.sqrt(Math.max(0, sumSquares / m_evaluated
+          - m_meanFitness * m_meanFitness));
+    }
+    else {
+      m_meanFitness = Double.NaN;
+      m_fitnessDeviation = Double.NaN;
+    }
+    if (m_size > 0) {
+      m_meanNodes = (double) nodes / m_size;
+    }
+  }
+
+  /**
+   * @return number of programs in the population
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getSize() {
+    return m_size;
+  }
+
+  /**
+   * @return number of programs having a fitness value
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getEvaluated() {
+    return m_evaluated;
+  }
+
+  /**
+   * @return best fitness value, NaN if no program has a fitness value
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getBestFitness() {
+    return m_bestFitness;
+  }
+
+  /**
+   * @return worst fitness value, NaN if no program has a fitness value
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getWorstFitness() {
+    return m_worstFitness;
+  }
+
+  public double getMeanFitness() {
+    return m_meanFitness;
+  }
+
+  /**
+   * @return standard deviation of the fitness values
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getFitnessDeviation() {
+    return m_fitnessDeviation;
+  }
+
+  /**
+   * @return average number of nodes per program
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getMeanNodes() {
+    return m_meanNodes;
+  }
+
+  public String toString() {
+    return "size=" + m_size + ", evaluated=" + m_evaluated + ", best="
+        + m_bestFitness + ", worst=" + m_worstFitness + ", mean="
+        + m_meanFitness + ", deviation=" + m_fitnessDeviation + ", nodes="
+        + m_meanNodes;
+  }
+}
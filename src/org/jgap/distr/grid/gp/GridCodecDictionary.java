@@ -0,0 +1,97 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.util.*;
+
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Grid configurations known to both the client and the workers, each
+ * registered under an ID. The binary wire format only transmits the ID
+ * instead of the whole configuration and the node sets.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GridCodecDictionary {
+  private Map<String, IGridConfigurationGP> m_configs;
+
+  public GridCodecDictionary() {
+    m_configs = new LinkedHashMap<String, IGridConfigurationGP>();
+  }
+
+  /**
+   * Registers a grid configuration. Client and workers must use the same ID
+   * for equivalent configurations (same node sets in the same order).
+   *
+   * @param a_id the ID of the configuration
+   * @param a_config the grid configuration, including node sets
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void register(String a_id, IGridConfigurationGP a_config) {
+    if (a_id == null || a_config == null) {
+      throw new IllegalArgumentException("ID and configuration must not be"
+                                         + " null!");
+    }
+    m_configs.put(a_id, a_config);
+  }
+
+  /**
+   * @param a_id ID of a registered configuration
+   * @return the grid configuration registered, or null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized IGridConfigurationGP getConfiguration(String a_id) {
+    return m_configs.get(a_id);
+  }
+
+  /**
+   * @param a_config a grid configuration
+   * @return the ID the grid configuration was registered with, or null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized String getId(IGridConfigurationGP a_config) {
+    for (Map.Entry<String, IGridConfigurationGP> entry : m_configs.entrySet()) {
+      if (entry.getValue() == a_config) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param a_conf a GP configuration
+   * @return the ID of the grid configuration holding the given GP
+   * configuration, or null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized String getId(GPConfiguration a_conf) {
+    for (Map.Entry<String, IGridConfigurationGP> entry : m_configs.entrySet()) {
+      if (entry.getValue().getConfiguration() == a_conf) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  public synchronized int size() {
+    return m_configs.size();
+  }
+}
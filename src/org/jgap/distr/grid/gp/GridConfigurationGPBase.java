@@ -56,6 +56,11 @@ public abstract class GridConfigurationGPBase
 
   private double m_minFitnessToStore;
 
+  /**
+   * Not sent along with requests, each node configures its own codec.
+   */
+  private transient IGridCodec m_gridCodec;
+
   public GridConfigurationGPBase() {
 //    m_packageName = getClass().getPackage().getName();
     m_context = new BasicContext();
@@ -205,4 +210,17 @@ public abstract class GridConfigurationGPBase
   public void setMinFitnessToStore(double a_minFitnessToStore) {
     m_minFitnessToStore = a_minFitnessToStore;
   }
+
+  public IGridCodec getGridCodec() {
+    if (m_gridCodec == null) {
+      // Write all fields, like the XML databases of previous versions.
+      // --------------------------------------------------------------
+      m_gridCodec = new XStreamGridCodec(null);
+    }
+    return m_gridCodec;
+  }
+
+  public void setGridCodec(IGridCodec a_codec) {
+    m_gridCodec = a_codec;
+  }
 }
@@ -0,0 +1,48 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+
+/**
+ * Converts grid requests and results (and the grid messages wrapping them)
+ * into a byte stream and back. Allows to plug in different wire formats, see
+ * XStreamGridCodec and BinaryGridCodec.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IGridCodec {
+  /**
+   * Writes an object to the given stream. The stream is not closed.
+   *
+   * @param a_obj the object to encode
+   * @param a_out the stream to write to
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void encode(Object a_obj, OutputStream a_out)
+      throws Exception;
+
+  /**
+   * Reads an object written by encode.
+   *
+   * @param a_in the stream to read from
+   * @return the object read
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  Object decode(InputStream a_in)
+      throws Exception;
+}
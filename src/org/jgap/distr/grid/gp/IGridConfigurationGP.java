@@ -92,4 +92,22 @@ public interface IGridConfigurationGP
   double getMinFitnessToStore();
 
   void setMinFitnessToStore(double a_minFitnessToStore);
+
+  /**
+   * @return the codec used by the client to write and read its databases and
+   * result files
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  IGridCodec getGridCodec();
+
+  /**
+   * @param a_codec the codec used by the client to write and read its
+   * databases and result files, null: XML via XStreamGridCodec
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void setGridCodec(IGridCodec a_codec);
 }
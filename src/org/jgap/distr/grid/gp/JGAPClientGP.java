@@ -27,8 +27,6 @@ import org.jgap.gp.*;
 import org.jgap.gp.impl.*;
 import org.jgap.util.*;
 
-import com.thoughtworks.xstream.io.xml.*;
-
 /**
  * A client defines work for the grid and sends it to the JGAPServer.
  * Use this class as base class for your grid client implementations.
@@ -94,6 +92,14 @@ public class JGAPClientGP
       "m_ind"},
   };
 
+  /**
+   * Fields of ClientStatus not written to CLIENT_DATABASE, as they are kept in
+   * journals.
+   */
+  public static final Object[][] JOURNALED_FIELDS = new Object[][] { {
+      ClientStatus.class, "requests"}, {ClientStatus.class, "results"},
+  };
+
   private static transient org.apache.log4j.Logger log
       = org.apache.log4j.Logger.getLogger(JGAPClientGP.class);
 
@@ -134,6 +140,13 @@ public class JGAPClientGP
 
   private PersistableObject m_persister;
 
+  /**
+   * Requests and results of the client status, persisted in journals
+   */
+  private JournalMap<Object> m_requestsJournal;
+
+  private JournalMap<String> m_resultsJournal;
+
   private ResultVerification m_resultsVerified;
 
   private PersistableObject m_resultsPersister;
@@ -146,6 +159,12 @@ public class JGAPClientGP
 
   private int m_max_fetch_results;
 
+  /**
+   * Store fit results in the binary format of GPProgramOutputStream instead
+   * of XML?
+   */
+  private boolean m_binaryResults;
+
   public JGAPClientGP(GridNodeClientConfig a_gridconfig,
                       String a_clientClassName,
                       boolean a_WANMode,
@@ -244,16 +263,25 @@ public class JGAPClientGP
     // Try to load previous object information.
     // ----------------------------------------
     File f = new File(getWorkDirectory(), CLIENT_DATABASE);
-    m_persister = new PersistableObject(f);
+    m_persister = new PersistableObject(f, getGridCodec());
     m_objects = (ClientStatus) m_persister.load();
     if (m_objects == null) {
       m_objects = new ClientStatus();
       m_persister.setObject(m_objects);
     }
+    // Requests and results change often, thus they are kept in journals
+    // instead of rewriting the whole database on each change.
+    // -----------------------------------------------------------------
+    m_requestsJournal = openJournal(CLIENT_DATABASE + ".requests",
+                                    m_objects.getRequests());
+    m_objects.setRequests(m_requestsJournal);
+    m_resultsJournal = openJournal(CLIENT_DATABASE + ".results",
+                                   m_objects.getResults());
+    m_objects.setResults(m_resultsJournal);
     // Try to load previous request information.
     // -----------------------------------------
     f = new File(getWorkDirectory(), RESULTS_DATABASE);
-    m_resultsPersister = new PersistableObject(f);
+    m_resultsPersister = new PersistableObject(f, getGridCodec());
     m_resultsVerified = (ResultVerification) m_resultsPersister.load();
     if (m_resultsVerified == null) {
       m_resultsVerified = new ResultVerification();
@@ -261,6 +289,71 @@ public class JGAPClientGP
     }
   }
 
+  /**
+   * Opens a journal in the work directory. If it is empty, it is filled with
+   * the given entries (read from a database written by a previous version).
+   *
+   * @param a_filename name of the journal file
+   * @param a_entries entries previously stored in the client database
+   * @return the opened journal
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected JournalMap openJournal(String a_filename, Map a_entries)
+      throws IOException {
+    JournalMap journal = new JournalMap(new File(getWorkDirectory(),
+        a_filename));
+    if (journal.isEmpty() && a_entries != null && !a_entries.isEmpty()) {
+      log.info("Importing " + a_entries.size() + " entries into journal "
+               + a_filename);
+      journal.putAll(a_entries);
+      journal.flush();
+    }
+    return journal;
+  }
+
+  /**
+   * Saves the client status. Requests and results are not written as they are
+   * kept in journals, only the journals are flushed.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void saveClientStatus()
+      throws Exception {
+    m_requestsJournal.flush();
+    m_resultsJournal.flush();
+    // Detach the journals, as not every codec supports omitting fields.
+    // -----------------------------------------------------------------
+    m_objects.setRequests(null);
+    m_objects.setResults(null);
+    try {
+      m_persister.save(false, JOURNALED_FIELDS);
+    } finally {
+      m_objects.setRequests(m_requestsJournal);
+      m_objects.setResults(m_resultsJournal);
+    }
+  }
+
+  /**
+   * @return the codec configured for writing and reading the databases and
+   * result files of the client, see IGridConfigurationGP.getGridCodec
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected IGridCodec getGridCodec() {
+    IGridCodec codec = m_gridConfig.getGridCodec();
+    if (codec == null) {
+      codec = new XStreamGridCodec(null);
+    }
+    return codec;
+  }
+
   /**
    * @return the most possibly unique ID of a single program execution
    *
@@ -513,7 +606,7 @@ public class JGAPClientGP
               }
             } finally {
               if (modified) {
-                m_persister.save();
+                m_resultsJournal.flush();
                 modified = false;
               }
             }
@@ -601,6 +694,12 @@ public class JGAPClientGP
     } catch (Throwable t) {
       t.printStackTrace();
     }
+    try {
+      m_requestsJournal.close();
+      m_resultsJournal.close();
+    } catch (IOException iex) {
+      log.warn("Closing journals failed", iex);
+    }
     log.info("Stopping client");
   }
 
@@ -757,7 +856,7 @@ public class JGAPClientGP
                 }
               }
             } finally {
-              m_persister.save();
+              m_resultsJournal.flush();
             }
             i++;
             resultReceived(best);
@@ -776,7 +875,12 @@ public class JGAPClientGP
             if (best != null && best.getFitnessValue() >= minFitness) {
               String filename = getResultFilename(result);
               log.info("Writing result to file " + filename);
-              writeToFile(best, m_workDir, filename);
+              if (m_binaryResults) {
+                writeProgramToFile(best, m_workDir, filename);
+              }
+              else {
+                writeToFile(best, m_workDir, filename);
+              }
             }
             // Now remove the result from the online store.
             // --------------------------------------------
@@ -818,7 +922,7 @@ public class JGAPClientGP
         + "_"
         + a_result.getSessionName()
         + "_" + a_result.getChunk()
-        + ".jgap";
+        + (m_binaryResults ? ".jgpb" : ".jgap");
   }
 
   private JGAPResultGP receiveWorkResult(Object a_result,
@@ -920,7 +1024,7 @@ public class JGAPClientGP
                 CONTEXT_WORK_REQUEST, CONTEXT_ID_EMPTY);
             List requests = a_gcmed.listRequests(context, null, null);
             m_objects.setLastListingRequestsMillis(current);
-            m_persister.save();
+            saveClientStatus();
             if (requests != null && requests.size() > 100) {
               deferRequests = true;
               log.info("Deferring creating and sending further requests"
@@ -950,6 +1054,7 @@ public class JGAPClientGP
                 }
               }
               removeEntries(foundKeys, m_objects.getRequests());
+              m_requestsJournal.flush();
             }
           }
           if (!deferRequests) {
@@ -1030,7 +1135,7 @@ public class JGAPClientGP
   }
 
   /**
-   * Writes an object to a local file.
+   * Writes an object to a local file using the configured codec.
    *
    * @param a_obj the object to persist
    * @param a_dir directory to write the file to
@@ -1042,13 +1147,78 @@ public class JGAPClientGP
    */
   public void writeToFile(Object a_obj, String a_dir, String a_filename)
       throws Exception {
-    JGAPGPXStream xstream = new JGAPGPXStream();
     File f = new File(a_dir, a_filename);
-//    FileOutputStream fos = new FileOutputStream(f);
-    FileWriter fw = new FileWriter(f);
-    CompactWriter compact = new CompactWriter(fw);
-    xstream.marshal(a_obj, compact);
-    fw.close();
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(f));
+    try {
+      getGridCodec().encode(a_obj, out);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Writes a GP program in the compact binary format, see
+   * GPProgramOutputStream. Read it back via readProgramFromFile.
+   *
+   * @param a_prog the program to write
+   * @param a_dir the directory to write to
+   * @param a_filename the name of the file to write
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeProgramToFile(IGPProgram a_prog, String a_dir,
+                                 String a_filename)
+      throws Exception {
+    File f = new File(a_dir, a_filename);
+    GPProgramOutputStream out = new GPProgramOutputStream(new
+        FileOutputStream(f));
+    try {
+      out.writeProgram(a_prog);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Reads a GP program written by writeProgramToFile. The commands of the
+   * program are resolved against the node sets of the grid configuration.
+   *
+   * @param a_dir the directory to read from
+   * @param a_filename the name of the file to read
+   * @return the program read
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IGPProgram readProgramFromFile(String a_dir, String a_filename)
+      throws Exception {
+    File f = new File(a_dir, a_filename);
+    GPProgramInputStream in = new GPProgramInputStream(new
+        BufferedInputStream(new FileInputStream(f)), getConfiguration(),
+        m_gridConfig.getNodeSets());
+    try {
+      return in.readProgram();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * @param a_binaryResults true: store fit results in the compact binary
+   * format of GPProgramOutputStream, false: store them as XML (default)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setBinaryResults(boolean a_binaryResults) {
+    m_binaryResults = a_binaryResults;
+  }
+
+  public boolean isBinaryResults() {
+    return m_binaryResults;
   }
 
   public void setWorkDirectory(String a_workDir)
@@ -1186,7 +1356,8 @@ public class JGAPClientGP
   }
 
   /**
-   * Override in sub classes.
+   * Override in sub classes. By default, only strings (e.g. the keys listed by
+   * GridBrokerClientMediator) are recognized as keys.
    *
    * @param a_obj the object to get the key from
    * @return the key of the object
@@ -1195,6 +1366,9 @@ public class JGAPClientGP
    */
   protected String getKeyFromObject(Object a_obj)
       throws Exception {
+    if (a_obj instanceof String) {
+      return (String) a_obj;
+    }
     return null;
   }
 
@@ -1277,7 +1451,7 @@ public class JGAPClientGP
               + DateKit.getNowAsString()
               + "_"
               + NumberKit.niceDecimalNumber(a_fitness, 2)
-              + ".jgap";
+              + (m_binaryResults ? ".jgpb" : ".jgap");
           // Store in separate subdir.
           // -------------------------
           saveResult(m_ntbResultsDir, title, a_fittest);
@@ -1352,7 +1526,7 @@ public class JGAPClientGP
       if (result) {
         /**@todo skip unnecessary data, inject it after reload*/
         //m_persister.save(true, JGAPClientGP.FIELDSTOSKIP);
-        m_persister.save();
+        saveClientStatus();
       }
       return result;
     } catch (Exception ex) {
@@ -1362,7 +1536,8 @@ public class JGAPClientGP
   }
 
   /**
-   * Saves a result to disk.
+   * Saves a result to disk. Files with extension .jgpb are written in the
+   * compact binary format, see writeProgramToFile.
    *
    * @param a_dir the directory to put the result into
    * @param a_filename name of the file to write
@@ -1376,12 +1551,40 @@ public class JGAPClientGP
   protected void saveResult(String a_dir, String a_filename,
                             IGPProgram a_obj)
       throws Exception {
+    if (a_filename.endsWith(".jgpb")) {
+      writeProgramToFile(a_obj, a_dir, a_filename);
+      return;
+    }
     String filename = FileKit.addFilename(a_dir, a_filename);
-    PersistableObject po = new PersistableObject(filename);
+    PersistableObject po = new PersistableObject(new File(filename),
+        getGridCodec());
     po.setObject(a_obj);
     po.save();
   }
 
+  /**
+   * Loads a result saved via saveResult.
+   *
+   * @param a_dir the directory containing the result
+   * @param a_filename name of the file to read
+   * @return the result read
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected IGPProgram loadResult(String a_dir, String a_filename)
+      throws Exception {
+    if (a_filename.endsWith(".jgpb")) {
+      return readProgramFromFile(a_dir, a_filename);
+    }
+    String filename = FileKit.addFilename(a_dir, a_filename);
+    PersistableObject po = new PersistableObject(new File(filename),
+        getGridCodec());
+    return (IGPProgram) po.load();
+  }
+
   public String[] getFilenames(String a_dir)
       throws Exception {
     String[] files = FileKit.listFilesInDir(a_dir, null);
@@ -1441,11 +1644,8 @@ public class JGAPClientGP
           }
           for (int i = 0; i < count; i++) {
             int index = randGen.nextInt(results.length);
-            String filename = FileKit.addFilename(m_ntbResultsDir,
-                results[index]);
             /**@todo remove results[index]*/
-            PersistableObject po = new PersistableObject(filename);
-            IGPProgram ntb = (IGPProgram) po.load();
+            IGPProgram ntb = loadResult(m_ntbResultsDir, results[index]);
             log.info("Presetting with NTB result");
             added++;
             toAdd.add(ntb);
@@ -1505,7 +1705,7 @@ public class JGAPClientGP
         }
       }
       if (changed) {
-        m_persister.save();
+        saveClientStatus();
       }
       log.info("");
     }
@@ -52,6 +52,8 @@ public class JGAPResultGP
    */
   private long m_durationComputation;
 
+  private GPPopulationStatistics m_statistics;
+
   /**
    * Constructor: Takes the fittest program determined as result of a worker's
    * computation.
@@ -104,6 +106,18 @@ public class JGAPResultGP
     return m_fittest;
   }
 
+  /**
+   * Sets the fittest program, e.g. when reading a result from a stream.
+   *
+   * @param a_fittest the fittest program, may be null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setFittest(IGPProgram a_fittest) {
+    m_fittest = a_fittest;
+  }
+
   /**
    * @return the GPPopulation as a result from a worker's computation
    *
@@ -237,6 +251,28 @@ public class JGAPResultGP
     return m_title;
   }
 
+  /**
+   * @param a_statistics statistics of the population evolved by the worker,
+   * e.g. if only the elite is returned
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setStatistics(GPPopulationStatistics a_statistics) {
+    m_statistics = a_statistics;
+  }
+
+  /**
+   * @return statistics of the population evolved by the worker, null if not
+   * provided
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPPopulationStatistics getStatistics() {
+    return m_statistics;
+  }
+
   /**
    * Clear the fittes program.
    *
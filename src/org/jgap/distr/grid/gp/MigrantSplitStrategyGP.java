@@ -0,0 +1,75 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import org.jgap.gp.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Splits a request into requests carrying only a few migrants instead of the
+ * whole population. Each request gets the fittest program plus further
+ * programs taken round robin from the following ranks, so that different
+ * workers start from different parts of the elite. The workers complete the
+ * population (see IGenotypeInitializerGP).
+ * <p>
+ * Works best together with EliteReturnStrategyGP and EliteArchiveGP on the
+ * client.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class MigrantSplitStrategyGP
+    implements IRequestSplitStrategyGP {
+  private int m_requests;
+
+  private int m_migrants;
+
+  /**
+   * @param a_requests number of requests to create
+   * @param a_migrants maximum number of programs per request
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public MigrantSplitStrategyGP(int a_requests, int a_migrants) {
+    if (a_requests < 1 || a_migrants < 1) {
+      throw new IllegalArgumentException("Number of requests and migrants"
+                                         + " must be positive!");
+    }
+    m_requests = a_requests;
+    m_migrants = a_migrants;
+  }
+
+  public JGAPRequestGP[] split(JGAPRequestGP a_request)
+      throws Exception {
+    GPPopulation pop = a_request.getPopulation();
+    IGPProgram[] elite = EliteReturnStrategyGP.determineElite(pop, 1
+        + m_requests * (m_migrants - 1));
+    GPConfiguration conf = a_request.getConfiguration();
+    JGAPRequestGP[] result = new JGAPRequestGP[m_requests];
+    for (int j = 0; j < m_requests; j++) {
+      result[j] = a_request.newInstance(a_request.getSessionName(),
+                                        a_request.getID() + "_" + j, j);
+      // Slots not filled here are initialized by the worker.
+      // ----------------------------------------------------
+      GPPopulation migrants = new GPPopulation(conf, m_migrants);
+      if (elite.length > 0) {
+        migrants.setGPProgram(0, elite[0]);
+        int others = Math.min(m_migrants - 1, elite.length - 1);
+        for (int i = 0; i < others; i++) {
+          int index = 1 + (j * (m_migrants - 1) + i) % (elite.length - 1);
+          migrants.setGPProgram(i + 1, elite[index]);
+        }
+      }
+      result[j].setPopulation(migrants);
+    }
+    return result;
+  }
+}
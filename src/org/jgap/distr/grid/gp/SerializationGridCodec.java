@@ -0,0 +1,34 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+
+/**
+ * Codec using Java serialization. Transmits the complete objects, including
+ * the configuration, thus it works without any dictionary.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class SerializationGridCodec
+    implements IGridCodec {
+  public void encode(Object a_obj, OutputStream a_out)
+      throws Exception {
+    ObjectOutputStream oos = new ObjectOutputStream(a_out);
+    oos.writeObject(a_obj);
+    oos.flush();
+  }
+
+  public Object decode(InputStream a_in)
+      throws Exception {
+    return new ObjectInputStream(a_in).readObject();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+
+import com.thoughtworks.xstream.io.xml.*;
+
+/**
+ * Codec for the XML format written via JGAPGPXStream, as used before the
+ * binary format was available.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class XStreamGridCodec
+    implements IGridCodec {
+  private JGAPGPXStream m_xstream;
+
+  /**
+   * Constructor: omits the fields of JGAPClientGP.FIELDSTOSKIP.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public XStreamGridCodec() {
+    this(JGAPClientGP.FIELDSTOSKIP);
+  }
+
+  /**
+   * @param a_omitFields pairs of class and field name not to write, may be
+   * null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public XStreamGridCodec(Object[][] a_omitFields) {
+    m_xstream = new JGAPGPXStream();
+    if (a_omitFields != null) {
+      for (int i = 0; i < a_omitFields.length; i++) {
+        m_xstream.omitField( (Class) a_omitFields[i][0],
+                            (String) a_omitFields[i][1]);
+      }
+    }
+  }
+
+  public void encode(Object a_obj, OutputStream a_out)
+      throws Exception {
+    Writer writer = new OutputStreamWriter(a_out, "UTF-8");
+    m_xstream.marshal(a_obj, new CompactWriter(writer));
+    writer.flush();
+  }
+
+  public Object decode(InputStream a_in)
+      throws Exception {
+    // Older data was written with the platform encoding, so let the parser
+    // determine the encoding.
+    // ----------------------------------------------------------------------
+    return m_xstream.fromXML(a_in);
+  }
+}
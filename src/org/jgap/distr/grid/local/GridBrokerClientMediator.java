@@ -0,0 +1,263 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.util.*;
+
+import org.apache.log4j.*;
+import org.homedns.dade.jcgrid.message.*;
+import org.jgap.distr.grid.*;
+import org.jgap.distr.grid.gp.*;
+
+/**
+ * Mediates requests and results via a grid broker, either in-process
+ * (LocalGridBroker) or via a socket (NioGridBroker). Together with
+ * GridBrokerWorkers this allows running the grid without external server.
+ * <p>
+ * Results fetched without removing them are leased. They are removed when
+ * removeMessage is called with their key, otherwise they become available
+ * again after the lease expired.
+ * <p>
+ * Requests the broker gave up after their maximum number of deliveries are
+ * logged once as soon as no result arrives in time, see listFailedRequests.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GridBrokerClientMediator
+    implements IGridClientMediator {
+  private transient Logger log = Logger.getLogger(getClass());
+
+  private transient IGridBroker m_broker;
+
+  private transient IGridCodec m_codec;
+
+  private long m_leaseMillis;
+
+  private String m_backupDir;
+
+  /**
+   * Keys of the failed requests logged already.
+   */
+  private transient Set<String> m_reportedFailures;
+
+  /**
+   * @param a_broker the broker to use
+   * @param a_codec the codec to encode requests and decode results with
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GridBrokerClientMediator(IGridBroker a_broker, IGridCodec a_codec) {
+    m_broker = a_broker;
+    m_codec = a_codec;
+    m_leaseMillis = 60000;
+    m_backupDir = System.getProperty("user.dir");
+    m_reportedFailures = new HashSet<String>();
+  }
+
+  /**
+   * @param a_leaseMillis time a result fetched but not removed is not handed
+   * out again
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setLeaseMillis(long a_leaseMillis) {
+    m_leaseMillis = a_leaseMillis;
+  }
+
+  public long getLeaseMillis() {
+    return m_leaseMillis;
+  }
+
+  public IGridBroker getBroker() {
+    return m_broker;
+  }
+
+  /**
+   * @param a_backupDir directory below which results are backed up (see
+   * backupResult), null to skip backups
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setBackupDirectory(String a_backupDir) {
+    m_backupDir = a_backupDir;
+  }
+
+  public String getBackupDirectory() {
+    return m_backupDir;
+  }
+
+  /**
+   * @return keys of the requests the broker gave up after their maximum
+   * number of deliveries, no result will arrive for them
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public List<String> listFailedRequests()
+      throws Exception {
+    return m_broker.listFailedRequests();
+  }
+
+  public void connect()
+      throws Exception {
+    // Nothing to do, the broker is connected already.
+    // -----------------------------------------------
+  }
+
+  public void disconnect()
+      throws Exception {
+    // Nothing to do, the lifecycle of the broker is managed externally.
+    // -----------------------------------------------------------------
+  }
+
+  public void stop()
+      throws Exception {
+    // Nothing to do, the lifecycle of the broker is managed externally.
+    // -----------------------------------------------------------------
+  }
+
+  public void send(GridMessage a_msg, MessageContext a_context,
+                   Map<String, String> a_headerData)
+      throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    m_codec.encode(a_msg, bytes);
+    String key = m_broker.submitRequest(bytes.toByteArray());
+    log.debug("Request sent, key: " + key);
+  }
+
+  public List listRequests(MessageContext a_context, String a_datetime,
+                           String a_pattern)
+      throws Exception {
+    return m_broker.listRequests();
+  }
+
+  public List listResults(MessageContext a_context, String a_datetime,
+                          String a_pattern)
+      throws Exception {
+    return m_broker.listResults();
+  }
+
+  /**
+   * Fetches a result. If the context ID is the key of a result, this result
+   * is fetched, otherwise the next result available.
+   *
+   * @param a_context the context of the message
+   * @param a_datetime not used
+   * @param a_timeoutSeconds maximum time to wait for the next result
+   * @param a_waitTimeSeconds not used
+   * @param a_removeRequest true: remove the result, false: lease it
+   * @return the result, or null if none available
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GridMessage getGridMessage(MessageContext a_context, String a_datetime,
+                                    int a_timeoutSeconds, int a_waitTimeSeconds,
+                                    boolean a_removeRequest)
+      throws Exception {
+    Object id = null;
+    if (a_context != null) {
+      id = a_context.getContextId();
+    }
+    GridBrokerEntry entry;
+    if (id instanceof String && !JGAPClientGP.CONTEXT_ID_EMPTY.equals(id)
+        && !JGAPClientGP.CONTEXT_ID_ANY.equals(id)) {
+      entry = m_broker.takeResult( (String) id, m_leaseMillis);
+    }
+    else {
+      entry = m_broker.takeResult(a_timeoutSeconds * 1000L, m_leaseMillis);
+    }
+    if (entry == null) {
+      reportFailedRequests();
+      return null;
+    }
+    GridMessage msg = (GridMessage) m_codec.decode(new ByteArrayInputStream(
+        entry.getData()));
+    if (a_removeRequest) {
+      m_broker.acknowledgeResult(entry.getKey());
+    }
+    return msg;
+  }
+
+  public void removeMessage(Object a_entry)
+      throws Exception {
+    if (a_entry instanceof GridBrokerEntry) {
+      m_broker.remove( ( (GridBrokerEntry) a_entry).getKey());
+    }
+    else if (a_entry != null) {
+      m_broker.remove(a_entry.toString());
+    }
+  }
+
+  /**
+   * Stores a copy of the result in the given sub directory of the backup
+   * directory, encoded with the codec of the mediator (read it back via
+   * IGridCodec.decode). Existing backups are not overwritten.
+   *
+   * @param a_result the result to backup
+   * @param a_subDir sub directory to store the copy of the result in
+   * @param a_title the title of the entry to create, used as file name prefix
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void backupResult(Object a_result, String a_subDir, String a_title)
+      throws Exception {
+    if (m_backupDir == null) {
+      log.warn("No backup directory set, skipped backup of " + a_title);
+      return;
+    }
+    File dir = new File(m_backupDir, a_subDir);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Could not create backup directory " + dir);
+    }
+    String name = a_title + "_" + System.currentTimeMillis();
+    File file = new File(dir, name + ".bak");
+    for (int i = 1; !file.createNewFile(); i++) {
+      file = new File(dir, name + "_" + i + ".bak");
+    }
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+    try {
+      m_codec.encode(a_result, out);
+    } finally {
+      out.close();
+    }
+    log.info("Result backed up to " + file);
+  }
+
+  /**
+   * Logs requests the broker gave up, each once.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void reportFailedRequests()
+      throws Exception {
+    if (m_reportedFailures == null) {
+      m_reportedFailures = new HashSet<String>();
+    }
+    for (String key : m_broker.listFailedRequests()) {
+      if (m_reportedFailures.add(key)) {
+        log.error("Request " + key + " failed on all deliveries and was"
+                  + " given up by the broker");
+      }
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+/**
+ * A request or result held by a grid broker: its key and the encoded message.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GridBrokerEntry {
+  private String m_key;
+
+  private byte[] m_data;
+
+  private int m_deliveries;
+
+  /**
+   * @param a_key the key of the entry
+   * @param a_data the encoded message
+   * @param a_deliveries how often the entry has been handed out, including
+   * the current delivery
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GridBrokerEntry(String a_key, byte[] a_data, int a_deliveries) {
+    m_key = a_key;
+    m_data = a_data;
+    m_deliveries = a_deliveries;
+  }
+
+  public String getKey() {
+    return m_key;
+  }
+
+  public byte[] getData() {
+    return m_data;
+  }
+
+  /**
+   * @return how often the entry has been handed out. Greater than one if a
+   * lease expired before
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getDeliveries() {
+    return m_deliveries;
+  }
+}
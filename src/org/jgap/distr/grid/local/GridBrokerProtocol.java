@@ -0,0 +1,188 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Wire protocol between NioGridBroker and NioGridBrokerServer. Each frame
+ * consists of its length followed by the data. A call carries a call ID, the
+ * operation and its arguments. The response carries the same call ID, a
+ * status and the return value or an error message.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+class GridBrokerProtocol {
+  public final static int OP_SUBMIT_REQUEST = 1;
+
+  public final static int OP_TAKE_REQUEST = 2;
+
+  public final static int OP_RELEASE_REQUEST = 3;
+
+  public final static int OP_SUBMIT_RESULT = 4;
+
+  public final static int OP_TAKE_RESULT = 5;
+
+  public final static int OP_TAKE_RESULT_KEY = 6;
+
+  public final static int OP_ACKNOWLEDGE_RESULT = 7;
+
+  public final static int OP_REMOVE = 8;
+
+  public final static int OP_LIST_REQUESTS = 9;
+
+  public final static int OP_LIST_RESULTS = 10;
+
+  public final static int OP_LIST_FAILED_REQUESTS = 11;
+
+  public final static int STATUS_OK = 0;
+
+  public final static int STATUS_ERROR = 1;
+
+  /**
+   * Frames larger than this are rejected.
+   */
+  public final static int MAX_FRAME_SIZE = 256 * 1024 * 1024;
+
+  private GridBrokerProtocol() {
+  }
+
+  /**
+   * Executes a call on a broker.
+   *
+   * @param a_broker the broker to execute the call with
+   * @param a_call the data of the call
+   * @return the data of the response
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static byte[] execute(IGridBroker a_broker, byte[] a_call) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    int callId = 0;
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+          a_call));
+      callId = in.readInt();
+      int op = in.readUnsignedByte();
+      ByteArrayOutputStream result = new ByteArrayOutputStream();
+      DataOutputStream res = new DataOutputStream(result);
+      switch (op) {
+        case OP_SUBMIT_REQUEST:
+          res.writeUTF(a_broker.submitRequest(readBytes(in)));
+          break;
+        case OP_TAKE_REQUEST:
+          writeEntry(a_broker.takeRequest(in.readUTF(), in.readLong(),
+                                          in.readLong()), res);
+          break;
+        case OP_RELEASE_REQUEST:
+          a_broker.releaseRequest(in.readUTF(), in.readUTF());
+          break;
+        case OP_SUBMIT_RESULT:
+          a_broker.submitResult(in.readUTF(), readBytes(in));
+          break;
+        case OP_TAKE_RESULT:
+          writeEntry(a_broker.takeResult(in.readLong(), in.readLong()), res);
+          break;
+        case OP_TAKE_RESULT_KEY:
+          writeEntry(a_broker.takeResult(in.readUTF(), in.readLong()), res);
+          break;
+        case OP_ACKNOWLEDGE_RESULT:
+          a_broker.acknowledgeResult(in.readUTF());
+          break;
+        case OP_REMOVE:
+          res.writeBoolean(a_broker.remove(in.readUTF()));
+          break;
+        case OP_LIST_REQUESTS:
+          writeKeys(a_broker.listRequests(), res);
+          break;
+        case OP_LIST_RESULTS:
+          writeKeys(a_broker.listResults(), res);
+          break;
+        case OP_LIST_FAILED_REQUESTS:
+          writeKeys(a_broker.listFailedRequests(), res);
+          break;
+        default:
+          throw new IOException("Unknown operation " + op);
+      }
+      res.flush();
+      out.writeInt(callId);
+      out.writeByte(STATUS_OK);
+      result.writeTo(out);
+    } catch (Exception ex) {
+      bytes.reset();
+      try {
+        out.writeInt(callId);
+        out.writeByte(STATUS_ERROR);
+        out.writeUTF(String.valueOf(ex));
+      } catch (IOException iex) {
+        // Cannot happen with a byte array.
+        // --------------------------------
+        throw new IllegalStateException(iex.getMessage());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  public static void writeBytes(byte[] a_data, DataOutputStream a_out)
+      throws IOException {
+    a_out.writeInt(a_data.length);
+    a_out.write(a_data);
+  }
+
+  public static byte[] readBytes(DataInputStream a_in)
+      throws IOException {
+    byte[] data = new byte[a_in.readInt()];
+    a_in.readFully(data);
+    return data;
+  }
+
+  public static void writeEntry(GridBrokerEntry a_entry,
+                                DataOutputStream a_out)
+      throws IOException {
+    a_out.writeBoolean(a_entry != null);
+    if (a_entry != null) {
+      a_out.writeUTF(a_entry.getKey());
+      a_out.writeInt(a_entry.getDeliveries());
+      writeBytes(a_entry.getData(), a_out);
+    }
+  }
+
+  public static GridBrokerEntry readEntry(DataInputStream a_in)
+      throws IOException {
+    if (!a_in.readBoolean()) {
+      return null;
+    }
+    String key = a_in.readUTF();
+    int deliveries = a_in.readInt();
+    return new GridBrokerEntry(key, readBytes(a_in), deliveries);
+  }
+
+  public static void writeKeys(List<String> a_keys, DataOutputStream a_out)
+      throws IOException {
+    a_out.writeInt(a_keys.size());
+    for (String key : a_keys) {
+      a_out.writeUTF(key);
+    }
+  }
+
+  public static List<String> readKeys(DataInputStream a_in)
+      throws IOException {
+    int size = a_in.readInt();
+    List<String> keys = new Vector<String>(size);
+    for (int i = 0; i < size; i++) {
+      keys.add(a_in.readUTF());
+    }
+    return keys;
+  }
+}
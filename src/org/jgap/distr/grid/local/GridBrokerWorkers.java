@@ -0,0 +1,301 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+
+import org.apache.log4j.*;
+import org.homedns.dade.jcgrid.*;
+import org.homedns.dade.jcgrid.message.*;
+import org.homedns.dade.jcgrid.worker.*;
+import org.jgap.distr.grid.gp.*;
+
+/**
+ * Runs workers (e.g. JGAPWorkerGP) in threads, taking requests from a grid
+ * broker and submitting the results to it. A request failing is given back to
+ * the broker to be computed again, until the broker gives it up after its
+ * maximum number of deliveries.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GridBrokerWorkers {
+  private final static String className = GridBrokerWorkers.class.getName();
+
+  private static Logger log = Logger.getLogger(className);
+
+  private IGridBroker m_broker;
+
+  private IGridCodec m_codec;
+
+  private Class m_workerClass;
+
+  private int m_count;
+
+  private long m_leaseMillis;
+
+  private long m_pollMillis;
+
+  private String m_workDir;
+
+  private String m_name;
+
+  private volatile boolean m_running;
+
+  private Thread[] m_threads;
+
+  private Computation[] m_computations;
+
+  private AtomicInteger m_processed;
+
+  private AtomicInteger m_failed;
+
+  /**
+   * @param a_broker the broker to take requests from
+   * @param a_codec the codec to decode requests and encode results with
+   * @param a_workerClass class implementing Worker, with public default
+   * constructor. Each thread uses its own instance
+   * @param a_count number of worker threads
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GridBrokerWorkers(IGridBroker a_broker, IGridCodec a_codec,
+                           Class a_workerClass, int a_count) {
+    if (!Worker.class.isAssignableFrom(a_workerClass)) {
+      throw new IllegalArgumentException("Worker class must implement "
+                                         + Worker.class.getName());
+    }
+    m_broker = a_broker;
+    m_codec = a_codec;
+    m_workerClass = a_workerClass;
+    m_count = a_count;
+    m_leaseMillis = 10 * 60 * 1000;
+    m_pollMillis = 1000;
+    m_workDir = System.getProperty("java.io.tmpdir");
+    m_name = "workers" + Integer.toHexString(System.identityHashCode(this));
+    m_processed = new AtomicInteger();
+    m_failed = new AtomicInteger();
+  }
+
+  /**
+   * @param a_leaseMillis time after which a request is handed out to another
+   * worker if no result was submitted
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setLeaseMillis(long a_leaseMillis) {
+    m_leaseMillis = a_leaseMillis;
+  }
+
+  public void setPollMillis(long a_pollMillis) {
+    m_pollMillis = a_pollMillis;
+  }
+
+  public void setWorkDirectory(String a_workDir) {
+    m_workDir = a_workDir;
+  }
+
+  /**
+   * @param a_name prefix of the worker IDs reported to the broker, should be
+   * unique among all processes using the broker
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setName(String a_name) {
+    m_name = a_name;
+  }
+
+  public String getName() {
+    return m_name;
+  }
+
+  /**
+   * Starts the worker threads.
+   *
+   * @throws Exception if a worker could not be instantiated
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void start()
+      throws Exception {
+    if (m_running) {
+      throw new IllegalStateException("Workers already started");
+    }
+    m_running = true;
+    m_threads = new Thread[m_count];
+    m_computations = new Computation[m_count];
+    for (int i = 0; i < m_count; i++) {
+      final Worker worker = (Worker) m_workerClass.newInstance();
+      final String workDir = m_workDir + File.separator + "worker_" + i;
+      final String workerId = m_name + "_" + i;
+      final Computation computation = new Computation();
+      m_computations[i] = computation;
+      m_threads[i] = new Thread(new Runnable() {
+        public void run() {
+          work(worker, workerId, workDir, computation);
+        }
+      }, "JGAP grid worker " + i);
+      m_threads[i].setDaemon(true);
+      m_threads[i].start();
+    }
+  }
+
+  /**
+   * Stops the worker threads and waits until they terminated. Workers
+   * computing a request are interrupted. If they abort, the request is given
+   * back to the broker, otherwise its result is submitted. Threads
+   * communicating with the broker are never interrupted, as an interrupt
+   * would close the connection of brokers using interruptible channels (see
+   * NioGridBroker). Threads waiting for requests terminate after the poll
+   * time at the latest.
+   *
+   * @throws InterruptedException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void stop()
+      throws InterruptedException {
+    if (!m_running) {
+      return;
+    }
+    m_running = false;
+    for (int i = 0; i < m_threads.length; i++) {
+      m_computations[i].cancel(m_threads[i]);
+    }
+    for (Thread thread : m_threads) {
+      thread.join();
+    }
+  }
+
+  /**
+   * @return number of requests computed successfully
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getProcessedCount() {
+    return m_processed.get();
+  }
+
+  /**
+   * @return number of requests failed
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getFailedCount() {
+    return m_failed.get();
+  }
+
+  protected void work(Worker a_worker, String a_workerId, String a_workDir,
+                      Computation a_computation) {
+    while (m_running) {
+      GridBrokerEntry entry;
+      try {
+        entry = m_broker.takeRequest(a_workerId, m_pollMillis,
+                                     m_leaseMillis);
+      } catch (InterruptedException iex) {
+        break;
+      } catch (InterruptedIOException iex) {
+        break;
+      } catch (Exception ex) {
+        log.error("Taking request failed", ex);
+        continue;
+      }
+      if (entry == null) {
+        continue;
+      }
+      try {
+        Object obj = m_codec.decode(new ByteArrayInputStream(entry.getData()));
+        WorkRequest req;
+        if (obj instanceof GridMessageWorkRequest) {
+          req = ( (GridMessageWorkRequest) obj).getWorkRequest();
+        }
+        else {
+          req = (WorkRequest) obj;
+        }
+        WorkResult res;
+        a_computation.begin();
+        try {
+          res = a_worker.doWork(req, a_workDir);
+        } finally {
+          a_computation.end();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        m_codec.encode(new GridMessageWorkResult(res), bytes);
+        m_broker.submitResult(entry.getKey(), bytes.toByteArray());
+        m_processed.incrementAndGet();
+      } catch (Exception ex) {
+        if (m_running) {
+          log.error("Computing request " + entry.getKey() + " failed"
+                    + " (delivery " + entry.getDeliveries() + ")", ex);
+          m_failed.incrementAndGet();
+        }
+        try {
+          m_broker.releaseRequest(entry.getKey(), a_workerId);
+        } catch (Exception ex1) {
+          log.warn("Releasing request " + entry.getKey() + " failed", ex1);
+        }
+      }
+    }
+  }
+
+  /**
+   * State of a worker thread: only threads computing a request may be
+   * interrupted.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected static class Computation {
+    private boolean m_computing;
+
+    private boolean m_cancelled;
+
+    /**
+     * Called before a request is computed. If the workers were stopped
+     * meanwhile, the current thread is interrupted right away.
+     */
+    synchronized void begin() {
+      m_computing = true;
+      if (m_cancelled) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Called after a request was computed. Clears the interrupted state of the
+     * current thread, so that the following communication with the broker is
+     * not affected.
+     */
+    synchronized void end() {
+      m_computing = false;
+      Thread.interrupted();
+    }
+
+    /**
+     * Interrupts the given thread if it is computing a request.
+     *
+     * @param a_thread the thread using this state
+     */
+    synchronized void cancel(Thread a_thread) {
+      m_cancelled = true;
+      if (m_computing) {
+        a_thread.interrupt();
+      }
+    }
+  }
+}
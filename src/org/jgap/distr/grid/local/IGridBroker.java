@@ -0,0 +1,176 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.util.*;
+
+/**
+ * Holds work requests and results for clients and workers. Messages are
+ * opaque byte arrays (see IGridCodec).
+ * <p>
+ * Taking a request or result leases it: it is not handed out again until the
+ * lease expires. A request is completed by submitting its result, a result by
+ * acknowledging it. If that does not happen in time (e.g. because the worker
+ * crashed), the entry is handed out again. A request handed out the maximum
+ * number of deliveries without result is given up (see listFailedRequests).
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IGridBroker {
+  /**
+   * Queues a work request. Does not block.
+   *
+   * @param a_data the encoded request
+   * @return the key of the request, later also the key of its result
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  String submitRequest(byte[] a_data)
+      throws Exception;
+
+  /**
+   * Takes the next request and leases it.
+   *
+   * @param a_workerId ID of the worker taking the request, allows brokers to
+   * schedule requests per worker
+   * @param a_timeoutMillis maximum time to wait for a request
+   * @param a_leaseMillis time after which the request is handed out again if
+   * no result has been submitted
+   * @return the request, or null if none available in time
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  GridBrokerEntry takeRequest(String a_workerId, long a_timeoutMillis,
+                              long a_leaseMillis)
+      throws Exception;
+
+  /**
+   * Gives back a leased request without result, e.g. after a failure, so that
+   * it is handed out again immediately. If the request has been handed out the
+   * maximum number of times, it is given up instead. Only the lease of the
+   * given worker is released: if the request has been handed out to another
+   * worker meanwhile (e.g. after the lease expired), that lease is kept.
+   *
+   * @param a_key the key of the request
+   * @param a_workerId ID of the worker that took the request
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void releaseRequest(String a_key, String a_workerId)
+      throws Exception;
+
+  /**
+   * Stores the result of a request and completes the request.
+   *
+   * @param a_requestKey the key of the request, used as key of the result
+   * @param a_data the encoded result
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void submitResult(String a_requestKey, byte[] a_data)
+      throws Exception;
+
+  /**
+   * Takes the next result and leases it.
+   *
+   * @param a_timeoutMillis maximum time to wait for a result
+   * @param a_leaseMillis time after which the result is handed out again if
+   * not acknowledged
+   * @return the result, or null if none available in time
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  GridBrokerEntry takeResult(long a_timeoutMillis, long a_leaseMillis)
+      throws Exception;
+
+  /**
+   * Leases a certain result.
+   *
+   * @param a_key the key of the result
+   * @param a_leaseMillis time after which the result is handed out again if
+   * not acknowledged
+   * @return the result, or null if not available (unknown or leased)
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  GridBrokerEntry takeResult(String a_key, long a_leaseMillis)
+      throws Exception;
+
+  /**
+   * Removes a result after it has been processed.
+   *
+   * @param a_key the key of the result
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void acknowledgeResult(String a_key)
+      throws Exception;
+
+  /**
+   * Removes a request or result.
+   *
+   * @param a_key the key of the entry
+   * @return true: entry existed
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  boolean remove(String a_key)
+      throws Exception;
+
+  /**
+   * @return keys of all requests not completed yet, in order of submission
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  List<String> listRequests()
+      throws Exception;
+
+  /**
+   * @return keys of all results not acknowledged yet, in order of submission
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  List<String> listResults()
+      throws Exception;
+
+  /**
+   * Requests given up after the maximum number of deliveries are kept until
+   * removed. A result submitted later for such a request is still accepted.
+   *
+   * @return keys of all requests given up, in order of failure
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  List<String> listFailedRequests()
+      throws Exception;
+}
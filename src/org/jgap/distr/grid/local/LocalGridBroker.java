@@ -0,0 +1,316 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.apache.log4j.*;
+
+/**
+ * In-process grid broker. Requests and results are held in memory. Clients
+ * and workers may run in different threads of the same JVM, or in other
+ * processes via NioGridBrokerServer.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class LocalGridBroker
+    implements IGridBroker {
+  private final static String className = LocalGridBroker.class.getName();
+
+  private static Logger log = Logger.getLogger(className);
+
+  /**
+   * Default maximum number of deliveries of a request.
+   */
+  public final static int DEFAULT_MAX_DELIVERIES = 5;
+  /**
+   * Blocking takes check for expired leases at least this often.
+   */
+  private final static long LEASE_CHECK_MILLIS = 50;
+
+  private Channel m_requests;
+
+  private Channel m_results;
+
+  private AtomicLong m_nextKey;
+
+  private String m_name;
+
+  public LocalGridBroker() {
+    this("grid");
+  }
+
+  /**
+   * @param a_name prefix for the keys of requests
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public LocalGridBroker(String a_name) {
+    m_name = a_name;
+    m_requests = new Channel();
+    m_requests.m_maxDeliveries = DEFAULT_MAX_DELIVERIES;
+    m_results = new Channel();
+    m_nextKey = new AtomicLong();
+  }
+
+  /**
+   * @param a_maxDeliveries a request handed out this often without result is
+   * given up instead of being handed out again, zero or less for no limit
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMaxDeliveries(int a_maxDeliveries) {
+    m_requests.m_maxDeliveries = a_maxDeliveries;
+  }
+
+  public int getMaxDeliveries() {
+    return m_requests.m_maxDeliveries;
+  }
+
+  public String submitRequest(byte[] a_data) {
+    String key = m_name + "_" + m_nextKey.incrementAndGet();
+    m_requests.offer(key, a_data);
+    return key;
+  }
+
+  public GridBrokerEntry takeRequest(String a_workerId, long a_timeoutMillis,
+                                     long a_leaseMillis)
+      throws InterruptedException {
+    return m_requests.take(a_workerId, a_timeoutMillis, a_leaseMillis);
+  }
+
+  public void releaseRequest(String a_key, String a_workerId) {
+    m_requests.release(a_key, a_workerId);
+  }
+
+  public void submitResult(String a_requestKey, byte[] a_data) {
+    // A result submitted twice (lease expired meanwhile) is only kept once.
+    // ---------------------------------------------------------------------
+    m_requests.remove(a_requestKey);
+    m_requests.removeFailed(a_requestKey);
+    if (!m_results.contains(a_requestKey)) {
+      m_results.offer(a_requestKey, a_data);
+    }
+  }
+
+  public GridBrokerEntry takeResult(long a_timeoutMillis, long a_leaseMillis)
+      throws InterruptedException {
+    return m_results.take(null, a_timeoutMillis, a_leaseMillis);
+  }
+
+  public GridBrokerEntry takeResult(String a_key, long a_leaseMillis) {
+    return m_results.take(a_key, a_leaseMillis);
+  }
+
+  public void acknowledgeResult(String a_key) {
+    m_results.remove(a_key);
+  }
+
+  public boolean remove(String a_key) {
+    boolean removed = m_requests.remove(a_key);
+    removed = m_requests.removeFailed(a_key) || removed;
+    return m_results.remove(a_key) || removed;
+  }
+
+  public List<String> listRequests() {
+    return m_requests.keys();
+  }
+
+  public List<String> listResults() {
+    return m_results.keys();
+  }
+
+  public List<String> listFailedRequests() {
+    return m_requests.failedKeys();
+  }
+
+  /**
+   * A queue of entries with leases.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private static class Channel {
+    /**
+     * Keys of the entries available. May contain keys of entries removed
+     * meanwhile, they are skipped.
+     */
+    private BlockingQueue<String> m_queue;
+
+    private Map<String, Entry> m_entries;
+
+    /**
+     * Entries currently leased.
+     */
+    private Map<String, Entry> m_leased;
+
+    /**
+     * Keys of the entries given up after the maximum number of deliveries.
+     */
+    private Set<String> m_failed;
+
+    /**
+     * Zero or less for no limit.
+     */
+    private volatile int m_maxDeliveries;
+
+    public Channel() {
+      m_queue = new LinkedBlockingQueue<String>();
+      m_entries = new LinkedHashMap<String, Entry>();
+      m_leased = new HashMap<String, Entry>();
+      m_failed = new LinkedHashSet<String>();
+    }
+
+    public synchronized void offer(String a_key, byte[] a_data) {
+      m_entries.put(a_key, new Entry(a_data));
+      m_queue.add(a_key);
+    }
+
+    public synchronized boolean contains(String a_key) {
+      return m_entries.containsKey(a_key);
+    }
+
+    public synchronized boolean remove(String a_key) {
+      m_leased.remove(a_key);
+      return m_entries.remove(a_key) != null;
+    }
+
+    public synchronized List<String> keys() {
+      return new Vector<String>(m_entries.keySet());
+    }
+
+    public synchronized List<String> failedKeys() {
+      return new Vector<String>(m_failed);
+    }
+
+    public synchronized boolean removeFailed(String a_key) {
+      return m_failed.remove(a_key);
+    }
+
+    public GridBrokerEntry take(String a_holder, long a_timeoutMillis,
+                                long a_leaseMillis)
+        throws InterruptedException {
+      long deadline = System.currentTimeMillis() + a_timeoutMillis;
+      while (true) {
+        expireLeases();
+        long remaining = deadline - System.currentTimeMillis();
+        String key = m_queue.poll(Math.max(0, Math.min(remaining,
+            LEASE_CHECK_MILLIS)), TimeUnit.MILLISECONDS);
+        if (key != null) {
+          GridBrokerEntry entry = lease(key, a_holder, a_leaseMillis);
+          if (entry != null) {
+            return entry;
+          }
+        }
+        else if (remaining <= 0) {
+          return null;
+        }
+      }
+    }
+
+    public synchronized GridBrokerEntry take(String a_key, long a_leaseMillis) {
+      expireLeases();
+      Entry entry = m_entries.get(a_key);
+      if (entry == null || entry.m_leasedUntil > 0) {
+        return null;
+      }
+      // The key stays in the queue, it is skipped there as long as leased.
+      // ------------------------------------------------------------------
+      return lease(a_key, null, a_leaseMillis);
+    }
+
+    /**
+     * Releases the lease of an entry if held by the given holder.
+     */
+    public synchronized void release(String a_key, String a_holder) {
+      Entry entry = m_entries.get(a_key);
+      if (entry != null && entry.m_leasedUntil > 0
+          && (entry.m_holder == null ? a_holder == null
+              : entry.m_holder.equals(a_holder))) {
+        entry.m_leasedUntil = 0;
+        m_leased.remove(a_key);
+        requeue(a_key, entry);
+      }
+    }
+
+    /**
+     * Hands out an entry again, or gives it up if delivered too often.
+     */
+    private void requeue(String a_key, Entry a_entry) {
+      if (m_maxDeliveries > 0 && a_entry.m_deliveries >= m_maxDeliveries) {
+        m_entries.remove(a_key);
+        m_failed.add(a_key);
+        log.warn("Request " + a_key + " given up after "
+                 + a_entry.m_deliveries + " deliveries");
+      }
+      else {
+        m_queue.add(a_key);
+      }
+    }
+
+    private synchronized GridBrokerEntry lease(String a_key, String a_holder,
+                                               long a_leaseMillis) {
+      Entry entry = m_entries.get(a_key);
+      if (entry == null || entry.m_leasedUntil > 0) {
+        // Removed or already leased meanwhile.
+        // ------------------------------------
+        return null;
+      }
+      entry.m_leasedUntil = System.currentTimeMillis() + Math.max(1,
+          a_leaseMillis);
+      entry.m_holder = a_holder;
+      entry.m_deliveries++;
+      m_leased.put(a_key, entry);
+      return new GridBrokerEntry(a_key, entry.m_data, entry.m_deliveries);
+    }
+
+    private synchronized void expireLeases() {
+      if (m_leased.isEmpty()) {
+        return;
+      }
+      long now = System.currentTimeMillis();
+      Iterator<Map.Entry<String, Entry>> it = m_leased.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, Entry> e = it.next();
+        Entry entry = e.getValue();
+        if (entry.m_leasedUntil <= now) {
+          entry.m_leasedUntil = 0;
+          it.remove();
+          requeue(e.getKey(), entry);
+        }
+      }
+    }
+  }
+
+  private static class Entry {
+    private byte[] m_data;
+
+    /**
+     * Time the lease expires, zero if not leased.
+     */
+    private long m_leasedUntil;
+
+    /**
+     * ID of the worker holding the lease, null if unknown.
+     */
+    private String m_holder;
+
+    private int m_deliveries;
+
+    public Entry(byte[] a_data) {
+      m_data = a_data;
+    }
+  }
+}
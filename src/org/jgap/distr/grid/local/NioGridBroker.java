@@ -0,0 +1,288 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.apache.log4j.*;
+
+/**
+ * Accesses a grid broker running in another process via NioGridBrokerServer.
+ * Can be used by several threads at the same time: calls are sent over one
+ * connection, responses are assigned to the waiting callers by a reader
+ * thread.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NioGridBroker
+    implements IGridBroker {
+  private final static String className = NioGridBroker.class.getName();
+
+  private static Logger log = Logger.getLogger(className);
+
+  private SocketChannel m_channel;
+
+  private AtomicInteger m_nextCallId;
+
+  private Map<Integer, Call> m_calls;
+
+  private Thread m_reader;
+
+  private volatile IOException m_failure;
+
+  /**
+   * Connects to a broker server.
+   *
+   * @param a_host host of the server
+   * @param a_port port of the server
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public NioGridBroker(String a_host, int a_port)
+      throws IOException {
+    m_channel = SocketChannel.open(new InetSocketAddress(a_host, a_port));
+    m_channel.socket().setTcpNoDelay(true);
+    m_nextCallId = new AtomicInteger();
+    m_calls = new ConcurrentHashMap<Integer, Call>();
+    m_reader = new Thread(new Runnable() {
+      public void run() {
+        readResponses();
+      }
+    }, "JGAP grid broker client");
+    m_reader.setDaemon(true);
+    m_reader.start();
+  }
+
+  public String submitRequest(byte[] a_data)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_SUBMIT_REQUEST);
+    GridBrokerProtocol.writeBytes(a_data, call.m_out);
+    return invoke(call).readUTF();
+  }
+
+  public GridBrokerEntry takeRequest(String a_workerId, long a_timeoutMillis,
+                                     long a_leaseMillis)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_TAKE_REQUEST);
+    call.m_out.writeUTF(a_workerId);
+    call.m_out.writeLong(a_timeoutMillis);
+    call.m_out.writeLong(a_leaseMillis);
+    return GridBrokerProtocol.readEntry(invoke(call));
+  }
+
+  public void releaseRequest(String a_key, String a_workerId)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_RELEASE_REQUEST);
+    call.m_out.writeUTF(a_key);
+    call.m_out.writeUTF(a_workerId);
+    invoke(call);
+  }
+
+  public void submitResult(String a_requestKey, byte[] a_data)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_SUBMIT_RESULT);
+    call.m_out.writeUTF(a_requestKey);
+    GridBrokerProtocol.writeBytes(a_data, call.m_out);
+    invoke(call);
+  }
+
+  public GridBrokerEntry takeResult(long a_timeoutMillis, long a_leaseMillis)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_TAKE_RESULT);
+    call.m_out.writeLong(a_timeoutMillis);
+    call.m_out.writeLong(a_leaseMillis);
+    return GridBrokerProtocol.readEntry(invoke(call));
+  }
+
+  public GridBrokerEntry takeResult(String a_key, long a_leaseMillis)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_TAKE_RESULT_KEY);
+    call.m_out.writeUTF(a_key);
+    call.m_out.writeLong(a_leaseMillis);
+    return GridBrokerProtocol.readEntry(invoke(call));
+  }
+
+  public void acknowledgeResult(String a_key)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_ACKNOWLEDGE_RESULT);
+    call.m_out.writeUTF(a_key);
+    invoke(call);
+  }
+
+  public boolean remove(String a_key)
+      throws IOException {
+    Call call = newCall(GridBrokerProtocol.OP_REMOVE);
+    call.m_out.writeUTF(a_key);
+    return invoke(call).readBoolean();
+  }
+
+  public List<String> listRequests()
+      throws IOException {
+    return GridBrokerProtocol.readKeys(invoke(newCall(GridBrokerProtocol.
+        OP_LIST_REQUESTS)));
+  }
+
+  public List<String> listResults()
+      throws IOException {
+    return GridBrokerProtocol.readKeys(invoke(newCall(GridBrokerProtocol.
+        OP_LIST_RESULTS)));
+  }
+
+  public List<String> listFailedRequests()
+      throws IOException {
+    return GridBrokerProtocol.readKeys(invoke(newCall(GridBrokerProtocol.
+        OP_LIST_FAILED_REQUESTS)));
+  }
+
+  /**
+   * Closes the connection. Pending calls fail.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void close()
+      throws IOException {
+    m_channel.close();
+  }
+
+  private Call newCall(int a_op)
+      throws IOException {
+    Call call = new Call(m_nextCallId.incrementAndGet());
+    call.m_out.writeInt(call.m_id);
+    call.m_out.writeByte(a_op);
+    return call;
+  }
+
+  /**
+   * Sends a call and waits for the response.
+   *
+   * @return the return value of the call
+   */
+  private DataInputStream invoke(Call a_call)
+      throws IOException {
+    if (m_failure != null) {
+      throw m_failure;
+    }
+    a_call.m_out.flush();
+    byte[] data = a_call.m_bytes.toByteArray();
+    ByteBuffer buf = ByteBuffer.allocate(4 + data.length);
+    buf.putInt(data.length);
+    buf.put(data);
+    buf.flip();
+    m_calls.put(new Integer(a_call.m_id), a_call);
+    try {
+      if (m_failure != null) {
+        // Reader terminated before the call was registered.
+        // -------------------------------------------------
+        throw m_failure;
+      }
+      synchronized (m_channel) {
+        while (buf.hasRemaining()) {
+          m_channel.write(buf);
+        }
+      }
+      try {
+        a_call.m_done.await();
+      } catch (InterruptedException iex) {
+        // The response will be discarded.
+        // -------------------------------
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for"
+                                         + " grid broker");
+      }
+    } finally {
+      m_calls.remove(new Integer(a_call.m_id));
+    }
+    if (a_call.m_response == null) {
+      throw m_failure;
+    }
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(a_call.
+        m_response));
+    in.readInt();
+    if (in.readUnsignedByte() != GridBrokerProtocol.STATUS_OK) {
+      throw new IOException("Grid broker call failed: " + in.readUTF());
+    }
+    return in;
+  }
+
+  protected void readResponses() {
+    ByteBuffer lenBuf = ByteBuffer.allocate(4);
+    try {
+      while (true) {
+        lenBuf.clear();
+        readFully(lenBuf);
+        lenBuf.flip();
+        int len = lenBuf.getInt();
+        if (len < 4 || len > GridBrokerProtocol.MAX_FRAME_SIZE) {
+          throw new IOException("Invalid frame size " + len);
+        }
+        ByteBuffer data = ByteBuffer.allocate(len);
+        readFully(data);
+        data.flip();
+        Call call = m_calls.get(new Integer(data.getInt(0)));
+        if (call != null) {
+          call.m_response = data.array();
+          call.m_done.countDown();
+        }
+      }
+    } catch (IOException iex) {
+      if (m_channel.isOpen()) {
+        log.warn("Connection to grid broker failed", iex);
+      }
+      m_failure = iex;
+    } finally {
+      if (m_failure == null) {
+        m_failure = new IOException("Connection to grid broker closed");
+      }
+      for (Call call : m_calls.values()) {
+        call.m_done.countDown();
+      }
+    }
+  }
+
+  private void readFully(ByteBuffer a_buf)
+      throws IOException {
+    while (a_buf.hasRemaining()) {
+      if (m_channel.read(a_buf) < 0) {
+        throw new EOFException("Connection closed by grid broker");
+      }
+    }
+  }
+
+  private static class Call {
+    private int m_id;
+
+    private ByteArrayOutputStream m_bytes;
+
+    private DataOutputStream m_out;
+
+    private CountDownLatch m_done;
+
+    private volatile byte[] m_response;
+
+    public Call(int a_id) {
+      m_id = a_id;
+      m_bytes = new ByteArrayOutputStream();
+      m_out = new DataOutputStream(m_bytes);
+      m_done = new CountDownLatch(1);
+    }
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.log4j.*;
+
+/**
+ * Makes a grid broker accessible via sockets, for clients and workers running
+ * in other processes (see NioGridBroker). A single thread handles all
+ * connections with non-blocking I/O. Calls are executed by a thread pool, so
+ * that calls waiting for requests or results do not block other calls.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NioGridBrokerServer {
+  private final static String className = NioGridBrokerServer.class.getName();
+
+  private static Logger log = Logger.getLogger(className);
+
+  private IGridBroker m_broker;
+
+  private InetSocketAddress m_address;
+
+  private ServerSocketChannel m_server;
+
+  private Selector m_selector;
+
+  private ExecutorService m_executor;
+
+  private Thread m_thread;
+
+  private volatile boolean m_running;
+
+  /**
+   * Connections having responses to be written.
+   */
+  private Queue<Connection> m_writable;
+
+  /**
+   * Constructor: listens on the loopback interface.
+   *
+   * @param a_broker the broker to make accessible
+   * @param a_port the port to listen on, 0 for any free port
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public NioGridBrokerServer(IGridBroker a_broker, int a_port) {
+    this(a_broker, new InetSocketAddress("127.0.0.1", a_port));
+  }
+
+  /**
+   * @param a_broker the broker to make accessible
+   * @param a_address the address to listen on
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public NioGridBrokerServer(IGridBroker a_broker,
+                             InetSocketAddress a_address) {
+    m_broker = a_broker;
+    m_address = a_address;
+    m_writable = new ConcurrentLinkedQueue<Connection>();
+  }
+
+  /**
+   * Opens the server socket and starts serving.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void start()
+      throws IOException {
+    if (m_running) {
+      throw new IllegalStateException("Server already started");
+    }
+    m_selector = Selector.open();
+    m_server = ServerSocketChannel.open();
+    m_server.socket().setReuseAddress(true);
+    m_server.socket().bind(m_address);
+    m_server.configureBlocking(false);
+    m_server.register(m_selector, SelectionKey.OP_ACCEPT);
+    m_executor = Executors.newCachedThreadPool(new ThreadFactory() {
+      public Thread newThread(Runnable a_runnable) {
+        Thread thread = new Thread(a_runnable, "JGAP grid broker call");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    m_running = true;
+    m_thread = new Thread(new Runnable() {
+      public void run() {
+        serve();
+      }
+    }, "JGAP grid broker server");
+    m_thread.setDaemon(true);
+    m_thread.start();
+    log.info("Grid broker listening on " + m_server.socket().
+             getLocalSocketAddress());
+  }
+
+  /**
+   * @return the port the server listens on
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getPort() {
+    return m_server.socket().getLocalPort();
+  }
+
+  /**
+   * Stops serving and closes all connections.
+   *
+   * @throws InterruptedException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void stop()
+      throws InterruptedException {
+    if (!m_running) {
+      return;
+    }
+    m_running = false;
+    m_selector.wakeup();
+    m_thread.join();
+    m_executor.shutdownNow();
+  }
+
+  protected void serve() {
+    try {
+      while (m_running) {
+        m_selector.select();
+        // Register interest in writing for connections with responses.
+        // ------------------------------------------------------------
+        Connection conn;
+        while ( (conn = m_writable.poll()) != null) {
+          if (conn.m_key.isValid()) {
+            conn.m_key.interestOps(SelectionKey.OP_READ
+                                   | SelectionKey.OP_WRITE);
+          }
+        }
+        Iterator<SelectionKey> it = m_selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+          SelectionKey key = it.next();
+          it.remove();
+          try {
+            if (!key.isValid()) {
+              continue;
+            }
+            if (key.isAcceptable()) {
+              accept();
+            }
+            else {
+              conn = (Connection) key.attachment();
+              if (key.isReadable()) {
+                conn.read();
+              }
+              if (key.isValid() && key.isWritable()) {
+                conn.write();
+              }
+            }
+          } catch (IOException iex) {
+            log.debug("Closing connection: " + iex.getMessage());
+            close(key);
+          }
+        }
+      }
+    } catch (IOException iex) {
+      log.error("Grid broker server failed", iex);
+    } finally {
+      for (SelectionKey key : m_selector.keys()) {
+        close(key);
+      }
+      try {
+        m_selector.close();
+      } catch (IOException iex) {
+        log.warn("Closing selector failed", iex);
+      }
+    }
+  }
+
+  private void accept()
+      throws IOException {
+    SocketChannel channel = m_server.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    SelectionKey key = channel.register(m_selector, SelectionKey.OP_READ);
+    key.attach(new Connection(channel, key));
+  }
+
+  private void close(SelectionKey a_key) {
+    a_key.cancel();
+    try {
+      a_key.channel().close();
+    } catch (IOException iex) {
+      log.warn("Closing channel failed", iex);
+    }
+  }
+
+  /**
+   * State of a single connection.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private class Connection {
+    private SocketChannel m_channel;
+
+    private SelectionKey m_key;
+
+    private ByteBuffer m_in;
+
+    private Queue<ByteBuffer> m_out;
+
+    public Connection(SocketChannel a_channel, SelectionKey a_key) {
+      m_channel = a_channel;
+      m_key = a_key;
+      m_in = ByteBuffer.allocate(8192);
+      m_out = new ConcurrentLinkedQueue<ByteBuffer>();
+    }
+
+    /**
+     * Reads available data, dispatches complete calls to the thread pool.
+     */
+    public void read()
+        throws IOException {
+      if (m_channel.read(m_in) < 0) {
+        throw new EOFException("Connection closed by peer");
+      }
+      m_in.flip();
+      while (m_in.remaining() >= 4) {
+        int len = m_in.getInt(m_in.position());
+        if (len < 0 || len > GridBrokerProtocol.MAX_FRAME_SIZE) {
+          throw new IOException("Invalid frame size " + len);
+        }
+        if (m_in.remaining() < 4 + len) {
+          if (m_in.capacity() < 4 + len) {
+            // Enlarge the buffer to hold the complete frame.
+            // ----------------------------------------------
+            ByteBuffer in = ByteBuffer.allocate(4 + len);
+            in.put(m_in);
+            in.flip();
+            m_in = in;
+          }
+          break;
+        }
+        m_in.getInt();
+        final byte[] call = new byte[len];
+        m_in.get(call);
+        m_executor.execute(new Runnable() {
+          public void run() {
+            respond(GridBrokerProtocol.execute(m_broker, call));
+          }
+        });
+      }
+      m_in.compact();
+    }
+
+    /**
+     * Writes pending responses as far as possible without blocking.
+     */
+    public void write()
+        throws IOException {
+      ByteBuffer buf;
+      while ( (buf = m_out.peek()) != null) {
+        m_channel.write(buf);
+        if (buf.hasRemaining()) {
+          return;
+        }
+        m_out.poll();
+      }
+      m_key.interestOps(SelectionKey.OP_READ);
+      // A response may have been queued meanwhile.
+      // ------------------------------------------
+      if (!m_out.isEmpty()) {
+        m_key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    }
+
+    /**
+     * Queues a response, called by the thread pool.
+     */
+    private void respond(byte[] a_response) {
+      ByteBuffer buf = ByteBuffer.allocate(4 + a_response.length);
+      buf.putInt(a_response.length);
+      buf.put(a_response);
+      buf.flip();
+      m_out.add(buf);
+      m_writable.add(this);
+      m_selector.wakeup();
+    }
+  }
+}
@@ -0,0 +1,621 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.util.*;
+
+import org.apache.log4j.*;
+
+/**
+ * In-process grid broker scheduling requests per worker. Each request is
+ * assigned to the queue of the worker expected to finish it first, based on
+ * the measured durations of the workers. Idle workers take requests not
+ * assigned yet and steal from the queues of the other workers, so that slow
+ * or dead workers do not leave holes.
+ * <p>
+ * Leases are held per request and delivery. If an idle worker finds nothing
+ * to do, a request running considerably longer than the average duration
+ * (a straggler) is handed out once more (speculative re-issue). The first
+ * result submitted completes the request, later results are ignored.
+ * <p>
+ * A request handed out the maximum number of deliveries without result is
+ * given up, as in LocalGridBroker.
+ * <p>
+ * Results are held as in LocalGridBroker.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class WorkStealingGridBroker
+    implements IGridBroker {
+  private final static String className = WorkStealingGridBroker.class.
+      getName();
+
+  private static Logger log = Logger.getLogger(className);
+
+  /**
+   * Blocking takes check for expired leases at least this often.
+   */
+  private final static long LEASE_CHECK_MILLIS = 50;
+
+  /**
+   * Weight of the latest duration in the moving average of a worker.
+   */
+  private final static double DURATION_WEIGHT = 0.3;
+
+  private String m_name;
+
+  private long m_nextKey;
+
+  /**
+   * All requests not completed yet, in order of submission.
+   */
+  private Map<String, Request> m_requests;
+
+  /**
+   * Requests currently leased by at least one worker.
+   */
+  private Map<String, Request> m_leased;
+
+  /**
+   * Keys of requests not assigned to a worker.
+   */
+  private LinkedList<String> m_unassigned;
+
+  /**
+   * Keys of requests given up after the maximum number of deliveries.
+   */
+  private Set<String> m_failed;
+
+  private int m_maxDeliveries;
+
+  private Map<String, WorkerState> m_workers;
+
+  private LocalGridBroker m_results;
+
+  private double m_stragglerFactor;
+
+  private int m_maxCopies;
+
+  private long m_minStragglerMillis;
+
+  private long m_workerTimeoutMillis;
+
+  public WorkStealingGridBroker() {
+    this("grid");
+  }
+
+  /**
+   * @param a_name prefix for the keys of requests
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public WorkStealingGridBroker(String a_name) {
+    m_name = a_name;
+    m_requests = new LinkedHashMap<String, Request>();
+    m_leased = new HashMap<String, Request>();
+    m_unassigned = new LinkedList<String>();
+    m_failed = new LinkedHashSet<String>();
+    m_maxDeliveries = LocalGridBroker.DEFAULT_MAX_DELIVERIES;
+    m_workers = new HashMap<String, WorkerState>();
+    m_results = new LocalGridBroker(a_name);
+    m_stragglerFactor = 3;
+    m_maxCopies = 2;
+    m_minStragglerMillis = 1000;
+    m_workerTimeoutMillis = 60000;
+  }
+
+  /**
+   * @param a_factor a request is re-issued speculatively if it runs longer
+   * than this factor times the average duration of a request
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void setStragglerFactor(double a_factor) {
+    m_stragglerFactor = a_factor;
+  }
+
+  public synchronized double getStragglerFactor() {
+    return m_stragglerFactor;
+  }
+
+  /**
+   * @param a_millis requests running shorter than this are never re-issued
+   * speculatively, regardless of the average duration
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void setMinStragglerMillis(long a_millis) {
+    m_minStragglerMillis = a_millis;
+  }
+
+  /**
+   * @param a_maxCopies maximum number of workers computing the same request
+   * at a time, 1 to disable speculative re-issue
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void setMaxCopies(int a_maxCopies) {
+    m_maxCopies = a_maxCopies;
+  }
+
+  public synchronized int getMaxCopies() {
+    return m_maxCopies;
+  }
+
+  /**
+   * @param a_millis workers not having asked for requests for this time are
+   * not assigned new requests. Requests already assigned to them are stolen
+   * by the other workers
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void setWorkerTimeout(long a_millis) {
+    m_workerTimeoutMillis = a_millis;
+  }
+
+  /**
+   * @param a_maxDeliveries a request handed out this often without result is
+   * given up instead of being handed out again, zero or less for no limit.
+   * Speculative copies count as deliveries
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void setMaxDeliveries(int a_maxDeliveries) {
+    m_maxDeliveries = a_maxDeliveries;
+  }
+
+  public synchronized int getMaxDeliveries() {
+    return m_maxDeliveries;
+  }
+
+  public synchronized String submitRequest(byte[] a_data) {
+    String key = m_name + "_" + ++m_nextKey;
+    Request req = new Request(a_data);
+    m_requests.put(key, req);
+    enqueue(key, req, selectWorker(), false);
+    notifyAll();
+    return key;
+  }
+
+  public synchronized GridBrokerEntry takeRequest(String a_workerId,
+      long a_timeoutMillis, long a_leaseMillis)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + a_timeoutMillis;
+    WorkerState worker = getWorker(a_workerId);
+    while (true) {
+      long now = System.currentTimeMillis();
+      worker.m_lastSeen = now;
+      expireLeases(now);
+      String key = nextKey(worker);
+      if (key == null) {
+        key = findStraggler(a_workerId, now);
+      }
+      if (key != null) {
+        return lease(key, a_workerId, now, a_leaseMillis);
+      }
+      long remaining = deadline - now;
+      if (remaining <= 0) {
+        return null;
+      }
+      wait(Math.min(remaining, LEASE_CHECK_MILLIS));
+    }
+  }
+
+  /**
+   * Gives back the lease of the given worker. The request is handed out again
+   * immediately unless another worker still computes it.
+   *
+   * @param a_key the key of the request
+   * @param a_workerId ID of the worker that took the request
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void releaseRequest(String a_key, String a_workerId) {
+    Request req = m_leased.get(a_key);
+    if (req == null) {
+      return;
+    }
+    Lease lease = null;
+    Iterator<Lease> it = req.m_leases.iterator();
+    while (it.hasNext()) {
+      Lease candidate = it.next();
+      if (candidate.m_workerId.equals(a_workerId)) {
+        lease = candidate;
+        it.remove();
+        break;
+      }
+    }
+    if (lease == null) {
+      // Lease expired before.
+      // ---------------------
+      return;
+    }
+    getWorker(lease.m_workerId).m_active--;
+    if (req.m_leases.isEmpty()) {
+      m_leased.remove(a_key);
+      retry(a_key, req);
+      notifyAll();
+    }
+  }
+
+  public synchronized void submitResult(String a_requestKey, byte[] a_data) {
+    Request req = m_requests.remove(a_requestKey);
+    if (req == null) {
+      // Completed before (speculative copy) or removed. A late result of a
+      // request given up is still accepted.
+      // ------------------------------------------------------------------
+      if (m_failed.remove(a_requestKey)) {
+        m_results.submitResult(a_requestKey, a_data);
+      }
+      return;
+    }
+    dequeue(a_requestKey, req);
+    if (req.m_leases.size() == 1) {
+      // With several copies running it is unknown which one finished.
+      // --------------------------------------------------------------
+      Lease lease = req.m_leases.getFirst();
+      getWorker(lease.m_workerId).addDuration(System.currentTimeMillis()
+          - lease.m_start);
+    }
+    releaseLeases(a_requestKey, req);
+    m_results.submitResult(a_requestKey, a_data);
+  }
+
+  public GridBrokerEntry takeResult(long a_timeoutMillis, long a_leaseMillis)
+      throws InterruptedException {
+    return m_results.takeResult(a_timeoutMillis, a_leaseMillis);
+  }
+
+  public GridBrokerEntry takeResult(String a_key, long a_leaseMillis) {
+    return m_results.takeResult(a_key, a_leaseMillis);
+  }
+
+  public void acknowledgeResult(String a_key) {
+    m_results.acknowledgeResult(a_key);
+  }
+
+  public boolean remove(String a_key) {
+    boolean removed = false;
+    synchronized (this) {
+      Request req = m_requests.remove(a_key);
+      if (req != null) {
+        dequeue(a_key, req);
+        releaseLeases(a_key, req);
+        removed = true;
+      }
+      removed = m_failed.remove(a_key) || removed;
+    }
+    return m_results.remove(a_key) || removed;
+  }
+
+  public synchronized List<String> listRequests() {
+    return new Vector<String>(m_requests.keySet());
+  }
+
+  public List<String> listResults() {
+    return m_results.listResults();
+  }
+
+  public synchronized List<String> listFailedRequests() {
+    return new Vector<String>(m_failed);
+  }
+
+  /**
+   * @return IDs of all workers that have asked for requests so far
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized List<String> getWorkerIds() {
+    return new Vector<String>(m_workers.keySet());
+  }
+
+  /**
+   * @param a_workerId ID of a worker
+   * @return moving average of the time the worker needed per request in
+   * milliseconds, zero if not measured yet
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized double getAverageDuration(String a_workerId) {
+    WorkerState worker = m_workers.get(a_workerId);
+    if (worker == null) {
+      return 0;
+    }
+    return worker.m_avgMillis;
+  }
+
+  /**
+   * @return average time per request over all workers in milliseconds, zero
+   * if not measured yet
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized double getAverageDuration() {
+    double sum = 0;
+    int count = 0;
+    for (WorkerState worker : m_workers.values()) {
+      if (worker.m_completed > 0) {
+        sum += worker.m_avgMillis;
+        count++;
+      }
+    }
+    if (count == 0) {
+      return 0;
+    }
+    return sum / count;
+  }
+
+  /**
+   * Recommends the size of future requests (e.g. the number of programs or
+   * individuals per request, see IRequestSplitStrategyGP) so that a request
+   * takes about the given time. Assumes that the requests measured so far had
+   * the current size. The size changes by a factor of two at most.
+   *
+   * @param a_currentSize size of the requests computed so far
+   * @param a_targetMillis desired duration of a request
+   * @return recommended size, at least 1
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getRecommendedRequestSize(int a_currentSize, long a_targetMillis) {
+    double avg = getAverageDuration();
+    if (avg <= 0) {
+      return a_currentSize;
+    }
+    double size = a_currentSize * a_targetMillis / avg;
+    size = Math.max(a_currentSize / 2.0, Math.min(a_currentSize * 2.0, size));
+    return Math.max(1, (int) Math.round(size));
+  }
+
+  private WorkerState getWorker(String a_workerId) {
+    WorkerState worker = m_workers.get(a_workerId);
+    if (worker == null) {
+      worker = new WorkerState();
+      m_workers.put(a_workerId, worker);
+    }
+    return worker;
+  }
+
+  /**
+   * @return the worker expected to finish a new request first, null if no
+   * worker is alive
+   */
+  private WorkerState selectWorker() {
+    long now = System.currentTimeMillis();
+    double defaultMillis = getAverageDuration();
+    if (defaultMillis <= 0) {
+      defaultMillis = 1;
+    }
+    WorkerState best = null;
+    double bestFinish = Double.MAX_VALUE;
+    for (WorkerState worker : m_workers.values()) {
+      if (now - worker.m_lastSeen > m_workerTimeoutMillis) {
+        continue;
+      }
+      double millis = worker.m_completed > 0 ? worker.m_avgMillis
+          : defaultMillis;
+      double finish = (worker.m_queue.size() + worker.m_active + 1) * millis;
+      if (finish < bestFinish) {
+        bestFinish = finish;
+        best = worker;
+      }
+    }
+    return best;
+  }
+
+  private void enqueue(String a_key, Request a_req, WorkerState a_worker,
+                       boolean a_retry) {
+    LinkedList<String> queue = a_worker == null ? m_unassigned
+        : a_worker.m_queue;
+    // Retries come first to bound the latency of the whole batch.
+    // -----------------------------------------------------------
+    if (a_retry) {
+      queue.addFirst(a_key);
+    }
+    else {
+      queue.addLast(a_key);
+    }
+    a_req.m_queue = queue;
+  }
+
+  /**
+   * Hands out a request without lease again, or gives it up if delivered too
+   * often.
+   */
+  private void retry(String a_key, Request a_req) {
+    if (m_maxDeliveries > 0 && a_req.m_deliveries >= m_maxDeliveries) {
+      m_requests.remove(a_key);
+      m_failed.add(a_key);
+      log.warn("Request " + a_key + " given up after " + a_req.m_deliveries
+               + " deliveries");
+    }
+    else {
+      enqueue(a_key, a_req, null, true);
+    }
+  }
+
+  private void dequeue(String a_key, Request a_req) {
+    if (a_req.m_queue != null) {
+      a_req.m_queue.remove(a_key);
+      a_req.m_queue = null;
+    }
+  }
+
+  /**
+   * Takes the next request from the own queue, from the unassigned requests,
+   * or steals the youngest request of the longest queue of another worker.
+   */
+  private String nextKey(WorkerState a_worker) {
+    LinkedList<String> queue = a_worker.m_queue;
+    boolean steal = false;
+    if (queue.isEmpty()) {
+      queue = m_unassigned;
+    }
+    if (queue.isEmpty()) {
+      steal = true;
+      for (WorkerState other : m_workers.values()) {
+        if (other.m_queue.size() > queue.size()) {
+          queue = other.m_queue;
+        }
+      }
+      if (queue.isEmpty()) {
+        return null;
+      }
+    }
+    String key = steal ? queue.removeLast() : queue.removeFirst();
+    m_requests.get(key).m_queue = null;
+    return key;
+  }
+
+  /**
+   * @return key of the request running longest beyond the straggler limit
+   * and not computed by the given worker, or null
+   */
+  private String findStraggler(String a_workerId, long a_now) {
+    double avg = getAverageDuration();
+    if (m_maxCopies < 2 || avg <= 0) {
+      return null;
+    }
+    long limit = Math.max(m_minStragglerMillis, (long) (avg
+        * m_stragglerFactor));
+    String result = null;
+    long longest = limit;
+    for (Map.Entry<String, Request> e : m_leased.entrySet()) {
+      Request req = e.getValue();
+      if (req.m_leases.size() >= m_maxCopies) {
+        continue;
+      }
+      boolean own = false;
+      for (Lease lease : req.m_leases) {
+        if (lease.m_workerId.equals(a_workerId)) {
+          own = true;
+          break;
+        }
+      }
+      long elapsed = a_now - req.m_leases.getFirst().m_start;
+      if (!own && elapsed > longest) {
+        longest = elapsed;
+        result = e.getKey();
+      }
+    }
+    return result;
+  }
+
+  private GridBrokerEntry lease(String a_key, String a_workerId, long a_now,
+                                long a_leaseMillis) {
+    Request req = m_requests.get(a_key);
+    req.m_leases.addLast(new Lease(a_workerId, a_now,
+                                   a_now + Math.max(1, a_leaseMillis)));
+    req.m_deliveries++;
+    m_leased.put(a_key, req);
+    getWorker(a_workerId).m_active++;
+    return new GridBrokerEntry(a_key, req.m_data, req.m_deliveries);
+  }
+
+  private void releaseLeases(String a_key, Request a_req) {
+    for (Lease lease : a_req.m_leases) {
+      getWorker(lease.m_workerId).m_active--;
+    }
+    a_req.m_leases.clear();
+    m_leased.remove(a_key);
+  }
+
+  private void expireLeases(long a_now) {
+    if (m_leased.isEmpty()) {
+      return;
+    }
+    Iterator<Map.Entry<String, Request>> it = m_leased.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Request> e = it.next();
+      Request req = e.getValue();
+      Iterator<Lease> leases = req.m_leases.iterator();
+      while (leases.hasNext()) {
+        Lease lease = leases.next();
+        if (lease.m_expiry <= a_now) {
+          leases.remove();
+          getWorker(lease.m_workerId).m_active--;
+        }
+      }
+      if (req.m_leases.isEmpty()) {
+        it.remove();
+        retry(e.getKey(), req);
+      }
+    }
+  }
+
+  private static class Request {
+    private byte[] m_data;
+
+    private int m_deliveries;
+
+    private LinkedList<Lease> m_leases;
+
+    /**
+     * The queue holding the request, null if not queued.
+     */
+    private LinkedList<String> m_queue;
+
+    public Request(byte[] a_data) {
+      m_data = a_data;
+      m_leases = new LinkedList<Lease>();
+    }
+  }
+
+  private static class Lease {
+    private String m_workerId;
+
+    private long m_start;
+
+    private long m_expiry;
+
+    public Lease(String a_workerId, long a_start, long a_expiry) {
+      m_workerId = a_workerId;
+      m_start = a_start;
+      m_expiry = a_expiry;
+    }
+  }
+
+  private static class WorkerState {
+    private LinkedList<String> m_queue = new LinkedList<String>();
+
+    /**
+     * Number of requests currently leased by the worker.
+     */
+    private int m_active;
+
+    private int m_completed;
+
+    private double m_avgMillis;
+
+    private long m_lastSeen;
+
+    public void addDuration(long a_millis) {
+      if (m_completed == 0) {
+        m_avgMillis = a_millis;
+      }
+      else {
+        m_avgMillis += DURATION_WEIGHT * (a_millis - m_avgMillis);
+      }
+      m_completed++;
+    }
+  }
+}
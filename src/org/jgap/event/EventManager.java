@@ -10,6 +10,9 @@
 package org.jgap.event;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.apache.log4j.*;
 import org.jgap.util.*;
 
 /**
@@ -18,6 +21,13 @@ import org.jgap.util.*;
  * addEventListener() method. To unsubscribe, use the removeEventListener()
  * method. To generate a genetic event, use the fireGeneticEvent() method,
  * which will take care of notifying the appropriate subscribers.
+ * <p>
+ * Listeners added via addEventListener() are notified synchronously by the
+ * thread firing the event. Listeners added via addAsyncEventListener() are
+ * notified by a dedicated dispatcher thread, so that slow listeners (GUI
+ * updates, writing files) do not delay the evolution. Each asynchronous
+ * listener has a bounded queue of events not yet delivered; what happens if
+ * it is full is determined by the overflow policy given.
  *
  * @author Neil Rotstan
  * @author Klaus Meffert
@@ -25,11 +35,56 @@ import org.jgap.util.*;
  */
 public class EventManager
     implements IEventManager, ICloneable {
+  private final static String className = EventManager.class.getName();
+
+  private static Logger log = Logger.getLogger(className);
+
+  /**
+   * Overflow policy: An event not fitting into the queue of an asynchronous
+   * listener is dropped.
+   *
+   * @since 3.7
+   */
+  public static final int OVERFLOW_DROP = 0;
+
+  /**
+   * Overflow policy: If the queue of an asynchronous listener is full, the
+   * oldest event queued is dropped in favor of the new one. Suitable for
+   * listeners only interested in the latest state, like progress displays.
+   *
+   * @since 3.7
+   */
+  public static final int OVERFLOW_COALESCE = 1;
+
+  /**
+   * Overflow policy: The thread firing the event waits until the queue of the
+   * asynchronous listener has space again.
+   *
+   * @since 3.7
+   */
+  public static final int OVERFLOW_BLOCK = 2;
+
   /**
    * References a Map of subscribed event listeners. Each key is an event
    * name, and each value is a List of listeners subscribed to that event.
+   * The lists are copied on write, so that firing events needs no locking.
    */
-  private HashMap m_listeners = new HashMap();
+  private Map<String, List<GeneticEventListener>> m_listeners =
+      new ConcurrentHashMap<String, List<GeneticEventListener>>();
+
+  /**
+   * Asynchronous listeners having events to be delivered.
+   */
+  private transient BlockingQueue<AsyncListener> m_ready;
+
+  private transient Thread m_dispatcher;
+
+  /**
+   * Number of events queued for asynchronous listeners but not delivered yet.
+   */
+  private transient AtomicInteger m_pending;
+
+  private transient AtomicLong m_dropped;
 
   /**
    * Adds a new listener that will be notified when the event represented
@@ -46,17 +101,49 @@ public class EventManager
    */
   public synchronized void addEventListener(final String a_eventName,
       final GeneticEventListener a_eventListenerToAdd) {
-    List eventListeners = (List) m_listeners.get(a_eventName);
+    List<GeneticEventListener> eventListeners = m_listeners.get(a_eventName);
     if (eventListeners == null) {
-      eventListeners = new LinkedList();
+      eventListeners = new CopyOnWriteArrayList<GeneticEventListener>();
       m_listeners.put(a_eventName, eventListeners);
     }
     eventListeners.add(a_eventListenerToAdd);
   }
 
+  /**
+   * Adds a new listener that will be notified asynchronously by the
+   * dispatcher thread of this event manager when the event represented by the
+   * given name is fired. The listener receives the events in the order fired.
+   *
+   * @param a_eventName the name of the event to which the given listener
+   * should be subscribed
+   * @param a_eventListenerToAdd the genetic listener to subscribe to
+   * notifications of the given event
+   * @param a_capacity maximum number of events queued for the listener
+   * @param a_overflowPolicy one of the OVERFLOW_ constants
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void addAsyncEventListener(final String a_eventName,
+      final GeneticEventListener a_eventListenerToAdd, final int a_capacity,
+      final int a_overflowPolicy) {
+    if (a_eventListenerToAdd == null) {
+      throw new IllegalArgumentException("Listener must not be null!");
+    }
+    if (a_capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive!");
+    }
+    if (a_overflowPolicy < OVERFLOW_DROP || a_overflowPolicy > OVERFLOW_BLOCK) {
+      throw new IllegalArgumentException("Unknown overflow policy!");
+    }
+    addEventListener(a_eventName, new AsyncListener(a_eventListenerToAdd,
+        a_capacity, a_overflowPolicy));
+  }
+
   /**
    * Removes the given listener from subscription of the indicated event.
    * The listener will no longer be notified when the given event occurs.
+   * Events already queued for an asynchronous listener are still delivered.
    *
    * @param a_eventName the name of the event to which the given listener
    * should be removed. Standard events are represented by constants in the
@@ -69,8 +156,16 @@ public class EventManager
    */
   public synchronized void removeEventListener(final String a_eventName,
       final GeneticEventListener a_eventListenerToRemove) {
-    List eventListeners = (List) m_listeners.get(a_eventName);
+    List<GeneticEventListener> eventListeners = m_listeners.get(a_eventName);
     if (eventListeners != null) {
+      for (GeneticEventListener listener : eventListeners) {
+        if (listener instanceof AsyncListener
+            && ( (AsyncListener) listener).m_listener.equals(
+            a_eventListenerToRemove)) {
+          eventListeners.remove(listener);
+          return;
+        }
+      }
       eventListeners.remove(a_eventListenerToRemove);
     }
   }
@@ -84,16 +179,133 @@ public class EventManager
    * @author Neil Rotstan
    * @since 1.0
    */
-  public synchronized void fireGeneticEvent(final GeneticEvent a_eventToFire) {
-    List eventListeners =
-        (List) m_listeners.get(a_eventToFire.getEventName());
+  public void fireGeneticEvent(final GeneticEvent a_eventToFire) {
+    List<GeneticEventListener> eventListeners =
+        m_listeners.get(a_eventToFire.getEventName());
     if (eventListeners != null) {
       // Iterate over the listeners and notify each one of the event.
+      // Asynchronous listeners only enqueue the event.
       // ------------------------------------------------------------
-      Iterator listenerIterator = eventListeners.iterator();
-      while (listenerIterator.hasNext()) {
-        ( (GeneticEventListener) listenerIterator.next()).
-            geneticEventFired(a_eventToFire);
+      for (GeneticEventListener listener : eventListeners) {
+        listener.geneticEventFired(a_eventToFire);
+      }
+    }
+  }
+
+  /**
+   * Waits until all events queued for asynchronous listeners have been
+   * delivered.
+   *
+   * @param a_timeoutMillis maximum time to wait in milliseconds
+   * @return true: all events delivered, false: timeout elapsed
+   *
+   * @throws InterruptedException if interrupted while waiting
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean flush(long a_timeoutMillis)
+      throws InterruptedException {
+    AtomicInteger pending = getPending();
+    long end = System.currentTimeMillis() + a_timeoutMillis;
+    synchronized (pending) {
+      while (pending.get() > 0) {
+        long wait = end - System.currentTimeMillis();
+        if (wait <= 0) {
+          return false;
+        }
+        pending.wait(wait);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return number of events not delivered to asynchronous listeners because
+   * of a full queue
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getDroppedEvents() {
+    return getDropped().get();
+  }
+
+  /**
+   * Stops the dispatcher thread. Events still queued are not delivered. The
+   * thread is started again when further events are fired for asynchronous
+   * listeners.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void shutdown() {
+    if (m_dispatcher != null) {
+      m_dispatcher.interrupt();
+      m_dispatcher = null;
+    }
+    if (m_ready != null) {
+      m_ready.clear();
+      m_ready = null;
+    }
+    for (List<GeneticEventListener> eventListeners : m_listeners.values()) {
+      for (GeneticEventListener listener : eventListeners) {
+        if (listener instanceof AsyncListener) {
+          ( (AsyncListener) listener).discard();
+        }
+      }
+    }
+  }
+
+  private synchronized AtomicInteger getPending() {
+    if (m_pending == null) {
+      // Transient, thus also null after deserialization.
+      // ------------------------------------------------
+      m_pending = new AtomicInteger();
+    }
+    return m_pending;
+  }
+
+  private synchronized AtomicLong getDropped() {
+    if (m_dropped == null) {
+      m_dropped = new AtomicLong();
+    }
+    return m_dropped;
+  }
+
+  /**
+   * Schedules an asynchronous listener for delivering its queued events and
+   * starts the dispatcher thread if necessary.
+   */
+  private synchronized void schedule(AsyncListener a_listener) {
+    if (m_ready == null) {
+      m_ready = new LinkedBlockingQueue<AsyncListener>();
+    }
+    m_ready.add(a_listener);
+    if (m_dispatcher == null) {
+      final BlockingQueue<AsyncListener> ready = m_ready;
+      m_dispatcher = new Thread("JGAP event dispatcher") {
+        public void run() {
+          try {
+            while (!isInterrupted()) {
+              ready.take().deliver();
+            }
+          } catch (InterruptedException iex) {
+            // Shutdown requested.
+            // -------------------
+          }
+        }
+      };
+      m_dispatcher.setDaemon(true);
+      m_dispatcher.start();
+    }
+  }
+
+  private void delivered(int a_count) {
+    AtomicInteger pending = getPending();
+    if (pending.addAndGet( -a_count) <= 0) {
+      synchronized (pending) {
+        pending.notifyAll();
       }
     }
   }
@@ -117,9 +329,129 @@ public class EventManager
    */
   public Object clone() {
     EventManager result = new EventManager();
-    if (!m_listeners .isEmpty()) {
-      result.m_listeners = (HashMap)m_listeners.clone();
+    for (Map.Entry<String, List<GeneticEventListener>> entry :
+         m_listeners.entrySet()) {
+      for (GeneticEventListener listener : entry.getValue()) {
+        if (listener instanceof AsyncListener) {
+          AsyncListener async = (AsyncListener) listener;
+          result.addAsyncEventListener(entry.getKey(), async.m_listener,
+                                       async.m_capacity, async.m_policy);
+        }
+        else {
+          result.addEventListener(entry.getKey(), listener);
+        }
+      }
     }
     return result;
   }
+
+  /**
+   * Wraps a listener to be notified asynchronously. Queues the events fired
+   * until the dispatcher thread delivers them.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private class AsyncListener
+      implements GeneticEventListener, java.io.Serializable {
+    private GeneticEventListener m_listener;
+
+    private int m_capacity;
+
+    private int m_policy;
+
+    private transient BlockingQueue<GeneticEvent> m_queue;
+
+    /**
+     * Whether the listener is scheduled for delivery already.
+     */
+    private transient AtomicBoolean m_scheduled;
+
+    public AsyncListener(GeneticEventListener a_listener, int a_capacity,
+                         int a_policy) {
+      m_listener = a_listener;
+      m_capacity = a_capacity;
+      m_policy = a_policy;
+    }
+
+    private synchronized void init() {
+      if (m_queue == null) {
+        // Transient, thus also null after deserialization.
+        // ------------------------------------------------
+        m_queue = new ArrayBlockingQueue<GeneticEvent>(m_capacity);
+        m_scheduled = new AtomicBoolean();
+      }
+    }
+
+    public void geneticEventFired(GeneticEvent a_firedEvent) {
+      init();
+      AtomicInteger pending = getPending();
+      pending.incrementAndGet();
+      boolean queued = m_queue.offer(a_firedEvent);
+      while (!queued) {
+        if (m_policy == OVERFLOW_DROP) {
+          getDropped().incrementAndGet();
+          delivered(1);
+          return;
+        }
+        else if (m_policy == OVERFLOW_COALESCE) {
+          if (m_queue.poll() != null) {
+            getDropped().incrementAndGet();
+            delivered(1);
+          }
+          queued = m_queue.offer(a_firedEvent);
+        }
+        else {
+          try {
+            m_queue.put(a_firedEvent);
+            queued = true;
+          } catch (InterruptedException iex) {
+            Thread.currentThread().interrupt();
+            delivered(1);
+            return;
+          }
+        }
+      }
+      if (m_scheduled.compareAndSet(false, true)) {
+        schedule(this);
+      }
+    }
+
+    /**
+     * Delivers all events queued. Called by the dispatcher thread only.
+     */
+    void deliver() {
+      // Reset the flag first, so that events queued meanwhile lead to a new
+      // scheduling.
+      // -------------------------------------------------------------------
+      m_scheduled.set(false);
+      GeneticEvent event;
+      while ( (event = m_queue.poll()) != null) {
+        try {
+          m_listener.geneticEventFired(event);
+        } catch (RuntimeException rex) {
+          // A failing listener must not stop the dispatcher.
+          // ------------------------------------------------
+          log.error("Asynchronous listener " + m_listener
+                    + " failed on event " + event.getEventName(), rex);
+        } finally {
+          delivered(1);
+        }
+      }
+    }
+
+    /**
+     * Discards all events queued.
+     */
+    synchronized void discard() {
+      if (m_queue != null) {
+        int count = 0;
+        while (m_queue.poll() != null) {
+          count++;
+        }
+        m_scheduled.set(false);
+        delivered(count);
+      }
+    }
+  }
 }
@@ -10,6 +10,7 @@
 package org.jgap.gp;
 
 import org.apache.log4j.Logger;
+import org.jgap.gp.impl.*;
 
 /**
  * Fitness function for GP-Programs.
@@ -57,12 +58,38 @@ public abstract class GPFitnessFunction
     // we throw a runtime exception.
     // ---------------------------------------------------------
     double fitnessValue;
+    // Optionally restrict the execution of the program.
+    // -------------------------------------------------
+    GPConfiguration conf = a_program.getGPConfiguration();
+    ExecutionBudget budget = null;
+    if (conf != null && conf.isExecutionBudgetUsed()) {
+      budget = ExecutionBudget.getCurrent();
+      budget.start(conf.getMaxNodeEvaluations(), conf.getMaxExecutionTime());
+      setExecutionBudget(a_program, budget);
+    }
     try {
       fitnessValue = evaluate(a_program);
+      if (budget != null && budget.isExceeded()) {
+        // The fitness function caught the exception and went on.
+        // --------------------------------------------------------
+        fitnessValue = conf.getExecutionBudgetPenalty();
+        m_lastComputedFitnessValue = fitnessValue;
+        return fitnessValue;
+      }
+    } catch (ExecutionBudgetExceededException bex) {
+      LOGGER.debug(bex.getMessage());
+      fitnessValue = conf.getExecutionBudgetPenalty();
+      m_lastComputedFitnessValue = fitnessValue;
+      return fitnessValue;
     } catch (IllegalStateException iex) {
       LOGGER.debug(iex.getMessage());
       fitnessValue = NO_FITNESS_VALUE;
       return fitnessValue;
+    } finally {
+      if (budget != null) {
+        budget.stop();
+        setExecutionBudget(a_program, null);
+      }
     }
     if (fitnessValue < 0.00000000d) {
       throw new RuntimeException(
@@ -73,6 +100,14 @@ public abstract class GPFitnessFunction
     return fitnessValue;
   }
 
+  private void setExecutionBudget(IGPProgram a_program,
+                                  ExecutionBudget a_budget) {
+    int size = a_program.size();
+    for (int i = 0; i < size; i++) {
+      a_program.getChromosome(i).setExecutionBudget(a_budget);
+    }
+  }
+
   /**
    * @return the last fitness value computed via method getFitnessValue(
    * Chromosome), or NO_FITNES_VALUE if the former method has not been called
@@ -0,0 +1,39 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp;
+
+import org.jgap.*;
+import org.jgap.gp.impl.*;
+
+/**
+ * Creates the genotype of a single island for an island model
+ * (see GPIslandGenotype).
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IGPIslandFactory {
+  /**
+   * Creates the initial genotype of an island. All objects of the island
+   * (e.g. the commands of the node sets) must be created with the given
+   * configuration, because each island is evolved in its own thread.
+   *
+   * @param a_conf the configuration of the island
+   * @param a_index the index of the island
+   * @return the initialized genotype of the island
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  GPGenotype createIsland(GPConfiguration a_conf, int a_index)
+      throws InvalidConfigurationException;
+}
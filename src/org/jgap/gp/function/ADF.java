@@ -92,7 +92,13 @@ public class ADF
     }
     // Call the chromosome.
     // --------------------
-    return c.getIndividual().execute_int(m_chromosomeNum, vals);
+    ExecutionBudget budget = ExecutionBudget.getCurrent();
+    budget.enterADF();
+    try {
+      return c.getIndividual().execute_int(m_chromosomeNum, vals);
+    } finally {
+      budget.leaveADF();
+    }
   }
 
   public boolean execute_boolean(ProgramChromosome c, int n, Object[] args) {
@@ -102,7 +108,15 @@ public class ADF
     for (int i = 0; i < numargs; i++) {
       vals[i] = new Boolean(c.execute_boolean(n, i, args));
     }
-    return c.getIndividual().execute_boolean(m_chromosomeNum, vals);
+    // Call the chromosome.
+    // --------------------
+    ExecutionBudget budget = ExecutionBudget.getCurrent();
+    budget.enterADF();
+    try {
+      return c.getIndividual().execute_boolean(m_chromosomeNum, vals);
+    } finally {
+      budget.leaveADF();
+    }
   }
 
   public float execute_float(ProgramChromosome c, int n, Object[] args) {
@@ -112,7 +126,15 @@ public class ADF
     for (int i = 0; i < numargs; i++) {
       vals[i] = new Float(c.execute_float(n, i, args));
     }
-    return c.getIndividual().execute_float(m_chromosomeNum, vals);
+    // Call the chromosome.
+    // --------------------
+    ExecutionBudget budget = ExecutionBudget.getCurrent();
+    budget.enterADF();
+    try {
+      return c.getIndividual().execute_float(m_chromosomeNum, vals);
+    } finally {
+      budget.leaveADF();
+    }
   }
 
   public double execute_double(ProgramChromosome c, int n, Object[] args) {
@@ -122,7 +144,15 @@ public class ADF
     for (int i = 0; i < numargs; i++) {
       vals[i] = new Double(c.execute_double(n, i, args));
     }
-    return c.getIndividual().execute_double(m_chromosomeNum, vals);
+    // Call the chromosome.
+    // --------------------
+    ExecutionBudget budget = ExecutionBudget.getCurrent();
+    budget.enterADF();
+    try {
+      return c.getIndividual().execute_double(m_chromosomeNum, vals);
+    } finally {
+      budget.leaveADF();
+    }
   }
 
   public Object execute_object(ProgramChromosome c, int n, Object[] args) {
@@ -132,7 +162,15 @@ public class ADF
     for (int i = 0; i < numargs; i++) {
       vals[i] = c.execute(n, i, args);
     }
-    return c.getIndividual().execute_object(m_chromosomeNum, vals);
+    // Call the chromosome.
+    // --------------------
+    ExecutionBudget budget = ExecutionBudget.getCurrent();
+    budget.enterADF();
+    try {
+      return c.getIndividual().execute_object(m_chromosomeNum, vals);
+    } finally {
+      budget.leaveADF();
+    }
   }
 
   public Class getChildType(IGPProgram a_ind, int i) {
@@ -142,11 +180,8 @@ public class ADF
   public boolean isValid(ProgramChromosome a_chrom) {
     // Avoid endless recursion.
     // ------------------------
-    StackTraceElement[] stack = new Exception().getStackTrace();
-    if (stack.length > 60) { /**@todo enhance*/
-      return false;
-    }
-    return true;
+    return ExecutionBudget.getCurrent().getADFDepth() <
+        getGPConfiguration().getMaxADFDepth();
   }
 
   /**
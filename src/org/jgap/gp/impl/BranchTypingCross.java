@@ -342,7 +342,19 @@ public class BranchTypingCross
    * @since 3.2
    */
   public Object clone() {
-    BranchTypingCross result = new BranchTypingCross(getConfiguration());
+    BranchTypingCross result = new BranchTypingCross(getConfiguration(),
+        m_simpleChromosomeSelection);
     return result;
   }
+
+  /**
+   * @return true: chromosomes are selected plainly, false: proportionally to
+   * their size
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isSimpleChromosomeSelection() {
+    return m_simpleChromosomeSelection;
+  }
 }
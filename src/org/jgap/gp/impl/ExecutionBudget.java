@@ -0,0 +1,190 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+/**
+ * Limits the effort spent for executing a single GP program during fitness
+ * evaluation. Loops, sub programs and ADF's allow evolved programs to run for
+ * a very long time. With a budget, the number of node evaluations and/or the
+ * time used can be restricted. When the budget is exceeded, an
+ * ExecutionBudgetExceededException is thrown and the program gets the penalty
+ * fitness configured with GPConfiguration.setExecutionBudgetPenalty. The
+ * budget stays exhausted until it is stopped, so that each further node
+ * evaluation throws again, even if a fitness function catches the exception
+ * and continues executing the program.
+ * <p>
+ * Also keeps track of the current recursion depth of ADF's.
+ * <p>
+ * There is one instance per thread, because a program is always evaluated
+ * within a single thread.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ExecutionBudget {
+  /**
+   * Check the clock only every 256th node evaluation, as System.nanoTime is
+   * much more expensive than evaluating a simple node.
+   */
+  private final static int TIME_CHECK_MASK = 0xFF;
+
+  private static ThreadLocal<ExecutionBudget> m_budgets = new
+      ThreadLocal<ExecutionBudget>() {
+    protected ExecutionBudget initialValue() {
+      return new ExecutionBudget();
+    }
+  };
+
+  private long m_maxNodeEvaluations;
+
+  private long m_deadline;
+
+  private long m_nodeEvaluations;
+
+  private int m_adfDepth;
+
+  private boolean m_active;
+
+  private boolean m_exceeded;
+
+  /**
+   * @return the budget of the current thread
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static ExecutionBudget getCurrent() {
+    return m_budgets.get();
+  }
+
+  /**
+   * Starts a new budget for evaluating a program.
+   *
+   * @param a_maxNodeEvaluations maximum number of nodes to be evaluated, zero
+   * or less for no limit
+   * @param a_maxMillis maximum time in milliseconds, zero or less for no limit
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void start(long a_maxNodeEvaluations, long a_maxMillis) {
+    m_maxNodeEvaluations = a_maxNodeEvaluations;
+    if (a_maxMillis > 0) {
+      m_deadline = System.nanoTime() + a_maxMillis * 1000000L;
+    }
+    else {
+      m_deadline = 0;
+    }
+    m_nodeEvaluations = 0;
+    m_exceeded = false;
+    m_active = true;
+  }
+
+  /**
+   * Stops the current budget.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void stop() {
+    m_active = false;
+  }
+
+  /**
+   * @return true: a budget has been started and not stopped yet
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isActive() {
+    return m_active;
+  }
+
+  /**
+   * @return true: the budget started last has been exceeded
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isExceeded() {
+    return m_exceeded;
+  }
+
+  /**
+   * Called for each node evaluated.
+   *
+   * @throws ExecutionBudgetExceededException if the budget is exceeded or has
+   * been exceeded before
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void consume() {
+    if (!m_active) {
+      return;
+    }
+    if (m_exceeded) {
+      throw new ExecutionBudgetExceededException("Execution budget already"
+          + " exceeded");
+    }
+    m_nodeEvaluations++;
+    if (m_maxNodeEvaluations > 0 && m_nodeEvaluations > m_maxNodeEvaluations) {
+      m_exceeded = true;
+      throw new ExecutionBudgetExceededException("Maximum number of node"
+          + " evaluations exceeded: " + m_maxNodeEvaluations);
+    }
+    if (m_deadline != 0 && (m_nodeEvaluations & TIME_CHECK_MASK) == 0
+        && System.nanoTime() > m_deadline) {
+      m_exceeded = true;
+      throw new ExecutionBudgetExceededException("Maximum execution time"
+          + " exceeded");
+    }
+  }
+
+  /**
+   * @return number of nodes evaluated since the budget was started
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getNodeEvaluations() {
+    return m_nodeEvaluations;
+  }
+
+  /**
+   * Called when an ADF is entered.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void enterADF() {
+    m_adfDepth++;
+  }
+
+  /**
+   * Called when an ADF is left.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void leaveADF() {
+    m_adfDepth--;
+  }
+
+  /**
+   * @return current depth of nested ADF calls
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getADFDepth() {
+    return m_adfDepth;
+  }
+}
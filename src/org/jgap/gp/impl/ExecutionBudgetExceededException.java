@@ -0,0 +1,30 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+/**
+ * Thrown when the execution of a GP program exceeds its execution budget (see
+ * ExecutionBudget). As this is a normal event during evolution, no stack trace
+ * is filled in to keep aborting cheap. It is no IllegalStateException, as
+ * fitness functions often catch these and continue.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ExecutionBudgetExceededException
+    extends RuntimeException {
+  public ExecutionBudgetExceededException(String a_message) {
+    super(a_message);
+  }
+
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
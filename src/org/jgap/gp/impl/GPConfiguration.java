@@ -184,6 +184,37 @@ public int realPopSize;/**@todo do it right*/
    */
   private boolean m_noCommandGeneCloning;
 
+  /**
+   * Maximum number of node evaluations per program evaluation, zero or less
+   * for no limit. See ExecutionBudget.
+   *
+   * @since 3.7
+   */
+  private long m_maxNodeEvaluations;
+
+  /**
+   * Maximum time in milliseconds per program evaluation, zero or less for no
+   * limit. See ExecutionBudget.
+   *
+   * @since 3.7
+   */
+  private long m_maxExecutionTime;
+
+  /**
+   * Fitness value for programs exceeding their execution budget. NaN means
+   * the worst possible fitness according to the fitness evaluator.
+   *
+   * @since 3.7
+   */
+  private double m_executionBudgetPenalty = Double.NaN;
+
+  /**
+   * Maximum depth of nested ADF calls.
+   *
+   * @since 3.7
+   */
+  private int m_maxADFDepth = 8;
+
   /**
    * Constructor utilizing the FitnessProportionateSelection.
    *
@@ -1083,11 +1114,24 @@ public int realPopSize;/**@todo do it right*/
       result.m_strictProgramCreation = m_strictProgramCreation;
       result.m_programCreationMaxTries = m_programCreationMaxTries;
       result.m_selectionMethod = (INaturalGPSelector) doClone(m_selectionMethod);
-      result.m_crossMethod = (CrossMethod) doClone(m_crossMethod);
+      if (m_crossMethod instanceof BranchTypingCross) {
+        // Bind the crossover to the clone, e.g. for using its random
+        // generator.
+        // ----------------------------------------------------------
+        result.m_crossMethod = new BranchTypingCross(result,
+            ( (BranchTypingCross) m_crossMethod).isSimpleChromosomeSelection());
+      }
+      else {
+        result.m_crossMethod = (CrossMethod) doClone(m_crossMethod);
+      }
       result.m_fitnessEvaluator = (IGPFitnessEvaluator) doClone(
           m_fitnessEvaluator);
       result.m_nodeValidator = (INodeValidator) doClone(m_nodeValidator);
       result.m_useProgramCache = m_useProgramCache;
+      result.m_maxNodeEvaluations = m_maxNodeEvaluations;
+      result.m_maxExecutionTime = m_maxExecutionTime;
+      result.m_executionBudgetPenalty = m_executionBudgetPenalty;
+      result.m_maxADFDepth = m_maxADFDepth;
       result.m_verify = m_verify;
       result.m_variables = m_variables;
       result.realPopSize = realPopSize;/**@todo do it right*/
@@ -1207,4 +1251,96 @@ public int realPopSize;/**@todo do it right*/
     return m_noCommandGeneCloning;
   }
 
+  /**
+   * Restricts the number of nodes evaluated when computing the fitness of a
+   * single program. Programs exceeding the limit are aborted and get the
+   * penalty fitness, see setExecutionBudgetPenalty.
+   *
+   * @param a_maxNodeEvaluations maximum number of node evaluations, zero or
+   * less for no limit (default)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMaxNodeEvaluations(long a_maxNodeEvaluations) {
+    m_maxNodeEvaluations = a_maxNodeEvaluations;
+  }
+
+  public long getMaxNodeEvaluations() {
+    return m_maxNodeEvaluations;
+  }
+
+  /**
+   * Restricts the time used for computing the fitness of a single program.
+   * Programs exceeding the limit are aborted and get the penalty fitness, see
+   * setExecutionBudgetPenalty.
+   *
+   * @param a_millis maximum time in milliseconds, zero or less for no limit
+   * (default)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMaxExecutionTime(long a_millis) {
+    m_maxExecutionTime = a_millis;
+  }
+
+  public long getMaxExecutionTime() {
+    return m_maxExecutionTime;
+  }
+
+  /**
+   * @return true: an execution budget is used for evaluating programs
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isExecutionBudgetUsed() {
+    return m_maxNodeEvaluations > 0 || m_maxExecutionTime > 0;
+  }
+
+  /**
+   * @param a_penalty fitness value to assign to programs exceeding their
+   * execution budget
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setExecutionBudgetPenalty(double a_penalty) {
+    m_executionBudgetPenalty = a_penalty;
+  }
+
+  /**
+   * @return fitness value to assign to programs exceeding their execution
+   * budget. If not set explicitely, the worst fitness value according to the
+   * fitness evaluator is returned
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getExecutionBudgetPenalty() {
+    if (!Double.isNaN(m_executionBudgetPenalty)) {
+      return m_executionBudgetPenalty;
+    }
+    if (getGPFitnessEvaluator().isFitter(GPFitnessFunction.MAX_FITNESS_VALUE,
+        0.0d)) {
+      return 0.0d;
+    }
+    return GPFitnessFunction.MAX_FITNESS_VALUE;
+  }
+
+  /**
+   * @param a_maxADFDepth maximum depth of nested ADF calls, deeper nesting
+   * makes the program invalid
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMaxADFDepth(int a_maxADFDepth) {
+    m_maxADFDepth = a_maxADFDepth;
+  }
+
+  public int getMaxADFDepth() {
+    return m_maxADFDepth;
+  }
 }
@@ -14,6 +14,7 @@ import java.util.*;
 
 import org.apache.log4j.*;
 import org.jgap.*;
+import org.jgap.audit.*;
 import org.jgap.distr.grid.gp.*;
 import org.jgap.event.*;
 import org.jgap.gp.*;
@@ -561,6 +562,18 @@ public class GPGenotype
     GPPopulation pop = getGPPopulation();
     IGPProgram best = null;
     IGPFitnessEvaluator evaluator = getGPConfiguration().getGPFitnessEvaluator();
+    IEvolutionMetrics metrics = getGPConfiguration().getEvolutionMetrics();
+    long start = 0;
+    Set<Double> distinct = null;
+    if (metrics != null) {
+      start = System.nanoTime();
+      // Programs cannot be compared cheaply, so diversity is determined by
+      // the number of distinct fitness values.
+      // ------------------------------------------------------------------
+      if (metrics.isDiversitySampled(getGPConfiguration().getGenerationNr())) {
+        distinct = new HashSet<Double>();
+      }
+    }
     m_bestFitness = FitnessFunction.NO_FITNESS_VALUE;
     boolean bestPreserved = false;
     for (int i = 0; i < pop.size() && pop.getGPProgram(i) != null; i++) {
@@ -580,6 +593,9 @@ public class GPGenotype
       if (Double.isInfinite(fitness) || Double.isNaN(fitness)) {
         continue;
       }
+      if (distinct != null) {
+        distinct.add(new Double(fitness));
+      }
       if (best == null || evaluator.isFitter(fitness, m_bestFitness)) {
         best = program;
         m_bestFitness = fitness;
@@ -638,6 +654,16 @@ public class GPGenotype
     if (!bestPreserved && m_allTimeBest != null) {
       addFittestProgram(m_allTimeBest);
     }
+    if (metrics != null) {
+      metrics.addTime(IEvolutionMetrics.PHASE_EVALUATION,
+                      System.nanoTime() - start);
+      int size = pop.size();
+      metrics.setGauge(IEvolutionMetrics.GAUGE_POPULATION_SIZE, size);
+      if (distinct != null && size > 0) {
+        metrics.setGauge(IEvolutionMetrics.GAUGE_DIVERSITY,
+                         (double) distinct.size() / size);
+      }
+    }
   }
 
   /**
@@ -719,6 +745,14 @@ public class GPGenotype
       int crossover = 0;
       int reproduction = 0;
       int creation = 0;
+      IEvolutionMetrics metrics = conf.getEvolutionMetrics();
+      long generationStart = 0;
+      long crossoverNanos = 0;
+      long reproductionNanos = 0;
+      long start = 0;
+      if (metrics != null) {
+        generationStart = System.nanoTime();
+      }
       checkErroneousPop(getGPPopulation(), " (before evolution)", true);
       final int maxTries = getGPConfiguration().getProgramCreationMaxtries();
       // Do crossing over.
@@ -727,6 +761,9 @@ public class GPGenotype
         // Clear the stack for each GP program.
         // ------------------------------------
         getGPConfiguration().clearStack();
+        if (metrics != null) {
+          start = System.nanoTime();
+        }
         val = random.nextFloat();
         // Note that if we only have one slot left to fill, we don't do
         // crossover, but fall through to reproduction.
@@ -805,14 +842,26 @@ public class GPGenotype
             }
           } while (true)
           ;
+          if (metrics != null) {
+            crossoverNanos += System.nanoTime() - start;
+          }
         }
         else { //if (val < conf.getCrossoverProb() + conf.getReproductionProb()) {
           // Reproduction only.
           // ------------------
           reproduction++;
           newPopulation.setGPProgram(i, conf.getSelectionMethod().select(this));
+          if (metrics != null) {
+            reproductionNanos += System.nanoTime() - start;
+          }
         }
       }
+      if (metrics != null) {
+        metrics.addTime(IEvolutionMetrics.PHASE_GP_CROSSOVER, crossoverNanos);
+        metrics.addTime(IEvolutionMetrics.PHASE_GP_REPRODUCTION,
+                        reproductionNanos);
+        start = System.nanoTime();
+      }
       // Add new random programs.
       // ------------------------
       for (int i = popSize1; i < popSize; i++) {
@@ -900,6 +949,14 @@ public class GPGenotype
                    + crossover + " x-overs, "
                    + reproduction + " reproductions, "
                    + creation + " creations");
+      if (metrics != null) {
+        metrics.addTime(IEvolutionMetrics.PHASE_GP_CREATION,
+                        System.nanoTime() - start);
+        metrics.addCount(IEvolutionMetrics.COUNT_CREATED,
+                         crossover * 2 + creation);
+        metrics.addTime(IEvolutionMetrics.PHASE_GENERATION,
+                        System.nanoTime() - generationStart);
+      }
       // Now set the new population as the active one.
       // ---------------------------------------------
       setGPPopulation(newPopulation);
@@ -917,6 +974,16 @@ public class GPGenotype
     }
   }
 
+  /**
+   * @return the available GP-functions per chromosome
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public CommandGene[][] getNodeSets() {
+    return m_nodeSets;
+  }
+
   public GPPopulation getGPPopulation() {
     return m_population;
   }
@@ -0,0 +1,446 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.apache.log4j.*;
+import org.jgap.*;
+import org.jgap.gp.*;
+
+/**
+ * Island model for Genetic Programming. Several GPGenotype's (islands) are
+ * evolved in parallel within a thread pool. Every migration interval, each
+ * island sends some of its programs (emigrants) to other islands, determined
+ * by the topology.
+ * <p>
+ * Each island has its own GPConfiguration cloned from the configuration given,
+ * so that no state is shared between the threads. Emigrants are transferred in
+ * the binary format of GPProgramOutputStream and are read back with the
+ * configuration and node sets of the receiving island. The mailbox of each
+ * island is a lock-free queue, thus sending never blocks.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GPIslandGenotype {
+  private transient static Logger LOGGER = Logger.getLogger(GPIslandGenotype.class);
+
+  /**
+   * Island i sends its emigrants to island i+1, the last island to the first
+   * one.
+   */
+  public final static int TOPOLOGY_RING = 0;
+
+  /**
+   * Each island sends its emigrants to all other islands.
+   */
+  public final static int TOPOLOGY_FULLY_CONNECTED = 1;
+
+  /**
+   * Each island sends its emigrants to another island chosen randomly.
+   */
+  public final static int TOPOLOGY_RANDOM = 2;
+
+  private GPConfiguration m_configuration;
+
+  private GPGenotype[] m_islands;
+
+  private ConcurrentLinkedQueue<byte[]>[] m_mailboxes;
+
+  private int m_topology;
+
+  private int m_migrationInterval;
+
+  private int m_migrationSize;
+
+  private int m_threads;
+
+  private int m_generations;
+
+  private INaturalGPSelector m_migrantSelector;
+
+  private AtomicLong m_migrants;
+
+  /**
+   * Creates the islands. Each island gets a clone of the given configuration.
+   *
+   * @param a_conf the configuration to clone for the islands
+   * @param a_numberOfIslands the number of islands, at least one
+   * @param a_factory creates the genotype per island
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPIslandGenotype(GPConfiguration a_conf, int a_numberOfIslands,
+                          IGPIslandFactory a_factory)
+      throws InvalidConfigurationException {
+    if (a_numberOfIslands < 1) {
+      throw new IllegalArgumentException("Number of islands must be at least"
+                                         + " one!");
+    }
+    m_configuration = a_conf;
+    m_islands = new GPGenotype[a_numberOfIslands];
+    m_mailboxes = new ConcurrentLinkedQueue[a_numberOfIslands];
+    for (int i = 0; i < a_numberOfIslands; i++) {
+      GPConfiguration conf = a_conf.newInstanceGP(a_conf.getId() + "_island"
+          + i, a_conf.getName() + "_island" + i);
+      m_islands[i] = a_factory.createIsland(conf, i);
+      m_mailboxes[i] = new ConcurrentLinkedQueue<byte[]>();
+    }
+    m_topology = TOPOLOGY_RING;
+    m_migrationInterval = 10;
+    m_migrationSize = 2;
+    m_threads = Math.min(a_numberOfIslands,
+                         Runtime.getRuntime().availableProcessors());
+    m_migrants = new AtomicLong();
+  }
+
+  /**
+   * Evolves all islands the given number of generations. Migration takes
+   * place each time the total number of generations evolved reaches a
+   * multiple of the migration interval.
+   *
+   * @param a_generations number of generations to evolve
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void evolve(int a_generations) {
+    ExecutorService executor = Executors.newFixedThreadPool(m_threads);
+    try {
+      int remaining = a_generations;
+      while (remaining > 0) {
+        int epoch = m_migrationInterval - m_generations % m_migrationInterval;
+        if (epoch > remaining) {
+          epoch = remaining;
+        }
+        final boolean migrate = (m_generations + epoch)
+            % m_migrationInterval == 0 && m_islands.length > 1;
+        final int generations = epoch;
+        List<Callable<Object>> tasks = new Vector<Callable<Object>>();
+        for (int i = 0; i < m_islands.length; i++) {
+          final int index = i;
+          tasks.add(new Callable<Object>() {
+            public Object call()
+                throws Exception {
+              immigrate(index);
+              m_islands[index].evolve(generations);
+              if (migrate) {
+                emigrate(index);
+              }
+              return null;
+            }
+          });
+        }
+        List<Future<Object>> results = executor.invokeAll(tasks);
+        for (Future<Object> result : results) {
+          try {
+            result.get();
+          } catch (ExecutionException eex) {
+            Throwable cause = eex.getCause();
+            if (cause instanceof RuntimeException) {
+              throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+          }
+        }
+        m_generations += epoch;
+        remaining -= epoch;
+      }
+    } catch (InterruptedException iex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Evolution interrupted");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Selects the emigrants of an island and puts them into the mailboxes of
+   * the target islands.
+   *
+   * @param a_island index of the island to emigrate from
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void emigrate(int a_island)
+      throws IOException {
+    GPGenotype island = m_islands[a_island];
+    INaturalGPSelector selector = m_migrantSelector;
+    if (selector == null) {
+      selector = island.getGPConfiguration().getSelectionMethod();
+    }
+    int[] targets = getTargets(a_island,
+                               island.getGPConfiguration().getRandomGenerator());
+    for (int i = 0; i < m_migrationSize; i++) {
+      IGPProgram emigrant = selector.select(island);
+      if (emigrant == null) {
+        continue;
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      GPProgramOutputStream out = new GPProgramOutputStream(bytes);
+      out.writeProgram(emigrant);
+      out.close();
+      // The same (immutable) message can be sent to all targets.
+      // --------------------------------------------------------
+      byte[] message = bytes.toByteArray();
+      for (int j = 0; j < targets.length; j++) {
+        m_mailboxes[targets[j]].offer(message);
+      }
+    }
+  }
+
+  /**
+   * Takes all programs out of the mailbox of an island and replaces the worst
+   * programs of the island with them.
+   *
+   * @param a_island index of the island to immigrate into
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void immigrate(int a_island) {
+    GPGenotype island = m_islands[a_island];
+    List<IGPProgram> immigrants = new Vector<IGPProgram>();
+    byte[] message;
+    while ( (message = m_mailboxes[a_island].poll()) != null) {
+      try {
+        GPProgramInputStream in = new GPProgramInputStream(new
+            ByteArrayInputStream(message), island.getGPConfiguration(),
+            island.getNodeSets());
+        immigrants.add(in.readProgram());
+        in.close();
+      } catch (Exception ex) {
+        LOGGER.warn("Immigrant could not be read: " + ex.getMessage());
+      }
+    }
+    if (immigrants.isEmpty()) {
+      return;
+    }
+    GPPopulation pop = island.getGPPopulation();
+    pop.sortByFitness();
+    int size = pop.size();
+    for (int i = 0; i < immigrants.size() && i < size; i++) {
+      pop.setGPProgram(size - 1 - i, immigrants.get(i));
+    }
+    pop.setChanged(true);
+    m_migrants.addAndGet(immigrants.size());
+  }
+
+  /**
+   * Determines the islands to send the emigrants of an island to.
+   *
+   * @param a_island index of the emigrating island
+   * @param a_random random generator to use with TOPOLOGY_RANDOM
+   * @return indices of the target islands
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected int[] getTargets(int a_island, RandomGenerator a_random) {
+    int count = m_islands.length;
+    switch (m_topology) {
+      case TOPOLOGY_FULLY_CONNECTED:
+        int[] targets = new int[count - 1];
+        for (int i = 0, j = 0; i < count; i++) {
+          if (i != a_island) {
+            targets[j++] = i;
+          }
+        }
+        return targets;
+      case TOPOLOGY_RANDOM:
+        int target = a_random.nextInt(count - 1);
+        if (target >= a_island) {
+          target++;
+        }
+        return new int[] {target};
+      default:
+        return new int[] { (a_island + 1) % count};
+    }
+  }
+
+  /**
+   * @return the fittest program of all islands' current populations
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IGPProgram getFittestProgram() {
+    IGPProgram best = null;
+    for (int i = 0; i < m_islands.length; i++) {
+      best = fitter(best, m_islands[i].getFittestProgram());
+    }
+    return best;
+  }
+
+  /**
+   * @return the all-time best program found on any island
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IGPProgram getAllTimeBest() {
+    IGPProgram best = null;
+    for (int i = 0; i < m_islands.length; i++) {
+      best = fitter(best, m_islands[i].getAllTimeBest());
+    }
+    return best;
+  }
+
+  private IGPProgram fitter(IGPProgram a_best, IGPProgram a_candidate) {
+    if (a_candidate == null) {
+      return a_best;
+    }
+    if (a_best == null || m_configuration.getGPFitnessEvaluator().isFitter(
+        a_candidate, a_best)) {
+      return a_candidate;
+    }
+    return a_best;
+  }
+
+  /**
+   * @param a_index index of the island
+   * @return the genotype of the island
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPGenotype getIsland(int a_index) {
+    return m_islands[a_index];
+  }
+
+  /**
+   * @return number of islands
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getIslandCount() {
+    return m_islands.length;
+  }
+
+  /**
+   * @return total number of generations evolved so far
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getGenerations() {
+    return m_generations;
+  }
+
+  /**
+   * @return total number of programs immigrated into islands so far
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getMigrantCount() {
+    return m_migrants.get();
+  }
+
+  /**
+   * @param a_topology TOPOLOGY_RING, TOPOLOGY_FULLY_CONNECTED or
+   * TOPOLOGY_RANDOM
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setTopology(int a_topology) {
+    if (a_topology < TOPOLOGY_RING || a_topology > TOPOLOGY_RANDOM) {
+      throw new IllegalArgumentException("Unknown topology: " + a_topology);
+    }
+    m_topology = a_topology;
+  }
+
+  public int getTopology() {
+    return m_topology;
+  }
+
+  /**
+   * @param a_generations number of generations between two migrations
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMigrationInterval(int a_generations) {
+    if (a_generations < 1) {
+      throw new IllegalArgumentException("Migration interval must be at least"
+                                         + " one!");
+    }
+    m_migrationInterval = a_generations;
+  }
+
+  public int getMigrationInterval() {
+    return m_migrationInterval;
+  }
+
+  /**
+   * @param a_size number of programs each island sends per migration
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMigrationSize(int a_size) {
+    if (a_size < 0) {
+      throw new IllegalArgumentException("Migration size must not be"
+                                         + " negative!");
+    }
+    m_migrationSize = a_size;
+  }
+
+  public int getMigrationSize() {
+    return m_migrationSize;
+  }
+
+  /**
+   * @param a_threads size of the thread pool the islands are evolved with
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setThreads(int a_threads) {
+    if (a_threads < 1) {
+      throw new IllegalArgumentException("At least one thread is required!");
+    }
+    m_threads = a_threads;
+  }
+
+  public int getThreads() {
+    return m_threads;
+  }
+
+  /**
+   * Sets the selector used to choose the emigrants. As it is shared by all
+   * islands, it must be thread-safe. By default, the selection method of each
+   * island's configuration is used.
+   *
+   * @param a_selector the selector to use, null for the default
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setMigrantSelector(INaturalGPSelector a_selector) {
+    m_migrantSelector = a_selector;
+  }
+
+  public INaturalGPSelector getMigrantSelector() {
+    return m_migrantSelector;
+  }
+}
@@ -0,0 +1,434 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+import org.jgap.gp.terminal.*;
+import org.jgap.util.*;
+
+/**
+ * Reads GP programs and GP populations written by GPProgramOutputStream.
+ * <p>
+ * The commands referenced in the stream are resolved against the node sets
+ * given with the constructor (normally the same node sets as used for
+ * creating the GPGenotype). Each node read is a clone of the matching
+ * command, exactly as with randomly created programs. Only if no matching
+ * command could be found, it is tried to instantiate the command via
+ * reflection.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GPProgramInputStream {
+  private DataInputStream m_in;
+
+  private GPConfiguration m_conf;
+
+  private CommandGene[][] m_nodeSets;
+
+  /**
+   * Commands defined so far, the index is the opcode minus one.
+   */
+  private List<CommandGene> m_commands;
+
+  private List<Class> m_classes;
+
+  /**
+   * Function sets per chromosome (node set plus arguments), keyed by
+   * chromosome index and argument types.
+   */
+  private Map<String, CommandGene[]> m_functionSets;
+
+  /**
+   * Argument types of the program currently read.
+   */
+  private Class[][] m_argTypes;
+
+  private int m_version;
+
+  /**
+   * Constructor. Reads and verifies the header of the format.
+   *
+   * @param a_in the stream to read from
+   * @param a_conf the configuration to use for the programs read
+   * @param a_nodeSets the node sets to resolve the commands against, one per
+   * chromosome
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPProgramInputStream(InputStream a_in, GPConfiguration a_conf,
+                              CommandGene[][] a_nodeSets)
+      throws IOException {
+    if (a_in instanceof DataInputStream) {
+      m_in = (DataInputStream) a_in;
+    }
+    else {
+      m_in = new DataInputStream(new BufferedInputStream(a_in));
+    }
+    m_conf = a_conf;
+    m_nodeSets = a_nodeSets;
+    m_commands = new ArrayList<CommandGene>();
+    m_classes = new ArrayList<Class>();
+    m_functionSets = new HashMap<String, CommandGene[]>();
+    if (m_in.readInt() != GPProgramOutputStream.MAGIC) {
+      throw new StreamCorruptedException("Not a binary GP program stream");
+    }
+    m_version = m_in.readUnsignedByte();
+    if (m_version > GPProgramOutputStream.VERSION) {
+      throw new IOException("Unsupported version of binary GP program stream: "
+                            + m_version);
+    }
+  }
+
+  /**
+   * @return version of the format read
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getVersion() {
+    return m_version;
+  }
+
+  /**
+   * Reads a complete population.
+   *
+   * @return the population read
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPPopulation readPopulation()
+      throws IOException, UnsupportedRepresentationException {
+    int size = readVarInt();
+    GPPopulation pop;
+    try {
+      pop = new GPPopulation(m_conf, size);
+    } catch (InvalidConfigurationException iex) {
+      throw new UnsupportedRepresentationException(iex.getMessage());
+    }
+    for (int i = 0; i < size; i++) {
+      if (m_in.readBoolean()) {
+        pop.setGPProgram(i, readProgram());
+      }
+    }
+    return pop;
+  }
+
+  /**
+   * Reads a single GP program.
+   *
+   * @return the program read
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IGPProgram readProgram()
+      throws IOException, UnsupportedRepresentationException {
+    double fitness = m_in.readDouble();
+    int size = readVarInt();
+    int maxNodes = readVarInt();
+    int[] minDepths = readIntArray();
+    int[] maxDepths = readIntArray();
+    Class[] types = new Class[size];
+    m_argTypes = new Class[size][];
+    for (int i = 0; i < size; i++) {
+      types[i] = readClass();
+      int args = readVarInt();
+      m_argTypes[i] = new Class[args];
+      for (int j = 0; j < args; j++) {
+        m_argTypes[i][j] = readClass();
+      }
+    }
+    try {
+      GPProgram prog = new GPProgram(m_conf, types, m_argTypes, m_nodeSets,
+                                     minDepths, maxDepths, maxNodes);
+      prog.setFitnessValue(fitness);
+      for (int i = 0; i < size; i++) {
+        CommandGene[] genes = readChromosome();
+        ProgramChromosome chrom = new ProgramChromosome(m_conf,
+            Math.max(maxNodes, genes.length), getFunctionSet(i, types),
+            m_argTypes[i], prog);
+        for (int j = 0; j < genes.length; j++) {
+          chrom.setGene(j, genes[j]);
+        }
+        prog.setChromosome(i, chrom);
+      }
+      // Depths can only be computed after all chromosomes are known, as ADF's
+      // refer to other chromosomes.
+      // ---------------------------------------------------------------------
+      for (int i = 0; i < size; i++) {
+        prog.getChromosome(i).redepth();
+      }
+      return prog;
+    } catch (InvalidConfigurationException iex) {
+      throw new UnsupportedRepresentationException(iex.getMessage());
+    }
+  }
+
+  /**
+   * Reads the nodes of a chromosome, followed by the values of the terminals.
+   *
+   * @return the nodes read
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected CommandGene[] readChromosome()
+      throws IOException, UnsupportedRepresentationException {
+    int size = readVarInt();
+    CommandGene[] genes = new CommandGene[size];
+    for (int i = 0; i < size; i++) {
+      genes[i] = newInstance(readCommand());
+    }
+    // Constant section.
+    // -----------------
+    for (int i = 0; i < size; i++) {
+      if (genes[i] instanceof Terminal) {
+        readTerminalValue( (Terminal) genes[i]);
+      }
+    }
+    return genes;
+  }
+
+  /**
+   * Reads an opcode. If it introduces a new command, the definition is read
+   * and resolved.
+   *
+   * @return the command the opcode refers to
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected CommandGene readCommand()
+      throws IOException, UnsupportedRepresentationException {
+    int opcode = readVarInt();
+    if (opcode > 0) {
+      if (opcode > m_commands.size()) {
+        throw new UnsupportedRepresentationException("Undefined opcode "
+            + opcode);
+      }
+      return m_commands.get(opcode - 1);
+    }
+    Class clazz = readClass();
+    Class returnType = readClass();
+    int subReturnType = readVarInt();
+    String signature = m_in.readUTF();
+    CommandGene command = resolveCommand(clazz, returnType, subReturnType,
+                                         signature);
+    m_commands.add(command);
+    return command;
+  }
+
+  /**
+   * Finds the command matching the given definition.
+   *
+   * @param a_class class of the command
+   * @param a_returnType return type of the command
+   * @param a_subReturnType sub return type of the command
+   * @param a_signature signature of the command, see
+   * GPProgramOutputStream.getSignature
+   * @return the command found or created
+   * @throws UnsupportedRepresentationException if no such command available
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected CommandGene resolveCommand(Class a_class, Class a_returnType,
+                                       int a_subReturnType,
+                                       String a_signature)
+      throws UnsupportedRepresentationException {
+    if (m_nodeSets != null) {
+      for (int i = 0; i < m_nodeSets.length; i++) {
+        CommandGene[] functionSet = getFunctionSet(i, null);
+        for (CommandGene command : functionSet) {
+          if (command.getClass() == a_class
+              && command.getReturnType() == a_returnType
+              && command.getSubReturnType() == a_subReturnType
+              && a_signature.equals(GPProgramOutputStream.getSignature(
+                  command))) {
+            return command;
+          }
+        }
+      }
+    }
+    // Last resort: Try to instantiate the command.
+    // --------------------------------------------
+    try {
+      if (a_class == Terminal.class) {
+        // Restore the bounds of the terminal from its signature.
+        // ------------------------------------------------------
+        String[] bounds = a_signature.split(":");
+        return new Terminal(m_conf, a_returnType,
+                            Double.parseDouble(bounds[0]),
+                            Double.parseDouble(bounds[1]),
+                            Boolean.valueOf(bounds[2]).booleanValue(),
+                            a_subReturnType, false);
+      }
+      try {
+        Constructor constr = a_class.getConstructor(new Class[] {
+            GPConfiguration.class, Class.class});
+        return (CommandGene) constr.newInstance(new Object[] {m_conf,
+            a_returnType});
+      } catch (NoSuchMethodException nex) {
+        Constructor constr = a_class.getConstructor(new Class[] {
+            GPConfiguration.class});
+        return (CommandGene) constr.newInstance(new Object[] {m_conf});
+      }
+    } catch (Exception ex) {
+      throw new UnsupportedRepresentationException("Command "
+          + a_class.getName() + " (" + a_signature
+          + ") not contained in node sets and not instantiable: " + ex);
+    }
+  }
+
+  /**
+   * Returns the node set of a chromosome, extended by the arguments of the
+   * chromosome, like done during creation of programs.
+   *
+   * @param a_index index of the chromosome
+   * @param a_types return types of the chromosomes, or null
+   * @return function set of the chromosome
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected CommandGene[] getFunctionSet(int a_index, Class[] a_types)
+      throws UnsupportedRepresentationException {
+    Class[] argTypes;
+    if (m_argTypes != null && a_index < m_argTypes.length) {
+      argTypes = m_argTypes[a_index];
+    }
+    else {
+      argTypes = new Class[0];
+    }
+    String key = a_index + Arrays.asList(argTypes).toString();
+    CommandGene[] result = m_functionSets.get(key);
+    if (result == null) {
+      CommandGene[] nodeSet = m_nodeSets[a_index];
+      result = new CommandGene[nodeSet.length + argTypes.length];
+      System.arraycopy(nodeSet, 0, result, 0, nodeSet.length);
+      try {
+        for (int i = 0; i < argTypes.length; i++) {
+          result[nodeSet.length + i] = new Argument(m_conf, i, argTypes[i]);
+        }
+      } catch (InvalidConfigurationException iex) {
+        throw new UnsupportedRepresentationException(iex.getMessage());
+      }
+      m_functionSets.put(key, result);
+    }
+    // ADF's have the type of the chromosome they reference.
+    // -----------------------------------------------------
+    if (a_types != null) {
+      for (CommandGene command : result) {
+        if (command instanceof ADF) {
+          ( (ADF) command).setReturnType(a_types[ ( (ADF) command).
+                                         getChromosomeNum()]);
+        }
+      }
+    }
+    return result;
+  }
+
+  protected CommandGene newInstance(CommandGene a_command) {
+    if (a_command instanceof ICloneable) {
+      return (CommandGene) ( (ICloneable) a_command).clone();
+    }
+    return a_command;
+  }
+
+  protected void readTerminalValue(Terminal a_terminal)
+      throws IOException {
+    Class type = a_terminal.getReturnType();
+    if (type == CommandGene.IntegerClass || type == int.class) {
+      a_terminal.setValue(m_in.readInt());
+    }
+    else if (type == CommandGene.LongClass || type == long.class) {
+      a_terminal.setValue(m_in.readLong());
+    }
+    else if (type == CommandGene.FloatClass || type == float.class) {
+      a_terminal.setValue(m_in.readFloat());
+    }
+    else {
+      a_terminal.setValue(m_in.readDouble());
+    }
+  }
+
+  protected Class readClass()
+      throws IOException, UnsupportedRepresentationException {
+    int id = readVarInt();
+    if (id == 0) {
+      return null;
+    }
+    if (id == 1) {
+      String name = m_in.readUTF();
+      try {
+        Class result = Class.forName(name);
+        m_classes.add(result);
+        return result;
+      } catch (ClassNotFoundException cex) {
+        throw new UnsupportedRepresentationException("Class not found: "
+            + name);
+      }
+    }
+    if (id - 2 >= m_classes.size()) {
+      throw new UnsupportedRepresentationException("Undefined class id " + id);
+    }
+    return m_classes.get(id - 2);
+  }
+
+  protected int[] readIntArray()
+      throws IOException {
+    int len = readVarInt();
+    if (len == 0) {
+      return null;
+    }
+    int[] result = new int[len - 1];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = readVarInt();
+    }
+    return result;
+  }
+
+  protected int readVarInt()
+      throws IOException {
+    int result = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = m_in.readUnsignedByte();
+      result |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ( (b & 0x80) != 0);
+    return result;
+  }
+
+  public void close()
+      throws IOException {
+    m_in.close();
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgap.gp.*;
+import org.jgap.gp.terminal.*;
+
+/**
+ * Writes GP programs and GP populations in a compact, versioned binary format.
+ * This is the fast alternative to getPersistentRepresentation(), which builds
+ * (and encodes) a string containing the class name of each single node.
+ * <p>
+ * Here, a dictionary of the commands is built up while writing: The first
+ * occurence of a command is defined inline, every further occurence only
+ * writes its opcode (the index within the dictionary). The values of
+ * terminals are written into a separate constant section following the
+ * opcodes of each chromosome. Programs are written one by one, thus a
+ * checkpoint of a population never has to be held in memory as a whole.
+ * <p>
+ * Application data attached to programs is not written.
+ * Use GPProgramInputStream to read the data back.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GPProgramOutputStream {
+  /**
+   * Magic number at the beginning of each stream ("JGPB").
+   */
+  public final static int MAGIC = 0x4A475042;
+
+  /**
+   * Version of the binary format written.
+   */
+  public final static int VERSION = 1;
+
+  private final static int MAX_INSTANCES_CACHED = 4096;
+
+  private DataOutputStream m_out;
+
+  /**
+   * Opcodes of the commands written so far, keyed by their signature.
+   */
+  private Map<String, Integer> m_commands;
+
+  /**
+   * Shortcut for command instances already written, avoids building the
+   * signature again for shared (uncloned) instances. Bounded by
+   * MAX_INSTANCES_CACHED to not hold all nodes of a large population.
+   */
+  private IdentityHashMap<CommandGene, Integer> m_commandInstances;
+
+  private Map<String, Integer> m_classes;
+
+  /**
+   * Constructor. Writes the header of the format to the stream.
+   *
+   * @param a_out the stream to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GPProgramOutputStream(OutputStream a_out)
+      throws IOException {
+    if (a_out instanceof DataOutputStream) {
+      m_out = (DataOutputStream) a_out;
+    }
+    else {
+      m_out = new DataOutputStream(new BufferedOutputStream(a_out));
+    }
+    m_commands = new HashMap<String, Integer>();
+    m_commandInstances = new IdentityHashMap<CommandGene, Integer>();
+    m_classes = new HashMap<String, Integer>();
+    m_out.writeInt(MAGIC);
+    m_out.writeByte(VERSION);
+  }
+
+  /**
+   * Writes all programs of a population, one after the other.
+   *
+   * @param a_pop the population to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writePopulation(GPPopulation a_pop)
+      throws IOException {
+    int size = a_pop.size();
+    writeVarInt(size);
+    for (int i = 0; i < size; i++) {
+      IGPProgram prog = a_pop.getGPProgram(i);
+      if (prog == null) {
+        m_out.writeBoolean(false);
+      }
+      else {
+        m_out.writeBoolean(true);
+        writeProgram(prog);
+      }
+    }
+  }
+
+  /**
+   * Writes a single GP program including all of its chromosomes.
+   *
+   * @param a_prog the program to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeProgram(IGPProgram a_prog)
+      throws IOException {
+    // Header of the program.
+    // ----------------------
+    double fitness;
+    if (a_prog instanceof GPProgramBase) {
+      fitness = ( (GPProgramBase) a_prog).getFitnessValueDirectly();
+    }
+    else {
+      fitness = a_prog.getFitnessValue();
+    }
+    m_out.writeDouble(fitness);
+    int size = a_prog.size();
+    writeVarInt(size);
+    writeVarInt(a_prog.getMaxNodes());
+    writeIntArray(a_prog.getMinDepths());
+    writeIntArray(a_prog.getMaxDepths());
+    Class[] types = a_prog.getTypes();
+    Class[][] argTypes = a_prog.getArgTypes();
+    for (int i = 0; i < size; i++) {
+      writeClass(types[i]);
+      if (argTypes == null || argTypes[i] == null) {
+        writeVarInt(0);
+      }
+      else {
+        writeVarInt(argTypes[i].length);
+        for (Class argType : argTypes[i]) {
+          writeClass(argType);
+        }
+      }
+    }
+    // The chromosomes.
+    // ----------------
+    for (int i = 0; i < size; i++) {
+      writeChromosome(a_prog.getChromosome(i));
+    }
+  }
+
+  /**
+   * Writes the opcodes of the nodes of a chromosome, followed by the values
+   * of the terminals contained.
+   *
+   * @param a_chrom the chromosome to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeChromosome(ProgramChromosome a_chrom)
+      throws IOException {
+    int size = a_chrom.size();
+    CommandGene[] genes = a_chrom.getFunctions();
+    writeVarInt(size);
+    for (int i = 0; i < size; i++) {
+      writeCommand(genes[i]);
+    }
+    // Constant section.
+    // -----------------
+    for (int i = 0; i < size; i++) {
+      if (genes[i] instanceof Terminal) {
+        writeTerminalValue( (Terminal) genes[i]);
+      }
+    }
+  }
+
+  /**
+   * Writes the opcode of a command. If the command has not been written
+   * before, its definition is written inline.
+   *
+   * @param a_command the command to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeCommand(CommandGene a_command)
+      throws IOException {
+    Integer opcode = m_commandInstances.get(a_command);
+    if (opcode == null) {
+      String signature = getSignature(a_command);
+      String key = a_command.getClass().getName() + "#"
+          + a_command.getReturnType() + "#" + a_command.getSubReturnType()
+          + "#" + signature;
+      opcode = m_commands.get(key);
+      if (opcode == null) {
+        // Define new command. Opcode 0 is reserved for this.
+        // --------------------------------------------------
+        opcode = m_commands.size() + 1;
+        m_commands.put(key, opcode);
+        writeVarInt(0);
+        writeClass(a_command.getClass());
+        writeClass(a_command.getReturnType());
+        writeVarInt(a_command.getSubReturnType());
+        m_out.writeUTF(signature);
+        cacheInstance(a_command, opcode);
+        return;
+      }
+      cacheInstance(a_command, opcode);
+    }
+    writeVarInt(opcode.intValue());
+  }
+
+  private void cacheInstance(CommandGene a_command, Integer a_opcode) {
+    if (a_command instanceof Terminal) {
+      return;
+    }
+    if (m_commandInstances.size() >= MAX_INSTANCES_CACHED) {
+      m_commandInstances.clear();
+    }
+    m_commandInstances.put(a_command, a_opcode);
+  }
+
+  /**
+   * Determines the signature of a command, which is used to find the
+   * appropriate command when reading the data back. Terminals carry their
+   * value in the constant section, so their signature only consists of their
+   * bounds, in the form lower:upper:wholeNumbers. Thus, terminals with
+   * different bounds in different node sets are kept apart.
+   *
+   * @param a_command the command to determine the signature for
+   * @return the signature
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected static String getSignature(CommandGene a_command) {
+    if (a_command instanceof Terminal) {
+      Terminal terminal = (Terminal) a_command;
+      return terminal.getLowerBounds() + ":" + terminal.getUpperBounds() + ":"
+          + terminal.isWholeNumbers();
+    }
+    return a_command.toString();
+  }
+
+  protected void writeTerminalValue(Terminal a_terminal)
+      throws IOException {
+    Class type = a_terminal.getReturnType();
+    if (type == CommandGene.IntegerClass || type == int.class) {
+      m_out.writeInt(a_terminal.getIntValue());
+    }
+    else if (type == CommandGene.LongClass || type == long.class) {
+      m_out.writeLong(a_terminal.getLongValue());
+    }
+    else if (type == CommandGene.FloatClass || type == float.class) {
+      m_out.writeFloat(a_terminal.getFloatValue());
+    }
+    else {
+      m_out.writeDouble(a_terminal.getDoubleValue());
+    }
+  }
+
+  /**
+   * Writes a class reference. The name of a class is only written once.
+   *
+   * @param a_class the class to write, may be null
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeClass(Class a_class)
+      throws IOException {
+    if (a_class == null) {
+      writeVarInt(0);
+      return;
+    }
+    String name = a_class.getName();
+    Integer id = m_classes.get(name);
+    if (id == null) {
+      m_classes.put(name, m_classes.size() + 2);
+      writeVarInt(1);
+      m_out.writeUTF(name);
+    }
+    else {
+      writeVarInt(id.intValue());
+    }
+  }
+
+  protected void writeIntArray(int[] a_values)
+      throws IOException {
+    if (a_values == null) {
+      writeVarInt(0);
+      return;
+    }
+    writeVarInt(a_values.length + 1);
+    for (int value : a_values) {
+      writeVarInt(value);
+    }
+  }
+
+  /**
+   * Writes a non-negative int using as few bytes as possible (7 bits per
+   * byte).
+   *
+   * @param a_value the value to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void writeVarInt(int a_value)
+      throws IOException {
+    while ( (a_value & ~0x7F) != 0) {
+      m_out.writeByte( (a_value & 0x7F) | 0x80);
+      a_value >>>= 7;
+    }
+    m_out.writeByte(a_value);
+  }
+
+  public void flush()
+      throws IOException {
+    m_out.flush();
+  }
+
+  public void close()
+      throws IOException {
+    m_out.close();
+  }
+}
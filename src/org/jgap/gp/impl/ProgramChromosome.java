@@ -78,6 +78,13 @@ public class ProgramChromosome
    */
   private boolean m_compareAppData;
 
+  /**
+   * Execution budget of the current fitness evaluation, null if none.
+   *
+   * @since 3.7
+   */
+  private transient ExecutionBudget m_budget;
+
   public ProgramChromosome(GPConfiguration a_conf, int a_size)
       throws InvalidConfigurationException {
     super(a_conf);
@@ -963,6 +970,7 @@ public class ProgramChromosome
    * @since 3.0
    */
   public boolean execute_boolean(Object[] args) {
+    consume();
     boolean rtn = m_genes[0].execute_boolean(this, 0, args);
     cleanup();
     return rtn;
@@ -982,6 +990,7 @@ public class ProgramChromosome
    * @since 3.0
    */
   public boolean execute_boolean(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       return m_genes[n + 1].execute_boolean(this, n + 1, args);
     }
@@ -999,11 +1008,13 @@ public class ProgramChromosome
    * @since 3.0
    */
   public void execute_void(Object[] args) {
+    consume();
     m_genes[0].execute_void(this, 0, args);
     cleanup();
   }
 
   public void execute_void(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       m_genes[n + 1].execute_void(this, n + 1, args);
     }
@@ -1025,12 +1036,14 @@ public class ProgramChromosome
    * @since 3.0
    */
   public int execute_int(Object[] args) {
+    consume();
     int rtn = m_genes[0].execute_int(this, 0, args);
     cleanup();
     return rtn;
   }
 
   public int execute_int(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       return m_genes[n + 1].execute_int(this, n + 1, args);
     }
@@ -1051,12 +1064,14 @@ public class ProgramChromosome
    * @since 3.0
    */
   public long execute_long(Object[] args) {
+    consume();
     long rtn = m_genes[0].execute_long(this, 0, args);
     cleanup();
     return rtn;
   }
 
   public long execute_long(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       return m_genes[n + 1].execute_long(this, n + 1, args);
     }
@@ -1075,12 +1090,14 @@ public class ProgramChromosome
    * @since 3.0
    */
   public float execute_float(Object[] args) {
+    consume();
     float rtn = m_genes[0].execute_float(this, 0, args);
     cleanup();
     return rtn;
   }
 
   public float execute_float(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       return m_genes[n + 1].execute_float(this, n + 1, args);
     }
@@ -1099,12 +1116,14 @@ public class ProgramChromosome
    * @since 3.0
    */
   public double execute_double(Object[] args) {
+    consume();
     double rtn = m_genes[0].execute_double(this, 0, args);
     cleanup();
     return rtn;
   }
 
   public double execute_double(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       return m_genes[n + 1].execute_double(this, n + 1, args);
     }
@@ -1124,12 +1143,14 @@ public class ProgramChromosome
    * @since 3.0
    */
   public Object execute_object(Object[] args) {
+    consume();
     Object rtn = m_genes[0].execute_object(this, 0, args);
     cleanup();
     return rtn;
   }
 
   public Object execute_object(int n, int child, Object[] args) {
+    consume();
     if (child == 0) {
       return m_genes[n + 1].execute_object(this, n + 1, args);
     }
@@ -1148,6 +1169,7 @@ public class ProgramChromosome
    * @since 3.0
    */
   public Object execute(Object[] args) {
+    consume();
     return m_genes[0].execute_object(this, 0, args);
   }
 
@@ -1155,6 +1177,29 @@ public class ProgramChromosome
     return execute_object(n, child, args);
   }
 
+  /**
+   * Sets the execution budget to consume when executing nodes of this
+   * chromosome.
+   *
+   * @param a_budget the budget, or null for unlimited execution
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setExecutionBudget(ExecutionBudget a_budget) {
+    m_budget = a_budget;
+  }
+
+  public ExecutionBudget getExecutionBudget() {
+    return m_budget;
+  }
+
+  private void consume() {
+    if (m_budget != null) {
+      m_budget.consume();
+    }
+  }
+
   public void setGene(int index, CommandGene a_gene) {
     if (a_gene == null) {
       throw new IllegalArgumentException("Gene must not be null!");
@@ -197,6 +197,76 @@ public class Terminal
     m_value_long = a_value;
   }
 
+  /**
+   * @return the current value of the terminal if it is of type double
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getDoubleValue() {
+    return m_value_double;
+  }
+
+  /**
+   * @return the current value of the terminal if it is of type float
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public float getFloatValue() {
+    return m_value_float;
+  }
+
+  /**
+   * @return the current value of the terminal if it is of type int
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getIntValue() {
+    return m_value_int;
+  }
+
+  /**
+   * @return the current value of the terminal if it is of type long
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getLongValue() {
+    return m_value_long;
+  }
+
+  /**
+   * @return the lower bound of values of the terminal
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getLowerBounds() {
+    return m_lowerBounds;
+  }
+
+  /**
+   * @return the upper bound of values of the terminal
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getUpperBounds() {
+    return m_upperBounds;
+  }
+
+  /**
+   * @return true: only whole numbers are generated for the terminal
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isWholeNumbers() {
+    return m_wholeNumbers;
+  }
+
   public CommandGene applyMutation(int index, double a_percentage)
       throws InvalidConfigurationException {
     // If percentage is very high: do mutation not relying on
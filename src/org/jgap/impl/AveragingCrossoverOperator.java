@@ -195,6 +195,8 @@ public class AveragingCrossoverOperator
         secondMate.setUniqueIDTemplate(origChrom1.getUniqueID(), 1);
         secondMate.setUniqueIDTemplate(origChrom2.getUniqueID(), 2);
       }
+      recordLineage(firstMate, origChrom1, origChrom2);
+      recordLineage(secondMate, origChrom2, origChrom1);
       Gene[] firstGenes = firstMate.getGenes();
       Gene[] secondGenes = secondMate.getGenes();
       int locus = getLocus(m_crossoverGenerator, i, firstGenes.length);
@@ -38,6 +38,21 @@ public class BestChromosomesSelector
    */
   private Comparator m_fitnessValueComparator;
 
+  /**
+   * Determines the fittest chromosomes without sorting all of them.
+   *
+   * @since 3.7
+   */
+  private ChromosomeRanking m_ranking;
+
+  /**
+   * Number of chromosomes at the front of the working pool that are in
+   * final order.
+   *
+   * @since 3.7
+   */
+  private int m_rankedCount;
+
   private BestChromosomesSelectorConfig m_config = new
       BestChromosomesSelectorConfig();
 
@@ -79,6 +94,7 @@ public class BestChromosomesSelector
     setDoubletteChromosomesAllowed(true);
     setOriginalRate(a_originalRate);
     m_fitnessValueComparator = new FitnessAgeValueComparator();
+    m_ranking = new ChromosomeRanking(m_fitnessValueComparator, true);
   }
 
   /**
@@ -155,13 +171,20 @@ public class BestChromosomesSelector
         canBeSelected = 1;
       }
     }
-    // Sort the collection of chromosomes previously added for evaluation.
+    // Bring the chromosomes to select into order. This comprises the ones
+    // cloned for filling up (see below). The others need not be sorted.
     // Only do this if necessary.
-    // -------------------------------------------------------------------
-    if (m_needsSorting) {
-      Collections.sort(m_chromosomes.getChromosomes(),
-                       m_fitnessValueComparator);
+    // --------------------------------------------------------------------
+    int needed = canBeSelected;
+    if (getDoubletteChromosomesAllowed()) {
+      needed = Math.max(needed, neededSize - a_to_pop.size() - canBeSelected);
+    }
+    needed = Math.min(needed, chromsSize);
+    if (m_needsSorting || m_rankedCount < needed) {
+      m_ranking.rankFittest(m_chromosomes.getChromosomes(), needed,
+                            getConfiguration().getFitnessEvaluator());
       m_needsSorting = false;
+      m_rankedCount = needed;
     }
     // To select a chromosome, we just go thru the sorted list.
     // --------------------------------------------------------
@@ -192,6 +215,7 @@ public class BestChromosomesSelector
             if(m_monitorActive) {
               cloned.setUniqueIDTemplate(selectedChromosome.getUniqueID(), 1);
             }
+            recordLineage(cloned, selectedChromosome);
           } catch (Exception ex) {
             ex.printStackTrace();
           }
@@ -215,6 +239,7 @@ public class BestChromosomesSelector
     // -----------------------------
     m_chromosomes.getChromosomes().clear();
     m_needsSorting = false;
+    m_rankedCount = 0;
   }
 
   /**
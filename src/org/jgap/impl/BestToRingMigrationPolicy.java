@@ -0,0 +1,49 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+import org.jgap.*;
+
+/**
+ * Migration policy sending the best k chromosomes of an island to its
+ * neighbour in a ring (island i to island i+1, the last one to the first).
+ * The immigrants replace the worst chromosomes of the receiving island.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class BestToRingMigrationPolicy
+    implements IMigrationPolicy {
+  public List<IChromosome> selectEmigrants(Population a_pop, int a_count,
+      RandomGenerator a_random) {
+    List<IChromosome> result = new Vector<IChromosome>();
+    List best = a_pop.determineFittestChromosomes(a_count);
+    if (best != null) {
+      result.addAll(best);
+    }
+    return result;
+  }
+
+  public int[] getTargets(int a_island, int a_numberOfIslands,
+                          RandomGenerator a_random) {
+    return new int[] { (a_island + 1) % a_numberOfIslands};
+  }
+
+  public void insertImmigrants(Population a_pop,
+                               List<IChromosome> a_immigrants,
+                               RandomGenerator a_random) {
+    a_pop.sortByFitness();
+    int size = a_pop.size();
+    for (int i = 0; i < a_immigrants.size() && i < size; i++) {
+      a_pop.setChromosome(size - 1 - i, a_immigrants.get(i));
+    }
+  }
+}
@@ -9,6 +9,7 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import org.jgap.*;
 
 /**
@@ -207,6 +208,57 @@ public class BooleanGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    // 0 = null, 1 = false, 2 = true.
+    // ------------------------------
+    if (m_value == null) {
+      a_out.writeByte(0);
+    }
+    else {
+      a_out.writeByte(m_value.booleanValue() ? 2 : 1);
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    int value = a_in.readUnsignedByte();
+    switch (value) {
+      case 0:
+        m_value = null;
+        break;
+      case 1:
+        m_value = FALSE_BOOLEAN;
+        break;
+      case 2:
+        m_value = TRUE_BOOLEAN;
+        break;
+      default:
+        throw new UnsupportedRepresentationException(
+            "Unknown boolean gene representation: " + value);
+    }
+  }
+
   /**
    * Retrieves the boolean value of this Gene. This may be more convenient
    * in some cases than the more general getAllele() method.
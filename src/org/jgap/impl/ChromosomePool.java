@@ -9,12 +9,17 @@
  */
 package org.jgap.impl;
 
+import java.util.*;
 import org.jgap.*;
 
 /**
  * Provides a pooling mechanism for Chromosome instances so that
  * discarded Chromosome instances can be recycled, thus saving memory and the
  * overhead of constructing new ones from scratch each time.
+ * <p>
+ * Each thread first uses a pool of its own which is accessed without any
+ * locking. Only if the pool of the current thread is full (on release) or
+ * empty (on acquire) the synchronized pool shared by all threads is used.
  *
  * @author Neil Rotstan
  * @author Klaus Meffert
@@ -23,10 +28,27 @@ import org.jgap.*;
 public class ChromosomePool
     implements IChromosomePool {
   /**
-   * The internal pool in which the Chromosomes are stored.
+   * Default number of chromosomes held per thread.
+   *
+   * @since 3.7
+   */
+  public static final int DEFAULT_LOCAL_CAPACITY = 1000;
+
+  /**
+   * The internal pool in which the Chromosomes are stored that do not fit
+   * into the pool of the releasing thread.
    */
   private Pool m_chromosomePool;
 
+  /**
+   * The pools of the single threads.
+   *
+   * @since 3.7
+   */
+  private ThreadLocal<List<IChromosome>> m_localPool;
+
+  private int m_localCapacity;
+
   /**
    * Constructor.
    *
@@ -34,7 +56,27 @@ public class ChromosomePool
    * @since 1.0
    */
   public ChromosomePool() {
+    this(DEFAULT_LOCAL_CAPACITY);
+  }
+
+  /**
+   * @param a_localCapacity maximum number of chromosomes held in the pool of
+   * a single thread, zero to only use the shared pool
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public ChromosomePool(int a_localCapacity) {
+    if (a_localCapacity < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative!");
+    }
     m_chromosomePool = new Pool();
+    m_localCapacity = a_localCapacity;
+    m_localPool = new ThreadLocal<List<IChromosome>>() {
+      protected List<IChromosome> initialValue() {
+        return new ArrayList<IChromosome>();
+      }
+    };
   }
 
   /**
@@ -48,7 +90,14 @@ public class ChromosomePool
    * @author Neil Rostan
    * @since 1.0
    */
-  public synchronized IChromosome acquireChromosome() {
+  public IChromosome acquireChromosome() {
+    List<IChromosome> local = m_localPool.get();
+    int size = local.size();
+    if (size > 0) {
+      // Removing the last element avoids shifting the list.
+      // ---------------------------------------------------
+      return local.remove(size - 1);
+    }
     return (IChromosome) m_chromosomePool.acquirePooledObject();
   }
 
@@ -63,7 +112,7 @@ public class ChromosomePool
    * @author Neil Rostan
    * @since 1.0
    */
-  public synchronized void releaseChromosome(final IChromosome a_chromosome) {
+  public void releaseChromosome(final IChromosome a_chromosome) {
     if (a_chromosome == null) {
       throw new IllegalArgumentException(
           "Chromosome instance must not be null!");
@@ -78,6 +127,22 @@ public class ChromosomePool
     }
     // Now add it to the pool.
     // -----------------------
-    m_chromosomePool.releaseObject(a_chromosome);
+    List<IChromosome> local = m_localPool.get();
+    if (local.size() < m_localCapacity) {
+      local.add(a_chromosome);
+    }
+    else {
+      m_chromosomePool.releaseObject(a_chromosome);
+    }
+  }
+
+  /**
+   * @return number of chromosomes available to the current thread
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int size() {
+    return m_localPool.get().size() + m_chromosomePool.size();
   }
 }
@@ -9,9 +9,11 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import java.util.*;
 import java.lang.reflect.*;
 import org.jgap.*;
+import org.jgap.util.*;
 
 /**
  * Ordered container for multiple genes
@@ -301,6 +303,59 @@ public class CompositeGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    int size = m_genes.size();
+    a_out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      BinaryKit.writeTypedGene(m_genes.get(i), a_out);
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description. Contained genes of
+   * the class read are reused.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    int size = a_in.readInt();
+    for (int i = 0; i < size; i++) {
+      Gene old = i < m_genes.size() ? m_genes.get(i) : null;
+      Gene gene = BinaryKit.readTypedGene(getConfiguration(), old, a_in);
+      if (m_geneTypeAllowed != null
+          && gene.getClass() != m_geneTypeAllowed.getClass()) {
+        throw new UnsupportedRepresentationException("Gene of class "
+            + gene.getClass().getName() + " not allowed!");
+      }
+      if (old == null) {
+        m_genes.add(gene);
+      }
+      else if (gene != old) {
+        m_genes.set(i, gene);
+      }
+    }
+    while (m_genes.size() > size) {
+      m_genes.remove(m_genes.size() - 1);
+    }
+  }
+
   /**
    * Creates a new instance of gene.
    *
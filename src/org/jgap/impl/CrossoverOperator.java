@@ -378,6 +378,8 @@ public class CrossoverOperator
         secondMate.setUniqueIDTemplate(chrom1.getUniqueID(), 1);
         secondMate.setUniqueIDTemplate(chrom2.getUniqueID(), 2);
       }
+      recordLineage(firstMate, chrom1, chrom2);
+      recordLineage(secondMate, chrom2, chrom1);
       // Cross over the chromosomes.
       // ---------------------------
       doCrossover(firstMate, secondMate, a_candidateChromosomes, generator);
@@ -11,6 +11,8 @@ package org.jgap.impl;
 
 import java.io.*;
 import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
 import org.jgap.util.*;
 import org.jgap.*;
 
@@ -24,6 +26,17 @@ import org.jgap.*;
  */
 public class DefaultCloneHandler
     implements ICloneHandler, ICloneable, Serializable, Comparable {
+  private final static Object[] NO_ARGS = new Object[] {};
+
+  /**
+   * Cache entry for classes without accessible clone method.
+   */
+  private final static Object NO_METHOD = new Object();
+
+  /**
+   * Accessible clone methods resolved per class.
+   */
+  private transient volatile Map<Class, Object> m_cloneMethods;
 
   /**
    * Handles all implementations of IApplicationData as well as all of
@@ -59,23 +72,7 @@ public class DefaultCloneHandler
       // Thank you Java for providing only a marker interface and not
       // something convenient :-(
       // ------------------------------------------------------------
-      boolean result;
-      try {
-        Method m = clazz.getMethod("clone", new Class[] {});
-        boolean modified = false;
-        if (!m.isAccessible()) {
-          m.setAccessible(true);
-          modified = true;
-        }
-        result = m.isAccessible();
-        if (modified) {
-          m.setAccessible(false);
-        }
-      }
-      catch (Exception ex) {
-        return false;
-      }
-      return result;
+      return getCloneMethod(clazz) != null;
     }
     else {
       return false;
@@ -125,11 +122,13 @@ public class DefaultCloneHandler
     // Support Cloneable interface by looking for clone() method
     // via introspection.
     // ---------------------------------------------------------
+    Method cloneMethod = getCloneMethod(a_objToClone.getClass());
+    if (cloneMethod == null) {
+      throw new IllegalStateException("No accessible clone method for "
+                                      + a_objToClone.getClass().getName());
+    }
     try {
-      Method cloneMethod = a_objToClone.getClass().getMethod(
-          "clone", new Class[] {});
-      cloneMethod.setAccessible(true);
-      return cloneMethod.invoke(a_objToClone, new Object[] {});
+      return cloneMethod.invoke(a_objToClone, NO_ARGS);
     }
     catch (InvocationTargetException iex) {
       throw new IllegalStateException(iex.getTargetException());
@@ -139,6 +138,43 @@ public class DefaultCloneHandler
     }
   }
 
+  /**
+   * Determines the public clone method of a class and makes it accessible via
+   * reflection. The result is cached per class, so that reflective lookups
+   * only happen once.
+   *
+   * @param a_class the class to get the clone method for
+   * @return the accessible clone method, or null if there is none
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected Method getCloneMethod(Class a_class) {
+    Map<Class, Object> methods = m_cloneMethods;
+    if (methods == null) {
+      // Transient, thus also null after deserialization.
+      // ------------------------------------------------
+      methods = new ConcurrentHashMap<Class, Object>();
+      m_cloneMethods = methods;
+    }
+    Object method = methods.get(a_class);
+    if (method == null) {
+      try {
+        Method m = a_class.getMethod("clone", new Class[] {});
+        m.setAccessible(true);
+        method = m;
+      }
+      catch (Exception ex) {
+        method = NO_METHOD;
+      }
+      methods.put(a_class, method);
+    }
+    if (method == NO_METHOD) {
+      return null;
+    }
+    return (Method) method;
+  }
+
   /**
    * @return deep clone of this instance
    *
@@ -9,6 +9,7 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import java.util.*;
 import org.jgap.*;
 
@@ -223,6 +224,47 @@ public class DoubleGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeDouble(m_lowerBound);
+    a_out.writeDouble(m_upperBound);
+    Double value = (Double) getInternalValue();
+    a_out.writeBoolean(value != null);
+    if (value != null) {
+      a_out.writeDouble(value.doubleValue());
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException {
+    m_lowerBound = a_in.readDouble();
+    m_upperBound = a_in.readDouble();
+    if (a_in.readBoolean()) {
+      setAllele(new Double(a_in.readDouble()));
+    }
+    else {
+      setAllele(null);
+    }
+  }
+
   /**
    * Retrieves the double value of this Gene, which may be more convenient in
    * some cases than the more general getAllele() method.
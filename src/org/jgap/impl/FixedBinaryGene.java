@@ -9,6 +9,7 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import java.util.*;
 import org.jgap.*;
 
@@ -301,6 +302,46 @@ public class FixedBinaryGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeInt(m_length);
+    for (int i = 0; i < m_value.length; i++) {
+      a_out.writeInt(m_value[i]);
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    int length = a_in.readInt();
+    if (length != m_length) {
+      throw new UnsupportedRepresentationException("Length " + length
+          + " differs from fixed length " + m_length);
+    }
+    for (int i = 0; i < m_value.length; i++) {
+      m_value[i] = a_in.readInt();
+    }
+  }
+
   /**
    * Verifies if the String is a valid representation of this Gene type
    * in general (bit values will not be checked)
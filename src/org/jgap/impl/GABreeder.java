@@ -31,11 +31,51 @@ public class GABreeder
   //We will use it to remove the duplicates
   List<IChromosome> m_allChromosomesSoFar;
 
+  private boolean m_recycleChromosomes;
+
+  /**
+   * Chromosomes taking part in the current evolution (only used when
+   * recycling chromosomes).
+   */
+  private transient List<IChromosome> m_candidates;
+
+  private transient IdentityHashMap<IChromosome, Boolean> m_survivors;
+
   public GABreeder() {
     super();
     m_allChromosomesSoFar = new ArrayList<IChromosome> ();
   }
 
+  /**
+   * Sets whether chromosomes not making it into the next generation should be
+   * released to the chromosome pool of the configuration (see
+   * Configuration.setChromosomePool). The genetic operators then copy the
+   * alleles into these recycled instances instead of creating new ones, so
+   * that hardly any chromosomes have to be allocated after some generations.
+   * <p>
+   * Only enable this if the application does not keep references to
+   * chromosomes of previous generations (e.g. a former fittest chromosome),
+   * because such chromosomes will be overwritten.
+   *
+   * @param a_recycle true: recycle discarded chromosomes
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setRecycleChromosomes(boolean a_recycle) {
+    m_recycleChromosomes = a_recycle;
+  }
+
+  /**
+   * @return true: discarded chromosomes are released to the chromosome pool
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean isRecycleChromosomes() {
+    return m_recycleChromosomes;
+  }
+
   /**
    * Evolves the population of chromosomes within a genotype. This will
    * execute all of the genetic operators added to the present active
@@ -54,6 +94,8 @@ public class GABreeder
     Population pop = a_pop;
     BulkFitnessFunction bulkFunction = a_conf.getBulkFitnessFunction();
     boolean monitorActive = a_conf.getMonitor() != null;
+    IEvolutionMetrics metrics = a_conf.getEvolutionMetrics();
+    long generationStart = startPhase(metrics);
     IChromosome fittest = null;
     // If first generation: Set age to one to allow genetic operations,
     // see CrossoverOperator for an illustration.
@@ -67,11 +109,14 @@ public class GABreeder
       // If a bulk fitness function has been provided, call it.
       // ------------------------------------------------------
       if (bulkFunction != null) {
+        long start = startPhase(metrics);
         try {
           pop = bulkFunctionEvaluation(a_conf, bulkFunction, pop, monitorActive);
         } catch (InvalidConfigurationException ex) {
           throw new RuntimeException(ex);
         }
+        endPhase(metrics, IEvolutionMetrics.PHASE_BULK_EVALUATION, start);
+        endGeneration(metrics, a_conf, pop, generationStart);
         // Increase number of generations.
         // -------------------------------
         a_conf.incrementGenerationNr();
@@ -94,6 +139,11 @@ public class GABreeder
         fittest = pop.determineFittestChromosome(0, pop.size() - 1);
       }
     }
+    boolean recycle = m_recycleChromosomes
+        && a_conf.getChromosomePool() != null;
+    if (recycle) {
+      addCandidates(pop);
+    }
     if (a_conf.getGenerationNr() > 0 && bulkFunction == null) {
       // Adjust population size to configured size (if wanted).
       // Theoretically, this should be done at the end of this method.
@@ -115,7 +165,9 @@ public class GABreeder
           IEvolutionMonitor.MONITOR_EVENT_BEFORE_UPDATE_CHROMOSOMES1,
           a_conf.getGenerationNr(), new Object[] {pop});
     }
+    long start = startPhase(metrics);
     updateChromosomes(pop, a_conf);
+    endPhase(metrics, IEvolutionMetrics.PHASE_EVALUATION, start);
     if (monitorActive) {
       // Monitor that fitness value of chromosomes is being updated.
       // -----------------------------------------------------------
@@ -125,7 +177,9 @@ public class GABreeder
     }
     // Apply certain NaturalSelectors before GeneticOperators will be executed.
     // ------------------------------------------------------------------------
+    start = startPhase(metrics);
     pop = applyNaturalSelectors(a_conf, pop, true);
+    endPhase(metrics, IEvolutionMetrics.PHASE_SELECTION_BEFORE, start);
     int newChromIndex = pop.size();
     // Execute all of the Genetic Operators.
     // -------------------------------------
@@ -137,9 +191,16 @@ public class GABreeder
     // implementation is used or if cloning is utilized.
     // ----------------------------------------------------------------
     int currentPopSize = pop.size();
+    if (metrics != null && currentPopSize > newChromIndex) {
+      metrics.addCount(IEvolutionMetrics.COUNT_CREATED,
+                       currentPopSize - newChromIndex);
+    }
     for (int i = newChromIndex; i < currentPopSize; i++) {
       IChromosome chrom = pop.getChromosome(i);
       chrom.setFitnessValueDirectly(FitnessFunction.NO_FITNESS_VALUE);
+      if (chrom instanceof Chromosome) {
+        ( (Chromosome) chrom).setObjectives(null);
+      }
       // Mark chromosome as new-born.
       // ----------------------------
       chrom.resetAge();
@@ -161,11 +222,13 @@ public class GABreeder
     // If a bulk fitness function has been provided, call it.
     // ------------------------------------------------------
     if (bulkFunction != null & a_conf.getGenerationNr() > 0) {
+      start = startPhase(metrics);
       try {
         pop = bulkFunctionEvaluation(a_conf, bulkFunction, pop, monitorActive);
       } catch (InvalidConfigurationException ex) {
         throw new RuntimeException(ex);
       }
+      endPhase(metrics, IEvolutionMetrics.PHASE_BULK_EVALUATION, start);
     }
     // Ensure fitness value of all chromosomes is udpated.
     // ---------------------------------------------------
@@ -176,7 +239,9 @@ public class GABreeder
           IEvolutionMonitor.MONITOR_EVENT_BEFORE_UPDATE_CHROMOSOMES2,
           a_conf.getGenerationNr(), new Object[] {pop});
     }
+    start = startPhase(metrics);
     updateChromosomes(pop, a_conf);
+    endPhase(metrics, IEvolutionMetrics.PHASE_EVALUATION, start);
     if (monitorActive) {
       // Monitor that fitness value of chromosomes is being updated.
       // -----------------------------------------------------------
@@ -186,12 +251,21 @@ public class GABreeder
     }
     // Apply certain NaturalSelectors after GeneticOperators have been applied.
     // ------------------------------------------------------------------------
+    if (recycle) {
+      addCandidates(pop);
+    }
+    start = startPhase(metrics);
     pop = applyNaturalSelectors(a_conf, pop, false);
+    endPhase(metrics, IEvolutionMetrics.PHASE_SELECTION_AFTER, start);
     // Fill up population randomly if size dropped below specified percentage
     // of original size.
     // ----------------------------------------------------------------------
+    start = startPhase(metrics);
     fillPopulationRandomlyToOriginalSize(a_conf, pop);
+    endPhase(metrics, IEvolutionMetrics.PHASE_FILL_UP, start);
+    start = startPhase(metrics);
     IChromosome newFittest = reAddFittest(pop, fittest);
+    endPhase(metrics, IEvolutionMetrics.PHASE_READD_FITTEST, start);
     if (monitorActive && newFittest != null) {
       // Monitor that fitness value of chromosomes is being updated.
       // -----------------------------------------------------------
@@ -199,6 +273,13 @@ public class GABreeder
           IEvolutionMonitor.MONITOR_EVENT_READD_FITTEST,
           a_conf.getGenerationNr(), new Object[] {pop, fittest});
     }
+    if (recycle) {
+      int released = releaseDiscarded(pop);
+      if (metrics != null) {
+        metrics.addCount(IEvolutionMetrics.COUNT_RECYCLED, released);
+      }
+    }
+    endGeneration(metrics, a_conf, pop, generationStart);
     // Increase number of generations.
     // -------------------------------
     a_conf.incrementGenerationNr();
@@ -252,6 +333,82 @@ public class GABreeder
     }
   }
 
+  private void addCandidates(Population a_pop) {
+    if (m_candidates == null) {
+      m_candidates = new ArrayList<IChromosome>();
+      m_survivors = new IdentityHashMap<IChromosome, Boolean>();
+    }
+    m_candidates.addAll(a_pop.getChromosomes());
+  }
+
+  /**
+   * Releases all chromosomes having taken part in the current evolution to
+   * the chromosome pool, which are not contained in the resulting population.
+   *
+   * @param a_pop the resulting population
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private int releaseDiscarded(Population a_pop) {
+    int size = a_pop.size();
+    for (int i = 0; i < size; i++) {
+      m_survivors.put(a_pop.getChromosome(i), Boolean.TRUE);
+    }
+    // A chromosome may be contained more than once, so remember each released
+    // one as well.
+    // -----------------------------------------------------------------------
+    int released = 0;
+    size = m_candidates.size();
+    for (int i = 0; i < size; i++) {
+      IChromosome chrom = m_candidates.get(i);
+      if (!m_survivors.containsKey(chrom)) {
+        m_survivors.put(chrom, Boolean.FALSE);
+        chrom.cleanup();
+        released++;
+      }
+    }
+    m_candidates.clear();
+    m_survivors.clear();
+    return released;
+  }
+
+  private static long startPhase(IEvolutionMetrics a_metrics) {
+    if (a_metrics == null) {
+      return 0;
+    }
+    return System.nanoTime();
+  }
+
+  private static void endPhase(IEvolutionMetrics a_metrics, String a_phase,
+                               long a_start) {
+    if (a_metrics != null) {
+      a_metrics.addTime(a_phase, System.nanoTime() - a_start);
+    }
+  }
+
+  /**
+   * Records the duration of the generation, the population size and, if
+   * requested for the current generation, the diversity of the population.
+   */
+  private void endGeneration(IEvolutionMetrics a_metrics, Configuration a_conf,
+                             Population a_pop, long a_start) {
+    if (a_metrics == null) {
+      return;
+    }
+    endPhase(a_metrics, IEvolutionMetrics.PHASE_GENERATION, a_start);
+    int size = a_pop.size();
+    a_metrics.setGauge(IEvolutionMetrics.GAUGE_POPULATION_SIZE, size);
+    if (size > 0 && a_metrics.isDiversitySampled(a_conf.getGenerationNr())) {
+      Set<IChromosome> distinct = new HashSet<IChromosome>(size * 2);
+      for (int i = 0; i < size; i++) {
+        distinct.add(a_pop.getChromosome(i));
+      }
+      a_metrics.setGauge(IEvolutionMetrics.GAUGE_DIVERSITY,
+                         (double) distinct.size() / size);
+    }
+  }
+
   public Configuration getLastConfiguration() {
     return m_lastConf;
   }
@@ -267,7 +424,9 @@ public class GABreeder
    * @since 3.2
    */
   public Object clone() {
-    return new GABreeder();
+    GABreeder result = new GABreeder();
+    result.setRecycleChromosomes(m_recycleChromosomes);
+    return result;
   }
 
   /**
@@ -306,10 +465,19 @@ public class GABreeder
     BulkFitnessFunction bulkFunction = a_conf.getBulkFitnessFunction();
     boolean bulkFitFunc = (bulkFunction != null);
     if (!bulkFitFunc) {
+      IEvolutionMetrics metrics = a_conf.getEvolutionMetrics();
+      int evaluations = 0;
       for (int i = 0; i < currentPopSize; i++) {
         IChromosome chrom = a_pop.getChromosome(i);
+        if (metrics != null && chrom.getFitnessValueDirectly()
+            == FitnessFunction.NO_FITNESS_VALUE) {
+          evaluations++;
+        }
         chrom.getFitnessValue();
       }
+      if (evaluations > 0) {
+        metrics.addCount(IEvolutionMetrics.COUNT_EVALUATIONS, evaluations);
+      }
     }
   }
 
@@ -324,7 +492,8 @@ public class GABreeder
           FitnessFunction.NO_FITNESS_VALUE;
       if(!hasFitness) {
         if (selectedChromosome instanceof Chromosome) {
-           if(((Chromosome)selectedChromosome).getMultiObjectives() != null) {
+           if(((Chromosome)selectedChromosome).getMultiObjectives() != null
+              || ( (Chromosome) selectedChromosome).getObjectives() != null) {
             hasFitness = true;
           }
         }
@@ -347,7 +516,8 @@ public class GABreeder
           FitnessFunction.NO_FITNESS_VALUE;
       if(!hasFitness) {
         if (selectedChromosome instanceof Chromosome) {
-           if(((Chromosome)selectedChromosome).getMultiObjectives() != null) {
+           if(((Chromosome)selectedChromosome).getMultiObjectives() != null
+              || ( (Chromosome) selectedChromosome).getObjectives() != null) {
             hasFitness = true;
           }
         }
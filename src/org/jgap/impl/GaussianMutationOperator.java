@@ -112,6 +112,7 @@ public class GaussianMutationOperator
           if (m_monitorActive) {
             copyOfChromosome.setUniqueIDTemplate(originalChrom.getUniqueID(), 1);
           }
+          recordLineage(copyOfChromosome, originalChrom, null);
         }
         // Process all atomic elements in the gene. For a StringGene this
         // would be the length of the string, for an IntegerGene, it is
@@ -129,6 +129,8 @@ public class GreedyCrossover
         secondMate.setUniqueIDTemplate(origChrom1.getUniqueID(), 1);
         secondMate.setUniqueIDTemplate(origChrom2.getUniqueID(), 2);
       }
+      recordLineage(firstMate, origChrom1, origChrom2);
+      recordLineage(secondMate, origChrom2, origChrom1);
       operate(firstMate, secondMate);
       // Add the modified chromosomes to the candidate pool so that
       // they'll be considered for natural selection during the next
@@ -140,7 +142,10 @@ public class GreedyCrossover
   }
 
   /**
-   * Performs a greedy crossover for the two given chromosoms.
+   * Performs a greedy crossover for the two given chromosoms. Chromosomes
+   * consisting of a single PermutationGene are operated on directly, the
+   * start offset of the genes is respected if greater than the one of this
+   * operator.
    *
    * @param a_firstMate the first chromosome to crossover on
    * @param a_secondMate the second chromosome to crossover on
@@ -153,6 +158,18 @@ public class GreedyCrossover
                       final IChromosome a_secondMate) {
     Gene[] g1 = a_firstMate.getGenes();
     Gene[] g2 = a_secondMate.getGenes();
+    if (g1.length == 1 && g1[0] instanceof PermutationGene
+        && g2.length == 1 && g2[0] instanceof PermutationGene) {
+      PermutationGene p1 = (PermutationGene) g1[0];
+      PermutationGene p2 = (PermutationGene) g2[0];
+      int offset = Math.max(m_startOffset, Math.max(p1.getStartOffset(),
+          p2.getStartOffset()));
+      int[] c1 = operate(p1.getPermutation(), p2.getPermutation(), offset);
+      int[] c2 = operate(p2.getPermutation(), p1.getPermutation(), offset);
+      p1.setAllele(c1);
+      p2.setAllele(c2);
+      return;
+    }
     Gene[] c1, c2;
     try {
       c1 = operate(g1, g2);
@@ -170,92 +187,244 @@ public class GreedyCrossover
     }
   }
 
+  /**
+   * Creates the child of two parents. Each gene is identified by its rank
+   * (position in sorted order), so that the successors in both parents and
+   * the lowest gene not picked yet are found without searching. The genes
+   * of the child are taken from the first parent.
+   *
+   * @param a_g1 genes of the first parent
+   * @param a_g2 genes of the second parent
+   * @return genes of the child
+   *
+   * @author Audrius Meskauskas
+   * @author Klaus Meffert
+   * @since 2.1
+   */
   protected Gene[] operate(final Gene[] a_g1, final Gene[] a_g2) {
     int n = a_g1.length;
-    LinkedList out = new LinkedList();
-    TreeSet not_picked = new TreeSet();
-    out.add(a_g1[m_startOffset]);
-    for (int j = m_startOffset + 1; j < n; j++) { // g[m_startOffset] picked
-      if (ASSERTIONS && not_picked.contains(a_g1[j])) {
-        throw new Error("All genes must be different for "
-                        + getClass().getName()
-                        + ". The gene " + a_g1[j] + "[" + j
-                        + "] occurs more "
-                        + "than once in one of the chromosomes. ");
-      }
-      not_picked.add(a_g1[j]);
+    int size = n - m_startOffset;
+    if (ASSERTIONS && a_g1.length != a_g2.length) {
+      throw new Error("Chromosome sizes must be equal");
     }
-    if (ASSERTIONS) {
-      if (a_g1.length != a_g2.length) {
-        throw new Error("Chromosome sizes must be equal");
+    Gene[] sorted = new Gene[Math.max(size, 0)];
+    System.arraycopy(a_g1, m_startOffset, sorted, 0, sorted.length);
+    Gene[] geneOfRank = new Gene[sorted.length];
+    int[] next1 = new int[sorted.length];
+    int[] next2 = new int[sorted.length];
+    Arrays.fill(next1, -1);
+    Arrays.fill(next2, -1);
+    int first;
+    try {
+      Arrays.sort(sorted);
+      int previous = -1;
+      for (int j = m_startOffset; j < n; j++) {
+        int rank = Arrays.binarySearch(sorted, a_g1[j]);
+        if (geneOfRank[rank] != null) {
+          throw new Error("All genes must be different for "
+                          + getClass().getName()
+                          + ". The gene " + a_g1[j] + "[" + j
+                          + "] occurs more "
+                          + "than once in one of the chromosomes. ");
+        }
+        geneOfRank[rank] = a_g1[j];
+        if (previous >= 0) {
+          next1[previous] = rank;
+        }
+        previous = rank;
       }
+      previous = -1;
       for (int j = m_startOffset; j < n; j++) {
-        if (!not_picked.contains(a_g2[j])) {
-          if (!a_g1[m_startOffset].equals(a_g2[j])) {
-            throw new Error("Chromosome gene sets must be identical."
-                            + " First gene set: " + a_g1
-                            + ", second gene set: " + a_g2);
-          }
+        int rank = Arrays.binarySearch(sorted, a_g2[j]);
+        if (rank < 0) {
+          throw new Error("Chromosome gene sets must be identical."
+                          + " First gene set: " + a_g1
+                          + ", second gene set: " + a_g2);
         }
+        if (previous >= 0 && next2[previous] < 0) {
+          next2[previous] = rank;
+        }
+        previous = rank;
       }
+      first = Arrays.binarySearch(sorted, a_g1[m_startOffset]);
+    } catch (ClassCastException cex) {
+      throw new Error("All genes must be comparable to each other for "
+                      + getClass().getName() + ": " + cex.getMessage());
+    }
+    int[] out = operate(first, next1, next2, geneOfRank, null);
+    Gene[] g = new Gene[n];
+    for (int i = 0; i < m_startOffset; i++) {
+      g[i] = a_g1[i];
+    }
+    for (int i = m_startOffset; i < n; i++) {
+      g[i] = geneOfRank[out[i - m_startOffset]];
     }
-    while (not_picked.size() > 1) {
-      Gene last = (Gene) out.getLast();
-      Gene n1 = findNext(a_g1, last);
-      Gene n2 = findNext(a_g2, last);
-      Gene picked, other;
+    return g;
+  }
+
+  /**
+   * Creates the child of two parents given as permutations of the numbers
+   * 0 to n-1 (see PermutationGene). Distances are computed via
+   * distance(int, int). Takes linear time.
+   *
+   * @param a_tour1 the first parent
+   * @param a_tour2 the second parent
+   * @return the child
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected int[] operate(final int[] a_tour1, final int[] a_tour2) {
+    return operate(a_tour1, a_tour2, m_startOffset);
+  }
+
+  /**
+   * Like operate(int[], int[]), but with an explicit start offset.
+   *
+   * @param a_tour1 the first parent
+   * @param a_tour2 the second parent
+   * @param a_startOffset number of leading elements taken over from the
+   * first parent unchanged
+   * @return the child
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected int[] operate(final int[] a_tour1, final int[] a_tour2,
+                          final int a_startOffset) {
+    int n = a_tour1.length;
+    if (a_tour2.length != n) {
+      throw new Error("Chromosome sizes must be equal");
+    }
+    if (a_startOffset >= n) {
+      return (int[]) a_tour1.clone();
+    }
+    int[] next1 = new int[n];
+    int[] next2 = new int[n];
+    Arrays.fill(next1, -1);
+    Arrays.fill(next2, -1);
+    boolean[] fixed = new boolean[n];
+    for (int j = 0; j < a_startOffset && j < n; j++) {
+      fixed[a_tour1[j]] = true;
+    }
+    for (int j = a_startOffset; j < n - 1; j++) {
+      next1[a_tour1[j]] = a_tour1[j + 1];
+      if (fixed[a_tour2[j]] || fixed[a_tour2[j + 1]]) {
+        throw new Error("Chromosome gene sets must be identical.");
+      }
+      next2[a_tour2[j]] = a_tour2[j + 1];
+    }
+    int[] out = operate(a_tour1[a_startOffset], next1, next2, null, fixed);
+    int[] child = new int[n];
+    System.arraycopy(a_tour1, 0, child, 0, a_startOffset);
+    System.arraycopy(out, 0, child, a_startOffset, out.length);
+    return child;
+  }
+
+  /**
+   * Builds the child tour as described by Grefenstette et al.
+   *
+   * @param a_first the element to start with
+   * @param a_next1 successor of each element in the first parent, -1 if none
+   * @param a_next2 successor of each element in the second parent, -1 if none
+   * @param a_genes genes per element to compute distances with, null to use
+   * distance(int, int)
+   * @param a_excluded elements not to pick, null for none
+   * @return the elements in order of the child
+   */
+  private int[] operate(int a_first, int[] a_next1, int[] a_next2,
+                        Gene[] a_genes, boolean[] a_excluded) {
+    int total = a_next1.length;
+    boolean[] picked = new boolean[total];
+    int toPick = total;
+    if (a_excluded != null) {
+      for (int i = 0; i < total; i++) {
+        if (a_excluded[i]) {
+          picked[i] = true;
+          toPick--;
+        }
+      }
+    }
+    int[] out = new int[toPick];
+    int count = 0;
+    int lowest = 0;
+    out[count++] = a_first;
+    picked[a_first] = true;
+    while (toPick - count > 1) {
+      int last = out[count - 1];
+      int n1 = a_next1[last];
+      int n2 = a_next2[last];
       boolean pick1;
-      if (n1 == null) {
+      if (n1 < 0) {
         pick1 = false;
       }
-      else if (n2 == null) {
+      else if (n2 < 0) {
         pick1 = true;
       }
+      else if (a_genes != null) {
+        pick1 = distance(a_genes[last], a_genes[n1])
+            < distance(a_genes[last], a_genes[n2]);
+      }
       else {
         pick1 = distance(last, n1) < distance(last, n2);
       }
+      int chosen, other;
       if (pick1) {
-        picked = n1;
+        chosen = n1;
         other = n2;
       }
       else {
-        picked = n2;
+        chosen = n2;
         other = n1;
       }
-      if (out.contains(picked)) {
-        picked = other;
+      if (chosen >= 0 && picked[chosen]) {
+        chosen = other;
       }
-      if (picked == null || out /* still */.contains(picked)) {
+      if (chosen < 0 || picked[chosen]) {
         // select a non-selected // it is not random
-        picked = (Gene) not_picked.first();
+        while (picked[lowest]) {
+          lowest++;
+        }
+        chosen = lowest;
       }
-      out.add(picked);
-      not_picked.remove(picked);
+      out[count++] = chosen;
+      picked[chosen] = true;
     }
-    if (ASSERTIONS && not_picked.size() != 1) {
+    if (ASSERTIONS && toPick - count != 1) {
       throw new Error("Given Gene not correctly created (must have length > 1"
                       + ")");
     }
-    out.add(not_picked.last());
-    Gene[] g = new Gene[n];
-    Iterator gi = out.iterator();
-    for (int i = 0; i < m_startOffset; i++) {
-      g[i] = a_g1[i];
-    }
-    if (ASSERTIONS) {
-      if (out.size() != g.length - m_startOffset) {
-        throw new Error("Unexpected internal error. "
-                        + "These two must be equal: " + out.size()
-                        + " and " + (g.length - m_startOffset) + ", g.length "
-                        + g.length + ", start offset " + m_startOffset);
-      }
-    }
-    for (int i = m_startOffset; i < g.length; i++) {
-      g[i] = (Gene) gi.next();
+    while (picked[lowest]) {
+      lowest++;
     }
-    return g;
+    out[count] = lowest;
+    return out;
+  }
+
+  /**
+   * Compute the distance between "cities" given as numbers, used for
+   * chromosomes consisting of a PermutationGene. The default method returns
+   * their absolute difference, that makes sense only for tests.
+   *
+   * @param a_from first city
+   * @param a_to second city
+   * @return distance between the two given cities
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected double distance(int a_from, int a_to) {
+    return Math.abs(a_to - a_from);
   }
 
+  /**
+   * Searches the successor of a gene. Not used by operate, which determines
+   * all successors at once.
+   *
+   * @param a_g the genes to search
+   * @param a_x the gene to find the successor of
+   * @return the successor, or null if none
+   */
   protected Gene findNext(final Gene[] a_g, final Gene a_x) {
     for (int i = m_startOffset; i < a_g.length - 1; i++) {
       if (a_g[i].equals(a_x)) {
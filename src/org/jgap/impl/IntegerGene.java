@@ -9,6 +9,7 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import java.util.*;
 import org.jgap.*;
 
@@ -224,6 +225,47 @@ public class IntegerGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeInt(m_lowerBounds);
+    a_out.writeInt(m_upperBounds);
+    Integer value = (Integer) getInternalValue();
+    a_out.writeBoolean(value != null);
+    if (value != null) {
+      a_out.writeInt(value.intValue());
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException {
+    m_lowerBounds = a_in.readInt();
+    m_upperBounds = a_in.readInt();
+    if (a_in.readBoolean()) {
+      setAllele(Integer.valueOf(a_in.readInt()));
+    }
+    else {
+      setAllele(null);
+    }
+  }
+
   /**
    * Retrieves the int value of this Gene, which may be more convenient in
    * some cases than the more general getAllele() method.
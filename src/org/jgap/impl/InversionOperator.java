@@ -80,6 +80,7 @@ public class InversionOperator
     if (m_monitorActive) {
       firstMate.setUniqueIDTemplate(chrom1.getUniqueID(), 1);
     }
+    recordLineage(firstMate, chrom1, null);
     Gene[] firstGenes = firstMate.getGenes();
     int locus = generator.nextInt(firstGenes.length);
     // Swap the genes.
@@ -11,6 +11,7 @@ package org.jgap.impl;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import org.jgap.*;
 import org.jgap.util.*;
 import org.apache.commons.lang.builder.*;
@@ -46,15 +47,24 @@ public class JGAPFactory
 
   private IGeneticOperatorConstraint m_geneticOpConstraint;
 
-  private transient LRUCache m_cache;
+  /**
+   * Resolved handlers per handler list: list ID -> requested class -> class of
+   * object -> handler (or NO_HANDLER).
+   */
+  private transient volatile Map<String, Map<Class, Map<Class,
+      Object>>> m_cache;
 
   private boolean m_useCaching;
 
   private Map<String,Long> m_lastKeys;
 
+  /**
+   * Cache entry for "no handler available".
+   */
+  private static final Object NO_HANDLER = new Object();
+
   public JGAPFactory(boolean a_useCaching) {
     m_initer = new Vector();
-    m_cache = new LRUCache(50);
     m_useCaching = a_useCaching;
     m_cloneHandlers = new Vector();
     m_compareHandlers = new Vector();
@@ -105,6 +115,7 @@ public class JGAPFactory
    */
   public int registerCloneHandler(final ICloneHandler a_cloneHandler) {
     m_cloneHandlers.add(a_cloneHandler);
+    clearCache();
     return m_cloneHandlers.size() - 1;
   }
 
@@ -119,7 +130,9 @@ public class JGAPFactory
    * @since 2.6
    */
   public ICloneHandler removeCloneHandler(final int a_index) {
-    return (ICloneHandler) m_cloneHandlers.remove(a_index);
+    ICloneHandler result = (ICloneHandler) m_cloneHandlers.remove(a_index);
+    clearCache();
+    return result;
   }
 
   /**
@@ -154,6 +167,7 @@ public class JGAPFactory
    */
   public int registerInitializer(final IInitializer a_chromIniter) {
     m_initer.add(a_chromIniter);
+    clearCache();
     return m_initer.size() - 1;
   }
 
@@ -168,7 +182,9 @@ public class JGAPFactory
    * @since 2.6
    */
   public IInitializer removeInitializer(final int a_index) {
-    return (IInitializer) m_initer.remove(a_index);
+    IInitializer result = (IInitializer) m_initer.remove(a_index);
+    clearCache();
+    return result;
   }
 
   /**
@@ -231,6 +247,7 @@ public class JGAPFactory
    */
   public int registerCompareToHandler(ICompareToHandler a_compareToHandler) {
     m_compareHandlers.add(a_compareToHandler);
+    clearCache();
     return m_compareHandlers.size() - 1;
   }
 
@@ -245,12 +262,17 @@ public class JGAPFactory
    * @since 2.6
    */
   public ICompareToHandler removeCompareToHandler(final int a_index) {
-    return (ICompareToHandler) m_compareHandlers.remove(a_index);
+    ICompareToHandler result = (ICompareToHandler) m_compareHandlers.remove(
+        a_index);
+    clearCache();
+    return result;
   }
 
   /**
    * Helper: Finds a handler for a given Object or Class, returns the default
-   * handler, if one is provided. Uses an LRU cache to speedup things!
+   * handler, if one is provided. Caches the handler found per class (and
+   * class of the object), so that repeated requests need not ask each handler
+   * again. The cache is cleared whenever a handler is registered or removed.
    *
    * @param a_obj the object to find a handler for (maybe null)
    * @param a_class the class to find a handler for (maybe null)
@@ -267,29 +289,18 @@ public class JGAPFactory
                                     final List a_list,
                                     final IHandler a_default,
                                     final String a_listID) {
-    String key = null;
-    String key1, key2;
+    Map<Class, Object> cache = null;
+    Class objClass = null;
     if (m_useCaching) {
-      // Construct key for cache lookup:
-      // Class name of list + a_class-Name + a_obj.hashCode()
-      // ----------------------------------------------------
-      if (a_class == null) {
-        key1 = "null";
-      }
-      else {
-        key1 = a_class.getName();
-      }
-      if (a_obj == null) {
-        key2 = "null";
-      }
-      else {
-        key2 = a_obj.getClass().getName();
-      }
-      key = a_listID + "/" + key1 + "/" + key2;
-      // Lookup cache.
-      // -------------
-      Object handler = m_cache.get(key);
+      // Lookup cache without creating any key object.
+      // ---------------------------------------------
+      objClass = a_obj == null ? NullClass.class : a_obj.getClass();
+      cache = getCache(a_listID, a_class == null ? NullClass.class : a_class);
+      Object handler = cache.get(objClass);
       if (handler != null) {
+        if (handler == NO_HANDLER) {
+          return null;
+        }
         return (IHandler) handler;
       }
       // Not found in cache. Search initially.
@@ -314,15 +325,49 @@ public class JGAPFactory
       }
     }
     if (m_useCaching) {
-      // Add to cache.
-      // -------------
+      // Add to cache. Also remember that no handler exists.
+      // ---------------------------------------------------
       if (result != null) {
-        m_cache.put(key, result);
+        cache.put(objClass, result);
+      }
+      else {
+        cache.put(objClass, NO_HANDLER);
       }
     }
     return result;
   }
 
+  private Map<Class, Object> getCache(String a_listID, Class a_class) {
+    Map<String, Map<Class, Map<Class, Object>>> cache = m_cache;
+    if (cache == null) {
+      // Transient, thus also null after deserialization.
+      // ------------------------------------------------
+      cache = new ConcurrentHashMap<String, Map<Class, Map<Class, Object>>>();
+      m_cache = cache;
+    }
+    Map<Class, Map<Class, Object>> listCache = cache.get(a_listID);
+    if (listCache == null) {
+      listCache = new ConcurrentHashMap<Class, Map<Class, Object>>();
+      cache.put(a_listID, listCache);
+    }
+    Map<Class, Object> classCache = listCache.get(a_class);
+    if (classCache == null) {
+      classCache = new ConcurrentHashMap<Class, Object>();
+      listCache.put(a_class, classCache);
+    }
+    return classCache;
+  }
+
+  /**
+   * Forgets all handlers resolved so far.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void clearCache() {
+    m_cache = null;
+  }
+
   /**
    * @return true: caching used, false: no caching used
    *
@@ -336,7 +381,11 @@ public class JGAPFactory
   public Object clone() {
     try {
       /**@todo check if it works this way*/
-      return super.clone();
+      JGAPFactory result = (JGAPFactory) super.clone();
+      // The clone must not share resolved handlers as it may register others.
+      // ---------------------------------------------------------------------
+      result.m_cache = null;
+      return result;
     } catch (CloneNotSupportedException cex) {
       throw new CloneException(cex);
     }
@@ -412,4 +461,10 @@ public class JGAPFactory
     String key = GUID + "_"+ DateKit.getNowAsString() + "_" + lastKey;
     return key;
   }
+
+  /**
+   * Cache key representing a null object or class.
+   */
+  private static final class NullClass {
+  }
 }
@@ -213,6 +213,7 @@ public class MutationOperator
             if (m_monitorActive) {
               copyOfChromosome.setUniqueIDTemplate(chrom.getUniqueID(), 1);
             }
+            recordLineage(copyOfChromosome, chrom, null);
           }
           // Process all atomic elements in the gene. For a StringGene this
           // would be as many elements as the string is long , for an
@@ -238,6 +239,7 @@ public class MutationOperator
               genes[j].setUniqueIDTemplate(chrom.getGene(j).getUniqueID(), 1);
             }
           }
+          recordChange(copyOfChromosome, chrom, j);
         }
       }
     }
@@ -9,6 +9,7 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import java.util.*;
 
 import org.jgap.*;
@@ -241,6 +242,49 @@ public class MutipleIntegerGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeInt(m_lowerBounds);
+    a_out.writeInt(m_upperBounds);
+    a_out.writeInt(m_significance);
+    Integer value = (Integer) getInternalValue();
+    a_out.writeBoolean(value != null);
+    if (value != null) {
+      a_out.writeInt(value.intValue());
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException {
+    m_lowerBounds = a_in.readInt();
+    m_upperBounds = a_in.readInt();
+    m_significance = a_in.readInt();
+    if (a_in.readBoolean()) {
+      setAllele(Integer.valueOf(a_in.readInt()));
+    }
+    else {
+      setAllele(null);
+    }
+  }
+
   /**
    * Sets the value (allele) of this Gene to a random Integer value between
    * the lower and upper bounds (if any) of this Gene.
@@ -0,0 +1,247 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+import org.jgap.*;
+import org.jgap.util.*;
+
+/**
+ * Natural selector for multi-objective optimization following NSGA-II
+ * (Deb et al.). The chromosomes are sorted into non-dominated fronts, whole
+ * fronts are selected as long as they fit. Of the first front not fitting,
+ * the chromosomes with the highest crowding distance are selected.
+ * <p>
+ * The objective values are taken from Chromosome.getObjectives (see
+ * ObjectiveVectorFitnessFunction) or, if not set, from
+ * Chromosome.getMultiObjectives. All objectives are minimized. Use this
+ * selector as the only natural selector, executed after the genetic
+ * operators, so that parents and offspring compete.
+ * <p>
+ * By default, the fitness value of each selected chromosome is replaced by a
+ * value reflecting its rank (front first, then crowding distance), taking the
+ * fitness evaluator into account. Thus the fittest chromosome of the
+ * population is a member of the first front.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NSGA2Selector
+    extends NaturalSelectorExt implements ICloneable {
+  /**
+   * Stores the chromosomes to be taken into account for selection
+   */
+  private List<IChromosome> m_chromosomes;
+
+  private boolean m_rankFitness;
+
+  /**
+   * Default constructor.
+   * Attention: The configuration used is the one set with the static method
+   * Genotype.setConfiguration.
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public NSGA2Selector()
+      throws InvalidConfigurationException {
+    this(Genotype.getStaticConfiguration());
+  }
+
+  /**
+   * @param a_config the configuration to use
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public NSGA2Selector(final Configuration a_config)
+      throws InvalidConfigurationException {
+    super(a_config);
+    m_chromosomes = new ArrayList<IChromosome>();
+    m_rankFitness = true;
+    setDoubletteChromosomesAllowed(false);
+  }
+
+  /**
+   * Add a Chromosome instance to this selector's working pool of Chromosomes.
+   *
+   * @param a_chromosomeToAdd the specimen to add to the pool
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void add(final IChromosome a_chromosomeToAdd) {
+    a_chromosomeToAdd.setIsSelectedForNextGeneration(false);
+    m_chromosomes.add(a_chromosomeToAdd);
+  }
+
+  /**
+   * Selects the given number of chromosomes by front and crowding distance.
+   * If more chromosomes are requested than are in the pool, all of them are
+   * selected.
+   *
+   * @param a_howManyToSelect the number of chromosomes to select
+   * @param a_to_pop the population the chromosomes will be added to
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void selectChromosomes(final int a_howManyToSelect,
+                                Population a_to_pop) {
+    int size = m_chromosomes.size();
+    int toSelect = Math.min(a_howManyToSelect, size);
+    if (toSelect < 1) {
+      return;
+    }
+    double[][] objectives = new double[size][];
+    for (int i = 0; i < size; i++) {
+      objectives[i] = getObjectives(m_chromosomes.get(i));
+    }
+    int[][] fronts = NonDominatedSorter.sortFronts(objectives);
+    int[] selected = new int[toSelect];
+    int count = 0;
+    for (int k = 0; k < fronts.length && count < toSelect; k++) {
+      int[] front = fronts[k];
+      // Order the front by descending crowding distance. For whole fronts
+      // this only serves the rank fitness.
+      // -----------------------------------------------------------------
+      if (count + front.length > toSelect || m_rankFitness) {
+        front = sortByCrowding(objectives, front);
+      }
+      int take = Math.min(front.length, toSelect - count);
+      System.arraycopy(front, 0, selected, count, take);
+      count += take;
+    }
+    FitnessEvaluator evaluator = getConfiguration().getFitnessEvaluator();
+    boolean higherIsFitter = evaluator == null || evaluator.isFitter(2.0d,
+        1.0d);
+    for (int i = 0; i < toSelect; i++) {
+      IChromosome chrom = m_chromosomes.get(selected[i]);
+      if (m_rankFitness) {
+        double fitness;
+        if (higherIsFitter) {
+          fitness = toSelect - i;
+        }
+        else {
+          fitness = i + 1;
+        }
+        chrom.setFitnessValueDirectly(fitness);
+      }
+      chrom.setIsSelectedForNextGeneration(true);
+      a_to_pop.addChromosome(chrom);
+    }
+  }
+
+  /**
+   * @param a_chrom the chromosome to get the objective values of
+   * @return the objective values, never null
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected double[] getObjectives(IChromosome a_chrom) {
+    if (a_chrom instanceof Chromosome) {
+      Chromosome chrom = (Chromosome) a_chrom;
+      double[] objectives = chrom.getObjectives();
+      if (objectives == null) {
+        List multiObjectives = chrom.getMultiObjectives();
+        if (multiObjectives != null) {
+          objectives = new double[multiObjectives.size()];
+          for (int m = 0; m < objectives.length; m++) {
+            objectives[m] = ( (Number) multiObjectives.get(m)).doubleValue();
+          }
+        }
+      }
+      if (objectives != null) {
+        return objectives;
+      }
+    }
+    throw new IllegalStateException("Chromosome has no objective values,"
+                                    + " please use an"
+                                    + " ObjectiveVectorFitnessFunction!");
+  }
+
+  private static int[] sortByCrowding(double[][] a_objectives, int[] a_front) {
+    final double[] distances = NonDominatedSorter.crowdingDistances(
+        a_objectives, a_front);
+    Integer[] positions = new Integer[a_front.length];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new Integer(i);
+    }
+    Arrays.sort(positions, new Comparator<Integer>() {
+      public int compare(Integer a_first, Integer a_second) {
+        return Double.compare(distances[a_second.intValue()],
+                              distances[a_first.intValue()]);
+      }
+    });
+    int[] result = new int[a_front.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = a_front[positions[i].intValue()];
+    }
+    return result;
+  }
+
+  /**
+   * Empties out the working pool of Chromosomes.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void empty() {
+    m_chromosomes.clear();
+  }
+
+  /**
+   * @return always true as no Chromosome can be returned multiple times
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean returnsUniqueChromosomes() {
+    return true;
+  }
+
+  /**
+   * @param a_rankFitness true: replace the fitness value of the selected
+   * chromosomes by a value reflecting their rank
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setRankFitness(boolean a_rankFitness) {
+    m_rankFitness = a_rankFitness;
+  }
+
+  public boolean isRankFitness() {
+    return m_rankFitness;
+  }
+
+  public boolean equals(Object a_o) {
+    if (! (a_o instanceof NSGA2Selector)) {
+      return false;
+    }
+    NSGA2Selector other = (NSGA2Selector) a_o;
+    return m_rankFitness == other.m_rankFitness
+        && m_chromosomes.equals(other.m_chromosomes);
+  }
+
+  public Object clone() {
+    try {
+      NSGA2Selector sel = new NSGA2Selector(getConfiguration());
+      sel.m_rankFitness = m_rankFitness;
+      return sel;
+    } catch (Throwable t) {
+      throw new CloneException(t);
+    }
+  }
+}
@@ -0,0 +1,417 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+
+/**
+ * Non-dominated sorting and crowding distance as used by NSGA-II (see
+ * NSGA2Selector). All objectives are minimized. A vector dominates another
+ * one if it is not worse in any objective and better in at least one.
+ * Identical vectors are put into the same front.
+ * <p>
+ * The vectors are processed in lexicographic order, so that a vector can only
+ * be dominated by vectors processed before. The front of a vector is found by
+ * binary search over the fronts built so far. Whether a front dominates a
+ * vector is determined in constant time for two objectives (the lowest second
+ * objective of the front), in logarithmic time for three objectives (the
+ * staircase of the last two objectives of the front) and by comparing with
+ * the members of the front otherwise. Thus two and three objectives take
+ * O(N log N) time.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NonDominatedSorter {
+  private NonDominatedSorter() {
+  }
+
+  /**
+   * Sorts objective vectors into non-dominated fronts.
+   *
+   * @param a_objectives the objective vectors, all of the same length
+   * @return the indices of the vectors per front, the first front is not
+   * dominated by any vector
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static int[][] sortFronts(double[][] a_objectives) {
+    int size = a_objectives.length;
+    if (size == 0) {
+      return new int[0][];
+    }
+    int numObjectives = a_objectives[0].length;
+    for (int i = 1; i < size; i++) {
+      if (a_objectives[i].length != numObjectives) {
+        throw new IllegalArgumentException("All objective vectors must have"
+            + " the same length!");
+      }
+    }
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    sort(order, null, a_objectives, -1);
+    int[] frontOf = new int[size];
+    int numFronts;
+    if (numObjectives <= 1) {
+      numFronts = sortOne(order, a_objectives, frontOf);
+    }
+    else if (numObjectives == 2) {
+      numFronts = sortTwo(order, a_objectives, frontOf);
+    }
+    else if (numObjectives == 3) {
+      numFronts = sortThree(order, a_objectives, frontOf);
+    }
+    else {
+      numFronts = sortMany(order, a_objectives, frontOf);
+    }
+    // Collect the members of the fronts in lexicographic order.
+    // ---------------------------------------------------------
+    int[] counts = new int[numFronts];
+    for (int i = 0; i < size; i++) {
+      counts[frontOf[i]]++;
+    }
+    int[][] fronts = new int[numFronts][];
+    for (int k = 0; k < numFronts; k++) {
+      fronts[k] = new int[counts[k]];
+      counts[k] = 0;
+    }
+    for (int i = 0; i < size; i++) {
+      int index = order[i];
+      int k = frontOf[index];
+      fronts[k][counts[k]++] = index;
+    }
+    return fronts;
+  }
+
+  /**
+   * Computes the crowding distance of the members of a front. The members
+   * with the lowest or highest value of any objective get an infinite
+   * distance.
+   *
+   * @param a_objectives the objective vectors
+   * @param a_front indices of the vectors forming the front
+   * @return the crowding distance for each member of the front, in the order
+   * of a_front
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static double[] crowdingDistances(double[][] a_objectives,
+      int[] a_front) {
+    int size = a_front.length;
+    double[] distances = new double[size];
+    if (size < 3) {
+      Arrays.fill(distances, Double.POSITIVE_INFINITY);
+      return distances;
+    }
+    int numObjectives = a_objectives[a_front[0]].length;
+    int[] positions = new int[size];
+    for (int m = 0; m < numObjectives; m++) {
+      for (int i = 0; i < size; i++) {
+        positions[i] = i;
+      }
+      sort(positions, a_front, a_objectives, m);
+      double min = a_objectives[a_front[positions[0]]][m];
+      double max = a_objectives[a_front[positions[size - 1]]][m];
+      distances[positions[0]] = Double.POSITIVE_INFINITY;
+      distances[positions[size - 1]] = Double.POSITIVE_INFINITY;
+      double range = max - min;
+      if (range <= 0.0d) {
+        continue;
+      }
+      for (int i = 1; i < size - 1; i++) {
+        double gap = a_objectives[a_front[positions[i + 1]]][m]
+            - a_objectives[a_front[positions[i - 1]]][m];
+        distances[positions[i]] += gap / range;
+      }
+    }
+    return distances;
+  }
+
+  /**
+   * Determines whether a vector dominates another one.
+   *
+   * @param a_first the first vector
+   * @param a_second the second vector
+   * @return true if a_first dominates a_second
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static boolean dominates(double[] a_first, double[] a_second) {
+    boolean better = false;
+    for (int m = 0; m < a_first.length; m++) {
+      if (a_first[m] > a_second[m]) {
+        return false;
+      }
+      if (a_first[m] < a_second[m]) {
+        better = true;
+      }
+    }
+    return better;
+  }
+
+  private static int sortOne(int[] a_order, double[][] a_objectives,
+                             int[] a_frontOf) {
+    int front = 0;
+    for (int i = 1; i < a_order.length; i++) {
+      if (compare(a_objectives[a_order[i - 1]], a_objectives[a_order[i]],
+                  -1) != 0) {
+        front++;
+      }
+      a_frontOf[a_order[i]] = front;
+    }
+    return front + 1;
+  }
+
+  private static int sortTwo(int[] a_order, double[][] a_objectives,
+                             int[] a_frontOf) {
+    // Lowest second objective per front. It is ascending over the fronts.
+    // --------------------------------------------------------------------
+    double[] lowest = new double[a_order.length];
+    int numFronts = 0;
+    for (int i = 0; i < a_order.length; i++) {
+      if (isDuplicate(a_order, a_objectives, a_frontOf, i)) {
+        continue;
+      }
+      double value = a_objectives[a_order[i]][1];
+      int lo = 0;
+      int hi = numFronts;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (lowest[mid] <= value) {
+          lo = mid + 1;
+        }
+        else {
+          hi = mid;
+        }
+      }
+      if (lo == numFronts) {
+        numFronts++;
+      }
+      lowest[lo] = value;
+      a_frontOf[a_order[i]] = lo;
+    }
+    return numFronts;
+  }
+
+  private static int sortThree(int[] a_order, double[][] a_objectives,
+                               int[] a_frontOf) {
+    // Per front the staircase of the second and third objective: the third
+    // objective descends with ascending second objective.
+    // ---------------------------------------------------------------------
+    List<TreeMap<Double, Double>> stairs = new ArrayList<TreeMap<Double,
+        Double>> ();
+    for (int i = 0; i < a_order.length; i++) {
+      if (isDuplicate(a_order, a_objectives, a_frontOf, i)) {
+        continue;
+      }
+      double[] vector = a_objectives[a_order[i]];
+      // Adding zero turns -0.0 into 0.0, which are different keys otherwise.
+      // --------------------------------------------------------------------
+      Double key = new Double(vector[1] + 0.0d);
+      double value = vector[2];
+      int lo = 0;
+      int hi = stairs.size();
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (isDominated(stairs.get(mid), key, value)) {
+          lo = mid + 1;
+        }
+        else {
+          hi = mid;
+        }
+      }
+      if (lo == stairs.size()) {
+        stairs.add(new TreeMap<Double, Double> ());
+      }
+      TreeMap<Double, Double> stair = stairs.get(lo);
+      Iterator<Map.Entry<Double, Double>> it = stair.tailMap(key).entrySet().
+          iterator();
+      while (it.hasNext()) {
+        if (it.next().getValue().doubleValue() >= value) {
+          it.remove();
+        }
+        else {
+          break;
+        }
+      }
+      stair.put(key, new Double(value));
+      a_frontOf[a_order[i]] = lo;
+    }
+    return stairs.size();
+  }
+
+  private static boolean isDominated(TreeMap<Double, Double> a_stair,
+                                     Double a_key, double a_value) {
+    Double value = a_stair.get(a_key);
+    if (value == null) {
+      SortedMap<Double, Double> head = a_stair.headMap(a_key);
+      if (head.isEmpty()) {
+        return false;
+      }
+      value = a_stair.get(head.lastKey());
+    }
+    return value.doubleValue() <= a_value;
+  }
+
+  private static int sortMany(int[] a_order, double[][] a_objectives,
+                              int[] a_frontOf) {
+    int size = a_order.length;
+    int[][] members = new int[size][];
+    int[] counts = new int[size];
+    int numFronts = 0;
+    for (int i = 0; i < size; i++) {
+      if (isDuplicate(a_order, a_objectives, a_frontOf, i)) {
+        continue;
+      }
+      int index = a_order[i];
+      double[] vector = a_objectives[index];
+      int lo = 0;
+      int hi = numFronts;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (isDominated(a_objectives, members[mid], counts[mid], vector)) {
+          lo = mid + 1;
+        }
+        else {
+          hi = mid;
+        }
+      }
+      if (lo == numFronts) {
+        members[lo] = new int[4];
+        numFronts++;
+      }
+      else if (counts[lo] == members[lo].length) {
+        int[] grown = new int[counts[lo] * 2];
+        System.arraycopy(members[lo], 0, grown, 0, counts[lo]);
+        members[lo] = grown;
+      }
+      members[lo][counts[lo]++] = index;
+      a_frontOf[index] = lo;
+    }
+    return numFronts;
+  }
+
+  private static boolean isDominated(double[][] a_objectives, int[] a_members,
+                                     int a_count, double[] a_vector) {
+    // Members added last are most similar to the vector, so start with them.
+    // The first objective of the members is not greater than of the vector.
+    // ----------------------------------------------------------------------
+    for (int j = a_count - 1; j >= 0; j--) {
+      double[] other = a_objectives[a_members[j]];
+      boolean dominated = true;
+      for (int m = 1; m < a_vector.length; m++) {
+        if (other[m] > a_vector[m]) {
+          dominated = false;
+          break;
+        }
+      }
+      if (dominated) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Puts a vector equal to its predecessor in lexicographic order into the
+   * same front.
+   */
+  private static boolean isDuplicate(int[] a_order, double[][] a_objectives,
+                                     int[] a_frontOf, int a_pos) {
+    if (a_pos > 0 && compare(a_objectives[a_order[a_pos - 1]],
+                             a_objectives[a_order[a_pos]], -1) == 0) {
+      a_frontOf[a_order[a_pos]] = a_frontOf[a_order[a_pos - 1]];
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Compares two vectors by one objective or lexicographically.
+   *
+   * @param a_objective index of the objective to compare, or -1 to compare
+   * lexicographically
+   */
+  private static int compare(double[] a_first, double[] a_second,
+                             int a_objective) {
+    if (a_objective >= 0) {
+      return compare(a_first[a_objective], a_second[a_objective]);
+    }
+    for (int m = 0; m < a_first.length; m++) {
+      int result = compare(a_first[m], a_second[m]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private static int compare(double a_first, double a_second) {
+    if (a_first < a_second) {
+      return -1;
+    }
+    if (a_first > a_second) {
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Stable merge sort of indices without boxing.
+   *
+   * @param a_indices the indices to sort
+   * @param a_map maps the indices to vectors, null if they are vector indices
+   * already
+   * @param a_objectives the vectors
+   * @param a_objective see compare
+   */
+  private static void sort(int[] a_indices, int[] a_map,
+                           double[][] a_objectives, int a_objective) {
+    int size = a_indices.length;
+    int[] src = a_indices;
+    int[] dest = new int[size];
+    for (int width = 1; width < size; width *= 2) {
+      for (int lo = 0; lo < size; lo += 2 * width) {
+        int mid = Math.min(lo + width, size);
+        int hi = Math.min(lo + 2 * width, size);
+        int i = lo;
+        int j = mid;
+        int k = lo;
+        while (i < mid && j < hi) {
+          double[] left = a_objectives[a_map == null ? src[i] : a_map[src[i]]];
+          double[] right = a_objectives[a_map == null ? src[j] : a_map[src[j]]];
+          if (compare(right, left, a_objective) < 0) {
+            dest[k++] = src[j++];
+          }
+          else {
+            dest[k++] = src[i++];
+          }
+        }
+        while (i < mid) {
+          dest[k++] = src[i++];
+        }
+        while (j < hi) {
+          dest[k++] = src[j++];
+        }
+      }
+      int[] swap = src;
+      src = dest;
+      dest = swap;
+    }
+    if (src != a_indices) {
+      System.arraycopy(src, 0, a_indices, 0, size);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import org.jgap.*;
+
+/**
+ * Fitness function for multi-objective optimization. Implementations compute
+ * a vector of objective values which is stored with the chromosome (see
+ * Chromosome.setObjectives). All objectives are minimized.
+ * <p>
+ * The scalar fitness value returned is only a placeholder: use NSGA2Selector
+ * as natural selector, it replaces the fitness value of the selected
+ * chromosomes by a value reflecting their rank.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public abstract class ObjectiveVectorFitnessFunction
+    extends FitnessFunction {
+  /**
+   * Computes the objective values of the given chromosome. The returned array
+   * must not be modified afterwards.
+   *
+   * @param a_subject the chromosome to evaluate
+   * @return the objective values, each to be minimized
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public abstract double[] evaluateObjectives(IChromosome a_subject);
+
+  /**
+   * Computes the objective values and stores them with the chromosome.
+   *
+   * @param a_subject the chromosome to evaluate
+   * @return always zero as placeholder
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected double evaluate(IChromosome a_subject) {
+    double[] objectives = evaluateObjectives(a_subject);
+    if (a_subject instanceof Chromosome) {
+      ( (Chromosome) a_subject).setObjectives(objectives);
+    }
+    return 0.0d;
+  }
+}
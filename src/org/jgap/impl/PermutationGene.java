@@ -0,0 +1,366 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.io.*;
+import java.util.*;
+import org.jgap.*;
+
+/**
+ * A Gene holding a permutation of the numbers 0 to n-1 as int array, e.g. a
+ * tour through n cities for the travelling salesman problem. A chromosome
+ * consisting of a single PermutationGene is much cheaper to clone and to
+ * operate on than a chromosome with one gene per element. GreedyCrossover
+ * supports such chromosomes directly.
+ * <p>
+ * A number of leading positions (the start offset) can be excluded from
+ * randomization and mutation, e.g. the city the salesman starts from.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class PermutationGene
+    extends BaseGene implements IPersistentRepresentation {
+  private int[] m_permutation;
+
+  private int m_startOffset;
+
+  /**
+   * Constructs the identity permutation.
+   *
+   * @param a_config the configuration to use
+   * @param a_size number of elements to permute
+   * @param a_startOffset number of leading positions never changed by
+   * setToRandomValue and applyMutation
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public PermutationGene(final Configuration a_config, final int a_size,
+                         final int a_startOffset)
+      throws InvalidConfigurationException {
+    super(a_config);
+    if (a_size < 1) {
+      throw new IllegalArgumentException("Size must be greater than zero!");
+    }
+    if (a_startOffset < 0 || a_startOffset > a_size) {
+      throw new IllegalArgumentException("Start offset must be between zero"
+                                         + " and size!");
+    }
+    m_startOffset = a_startOffset;
+    m_permutation = new int[a_size];
+    for (int i = 0; i < a_size; i++) {
+      m_permutation[i] = i;
+    }
+  }
+
+  protected Gene newGeneInternal() {
+    try {
+      return new PermutationGene(getConfiguration(), m_permutation.length,
+                                 m_startOffset);
+    } catch (InvalidConfigurationException iex) {
+      throw new IllegalStateException(iex.getMessage());
+    }
+  }
+
+  /**
+   * Sets the permutation. The given array is copied. The positions before the
+   * start offset are not checked, so that they can be set up here (e.g. the
+   * city to start from). Operators keep them unchanged afterwards.
+   *
+   * @param a_newValue int array containing each number from 0 to size-1
+   * exactly once
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setAllele(final Object a_newValue) {
+    if (a_newValue == null) {
+      throw new IllegalArgumentException("Allele must not be null!");
+    }
+    int[] permutation = (int[]) a_newValue;
+    checkPermutation(permutation);
+    if (getConstraintChecker() != null) {
+      if (!getConstraintChecker().verify(this, a_newValue, null, -1)) {
+        return;
+      }
+    }
+    System.arraycopy(permutation, 0, m_permutation, 0, permutation.length);
+  }
+
+  /**
+   * @return the permutation, which must not be modified
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Object getAllele() {
+    return m_permutation;
+  }
+
+  /**
+   * @return the permutation (same as getAllele), which must not be modified
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int[] getPermutation() {
+    return m_permutation;
+  }
+
+  public int getStartOffset() {
+    return m_startOffset;
+  }
+
+  protected Object getInternalValue() {
+    return m_permutation;
+  }
+
+  /**
+   * @return number of elements permuted
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int size() {
+    return m_permutation.length;
+  }
+
+  /**
+   * Shuffles all positions from the start offset on.
+   *
+   * @param a_numberGenerator the random number generator to use
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setToRandomValue(final RandomGenerator a_numberGenerator) {
+    if (a_numberGenerator == null) {
+      throw new IllegalArgumentException("Random Generator must not be null!");
+    }
+    int[] permutation = (int[]) m_permutation.clone();
+    for (int i = permutation.length - 1; i > m_startOffset; i--) {
+      int j = m_startOffset + a_numberGenerator.nextInt(i - m_startOffset + 1);
+      int tmp = permutation[i];
+      permutation[i] = permutation[j];
+      permutation[j] = tmp;
+    }
+    setAllele(permutation);
+  }
+
+  /**
+   * Swaps the element at the given position with another one. The other
+   * position is determined by the percentage, so that small percentages
+   * result in a swap with a nearby position.
+   *
+   * @param a_index position of the element to swap
+   * @param a_percentage percentage of mutation (greater than -1 and smaller
+   * than 1)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void applyMutation(final int a_index, final double a_percentage) {
+    if (a_index < 0 || a_index >= m_permutation.length) {
+      throw new IllegalArgumentException(
+          "Index must be between 0 and size() - 1");
+    }
+    int range = m_permutation.length - m_startOffset;
+    if (a_index < m_startOffset || range < 2) {
+      return;
+    }
+    int other = a_index - m_startOffset + (int) Math.round(a_percentage
+        * (range - 1));
+    other = m_startOffset + ( (other % range) + range) % range;
+    if (other != a_index) {
+      int[] permutation = (int[]) m_permutation.clone();
+      permutation[a_index] = m_permutation[other];
+      permutation[other] = m_permutation[a_index];
+      setAllele(permutation);
+    }
+  }
+
+  public String getPersistentRepresentation() {
+    StringBuffer result = new StringBuffer();
+    result.append(m_startOffset);
+    result.append(PERSISTENT_FIELD_DELIMITER);
+    result.append('[');
+    for (int i = 0; i < m_permutation.length; i++) {
+      if (i > 0) {
+        result.append(',');
+      }
+      result.append(m_permutation[i]);
+    }
+    result.append(']');
+    return result.toString();
+  }
+
+  /**
+   * Sets the value and internal state of this Gene from the string
+   * representation returned by a previous invocation of the
+   * getPersistentRepresentation() method.
+   *
+   * @param a_representation the string representation retrieved from a
+   * prior call to the getPersistentRepresentation() method
+   *
+   * @throws UnsupportedRepresentationException if this Gene implementation
+   * does not support the given string representation
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setValueFromPersistentRepresentation(String a_representation)
+      throws UnsupportedRepresentationException {
+    if (a_representation == null) {
+      throw new UnsupportedRepresentationException(
+          "The input parameter must not be null!");
+    }
+    int pos = a_representation.indexOf(PERSISTENT_FIELD_DELIMITER);
+    if (pos < 0 || !a_representation.endsWith("]")
+        || a_representation.charAt(pos
+                                   + PERSISTENT_FIELD_DELIMITER.length()) != '[') {
+      throw new UnsupportedRepresentationException(
+          "Invalid gene representation: " + a_representation);
+    }
+    try {
+      int startOffset = Integer.parseInt(a_representation.substring(0, pos));
+      StringTokenizer st = new StringTokenizer(a_representation.substring(pos
+          + PERSISTENT_FIELD_DELIMITER.length() + 1,
+          a_representation.length() - 1), ",");
+      int[] permutation = new int[st.countTokens()];
+      for (int i = 0; i < permutation.length; i++) {
+        permutation[i] = Integer.parseInt(st.nextToken());
+      }
+      if (permutation.length != m_permutation.length
+          || startOffset != m_startOffset) {
+        throw new UnsupportedRepresentationException(
+            "Representation does not fit size or start offset: "
+            + a_representation);
+      }
+      setAllele(permutation);
+    } catch (NumberFormatException nex) {
+      throw new UnsupportedRepresentationException(
+          "Invalid gene representation: " + a_representation);
+    } catch (IllegalArgumentException iex) {
+      throw new UnsupportedRepresentationException(iex.getMessage());
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeInt(m_permutation.length);
+    for (int i = 0; i < m_permutation.length; i++) {
+      a_out.writeInt(m_permutation[i]);
+    }
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    int length = a_in.readInt();
+    if (length != m_permutation.length) {
+      throw new UnsupportedRepresentationException("Length " + length
+          + " differs from size " + m_permutation.length);
+    }
+    int[] permutation = new int[length];
+    for (int i = 0; i < length; i++) {
+      permutation[i] = a_in.readInt();
+    }
+    try {
+      setAllele(permutation);
+    } catch (IllegalArgumentException iex) {
+      throw new UnsupportedRepresentationException(iex.getMessage());
+    }
+  }
+
+  /**
+   * Compares the permutations lexicographically, a shorter permutation is
+   * less than a longer one.
+   *
+   * @param a_other the PermutationGene to be compared
+   * @return a negative integer, zero, or a positive integer as this object
+   * is less than, equal to, or greater than the specified object
+   *
+   * @throws ClassCastException if the specified object's type prevents it
+   * from being compared to this Gene
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int compareTo(final Object a_other) {
+    PermutationGene otherGene = (PermutationGene) a_other;
+    if (otherGene == null) {
+      return 1;
+    }
+    int[] other = otherGene.m_permutation;
+    if (m_permutation.length != other.length) {
+      return m_permutation.length > other.length ? 1 : -1;
+    }
+    for (int i = 0; i < other.length; i++) {
+      if (m_permutation[i] != other[i]) {
+        return m_permutation[i] > other[i] ? 1 : -1;
+      }
+    }
+    if (isCompareApplicationData()) {
+      return compareApplicationData(getApplicationData(),
+                                    otherGene.getApplicationData());
+    }
+    return 0;
+  }
+
+  public int hashCode() {
+    return Arrays.hashCode(m_permutation);
+  }
+
+  public String toString() {
+    return "PermutationGene" + Arrays.toString(m_permutation);
+  }
+
+  public String getBusinessKey() {
+    return toString();
+  }
+
+  private void checkPermutation(int[] a_permutation) {
+    int size = m_permutation.length;
+    if (a_permutation.length != size) {
+      throw new IllegalArgumentException("Length of allele must be equal to"
+                                         + " size (" + size + ")");
+    }
+    boolean[] seen = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      int value = a_permutation[i];
+      if (value < 0 || value >= size || seen[value]) {
+        throw new IllegalArgumentException("Allele is no permutation of 0 to "
+                                           + (size - 1));
+      }
+      seen[value] = true;
+    }
+  }
+}
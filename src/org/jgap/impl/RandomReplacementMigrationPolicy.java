@@ -0,0 +1,59 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+import org.jgap.*;
+
+/**
+ * Migration policy sending the best k chromosomes of an island to another
+ * island chosen randomly. The immigrants replace randomly chosen chromosomes
+ * of the receiving island, except its fittest one.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class RandomReplacementMigrationPolicy
+    extends BestToRingMigrationPolicy {
+  public int[] getTargets(int a_island, int a_numberOfIslands,
+                          RandomGenerator a_random) {
+    int target = a_random.nextInt(a_numberOfIslands - 1);
+    if (target >= a_island) {
+      target++;
+    }
+    return new int[] {target};
+  }
+
+  public void insertImmigrants(Population a_pop,
+                               List<IChromosome> a_immigrants,
+                               RandomGenerator a_random) {
+    // Keep the fittest chromosome at index 0.
+    // ---------------------------------------
+    a_pop.sortByFitness();
+    int size = a_pop.size();
+    if (size < 2) {
+      return;
+    }
+    // Shuffle the candidate indices partially to replace distinct ones.
+    // -----------------------------------------------------------------
+    int[] indices = new int[size - 1];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = i + 1;
+    }
+    int count = Math.min(a_immigrants.size(), indices.length);
+    for (int i = 0; i < count; i++) {
+      int j = i + a_random.nextInt(indices.length - i);
+      int index = indices[j];
+      indices[j] = indices[i];
+      indices[i] = index;
+      a_pop.setChromosome(index, a_immigrants.get(i));
+    }
+  }
+}
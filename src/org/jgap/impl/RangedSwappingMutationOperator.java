@@ -192,6 +192,7 @@ public class RangedSwappingMutationOperator
           if (m_monitorActive) {
             chromosome.setUniqueIDTemplate(a_chrom.getUniqueID(), 1);
           }
+          recordLineage(chromosome, a_chrom, null);
         }
         Gene[] genes = chromosome.getGenes();
         if (m_range == 0) {
@@ -0,0 +1,499 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jgap.*;
+import org.jgap.audit.*;
+import org.jgap.event.*;
+
+/**
+ * Steady-state breeder for genetic algorithms. In contrast to GABreeder,
+ * there are no generations in which all chromosomes are evaluated before
+ * selection takes place. Instead, a fixed number of worker threads evaluates
+ * offspring continuously. As soon as an offspring has been evaluated, it
+ * replaces a member of the population (the worst one or the loser of a
+ * tournament). Offspring are created by the registered genetic operators
+ * while the workers are busy evaluating.
+ * <p>
+ * One call to evolve represents a virtual generation, during which a
+ * configurable number of offspring (by default the population size) is
+ * integrated into the population. The usual GeneticEvents and
+ * IEvolutionMonitor events are fired. Evaluations still running at the end of
+ * a virtual generation are integrated during the next one, so the workers are
+ * never idle.
+ * <p>
+ * As replacement is the selection mechanism, natural selectors registered with
+ * the configuration are not used. The fitness function must be thread-safe,
+ * bulk fitness functions are not supported. Call shutdown() to stop the
+ * worker threads when the breeder is not needed any more.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class SteadyStateBreeder
+    extends BreederBase {
+  /**
+   * Offspring replaces the worst chromosome of the population.
+   */
+  public final static int REPLACE_WORST = 0;
+
+  /**
+   * Offspring replaces the least fit chromosome of a randomly drawn
+   * tournament.
+   */
+  public final static int REPLACE_TOURNAMENT_LOSER = 1;
+
+  private int m_workers;
+
+  private int m_generationSize;
+
+  private int m_replacement;
+
+  private int m_tournamentSize;
+
+  private transient Configuration m_lastConf;
+
+  private transient Population m_lastPop;
+
+  private transient ExecutorService m_executor;
+
+  private transient CompletionService<IChromosome> m_completion;
+
+  private transient LinkedList<IChromosome> m_offspring;
+
+  private transient int m_inFlight;
+
+  /**
+   * Constructor using as many workers as processors are available.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public SteadyStateBreeder() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param a_workers number of threads evaluating offspring
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public SteadyStateBreeder(int a_workers) {
+    super();
+    if (a_workers < 1) {
+      throw new IllegalArgumentException("At least one worker is required!");
+    }
+    m_workers = a_workers;
+    m_replacement = REPLACE_WORST;
+    m_tournamentSize = 2;
+  }
+
+  /**
+   * Evolves the population by one virtual generation.
+   *
+   * @param a_pop the population to evolve
+   * @param a_conf the configuration to use for evolution
+   *
+   * @return evolved population
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Population evolve(Population a_pop, Configuration a_conf) {
+    if (a_conf.getBulkFitnessFunction() != null) {
+      throw new IllegalStateException("SteadyStateBreeder does not support"
+                                      + " bulk fitness functions!");
+    }
+    startWorkers();
+    boolean monitorActive = a_conf.getMonitor() != null;
+    Population pop = a_pop;
+    if (a_conf.getGenerationNr() == 0) {
+      // Allow genetic operations on the initial chromosomes, see GABreeder.
+      // -------------------------------------------------------------------
+      int size = pop.size();
+      for (int i = 0; i < size; i++) {
+        pop.getChromosome(i).increaseAge();
+      }
+    }
+    // Ensure fitness value of all chromosomes is udpated.
+    // ---------------------------------------------------
+    if (monitorActive) {
+      a_conf.getMonitor().event(
+          IEvolutionMonitor.MONITOR_EVENT_BEFORE_UPDATE_CHROMOSOMES1,
+          a_conf.getGenerationNr(), new Object[] {pop});
+    }
+    updateChromosomes(pop);
+    if (monitorActive) {
+      a_conf.getMonitor().event(
+          IEvolutionMonitor.MONITOR_EVENT_AFTER_UPDATE_CHROMOSOMES1,
+          a_conf.getGenerationNr(), new Object[] {pop});
+    }
+    int generationSize = m_generationSize;
+    if (generationSize <= 0) {
+      generationSize = a_conf.getPopulationSize();
+    }
+    int integrated = 0;
+    while (integrated < generationSize) {
+      // Keep all workers busy.
+      // ----------------------
+      while (m_inFlight < m_workers) {
+        if (m_offspring.isEmpty()) {
+          breed(a_conf, pop);
+          if (m_offspring.isEmpty()) {
+            break;
+          }
+        }
+        final IChromosome child = m_offspring.removeFirst();
+        m_completion.submit(new Callable<IChromosome>() {
+          public IChromosome call() {
+            child.getFitnessValue();
+            return child;
+          }
+        });
+        m_inFlight++;
+      }
+      if (m_inFlight == 0) {
+        // Genetic operators did not produce any offspring.
+        // ------------------------------------------------
+        break;
+      }
+      IChromosome child = take();
+      insert(a_conf, pop, child);
+      integrated++;
+    }
+    // Virtual generation boundary.
+    // ----------------------------
+    int size = pop.size();
+    for (int i = 0; i < size; i++) {
+      pop.getChromosome(i).increaseAge();
+    }
+    a_conf.incrementGenerationNr();
+    m_lastPop = pop;
+    m_lastConf = a_conf;
+    a_conf.getEventManager().fireGeneticEvent(
+        new GeneticEvent(GeneticEvent.GENOTYPE_EVOLVED_EVENT, this));
+    return pop;
+  }
+
+  /**
+   * Evaluates all chromosomes of the population without fitness value in
+   * parallel.
+   *
+   * @param a_pop the population to evaluate
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void updateChromosomes(Population a_pop) {
+    List<Future<IChromosome>> results = new Vector<Future<IChromosome>>();
+    int size = a_pop.size();
+    for (int i = 0; i < size; i++) {
+      final IChromosome chrom = a_pop.getChromosome(i);
+      if (chrom.getFitnessValueDirectly() == FitnessFunction.NO_FITNESS_VALUE) {
+        results.add(m_executor.submit(new Callable<IChromosome>() {
+          public IChromosome call() {
+            chrom.getFitnessValue();
+            return chrom;
+          }
+        }));
+      }
+    }
+    for (Future<IChromosome> result : results) {
+      get(result);
+    }
+  }
+
+  /**
+   * Applies the genetic operators to the population to create a new batch of
+   * offspring. The population itself is not changed.
+   *
+   * @param a_conf the configuration to use
+   * @param a_pop the population providing the parents
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void breed(Configuration a_conf, Population a_pop) {
+    boolean monitorActive = a_conf.getMonitor() != null;
+    List<IChromosome> candidates = new Vector<IChromosome>();
+    Iterator operatorIterator = a_conf.getGeneticOperators().iterator();
+    while (operatorIterator.hasNext()) {
+      GeneticOperator operator = (GeneticOperator) operatorIterator.next();
+      a_conf.getEventManager().fireGeneticEvent(
+          new GeneticEvent(GeneticEvent.BEFORE_GENETIC_OPERATOR, new Object[] {
+                           this, operator}));
+      if (monitorActive) {
+        a_conf.getMonitor().event(
+            IEvolutionMonitor.MONITOR_EVENT_BEFORE_OPERATE,
+            a_conf.getGenerationNr(),
+            new Object[] {operator, a_pop, candidates});
+      }
+      operator.operate(a_pop, candidates);
+      if (monitorActive) {
+        a_conf.getMonitor().event(
+            IEvolutionMonitor.MONITOR_EVENT_AFTER_OPERATE,
+            a_conf.getGenerationNr(),
+            new Object[] {operator, a_pop, candidates});
+      }
+      a_conf.getEventManager().fireGeneticEvent(
+          new GeneticEvent(GeneticEvent.AFTER_GENETIC_OPERATOR, new Object[] {
+                           this, operator}));
+    }
+    for (IChromosome chrom : candidates) {
+      // Mark chromosome as new-born and to be evaluated.
+      // ------------------------------------------------
+      chrom.setFitnessValueDirectly(FitnessFunction.NO_FITNESS_VALUE);
+      chrom.resetAge();
+      chrom.increaseOperatedOn();
+      m_offspring.add(chrom);
+    }
+  }
+
+  /**
+   * Puts an evaluated offspring into the population. As long as the population
+   * is smaller than the configured size, the offspring is added. Otherwise it
+   * replaces the chromosome determined by the replacement strategy. If the
+   * fittest individual is to be preserved (see
+   * Configuration.isPreserveFittestIndividual), it is never replaced.
+   *
+   * @param a_conf the configuration to use
+   * @param a_pop the population to insert into
+   * @param a_child the evaluated offspring
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected void insert(Configuration a_conf, Population a_pop,
+                        IChromosome a_child) {
+    int size = a_pop.size();
+    if (size < a_conf.getPopulationSize() || size == 0) {
+      a_pop.addChromosome(a_child);
+      return;
+    }
+    FitnessEvaluator evaluator = a_conf.getFitnessEvaluator();
+    // Determine the fittest chromosome to exclude it from replacement.
+    // ----------------------------------------------------------------
+    int fittest = -1;
+    if (a_conf.isPreserveFittestIndividual()) {
+      fittest = 0;
+      for (int i = 1; i < size; i++) {
+        if (evaluator.isFitter(a_pop.getChromosome(i),
+                               a_pop.getChromosome(fittest))) {
+          fittest = i;
+        }
+      }
+      if (size == 1) {
+        // The only chromosome is the fittest one: keep the fitter of both.
+        // ----------------------------------------------------------------
+        if (evaluator.isFitter(a_child, a_pop.getChromosome(0))) {
+          a_pop.setChromosome(0, a_child);
+        }
+        return;
+      }
+    }
+    int loser;
+    if (m_replacement == REPLACE_TOURNAMENT_LOSER) {
+      RandomGenerator random = a_conf.getRandomGenerator();
+      loser = draw(random, size, fittest);
+      for (int i = 1; i < m_tournamentSize; i++) {
+        int index = draw(random, size, fittest);
+        if (evaluator.isFitter(a_pop.getChromosome(loser),
+                               a_pop.getChromosome(index))) {
+          loser = index;
+        }
+      }
+    }
+    else {
+      loser = fittest == 0 ? 1 : 0;
+      for (int i = loser + 1; i < size; i++) {
+        if (i != fittest
+            && evaluator.isFitter(a_pop.getChromosome(loser),
+                                  a_pop.getChromosome(i))) {
+          loser = i;
+        }
+      }
+    }
+    a_pop.setChromosome(loser, a_child);
+  }
+
+  /**
+   * Draws a random index of the population.
+   *
+   * @param a_random the random generator to use
+   * @param a_size size of the population
+   * @param a_excluded index not to draw, or -1
+   * @return index drawn uniformly from all indices except the excluded one
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private int draw(RandomGenerator a_random, int a_size, int a_excluded) {
+    if (a_excluded < 0) {
+      return a_random.nextInt(a_size);
+    }
+    int index = a_random.nextInt(a_size - 1);
+    if (index >= a_excluded) {
+      index++;
+    }
+    return index;
+  }
+
+  private IChromosome take() {
+    try {
+      Future<IChromosome> result = m_completion.take();
+      m_inFlight--;
+      return get(result);
+    } catch (InterruptedException iex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Evolution interrupted");
+    }
+  }
+
+  private IChromosome get(Future<IChromosome> a_result) {
+    try {
+      return a_result.get();
+    } catch (InterruptedException iex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Evolution interrupted");
+    } catch (ExecutionException eex) {
+      Throwable cause = eex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+
+  private synchronized void startWorkers() {
+    if (m_executor == null) {
+      m_executor = Executors.newFixedThreadPool(m_workers, new ThreadFactory() {
+        public Thread newThread(Runnable a_runnable) {
+          Thread thread = new Thread(a_runnable, "SteadyStateBreeder worker");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      m_completion = new ExecutorCompletionService<IChromosome>(m_executor);
+      m_offspring = new LinkedList<IChromosome>();
+      m_inFlight = 0;
+    }
+  }
+
+  /**
+   * Stops the worker threads. Offspring not integrated yet are discarded.
+   * A subsequent call to evolve starts new workers.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void shutdown() {
+    if (m_executor != null) {
+      m_executor.shutdownNow();
+      m_executor = null;
+      m_completion = null;
+      m_offspring = null;
+      m_inFlight = 0;
+    }
+  }
+
+  /**
+   * @return number of offspring submitted for evaluation and not yet
+   * integrated
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getPendingEvaluations() {
+    return m_inFlight;
+  }
+
+  public int getWorkers() {
+    return m_workers;
+  }
+
+  /**
+   * @param a_size number of offspring integrated per virtual generation, zero
+   * or less for the population size
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setGenerationSize(int a_size) {
+    m_generationSize = a_size;
+  }
+
+  public int getGenerationSize() {
+    return m_generationSize;
+  }
+
+  /**
+   * @param a_replacement REPLACE_WORST or REPLACE_TOURNAMENT_LOSER
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setReplacement(int a_replacement) {
+    if (a_replacement != REPLACE_WORST
+        && a_replacement != REPLACE_TOURNAMENT_LOSER) {
+      throw new IllegalArgumentException("Unknown replacement: "
+                                         + a_replacement);
+    }
+    m_replacement = a_replacement;
+  }
+
+  public int getReplacement() {
+    return m_replacement;
+  }
+
+  /**
+   * @param a_size number of chromosomes competing for being replaced with
+   * REPLACE_TOURNAMENT_LOSER
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setTournamentSize(int a_size) {
+    if (a_size < 1) {
+      throw new IllegalArgumentException("Tournament size must be at least"
+                                         + " one!");
+    }
+    m_tournamentSize = a_size;
+  }
+
+  public int getTournamentSize() {
+    return m_tournamentSize;
+  }
+
+  public Configuration getLastConfiguration() {
+    return m_lastConf;
+  }
+
+  public Population getLastPopulation() {
+    return m_lastPop;
+  }
+
+  /**
+   * @return deep clone of this instance
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Object clone() {
+    SteadyStateBreeder result = new SteadyStateBreeder(m_workers);
+    result.m_generationSize = m_generationSize;
+    result.m_replacement = m_replacement;
+    result.m_tournamentSize = m_tournamentSize;
+    return result;
+  }
+}
@@ -9,8 +9,10 @@
  */
 package org.jgap.impl;
 
+import java.io.*;
 import java.util.*;
 import org.jgap.*;
+import org.jgap.util.*;
 
 /**
  * A Gene implementation that supports a string for its allele. The valid
@@ -284,6 +286,55 @@ public class StringGene
     }
   }
 
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeTo(DataOutput a_out)
+      throws IOException {
+    a_out.writeInt(m_minLength);
+    a_out.writeInt(m_maxLength);
+    BinaryKit.writeString(m_alphabet, a_out);
+    BinaryKit.writeString(m_value, a_out);
+  }
+
+  /**
+   * See interface IBinaryRepresentation for description.
+   *
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void readFrom(DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    int minLength = a_in.readInt();
+    int maxLength = a_in.readInt();
+    String alphabet = BinaryKit.readString(a_in);
+    String value = BinaryKit.readString(a_in);
+    if (value != null
+        && (value.length() < minLength || value.length() > maxLength)) {
+      throw new UnsupportedRepresentationException("The length of the value"
+          + " given is not within the allowed range.");
+    }
+    if (!isValidAlphabet(value, alphabet)) {
+      throw new UnsupportedRepresentationException("The value given"
+          + " contains invalid characters.");
+    }
+    m_minLength = minLength;
+    m_maxLength = maxLength;
+    m_alphabet = alphabet;
+    m_value = value;
+  }
+
   /**
    * Retrieves a string representation of this Gene that includes any
    * information required to reconstruct it at a later time, such as its
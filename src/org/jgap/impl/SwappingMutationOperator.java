@@ -32,6 +32,12 @@ public class SwappingMutationOperator
     extends MutationOperator {
   private int m_startOffset = 1;
 
+  /**
+   * Swap partner chosen by the last call of operate(RandomGenerator, int,
+   * Gene[]), -1 if unknown. Used to record the changed loci.
+   */
+  private transient int m_swapPartner = -1;
+
   /**
    * Constructs a new instance of this operator.<p>
    * Attention: The configuration used is the one set with the static method
@@ -162,6 +168,7 @@ public class SwappingMutationOperator
   protected IChromosome operate(final IChromosome a_chrom, final int a_rate,
                                 final RandomGenerator a_generator) {
     IChromosome chromosome = null;
+    boolean tracking = false;
     // ----------------------------------------
     for (int j = m_startOffset; j < a_chrom.size(); j++) {
       // Ensure probability of 1/currentRate for applying mutation.
@@ -174,8 +181,18 @@ public class SwappingMutationOperator
           if (m_monitorActive) {
             chromosome.setUniqueIDTemplate(a_chrom.getUniqueID(), 1);
           }
+          recordLineage(chromosome, a_chrom, null);
+          tracking = isRecordingChanges();
         }
         Gene[] genes = chromosome.getGenes();
+        // Remember the change set as setGenes removes it.
+        // -----------------------------------------------
+        ChangeSet changes = null;
+        if (tracking && chromosome instanceof BaseChromosome) {
+          changes = ( (BaseChromosome) chromosome).getChangeSet();
+        }
+        Gene moved = genes[j];
+        m_swapPartner = -1;
         Gene[] mutated = operate(a_generator, j, genes);
         // setGenes is not required for this operator, but it may
         // be needed for the derived operators.
@@ -186,11 +203,66 @@ public class SwappingMutationOperator
         catch (InvalidConfigurationException cex) {
           throw new Error("Gene type not allowed by constraint checker", cex);
         }
+        if (tracking) {
+          tracking = recordSwap(chromosome, a_chrom, changes, j,
+                                m_swapPartner, moved, mutated);
+        }
       }
     }
     return chromosome;
   }
 
+  /**
+   * Records the loci changed by a swap for an IncrementalFitnessFunction. The
+   * swap partner is the one reported by getSwapPartner. If unknown (e.g.
+   * because operate was overridden), it is searched as the new position of
+   * the gene moved away.
+   *
+   * @param a_child the mutated chromosome
+   * @param a_parent the chromosome the child was cloned from
+   * @param a_changes the loci changed before the swap, null if none
+   * @param a_locus the locus of the mutated gene
+   * @param a_partner the locus swapped with, -1 if unknown
+   * @param a_moved the gene at a_locus before the swap
+   * @param a_genes the genes after the swap
+   * @return false: the change could not be traced, the child has to be
+   * evaluated fully
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private boolean recordSwap(IChromosome a_child, IChromosome a_parent,
+                             ChangeSet a_changes, int a_locus,
+                             int a_partner, Gene a_moved, Gene[] a_genes) {
+    if (! (a_child instanceof BaseChromosome)) {
+      return false;
+    }
+    if (a_changes == null) {
+      a_changes = new ChangeSet(a_parent);
+    }
+    ( (BaseChromosome) a_child).setChangeSet(a_changes);
+    if (a_genes[a_locus] == a_moved) {
+      // Swapped with itself.
+      // --------------------
+      return true;
+    }
+    if (a_partner >= 0 && a_partner < a_genes.length
+        && a_genes[a_partner] == a_moved) {
+      recordChange(a_child, a_parent, a_locus);
+      recordChange(a_child, a_parent, a_partner);
+      return true;
+    }
+    for (int k = m_startOffset; k < a_genes.length; k++) {
+      if (a_genes[k] == a_moved) {
+        recordChange(a_child, a_parent, a_locus);
+        recordChange(a_child, a_parent, k);
+        return true;
+      }
+    }
+    ( (BaseChromosome) a_child).setChangeSet(null);
+    return false;
+  }
+
   /**
    * Operate on the given array of genes. This method is only called
    * when it is already clear that the mutation must occur under the given
@@ -210,8 +282,8 @@ public class SwappingMutationOperator
     // swap this gene with the other one now:
     //  mutateGene(genes[j], generator);
     // -------------------------------------
-    int other = m_startOffset
-        + a_generator.nextInt(a_genes.length - m_startOffset);
+    int other = getSwapPartner(a_generator, a_target_gene, a_genes);
+    m_swapPartner = other;
     Gene t = a_genes[a_target_gene];
     a_genes[a_target_gene] = a_genes[other];
     a_genes[other] = t;
@@ -222,6 +294,22 @@ public class SwappingMutationOperator
     return a_genes;
   }
 
+  /**
+   * Chooses the gene to swap the mutated gene with.
+   *
+   * @param a_generator the random number generator to use
+   * @param a_target_gene index of the gene that will mutate
+   * @param a_genes the array of all genes in the chromosome
+   * @return index of the gene to swap with
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected int getSwapPartner(final RandomGenerator a_generator,
+                               final int a_target_gene, final Gene[] a_genes) {
+    return m_startOffset + a_generator.nextInt(a_genes.length - m_startOffset);
+  }
+
   /**
    * Sets a number of genes at the start of chromosome, that are
    * excluded from the swapping. In the Salesman task, the first city
@@ -11,6 +11,7 @@ package org.jgap.impl;
 
 import java.util.*;
 import org.jgap.*;
+import org.jgap.util.*;
 
 /**
  * Implementation of a NaturalSelector that ensures a certain threshold of the
@@ -36,6 +37,20 @@ public class ThresholdSelector
    */
   private FitnessValueComparator m_fitnessValueComparator;
 
+  /**
+   * Determines the best chromosomes without sorting all of them.
+   *
+   * @since 3.7
+   */
+  private ChromosomeRanking m_ranking;
+
+  /**
+   * Number of chromosomes at the front of the list that are in final order.
+   *
+   * @since 3.7
+   */
+  private int m_rankedCount;
+
   private ThresholdSelectorConfigurable m_config
       = new ThresholdSelectorConfigurable();
 
@@ -78,6 +93,7 @@ public class ThresholdSelector
     m_chromosomes = new Vector();
     m_needsSorting = false;
     m_fitnessValueComparator = new FitnessValueComparator();
+    m_ranking = new ChromosomeRanking(m_fitnessValueComparator, false);
   }
 
   /**
@@ -100,23 +116,30 @@ public class ThresholdSelector
     else {
       canBeSelected = a_howManyToSelect;
     }
-    // Sort the collection of chromosomes previously added for evaluation.
-    // Only do this if necessary.
-    // -------------------------------------------------------------------
-    if (m_needsSorting) {
-      Collections.sort(m_chromosomes, m_fitnessValueComparator);
-      m_needsSorting = false;
-    }
     // Select the best chromosomes for granted
     int bestToBeSelected = (int) Math.round(canBeSelected
         * m_config.m_bestChroms_Percentage);
+    int missing = a_howManyToSelect - bestToBeSelected;
+    // Move the best chromosomes previously added for evaluation to the front.
+    // As the random selection below refers to the order of all chromosomes,
+    // all of them must be ranked in that case. Only do this if necessary.
+    // -----------------------------------------------------------------------
+    int needed = bestToBeSelected;
+    if (missing > 0) {
+      needed = m_chromosomes.size();
+    }
+    if (m_needsSorting || m_rankedCount < needed) {
+      m_ranking.rankFittest(m_chromosomes, needed,
+                            getConfiguration().getFitnessEvaluator());
+      m_needsSorting = false;
+      m_rankedCount = needed;
+    }
     for (int i = 0; i < bestToBeSelected; i++) {
       a_to_pop.addChromosome( (IChromosome) m_chromosomes.get(i));
     }
     // Fill up the rest by randomly selecting chromosomes.
     // ---------------------------------------------------
     /**@todo replace this step by adding newly to create chromosomes*/
-    int missing = a_howManyToSelect - bestToBeSelected;
     RandomGenerator rn = getConfiguration().getRandomGenerator();
     int index;
     int size = m_chromosomes.size();
@@ -140,6 +163,7 @@ public class ThresholdSelector
   public void empty() {
     m_chromosomes.clear();
     m_needsSorting = false;
+    m_rankedCount = 0;
   }
 
   /**
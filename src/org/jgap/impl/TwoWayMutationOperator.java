@@ -233,6 +233,7 @@ public class TwoWayMutationOperator
           if (m_monitorActive) {
             copyOfChromosome.setUniqueIDTemplate(chrom.getUniqueID(), 1);
           }
+          recordLineage(copyOfChromosome, chrom, null);
         }
         // Process all atomic elements in the gene. For a StringGene this
         // would be the length of the string, for an IntegerGene, it is
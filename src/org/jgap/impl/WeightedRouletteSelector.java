@@ -205,6 +205,7 @@ public class WeightedRouletteSelector
             if (m_monitorActive) {
               cloned.setUniqueIDTemplate(selectedChromosome.getUniqueID(), 1);
             }
+            recordLineage(cloned, selectedChromosome);
           } catch (Exception ex) {
             ex.printStackTrace();
             a_to_pop.addChromosome(selectedChromosome);
@@ -0,0 +1,43 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.job;
+
+/**
+ * Listener notified by JobExecutor when a job has completed. Called within the
+ * thread that executed the job (or cancelled it), so implementations must be
+ * thread-safe and should return quickly.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public interface IJobListener {
+  /**
+   * Called when a job has finished successfully.
+   *
+   * @param a_job the job finished
+   * @param a_result the result of the job
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void jobFinished(IJob a_job, JobResult a_result);
+
+  /**
+   * Called when a job has failed, was cancelled or has timed out.
+   *
+   * @param a_job the job failed
+   * @param a_cause the cause, a CancellationException for cancelled or timed
+   * out jobs
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  void jobFailed(IJob a_job, Throwable a_cause);
+}
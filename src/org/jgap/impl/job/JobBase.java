@@ -19,7 +19,7 @@ public abstract class JobBase
     implements IJob {
   private JobData m_data;
 
-  private boolean m_finished;
+  private volatile boolean m_finished;
 
   private JobResult m_result;
 
@@ -34,9 +34,7 @@ public abstract class JobBase
         throw new IllegalStateException("Result must not be null!");
       }
     } catch (Exception ex) {
-      /**@todo what to do here?*/
-      ex.printStackTrace();
-      throw new RuntimeException("Job failed");
+      throw new RuntimeException("Job failed", ex);
     }
     setFinished();
   }
@@ -0,0 +1,310 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.job;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Executes jobs within a bounded pool of threads. Completion is signalled by
+ * the executing thread (no polling): results can be collected via
+ * waitForAll() as soon as the jobs finish, or by registering an IJobListener.
+ * <p>
+ * Submitting blocks as long as the maximum number of pending (queued or
+ * running) jobs is reached (back-pressure). Jobs can be cancelled via the
+ * Future returned, or automatically after a timeout given per job.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class JobExecutor {
+  private ThreadPoolExecutor m_executor;
+
+  private ScheduledExecutorService m_timer;
+
+  private Semaphore m_slots;
+
+  private BlockingQueue<JobFuture> m_completed;
+
+  private AtomicInteger m_uncollected;
+
+  private Map<JobFuture, Boolean> m_active;
+
+  private List<IJobListener> m_listeners;
+
+  /**
+   * Constructor using as many threads as processors are available.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public JobExecutor() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param a_threads number of threads executing jobs
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public JobExecutor(int a_threads) {
+    this(a_threads, a_threads * 4);
+  }
+
+  /**
+   * @param a_threads number of threads executing jobs
+   * @param a_maxPending maximum number of jobs queued or running, submitting
+   * further jobs blocks until a job completes
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public JobExecutor(int a_threads, int a_maxPending) {
+    if (a_threads < 1) {
+      throw new IllegalArgumentException("At least one thread is required!");
+    }
+    if (a_maxPending < a_threads) {
+      throw new IllegalArgumentException("Maximum number of pending jobs must"
+                                         + " not be lower than number of"
+                                         + " threads!");
+    }
+    // The queue need not be bounded as the semaphore limits pending jobs.
+    // -------------------------------------------------------------------
+    m_executor = new ThreadPoolExecutor(a_threads, a_threads, 0L,
+                                        TimeUnit.MILLISECONDS,
+                                        new LinkedBlockingQueue<Runnable>(),
+                                        new DaemonThreadFactory("JGAP job"));
+    m_slots = new Semaphore(a_maxPending);
+    m_completed = new LinkedBlockingQueue<JobFuture>();
+    m_uncollected = new AtomicInteger();
+    m_active = new ConcurrentHashMap<JobFuture, Boolean>();
+    m_listeners = new CopyOnWriteArrayList<IJobListener>();
+  }
+
+  /**
+   * Submits a job for execution without timeout.
+   *
+   * @param a_job the job to execute
+   * @return future for the result of the job
+   *
+   * @throws InterruptedException if interrupted while waiting for a free slot
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Future<JobResult> submit(IJob a_job)
+      throws InterruptedException {
+    return submit(a_job, 0);
+  }
+
+  /**
+   * Submits a job for execution. Blocks while the maximum number of pending
+   * jobs is reached.
+   *
+   * @param a_job the job to execute
+   * @param a_timeoutMillis the job is cancelled if not finished after this
+   * many milliseconds, zero or less for no timeout
+   * @return future for the result of the job
+   *
+   * @throws InterruptedException if interrupted while waiting for a free slot
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Future<JobResult> submit(IJob a_job, long a_timeoutMillis)
+      throws InterruptedException {
+    m_slots.acquire();
+    final JobFuture future = new JobFuture(a_job);
+    m_uncollected.incrementAndGet();
+    m_active.put(future, Boolean.TRUE);
+    try {
+      m_executor.execute(future);
+    } catch (RejectedExecutionException rex) {
+      m_active.remove(future);
+      m_uncollected.decrementAndGet();
+      m_slots.release();
+      throw rex;
+    }
+    if (a_timeoutMillis > 0) {
+      future.m_timeout = getTimer().schedule(new Runnable() {
+        public void run() {
+          future.cancel(true);
+        }
+      }, a_timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    return future;
+  }
+
+  /**
+   * Waits until all jobs submitted so far have completed and returns their
+   * results in the order of completion. Should only be called by one thread
+   * at a time.
+   *
+   * @return results of all jobs completed since the last call
+   *
+   * @throws InterruptedException if interrupted while waiting
+   * @throws ExecutionException if a job failed (after all jobs completed)
+   * @throws CancellationException if a job was cancelled or timed out (after
+   * all jobs completed)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public List<JobResult> waitForAll()
+      throws InterruptedException, ExecutionException {
+    List<JobResult> results = new Vector<JobResult>();
+    Exception failure = null;
+    while (m_uncollected.get() > 0) {
+      JobFuture future = m_completed.take();
+      m_uncollected.decrementAndGet();
+      try {
+        results.add(future.get());
+      } catch (ExecutionException eex) {
+        if (failure == null) {
+          failure = eex;
+        }
+      } catch (CancellationException cex) {
+        if (failure == null) {
+          failure = cex;
+        }
+      }
+    }
+    if (failure instanceof ExecutionException) {
+      throw (ExecutionException) failure;
+    }
+    if (failure != null) {
+      throw (CancellationException) failure;
+    }
+    return results;
+  }
+
+  /**
+   * Cancels all jobs not completed yet.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void cancelAll() {
+    Iterator<JobFuture> it = m_active.keySet().iterator();
+    while (it.hasNext()) {
+      it.next().cancel(true);
+    }
+  }
+
+  /**
+   * @return number of jobs queued or running
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getActiveJobs() {
+    return m_active.size();
+  }
+
+  public void addJobListener(IJobListener a_listener) {
+    m_listeners.add(a_listener);
+  }
+
+  public void removeJobListener(IJobListener a_listener) {
+    m_listeners.remove(a_listener);
+  }
+
+  /**
+   * Stops all threads, jobs still running are interrupted.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public synchronized void shutdown() {
+    m_executor.shutdownNow();
+    if (m_timer != null) {
+      m_timer.shutdownNow();
+    }
+  }
+
+  private synchronized ScheduledExecutorService getTimer() {
+    if (m_timer == null) {
+      m_timer = Executors.newSingleThreadScheduledExecutor(new
+          DaemonThreadFactory("JGAP job timeout"));
+    }
+    return m_timer;
+  }
+
+  /**
+   * Executes a job and signals its completion.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private class JobFuture
+      extends FutureTask<JobResult> {
+    private IJob m_job;
+
+    private volatile ScheduledFuture m_timeout;
+
+    public JobFuture(final IJob a_job) {
+      super(new Callable<JobResult>() {
+        public JobResult call() {
+          a_job.run();
+          return a_job.getResult();
+        }
+      });
+      m_job = a_job;
+    }
+
+    protected void done() {
+      m_active.remove(this);
+      m_slots.release();
+      ScheduledFuture timeout = m_timeout;
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      try {
+        for (IJobListener listener : m_listeners) {
+          try {
+            listener.jobFinished(m_job, get());
+          } catch (ExecutionException eex) {
+            listener.jobFailed(m_job, eex.getCause());
+          } catch (CancellationException cex) {
+            listener.jobFailed(m_job, cex);
+          } catch (InterruptedException iex) {
+            // Cannot happen as the job is done.
+            // ---------------------------------
+            Thread.currentThread().interrupt();
+          }
+        }
+      } finally {
+        // Even a failing listener must not block waitForAll.
+        // --------------------------------------------------
+        m_completed.add(this);
+      }
+    }
+  }
+
+  private static class DaemonThreadFactory
+      implements ThreadFactory {
+    private String m_name;
+
+    private AtomicInteger m_count = new AtomicInteger();
+
+    public DaemonThreadFactory(String a_name) {
+      m_name = a_name;
+    }
+
+    public Thread newThread(Runnable a_runnable) {
+      Thread thread = new Thread(a_runnable, m_name + " "
+                                 + m_count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -23,38 +23,29 @@ import org.jgap.distr.*;
  * @since 3.2
  */
 public class SimpleJobConsumer {
+  private JobExecutor m_executor = new JobExecutor();
 
-  private List m_jobs = new Vector();
   private List m_results = new Vector();
 
-  public void pushJobToGrid(IJob a_job) {
-    m_jobs.add(a_job);
+  public void pushJobToGrid(IJob a_job)
+      throws InterruptedException {
     // Execute the job asynchronously.
     // -------------------------------
-    new Thread(a_job).start();
+    m_executor.submit(a_job);
   }
 
-  public void waitForAllJobs() {
-    while (true) {
-      if (m_jobs.size() < 1) {
-        break;
-      }
-      try {
-        Thread.sleep(50);
-      } catch (InterruptedException iex) {
-        iex.printStackTrace();
-        break;
-      }
-      Iterator it = m_jobs.iterator();
-      while (it.hasNext()) {
-        IJob job = (IJob)it.next();
-        if (job.isFinished()) {
-          System.out.println("Another job finished!");
-          m_results.add(job.getResult());
-          it.remove();
-        }
-      }
-    }
+  /**
+   * Waits until all jobs pushed have finished. The results are available via
+   * getResults afterwards.
+   *
+   * @throws Exception in case a job failed
+   *
+   * @author Klaus Meffert
+   * @since 3.2
+   */
+  public void waitForAllJobs()
+      throws Exception {
+    m_results = new Vector(m_executor.waitForAll());
   }
 
   public EvolveResult[] getResults() {
@@ -0,0 +1,180 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.salesman;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Precomputed distances between all pairs of cities, which are numbered from
+ * 0 to size-1. Distances are held as doubles or, to halve the memory needed,
+ * as floats. For large problems the floats can be kept in a memory-mapped
+ * file, which also allows to reuse the distances computed by a previous run.
+ * <p>
+ * Distances need not be symmetric.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class DistanceMatrix {
+  private int m_size;
+
+  private double[] m_doubles;
+
+  private float[] m_floats;
+
+  private FloatBuffer m_buffer;
+
+  private MappedByteBuffer m_mapped;
+
+  private RandomAccessFile m_file;
+
+  /**
+   * Creates a matrix held in memory with all distances zero.
+   *
+   * @param a_size number of cities
+   * @param a_useFloat true: hold distances as floats, false: as doubles
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public DistanceMatrix(int a_size, boolean a_useFloat) {
+    checkSize(a_size, 1);
+    m_size = a_size;
+    if (a_useFloat) {
+      m_floats = new float[a_size * a_size];
+    }
+    else {
+      m_doubles = new double[a_size * a_size];
+    }
+  }
+
+  /**
+   * Creates a matrix of floats held in a memory-mapped file. If the file
+   * already has the size needed, its distances are kept.
+   *
+   * @param a_file the file to map
+   * @param a_size number of cities
+   *
+   * @throws IOException if the file could not be mapped
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public DistanceMatrix(File a_file, int a_size)
+      throws IOException {
+    checkSize(a_size, 4);
+    m_size = a_size;
+    long length = 4L * a_size * a_size;
+    m_file = new RandomAccessFile(a_file, "rw");
+    if (m_file.length() != length) {
+      m_file.setLength(length);
+    }
+    m_mapped = m_file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                                       length);
+    m_buffer = m_mapped.asFloatBuffer();
+  }
+
+  private void checkSize(int a_size, int a_bytes) {
+    long max = (long) Math.sqrt( (double) Integer.MAX_VALUE / a_bytes);
+    if (a_size < 1 || a_size > max) {
+      throw new IllegalArgumentException("Size must be between 1 and " + max);
+    }
+  }
+
+  /**
+   * @return number of cities
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getSize() {
+    return m_size;
+  }
+
+  /**
+   * @param a_from the city to start from
+   * @param a_to the city to go to
+   * @return distance from a_from to a_to
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getDistance(int a_from, int a_to) {
+    int index = a_from * m_size + a_to;
+    if (m_doubles != null) {
+      return m_doubles[index];
+    }
+    if (m_floats != null) {
+      return m_floats[index];
+    }
+    return m_buffer.get(index);
+  }
+
+  /**
+   * @param a_from the city to start from
+   * @param a_to the city to go to
+   * @param a_distance distance from a_from to a_to
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setDistance(int a_from, int a_to, double a_distance) {
+    int index = a_from * m_size + a_to;
+    if (m_doubles != null) {
+      m_doubles[index] = a_distance;
+    }
+    else if (m_floats != null) {
+      m_floats[index] = (float) a_distance;
+    }
+    else {
+      m_buffer.put(index, (float) a_distance);
+    }
+  }
+
+  /**
+   * @param a_tour the cities in the order visited
+   * @return length of the round trip, including the way back to the first
+   * city
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getTourLength(int[] a_tour) {
+    int n = a_tour.length;
+    double length = 0.0d;
+    for (int i = 0; i < n - 1; i++) {
+      length += getDistance(a_tour[i], a_tour[i + 1]);
+    }
+    if (n > 0) {
+      length += getDistance(a_tour[n - 1], a_tour[0]);
+    }
+    return length;
+  }
+
+  /**
+   * Writes the distances to the underlying file (if any) and releases it.
+   * The matrix must not be used afterwards.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void close()
+      throws IOException {
+    if (m_file != null) {
+      m_mapped.force();
+      m_file.close();
+      m_file = null;
+    }
+  }
+}
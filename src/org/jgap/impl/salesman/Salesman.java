@@ -50,6 +50,13 @@ public abstract class Salesman
 
   private int m_populationSize = 512;
 
+  /**
+   * Precomputed distances, if any
+   *
+   * @since 3.7
+   */
+  private transient DistanceMatrix m_distanceMatrix;
+
   /**
    * Override this method to compute the distance between "cities",
    * indicated by these two given genes. The algorithm is not dependent
@@ -64,6 +71,119 @@ public abstract class Salesman
    */
   public abstract double distance(Gene a_from, Gene a_to);
 
+  /**
+   * Computes the distance between cities given as numbers, used for
+   * chromosomes consisting of a PermutationGene. The default implementation
+   * looks up the distance matrix, which must have been set.
+   *
+   * @param a_from the city to start from
+   * @param a_to the city to go to
+   * @return the distance between the two cities
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double distance(int a_from, int a_to) {
+    if (m_distanceMatrix == null) {
+      throw new IllegalStateException("Distance matrix must be set for"
+                                      + " PermutationGene chromosomes!");
+    }
+    return m_distanceMatrix.getDistance(a_from, a_to);
+  }
+
+  /**
+   * Returns the distance between two cities, looked up in the distance
+   * matrix if set, otherwise computed via distance(Gene, Gene).
+   *
+   * @param a_from first gene, representing a city
+   * @param a_to second gene, representing a city
+   * @return the distance between two cities represented as genes
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getDistance(Gene a_from, Gene a_to) {
+    if (m_distanceMatrix != null) {
+      return m_distanceMatrix.getDistance(getCityIndex(a_from),
+                                          getCityIndex(a_to));
+    }
+    return distance(a_from, a_to);
+  }
+
+  /**
+   * Override this method if the allele of the genes is not the number of
+   * the city (from 0 to number of cities - 1), which is needed to use a
+   * distance matrix.
+   *
+   * @param a_city gene representing a city
+   * @return the number of the city
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getCityIndex(Gene a_city) {
+    return ( (Number) a_city.getAllele()).intValue();
+  }
+
+  /**
+   * Fills the given matrix with the distances between all pairs of the given
+   * cities, computed via distance(Gene, Gene).
+   *
+   * @param a_cities genes representing all cities
+   * @param a_matrix the matrix to fill, see getCityIndex
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void fillDistanceMatrix(Gene[] a_cities, DistanceMatrix a_matrix) {
+    int[] indices = new int[a_cities.length];
+    for (int i = 0; i < a_cities.length; i++) {
+      indices[i] = getCityIndex(a_cities[i]);
+    }
+    for (int i = 0; i < a_cities.length; i++) {
+      for (int j = 0; j < a_cities.length; j++) {
+        a_matrix.setDistance(indices[i], indices[j],
+                             distance(a_cities[i], a_cities[j]));
+      }
+    }
+  }
+
+  /**
+   * Sets precomputed distances. They are used by the fitness function and
+   * the greedy crossover instead of calling distance(Gene, Gene).
+   *
+   * @param a_matrix the distances, null to compute them on demand
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setDistanceMatrix(DistanceMatrix a_matrix) {
+    m_distanceMatrix = a_matrix;
+  }
+
+  public DistanceMatrix getDistanceMatrix() {
+    return m_distanceMatrix;
+  }
+
+  /**
+   * @param a_tour the cities in the order visited
+   * @return length of the round trip, computed via distance(int, int)
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public double getTourLength(int[] a_tour) {
+    int n = a_tour.length;
+    double length = 0.0d;
+    for (int i = 0; i < n - 1; i++) {
+      length += distance(a_tour[i], a_tour[i + 1]);
+    }
+    if (n > 0) {
+      length += distance(a_tour[n - 1], a_tour[0]);
+    }
+    return length;
+  }
+
   /**
    * Override this method to create a single sample chromosome, representing
    * a list of "cities". Each gene corresponds a single "city" and
@@ -131,7 +251,7 @@ public abstract class Salesman
       config.setChromosomePool(new ChromosomePool());
       // These are different:
       // --------------------
-      config.addGeneticOperator(new GreedyCrossover(config));
+      config.addGeneticOperator(new SalesmanGreedyCrossover(config));
       config.addGeneticOperator(new SwappingMutationOperator(config, 20));
       return config;
   }
@@ -226,6 +346,9 @@ public abstract class Salesman
       for (int k = 0; k < genes.length; k++) {
         genes[k] = samplegenes[k].newGene();
         genes[k].setAllele(samplegenes[k].getAllele());
+        if (genes[k] instanceof PermutationGene) {
+          genes[k].setToRandomValue(m_config.getRandomGenerator());
+        }
       }
       chromosomes[i] = new Chromosome(m_config, genes);
     }
@@ -282,4 +405,26 @@ public abstract class Salesman
   public Configuration getConfiguration() {
     return m_config;
   }
+
+  /**
+   * Greedy crossover using the distances of this salesman.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  class SalesmanGreedyCrossover
+      extends GreedyCrossover {
+    public SalesmanGreedyCrossover(Configuration a_config)
+        throws InvalidConfigurationException {
+      super(a_config);
+    }
+
+    public double distance(Object a_from, Object a_to) {
+      return getDistance( (Gene) a_from, (Gene) a_to);
+    }
+
+    protected double distance(int a_from, int a_to) {
+      return Salesman.this.distance(a_from, a_to);
+    }
+  }
 }
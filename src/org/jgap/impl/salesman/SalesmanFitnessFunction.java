@@ -9,18 +9,25 @@
  */
 package org.jgap.impl.salesman;
 
+import java.util.*;
 import org.jgap.*;
+import org.jgap.impl.*;
 
 /**
  * The fitness function to solve the Travelling Salesman problem. The function
  * returned by this method calls {@link org.jgap.impl.salesman.Salesman#distance
- * distance(Object from, Object to) }
+ * distance(Object from, Object to) }, or looks up the distance matrix if set.
+ * Chromosomes consisting of a PermutationGene are evaluated via
+ * Salesman.getTourLength.
+ * <p>
+ * After a few genes were mutated or swapped, only the distances of the edges
+ * adjacent to the changed loci are recomputed.
  *
  * @author Audrius Meskauskas
  * @since 2.0
  */
 public class SalesmanFitnessFunction
-    extends FitnessFunction {
+    extends IncrementalFitnessFunction {
   private final Salesman m_salesman;
 
   public SalesmanFitnessFunction(final Salesman a_salesman) {
@@ -38,14 +45,77 @@ public class SalesmanFitnessFunction
    * @author Audrius Meskauskas
    * @since 2.0
    */
-  protected double evaluate(final IChromosome a_subject) {
+  protected double evaluateFully(final IChromosome a_subject) {
     double s = 0;
     Gene[] genes = a_subject.getGenes();
+    if (genes.length == 1 && genes[0] instanceof PermutationGene) {
+      s = m_salesman.getTourLength( ( (PermutationGene) genes[0]).
+                                   getPermutation());
+      return Integer.MAX_VALUE / 2 - s;
+    }
     for (int i = 0; i < genes.length - 1; i++) {
-      s += m_salesman.distance(genes[i], genes[i + 1]);
+      s += m_salesman.getDistance(genes[i], genes[i + 1]);
     }
     // add cost of coming back:
-    s += m_salesman.distance(genes[genes.length - 1], genes[0]);
+    s += m_salesman.getDistance(genes[genes.length - 1], genes[0]);
     return Integer.MAX_VALUE / 2 - s;
   }
+
+  /**
+   * Incremental evaluation is only used for chromosomes with one city per gene
+   * and if less edges are affected than the tour has.
+   *
+   * @param a_subject chromosome representing cities
+   * @param a_changes the loci changed since cloning from the parent
+   * @return true: compute the fitness via evaluateDelta
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected boolean isIncremental(final IChromosome a_subject,
+                                  final ChangeSet a_changes) {
+    int size = a_subject.size();
+    return size > 1 && a_changes.getParent().size() == size
+        && a_changes.size() * 4 < size && super.isIncremental(a_subject,
+        a_changes);
+  }
+
+  /**
+   * Computes the difference of the journey lengths on the edges leading to
+   * and leaving the changed loci.
+   *
+   * @param a_parent chromosome the subject was cloned from
+   * @param a_subject chromosome representing cities
+   * @param a_loci the changed loci in ascending order
+   * @return journey length of the parent minus the one of the subject
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  protected double evaluateDelta(final IChromosome a_parent,
+                                 final IChromosome a_subject,
+                                 final int[] a_loci) {
+    Gene[] before = a_parent.getGenes();
+    Gene[] after = a_subject.getGenes();
+    int n = after.length;
+    // Index i stands for the edge from city i to city i + 1.
+    // ------------------------------------------------------
+    int[] edges = new int[a_loci.length * 2];
+    for (int i = 0; i < a_loci.length; i++) {
+      edges[2 * i] = (a_loci[i] + n - 1) % n;
+      edges[2 * i + 1] = a_loci[i];
+    }
+    Arrays.sort(edges);
+    double delta = 0;
+    for (int i = 0; i < edges.length; i++) {
+      if (i > 0 && edges[i] == edges[i - 1]) {
+        continue;
+      }
+      int from = edges[i];
+      int to = (from + 1) % n;
+      delta += m_salesman.getDistance(before[from], before[to])
+          - m_salesman.getDistance(after[from], after[to]);
+    }
+    return delta;
+  }
 }
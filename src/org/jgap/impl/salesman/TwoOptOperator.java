@@ -0,0 +1,240 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.salesman;
+
+import java.util.*;
+import org.jgap.*;
+import org.jgap.impl.*;
+
+/**
+ * Local search for the travelling salesman problem: improves the tour of
+ * randomly chosen chromosomes by reversing parts of it as long as this
+ * shortens the tour (2-opt). The improved copies are added as candidates.
+ * <p>
+ * Supports chromosomes consisting of a PermutationGene as well as chromosomes
+ * with one gene per city. Distances are taken from Salesman.distance(int,
+ * int), so usually a distance matrix must be set, and are assumed to be
+ * symmetric. The first cities of the tour (see Salesman.getStartOffset and
+ * PermutationGene.getStartOffset) are not moved.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class TwoOptOperator
+    extends BaseGeneticOperator {
+  private Salesman m_salesman;
+
+  private int m_numChromosomes;
+
+  private int m_maxPasses;
+
+  /**
+   * Improves one chromosome per generation with up to ten passes.
+   *
+   * @param a_config the configuration to use
+   * @param a_salesman provides the distances
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public TwoOptOperator(Configuration a_config, Salesman a_salesman)
+      throws InvalidConfigurationException {
+    this(a_config, a_salesman, 1, 10);
+  }
+
+  /**
+   * @param a_config the configuration to use
+   * @param a_salesman provides the distances
+   * @param a_numChromosomes number of chromosomes to improve per generation
+   * @param a_maxPasses maximum number of passes over all pairs of edges per
+   * chromosome, each pass taking quadratic time
+   *
+   * @throws InvalidConfigurationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public TwoOptOperator(Configuration a_config, Salesman a_salesman,
+                        int a_numChromosomes, int a_maxPasses)
+      throws InvalidConfigurationException {
+    super(a_config);
+    if (a_numChromosomes < 1 || a_maxPasses < 1) {
+      throw new IllegalArgumentException("Number of chromosomes and passes"
+                                         + " must be positive!");
+    }
+    m_salesman = a_salesman;
+    m_numChromosomes = a_numChromosomes;
+    m_maxPasses = a_maxPasses;
+  }
+
+  public void operate(final Population a_population,
+                      final List a_candidateChromosomes) {
+    int size = Math.min(getConfiguration().getPopulationSize(),
+                        a_population.size());
+    if (size < 1) {
+      return;
+    }
+    RandomGenerator generator = getConfiguration().getRandomGenerator();
+    for (int i = 0; i < m_numChromosomes; i++) {
+      IChromosome chrom = a_population.getChromosome(generator.nextInt(size));
+      IChromosome copy = (IChromosome) chrom.clone();
+      // In case monitoring is active, support it.
+      // -----------------------------------------
+      if (m_monitorActive) {
+        copy.setUniqueIDTemplate(chrom.getUniqueID(), 1);
+      }
+      recordLineage(copy, chrom, null);
+      if (improve(copy)) {
+        a_candidateChromosomes.add(copy);
+      }
+    }
+  }
+
+  /**
+   * Improves the tour of the given chromosome.
+   *
+   * @param a_chrom the chromosome to improve
+   * @return true if the tour was improved
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean improve(IChromosome a_chrom) {
+    Gene[] genes = a_chrom.getGenes();
+    if (genes.length == 1 && genes[0] instanceof PermutationGene) {
+      PermutationGene gene = (PermutationGene) genes[0];
+      int[] tour = (int[]) gene.getPermutation().clone();
+      if (!improve(tour, Math.max(m_salesman.getStartOffset(),
+                                  gene.getStartOffset()))) {
+        return false;
+      }
+      gene.setAllele(tour);
+    }
+    else {
+      int[] tour = new int[genes.length];
+      Map<Integer, Gene> cities = new HashMap<Integer, Gene>();
+      for (int i = 0; i < genes.length; i++) {
+        tour[i] = m_salesman.getCityIndex(genes[i]);
+        cities.put(new Integer(tour[i]), genes[i]);
+      }
+      if (!improve(tour)) {
+        return false;
+      }
+      Gene[] improved = new Gene[genes.length];
+      for (int i = 0; i < genes.length; i++) {
+        improved[i] = cities.get(new Integer(tour[i]));
+      }
+      try {
+        a_chrom.setGenes(improved);
+      } catch (InvalidConfigurationException cex) {
+        // Rethrow to have an unchecked exception.
+        // ---------------------------------------
+        throw new Error(cex);
+      }
+    }
+    a_chrom.setFitnessValueDirectly(FitnessFunction.NO_FITNESS_VALUE);
+    return true;
+  }
+
+  /**
+   * Reverses parts of the tour as long as this makes it shorter, at most for
+   * the maximum number of passes.
+   *
+   * @param a_tour the tour to improve in place
+   * @return true if the tour was improved
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean improve(int[] a_tour) {
+    return improve(a_tour, m_salesman.getStartOffset());
+  }
+
+  /**
+   * Like improve(int[]), but with an explicit start offset.
+   *
+   * @param a_tour the tour to improve in place
+   * @param a_startOffset number of leading cities not to be moved
+   * @return true if the tour was improved
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public boolean improve(int[] a_tour, int a_startOffset) {
+    int n = a_tour.length;
+    int start = Math.max(a_startOffset, 1);
+    boolean improved = false;
+    for (int pass = 0; pass < m_maxPasses; pass++) {
+      boolean changed = false;
+      for (int i = start; i < n - 1; i++) {
+        int a = a_tour[i - 1];
+        int b = a_tour[i];
+        double ab = m_salesman.distance(a, b);
+        for (int j = i + 1; j < n; j++) {
+          int c = a_tour[j];
+          int d = a_tour[ (j + 1) % n];
+          if (d == a) {
+            continue;
+          }
+          // Replace edges a-b and c-d by a-c and b-d.
+          // ------------------------------------------
+          double delta = m_salesman.distance(a, c) + m_salesman.distance(b, d)
+              - ab - m_salesman.distance(c, d);
+          if (delta < -FitnessFunction.DELTA) {
+            reverse(a_tour, i, j);
+            b = a_tour[i];
+            ab = m_salesman.distance(a, b);
+            changed = true;
+          }
+        }
+      }
+      if (!changed) {
+        break;
+      }
+      improved = true;
+    }
+    return improved;
+  }
+
+  private static void reverse(int[] a_tour, int a_from, int a_to) {
+    while (a_from < a_to) {
+      int tmp = a_tour[a_from];
+      a_tour[a_from++] = a_tour[a_to];
+      a_tour[a_to--] = tmp;
+    }
+  }
+
+  /**
+   * Compares the given GeneticOperator to this GeneticOperator.
+   *
+   * @param a_other the instance against which to compare this instance
+   * @return a negative number if this instance is "less than" the given
+   * instance, zero if they are equal to each other, and a positive number if
+   * this is "greater than" the given instance
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int compareTo(final Object a_other) {
+    if (a_other == null) {
+      return 1;
+    }
+    TwoOptOperator op = (TwoOptOperator) a_other;
+    if (m_numChromosomes != op.m_numChromosomes) {
+      return m_numChromosomes > op.m_numChromosomes ? 1 : -1;
+    }
+    if (m_maxPasses != op.m_maxPasses) {
+      return m_maxPasses > op.m_maxPasses ? 1 : -1;
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.io.*;
+import java.lang.reflect.*;
+
+import org.jgap.*;
+
+/**
+ * Utility functions for the binary representation of genes (see
+ * IBinaryRepresentation).
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class BinaryKit {
+  /**
+   * Writes the state of a gene in binary form if supported, otherwise its
+   * persistent representation.
+   *
+   * @param a_gene the gene to write
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static void writeGene(Gene a_gene, DataOutput a_out)
+      throws IOException {
+    if (a_gene instanceof IBinaryRepresentation) {
+      ( (IBinaryRepresentation) a_gene).writeTo(a_out);
+    }
+    else {
+      writeString(a_gene.getPersistentRepresentation(), a_out);
+    }
+  }
+
+  /**
+   * Counterpart of writeGene.
+   *
+   * @param a_gene the gene to set the state of, must be of the same class as
+   * the one written
+   * @param a_in the input to read from
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static void readGene(Gene a_gene, DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    if (a_gene instanceof IBinaryRepresentation) {
+      ( (IBinaryRepresentation) a_gene).readFrom(a_in);
+    }
+    else {
+      a_gene.setValueFromPersistentRepresentation(readString(a_in));
+    }
+  }
+
+  /**
+   * Writes a gene including its class name, see readGene(Configuration, Gene,
+   * DataInput).
+   *
+   * @param a_gene the gene to write
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static void writeTypedGene(Gene a_gene, DataOutput a_out)
+      throws IOException {
+    a_out.writeUTF(a_gene.getClass().getName());
+    writeGene(a_gene, a_out);
+  }
+
+  /**
+   * Reads a gene written by writeTypedGene.
+   *
+   * @param a_conf the configuration to create a new gene with
+   * @param a_reuse gene to read into if it is of the class written, may be
+   * null
+   * @param a_in the input to read from
+   * @return the gene read: a_reuse or a new instance
+   *
+   * @throws IOException
+   * @throws UnsupportedRepresentationException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static Gene readTypedGene(Configuration a_conf, Gene a_reuse,
+                                   DataInput a_in)
+      throws IOException, UnsupportedRepresentationException {
+    String className = a_in.readUTF();
+    Gene gene;
+    if (a_reuse != null && a_reuse.getClass().getName().equals(className)) {
+      gene = a_reuse;
+    }
+    else {
+      gene = createGene(a_conf, className);
+    }
+    readGene(gene, a_in);
+    return gene;
+  }
+
+  /**
+   * Creates a gene via its constructor taking a configuration.
+   *
+   * @param a_conf the configuration to pass
+   * @param a_className the class of the gene
+   * @return the new gene
+   *
+   * @throws UnsupportedRepresentationException if the gene could not be
+   * created
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static Gene createGene(Configuration a_conf, String a_className)
+      throws UnsupportedRepresentationException {
+    try {
+      Class geneClass = Class.forName(a_className);
+      Constructor constr = geneClass.getConstructor(new Class[] {
+          Configuration.class});
+      return (Gene) constr.newInstance(new Object[] {a_conf});
+    } catch (Exception ex) {
+      throw new UnsupportedRepresentationException("Gene of class "
+          + a_className + " could not be created: " + ex);
+    }
+  }
+
+  /**
+   * Writes a string of any length that may be null: the number of bytes (-1
+   * for null) followed by the string encoded as UTF-8. DataOutput.writeUTF is
+   * not used as it is limited to 64 KB.
+   *
+   * @param a_value the string to write
+   * @param a_out the output to write to
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static void writeString(String a_value, DataOutput a_out)
+      throws IOException {
+    if (a_value == null) {
+      a_out.writeInt( -1);
+      return;
+    }
+    byte[] bytes = a_value.getBytes("UTF-8");
+    a_out.writeInt(bytes.length);
+    a_out.write(bytes);
+  }
+
+  public static String readString(DataInput a_in)
+      throws IOException {
+    int len = a_in.readInt();
+    if (len < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[len];
+    a_in.readFully(bytes);
+    return new String(bytes, "UTF-8");
+  }
+
+  /**
+   * @param a_object the object to hash
+   * @return content hash of the binary representation of the object
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public static long contentHash(IBinaryRepresentation a_object) {
+    ContentHash hash = new ContentHash();
+    try {
+      a_object.writeTo(hash);
+    } catch (IOException iex) {
+      throw new IllegalStateException(iex.getMessage());
+    }
+    return hash.getValue();
+  }
+}
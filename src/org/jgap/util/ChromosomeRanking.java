@@ -0,0 +1,261 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.io.*;
+import java.util.*;
+import org.jgap.*;
+
+/**
+ * Moves the fittest chromosomes of a list to its front without sorting the
+ * whole list: The fittest n chromosomes are determined by partial selection
+ * (quickselect) in linear time, only these are sorted afterwards.
+ * <p>
+ * If the fitness evaluator only compares fitness values (as
+ * DefaultFitnessEvaluator and DeltaFitnessEvaluator do), the fitness values
+ * (and ages) are read once into primitive arrays. Otherwise the given
+ * comparator is used.
+ * <p>
+ * The result equals the one of a stable sort: Equally fit chromosomes keep
+ * their order in the list, as do the chromosomes not belonging to the
+ * fittest n. Instances are not thread-safe because the arrays are reused.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ChromosomeRanking
+    implements Serializable {
+  /**
+   * Ranges up to this size are sorted via insertion sort.
+   */
+  private final static int INSERTION_SORT_SIZE = 12;
+
+  private Comparator m_comparator;
+
+  private boolean m_considerAge;
+
+  private transient FitnessEvaluator m_evaluator;
+
+  private transient double[] m_fitness;
+
+  private transient int[] m_age;
+
+  private transient int[] m_index;
+
+  private transient Object[] m_chromosomes;
+
+  /**
+   * @param a_comparator comparator to use if the fitness evaluator does not
+   * only compare fitness values; it must define the same order as given by
+   * the evaluator (and the age, if considered)
+   * @param a_considerAge true: of equally fit chromosomes the younger one is
+   * ranked first
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public ChromosomeRanking(Comparator a_comparator, boolean a_considerAge) {
+    if (a_comparator == null) {
+      throw new IllegalArgumentException("Comparator must not be null!");
+    }
+    m_comparator = a_comparator;
+    m_considerAge = a_considerAge;
+  }
+
+  /**
+   * Reorders the given list so that its first a_count elements are the
+   * fittest chromosomes, the fittest one first.
+   *
+   * @param a_chromosomes list of IChromosome instances
+   * @param a_count number of fittest chromosomes to move to the front
+   * @param a_evaluator the fitness evaluator deciding which chromosome is
+   * fitter
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void rankFittest(List a_chromosomes, int a_count,
+                          FitnessEvaluator a_evaluator) {
+    int size = a_chromosomes.size();
+    int count = Math.min(a_count, size);
+    if (count < 1 || size < 2) {
+      return;
+    }
+    init(a_chromosomes, a_evaluator);
+    if (count < size) {
+      select(0, size - 1, count - 1);
+      // Keep the order of the chromosomes not selected.
+      // -----------------------------------------------
+      Arrays.sort(m_index, count, size);
+    }
+    sort(0, count - 1);
+    for (int i = 0; i < size; i++) {
+      a_chromosomes.set(i, m_chromosomes[m_index[i]]);
+    }
+    // Do not keep references to the chromosomes.
+    // -------------------------------------------
+    Arrays.fill(m_chromosomes, 0, size, null);
+    m_evaluator = null;
+  }
+
+  private void init(List a_chromosomes, FitnessEvaluator a_evaluator) {
+    int size = a_chromosomes.size();
+    if (m_index == null || m_index.length < size) {
+      m_index = new int[size];
+      m_chromosomes = new Object[size];
+      m_fitness = null;
+      m_age = null;
+    }
+    Class evaluatorClass = a_evaluator.getClass();
+    if (evaluatorClass == DefaultFitnessEvaluator.class
+        || evaluatorClass == DeltaFitnessEvaluator.class) {
+      m_evaluator = a_evaluator;
+      if (m_fitness == null) {
+        m_fitness = new double[m_index.length];
+        m_age = new int[m_index.length];
+      }
+    }
+    else {
+      m_evaluator = null;
+    }
+    for (int i = 0; i < size; i++) {
+      IChromosome chrom = (IChromosome) a_chromosomes.get(i);
+      m_chromosomes[i] = chrom;
+      m_index[i] = i;
+      if (m_evaluator != null) {
+        m_fitness[i] = chrom.getFitnessValue();
+        m_age[i] = chrom.getAge();
+      }
+    }
+  }
+
+  /**
+   * Compares two chromosomes given by their original position.
+   *
+   * @param a_first position of the first chromosome
+   * @param a_second position of the second chromosome
+   * @return negative value if the first chromosome is to be ranked first
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private int compare(int a_first, int a_second) {
+    if (m_evaluator != null) {
+      double fitness1 = m_fitness[a_first];
+      double fitness2 = m_fitness[a_second];
+      if (m_evaluator.isFitter(fitness1, fitness2)) {
+        return -1;
+      }
+      if (m_evaluator.isFitter(fitness2, fitness1)) {
+        return 1;
+      }
+      if (m_considerAge && m_age[a_first] != m_age[a_second]) {
+        return m_age[a_first] < m_age[a_second] ? -1 : 1;
+      }
+    }
+    else {
+      int result = m_comparator.compare(m_chromosomes[a_first],
+                                        m_chromosomes[a_second]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    // Ties are resolved by the original position, as a stable sort would do.
+    // ----------------------------------------------------------------------
+    if (a_first == a_second) {
+      return 0;
+    }
+    return a_first < a_second ? -1 : 1;
+  }
+
+  /**
+   * Partially orders the given range so that the element at position a_nth
+   * is the one a full sort would put there, with all fitter elements before.
+   */
+  private void select(int a_lo, int a_hi, int a_nth) {
+    int lo = a_lo;
+    int hi = a_hi;
+    while (hi > lo) {
+      int pivot = partition(lo, hi);
+      if (pivot > a_nth) {
+        hi = pivot - 1;
+      }
+      else if (pivot < a_nth) {
+        lo = pivot + 1;
+      }
+      else {
+        return;
+      }
+    }
+  }
+
+  private void sort(int a_lo, int a_hi) {
+    int lo = a_lo;
+    int hi = a_hi;
+    while (hi - lo >= INSERTION_SORT_SIZE) {
+      int pivot = partition(lo, hi);
+      // Recurse into the smaller part to limit the stack depth.
+      // -------------------------------------------------------
+      if (pivot - lo < hi - pivot) {
+        sort(lo, pivot - 1);
+        lo = pivot + 1;
+      }
+      else {
+        sort(pivot + 1, hi);
+        hi = pivot - 1;
+      }
+    }
+    for (int i = lo + 1; i <= hi; i++) {
+      int current = m_index[i];
+      int j = i - 1;
+      while (j >= lo && compare(current, m_index[j]) < 0) {
+        m_index[j + 1] = m_index[j];
+        j--;
+      }
+      m_index[j + 1] = current;
+    }
+  }
+
+  /**
+   * Partitions the given range around the median of its first, middle and
+   * last element.
+   *
+   * @return final position of the pivot element
+   */
+  private int partition(int a_lo, int a_hi) {
+    int mid = (a_lo + a_hi) >>> 1;
+    if (compare(m_index[mid], m_index[a_lo]) < 0) {
+      swap(mid, a_lo);
+    }
+    if (compare(m_index[a_hi], m_index[a_lo]) < 0) {
+      swap(a_hi, a_lo);
+    }
+    if (compare(m_index[a_hi], m_index[mid]) < 0) {
+      swap(a_hi, mid);
+    }
+    swap(mid, a_hi);
+    int pivot = m_index[a_hi];
+    int store = a_lo;
+    for (int i = a_lo; i < a_hi; i++) {
+      if (compare(m_index[i], pivot) < 0) {
+        swap(i, store);
+        store++;
+      }
+    }
+    swap(store, a_hi);
+    return store;
+  }
+
+  private void swap(int a_i, int a_j) {
+    int tmp = m_index[a_i];
+    m_index[a_i] = m_index[a_j];
+    m_index[a_j] = tmp;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.io.*;
+
+/**
+ * Computes a 64 bit hash of the data written to it, without buffering it.
+ * The hash of the data is the same as if it had been written to a
+ * DataOutputStream and the resulting bytes had been hashed (FNV-1a followed
+ * by a final avalanche step).
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ContentHash
+    implements DataOutput {
+  private final static long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+  private final static long PRIME = 0x100000001b3L;
+
+  private long m_hash;
+
+  public ContentHash() {
+    reset();
+  }
+
+  public void reset() {
+    m_hash = OFFSET_BASIS;
+  }
+
+  /**
+   * @return hash of the data written since construction or the last reset
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public long getValue() {
+    long h = m_hash;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  public void write(int a_b) {
+    m_hash = (m_hash ^ (a_b & 0xff)) * PRIME;
+  }
+
+  public void write(byte[] a_b) {
+    write(a_b, 0, a_b.length);
+  }
+
+  public void write(byte[] a_b, int a_off, int a_len) {
+    long h = m_hash;
+    for (int i = a_off; i < a_off + a_len; i++) {
+      h = (h ^ (a_b[i] & 0xff)) * PRIME;
+    }
+    m_hash = h;
+  }
+
+  public void writeBoolean(boolean a_v) {
+    write(a_v ? 1 : 0);
+  }
+
+  public void writeByte(int a_v) {
+    write(a_v);
+  }
+
+  public void writeShort(int a_v) {
+    write(a_v >>> 8);
+    write(a_v);
+  }
+
+  public void writeChar(int a_v) {
+    writeShort(a_v);
+  }
+
+  public void writeInt(int a_v) {
+    write(a_v >>> 24);
+    write(a_v >>> 16);
+    write(a_v >>> 8);
+    write(a_v);
+  }
+
+  public void writeLong(long a_v) {
+    writeInt( (int) (a_v >>> 32));
+    writeInt( (int) a_v);
+  }
+
+  public void writeFloat(float a_v) {
+    writeInt(Float.floatToIntBits(a_v));
+  }
+
+  public void writeDouble(double a_v) {
+    writeLong(Double.doubleToLongBits(a_v));
+  }
+
+  public void writeBytes(String a_s) {
+    int len = a_s.length();
+    for (int i = 0; i < len; i++) {
+      write(a_s.charAt(i));
+    }
+  }
+
+  public void writeChars(String a_s) {
+    int len = a_s.length();
+    for (int i = 0; i < len; i++) {
+      writeChar(a_s.charAt(i));
+    }
+  }
+
+  /**
+   * Hashes the string in modified UTF-8 encoding, see DataOutput.writeUTF.
+   *
+   * @param a_s the string to hash
+   * @throws UTFDataFormatException if the encoded string is too long
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeUTF(String a_s)
+      throws UTFDataFormatException {
+    int len = a_s.length();
+    int utflen = 0;
+    for (int i = 0; i < len; i++) {
+      char c = a_s.charAt(i);
+      if (c >= 0x0001 && c <= 0x007F) {
+        utflen++;
+      }
+      else if (c > 0x07FF) {
+        utflen += 3;
+      }
+      else {
+        utflen += 2;
+      }
+    }
+    if (utflen > 65535) {
+      throw new UTFDataFormatException("Encoded string too long: " + utflen
+                                       + " bytes");
+    }
+    writeShort(utflen);
+    for (int i = 0; i < len; i++) {
+      char c = a_s.charAt(i);
+      if (c >= 0x0001 && c <= 0x007F) {
+        write(c);
+      }
+      else if (c > 0x07FF) {
+        write(0xE0 | ( (c >> 12) & 0x0F));
+        write(0x80 | ( (c >> 6) & 0x3F));
+        write(0x80 | (c & 0x3F));
+      }
+      else {
+        write(0xC0 | ( (c >> 6) & 0x1F));
+        write(0x80 | (c & 0x3F));
+      }
+    }
+  }
+}
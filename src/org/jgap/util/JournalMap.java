@@ -0,0 +1,488 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.apache.log4j.*;
+
+/**
+ * A map with string keys that is persisted in an append-only journal file.
+ * All entries are held in memory. Each modification appends a single record
+ * to the journal, i.e. costs O(1) instead of rewriting the whole map.
+ * <p>
+ * Records are buffered until flush() is called. With sync enabled, flush()
+ * also forces the data to the disk. Each record carries a checksum. When the
+ * journal is opened, incomplete or corrupt records at the end (e.g. after a
+ * crash) are discarded. The journal is compacted (rewritten with the live
+ * entries only) as soon as it holds too many obsolete records.
+ * <p>
+ * Values must be serializable, they are written via Java serialization.
+ * The map is not thread-safe.
+ *
+ * @param <V> type of the values
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class JournalMap<V>
+    extends AbstractMap<String, V> {
+  /**
+   * Magic number at the beginning of a journal ("JGJL").
+   */
+  public final static int MAGIC = 0x4A474A4C;
+
+  public final static int VERSION = 1;
+
+  private final static int OP_PUT = 1;
+
+  private final static int OP_REMOVE = 2;
+
+  private final static int OP_CLEAR = 3;
+
+  private final static int HEADER_SIZE = 5;
+
+  /**
+   * Compaction takes place not before the journal holds this many records.
+   */
+  private final static int MIN_RECORDS_COMPACTION = 1000;
+
+  private transient Logger log = Logger.getLogger(getClass());
+
+  private File m_file;
+
+  private Map<String, V> m_entries;
+
+  private DataOutputStream m_out;
+
+  private FileOutputStream m_fos;
+
+  /**
+   * Number of records in the journal.
+   */
+  private int m_records;
+
+  private boolean m_sync;
+
+  private Set<Map.Entry<String, V>> m_entrySet;
+
+  /**
+   * Opens a journal, creates it if it does not exist.
+   *
+   * @param a_file the journal file
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public JournalMap(File a_file)
+      throws IOException {
+    m_file = a_file;
+    m_entries = new HashMap<String, V>();
+    File tmp = getTempFile();
+    if (!m_file.exists() && tmp.exists()) {
+      // Crashed during compaction after the old journal was deleted.
+      // ------------------------------------------------------------
+      if (!tmp.renameTo(m_file)) {
+        throw new IOException("Could not restore journal " + m_file);
+      }
+    }
+    else if (tmp.exists()) {
+      tmp.delete();
+    }
+    if (m_file.exists()) {
+      long valid = replay();
+      if (valid < m_file.length()) {
+        log.warn("Discarding " + (m_file.length() - valid)
+                 + " bytes of incomplete data at end of journal " + m_file);
+        RandomAccessFile raf = new RandomAccessFile(m_file, "rw");
+        try {
+          raf.setLength(valid);
+        } finally {
+          raf.close();
+        }
+      }
+      openForAppend();
+    }
+    else {
+      writeJournal(m_file, m_entries);
+      openForAppend();
+    }
+  }
+
+  /**
+   * @param a_sync true: flush() forces the data to the disk
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void setSync(boolean a_sync) {
+    m_sync = a_sync;
+  }
+
+  public boolean isSync() {
+    return m_sync;
+  }
+
+  public File getFile() {
+    return m_file;
+  }
+
+  /**
+   * @return number of records in the journal, including obsolete ones
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getRecordCount() {
+    return m_records;
+  }
+
+  public V get(Object a_key) {
+    return m_entries.get(a_key);
+  }
+
+  public boolean containsKey(Object a_key) {
+    return m_entries.containsKey(a_key);
+  }
+
+  public int size() {
+    return m_entries.size();
+  }
+
+  public V put(String a_key, V a_value) {
+    if (a_key == null) {
+      throw new NullPointerException("Key must not be null");
+    }
+    append(OP_PUT, a_key, a_value);
+    V old = m_entries.put(a_key, a_value);
+    checkCompaction();
+    return old;
+  }
+
+  public V remove(Object a_key) {
+    if (!m_entries.containsKey(a_key)) {
+      return null;
+    }
+    append(OP_REMOVE, (String) a_key, null);
+    V old = m_entries.remove(a_key);
+    checkCompaction();
+    return old;
+  }
+
+  public void clear() {
+    append(OP_CLEAR, "", null);
+    m_entries.clear();
+    checkCompaction();
+  }
+
+  public Set<Map.Entry<String, V>> entrySet() {
+    if (m_entrySet == null) {
+      m_entrySet = new EntrySet();
+    }
+    return m_entrySet;
+  }
+
+  /**
+   * Writes buffered records to the journal, forces them to the disk if sync
+   * is enabled.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void flush()
+      throws IOException {
+    m_out.flush();
+    if (m_sync) {
+      m_fos.getFD().sync();
+    }
+  }
+
+  /**
+   * Rewrites the journal with the live entries only. The new journal is
+   * written to a temporary file first, thus the journal stays consistent if
+   * the application crashes meanwhile.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void compact()
+      throws IOException {
+    m_out.close();
+    File tmp = getTempFile();
+    writeJournal(tmp, m_entries);
+    if (!m_file.delete() || !tmp.renameTo(m_file)) {
+      throw new IOException("Could not replace journal " + m_file);
+    }
+    openForAppend();
+  }
+
+  /**
+   * Flushes and closes the journal. The map must not be modified afterwards.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void close()
+      throws IOException {
+    flush();
+    m_out.close();
+  }
+
+  protected void append(int a_op, String a_key, Object a_value) {
+    try {
+      writeRecord(m_out, a_op, a_key, a_value);
+      m_records++;
+    } catch (NotSerializableException nex) {
+      throw new IllegalArgumentException("Value not serializable: "
+                                         + nex.getMessage());
+    } catch (IOException iex) {
+      throw new IllegalStateException("Writing to journal " + m_file
+                                      + " failed: " + iex.getMessage());
+    }
+  }
+
+  /**
+   * Compacts the journal if it holds more obsolete than live records. Must
+   * be called after the in-memory entries have been modified.
+   */
+  protected void checkCompaction() {
+    if (m_records > MIN_RECORDS_COMPACTION
+        && m_records > 2 * m_entries.size()) {
+      try {
+        flush();
+        compact();
+      } catch (IOException iex) {
+        throw new IllegalStateException("Compacting journal " + m_file
+                                        + " failed: " + iex.getMessage());
+      }
+    }
+  }
+
+  private File getTempFile() {
+    return new File(m_file.getPath() + ".tmp");
+  }
+
+  private void openForAppend()
+      throws IOException {
+    m_fos = new FileOutputStream(m_file, true);
+    m_out = new DataOutputStream(new BufferedOutputStream(m_fos));
+  }
+
+  private void writeJournal(File a_file, Map<String, V> a_entries)
+      throws IOException {
+    FileOutputStream fos = new FileOutputStream(a_file);
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          fos));
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      for (Map.Entry<String, V> entry : a_entries.entrySet()) {
+        writeRecord(out, OP_PUT, entry.getKey(), entry.getValue());
+      }
+      out.flush();
+      fos.getFD().sync();
+    } finally {
+      fos.close();
+    }
+    m_records = a_entries.size();
+  }
+
+  /**
+   * Record layout: length of data, CRC32 of data, data (operation, key and
+   * serialized value).
+   */
+  private void writeRecord(DataOutputStream a_out, int a_op, String a_key,
+                           Object a_value)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(bytes);
+    data.writeByte(a_op);
+    data.writeUTF(a_key);
+    if (a_op == OP_PUT) {
+      if (a_value != null && ! (a_value instanceof Serializable)) {
+        throw new NotSerializableException(a_value.getClass().getName());
+      }
+      ObjectOutputStream oos = new ObjectOutputStream(data);
+      oos.writeObject(a_value);
+      oos.flush();
+    }
+    data.flush();
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    a_out.writeInt(bytes.size());
+    a_out.writeInt( (int) crc.getValue());
+    bytes.writeTo(a_out);
+  }
+
+  /**
+   * Reads all records of the journal.
+   *
+   * @return length of the valid part of the journal
+   * @throws IOException
+   */
+  private long replay()
+      throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new
+        FileInputStream(m_file)));
+    long valid = HEADER_SIZE;
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new StreamCorruptedException("Not a journal: " + m_file);
+      }
+      int version = in.readUnsignedByte();
+      if (version > VERSION) {
+        throw new IOException("Unsupported version of journal: " + version);
+      }
+      m_records = 0;
+      while (true) {
+        byte[] data;
+        int checksum;
+        try {
+          int len = in.readInt();
+          checksum = in.readInt();
+          if (len < 0 || len > m_file.length()) {
+            break;
+          }
+          data = new byte[len];
+          in.readFully(data);
+        } catch (EOFException eex) {
+          break;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if ( (int) crc.getValue() != checksum) {
+          break;
+        }
+        apply(data);
+        m_records++;
+        valid += 8 + data.length;
+      }
+    } catch (EOFException eex) {
+      // Header incomplete.
+      // ------------------
+      valid = 0;
+    } finally {
+      in.close();
+    }
+    if (valid == 0) {
+      writeJournal(m_file, m_entries);
+      valid = HEADER_SIZE;
+    }
+    return valid;
+  }
+
+  private void apply(byte[] a_data)
+      throws IOException {
+    DataInputStream data = new DataInputStream(new ByteArrayInputStream(
+        a_data));
+    int op = data.readUnsignedByte();
+    String key = data.readUTF();
+    switch (op) {
+      case OP_PUT:
+        try {
+          V value = (V) new ObjectInputStream(data).readObject();
+          m_entries.put(key, value);
+        } catch (ClassNotFoundException cex) {
+          throw new InvalidClassException(cex.getMessage());
+        }
+        break;
+      case OP_REMOVE:
+        m_entries.remove(key);
+        break;
+      case OP_CLEAR:
+        m_entries.clear();
+        break;
+      default:
+        throw new StreamCorruptedException("Unknown operation in journal: "
+                                           + op);
+    }
+  }
+
+  /**
+   * View of the entries, modifications are written to the journal.
+   */
+  private class EntrySet
+      extends AbstractSet<Map.Entry<String, V>> {
+    public int size() {
+      return m_entries.size();
+    }
+
+    public Iterator<Map.Entry<String, V>> iterator() {
+      final Iterator<Map.Entry<String, V>> it = m_entries.entrySet().iterator();
+      return new Iterator<Map.Entry<String, V>>() {
+        private Map.Entry<String, V> m_current;
+
+        public boolean hasNext() {
+          return it.hasNext();
+        }
+
+        public Map.Entry<String, V> next() {
+          m_current = it.next();
+          return new JournalEntry(m_current);
+        }
+
+        public void remove() {
+          if (m_current == null) {
+            throw new IllegalStateException();
+          }
+          append(OP_REMOVE, m_current.getKey(), null);
+          it.remove();
+          m_current = null;
+          checkCompaction();
+        }
+      };
+    }
+
+    public void clear() {
+      JournalMap.this.clear();
+    }
+  }
+
+  private class JournalEntry
+      implements Map.Entry<String, V> {
+    private Map.Entry<String, V> m_entry;
+
+    public JournalEntry(Map.Entry<String, V> a_entry) {
+      m_entry = a_entry;
+    }
+
+    public String getKey() {
+      return m_entry.getKey();
+    }
+
+    public V getValue() {
+      return m_entry.getValue();
+    }
+
+    public V setValue(V a_value) {
+      append(OP_PUT, m_entry.getKey(), a_value);
+      V old = m_entry.setValue(a_value);
+      checkCompaction();
+      return old;
+    }
+
+    public boolean equals(Object a_other) {
+      return m_entry.equals(a_other);
+    }
+
+    public int hashCode() {
+      return m_entry.hashCode();
+    }
+  }
+}
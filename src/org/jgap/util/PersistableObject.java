@@ -30,10 +30,24 @@ public class PersistableObject {
 
   private File m_file;
 
+  private IGridCodec m_codec;
+
   public PersistableObject(File a_file) {
     m_file = a_file;
   }
 
+  /**
+   * @param a_file the file to write to and read from
+   * @param a_codec the codec to use, null: XML via JGAPGPXStream
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public PersistableObject(File a_file, IGridCodec a_codec) {
+    m_file = a_file;
+    m_codec = a_codec;
+  }
+
   public PersistableObject(String a_filename) {
     this(new File(a_filename));
   }
@@ -51,9 +65,29 @@ public class PersistableObject {
       throws Exception {
     save(a_omitConfig, null);
   }
-    public void save(boolean a_omitConfig, Object[][] a_omitFields)
-        throws Exception {
+
+  /**
+   * Saves the object to the file. Omitting fields is only supported without a
+   * codec, otherwise the codec determines the fields written.
+   *
+   * @param a_omitConfig true: do not write the configuration of GP objects
+   * @param a_omitFields pairs of class and field name not to write, may be
+   * null
+   * @throws Exception
+   */
+  public void save(boolean a_omitConfig, Object[][] a_omitFields)
+      throws Exception {
     log.debug("Saving object to file "+m_file.getName());
+    if (m_codec != null) {
+      OutputStream out = new BufferedOutputStream(new FileOutputStream(
+          m_file));
+      try {
+        m_codec.encode(m_object, out);
+      } finally {
+        out.close();
+      }
+      return;
+    }
     JGAPGPXStream xstream = new JGAPGPXStream();
     init(xstream);
     if (a_omitConfig) {
@@ -74,8 +108,12 @@ public class PersistableObject {
       }
     }
     FileWriter fw = new FileWriter(m_file);
-    CompactWriter compact = new CompactWriter(fw);
-    xstream.marshal(m_object, compact);
+    try {
+      CompactWriter compact = new CompactWriter(fw);
+      xstream.marshal(m_object, compact);
+    } finally {
+      fw.close();
+    }
   }
 
   public Object load()
@@ -85,6 +123,19 @@ public class PersistableObject {
 
   public Object load(File a_file) {
     log.debug("Loading object from file "+a_file.getName());
+    if (m_codec != null) {
+      try {
+        InputStream in = new BufferedInputStream(new FileInputStream(a_file));
+        try {
+          m_object = m_codec.decode(in);
+        } finally {
+          in.close();
+        }
+        return m_object;
+      } catch (Exception ex) {
+        return null;
+      }
+    }
     JGAPGPXStream xstream = new JGAPGPXStream();
     init(xstream);
     try {
@@ -0,0 +1,309 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.xml;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgap.*;
+import org.xmlpull.mxp1.*;
+import org.xmlpull.v1.*;
+
+/**
+ * Reads a genotype in the XML format of XMLManager one chromosome at a time
+ * via a pull parser. Only the current chromosome is held in memory, so
+ * populations of any size can be processed with constant memory. Each
+ * instance is independent of others, thus several threads may read at the
+ * same time.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GenotypeXMLReader {
+  private Configuration m_conf;
+
+  private XmlPullParser m_parser;
+
+  private Reader m_in;
+
+  private int m_size;
+
+  private boolean m_started;
+
+  private boolean m_finished;
+
+  /**
+   * True if the root element is a chromosome instead of a genotype.
+   */
+  private boolean m_singleChromosome;
+
+  /**
+   * @param a_conf the configuration to create chromosomes and genes with
+   * @param a_in the stream to read from, encoded as UTF-8
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GenotypeXMLReader(Configuration a_conf, InputStream a_in)
+      throws IOException {
+    this(a_conf, new BufferedReader(new InputStreamReader(a_in,
+        java.nio.charset.Charset.forName("UTF-8"))));
+  }
+
+  /**
+   * @param a_conf the configuration to create chromosomes and genes with
+   * @param a_in the reader to read from
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GenotypeXMLReader(Configuration a_conf, Reader a_in)
+      throws IOException {
+    m_conf = a_conf;
+    m_in = a_in;
+    m_parser = new MXParser();
+    try {
+      m_parser.setInput(a_in);
+    } catch (XmlPullParserException xex) {
+      throw wrap(xex);
+    }
+    m_size = -1;
+  }
+
+  /**
+   * @return the number of chromosomes declared in the genotype element, -1 if
+   * not declared or the document only holds a single chromosome
+   * @throws IOException
+   * @throws ImproperXMLException if the document is not a genotype or
+   * chromosome document
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int getDeclaredSize()
+      throws IOException, ImproperXMLException {
+    start();
+    return m_size;
+  }
+
+  /**
+   * Reads the next chromosome.
+   *
+   * @return the chromosome read, or null if there are no more chromosomes
+   *
+   * @throws IOException
+   * @throws ImproperXMLException if the document is improperly structured or
+   * missing data
+   * @throws InvalidConfigurationException
+   * @throws UnsupportedRepresentationException if a gene does not support the
+   * representation of its allele
+   * @throws GeneCreationException if a gene could not be created
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public IChromosome nextChromosome()
+      throws IOException, ImproperXMLException, InvalidConfigurationException,
+      UnsupportedRepresentationException, GeneCreationException {
+    start();
+    if (m_finished) {
+      return null;
+    }
+    try {
+      if (m_parser.getEventType() != XmlPullParser.START_TAG
+          || !XMLManager.CHROMOSOME_TAG.equals(m_parser.getName())) {
+        // Move to the next chromosome within the genotype.
+        // ------------------------------------------------
+        int event = m_parser.nextTag();
+        if (event == XmlPullParser.END_TAG) {
+          m_finished = true;
+          return null;
+        }
+        if (!XMLManager.CHROMOSOME_TAG.equals(m_parser.getName())) {
+          throw new ImproperXMLException("Unexpected element '"
+                                         + m_parser.getName()
+                                         + "' instead of 'chromosome'.");
+        }
+      }
+      IChromosome chrom = readChromosome();
+      if (m_singleChromosome) {
+        // The document only holds a single chromosome.
+        // --------------------------------------------
+        m_finished = true;
+      }
+      return chrom;
+    } catch (XmlPullParserException xex) {
+      throw new ImproperXMLException(xex.getMessage());
+    }
+  }
+
+  /**
+   * Reads all remaining chromosomes into a genotype.
+   *
+   * @return the genotype read
+   *
+   * @throws IOException
+   * @throws ImproperXMLException if the document is improperly structured or
+   * missing data
+   * @throws InvalidConfigurationException
+   * @throws UnsupportedRepresentationException if a gene does not support the
+   * representation of its allele
+   * @throws GeneCreationException if a gene could not be created
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public Genotype readGenotype()
+      throws IOException, ImproperXMLException, InvalidConfigurationException,
+      UnsupportedRepresentationException, GeneCreationException {
+    int size = getDeclaredSize();
+    Population pop = new Population(m_conf, Math.max(1, size));
+    IChromosome chrom;
+    while ( (chrom = nextChromosome()) != null) {
+      pop.addChromosome(chrom);
+    }
+    return new Genotype(m_conf, pop);
+  }
+
+  public void close()
+      throws IOException {
+    m_in.close();
+  }
+
+  private void start()
+      throws IOException, ImproperXMLException {
+    if (m_started) {
+      return;
+    }
+    m_started = true;
+    try {
+      int event = m_parser.next();
+      while (event != XmlPullParser.START_TAG) {
+        if (event == XmlPullParser.END_DOCUMENT) {
+          throw new ImproperXMLException("Document contains no element.");
+        }
+        event = m_parser.next();
+      }
+      String name = m_parser.getName();
+      if (XMLManager.GENOTYPE_TAG.equals(name)) {
+        String size = m_parser.getAttributeValue(null,
+                                                 XMLManager.SIZE_ATTRIBUTE);
+        if (size != null) {
+          m_size = Integer.parseInt(size);
+        }
+      }
+      else if (XMLManager.CHROMOSOME_TAG.equals(name)) {
+        m_singleChromosome = true;
+      }
+      else {
+        throw new ImproperXMLException("Root element must be 'genotype' or"
+                                       + " 'chromosome'.");
+      }
+    } catch (XmlPullParserException xex) {
+      throw new ImproperXMLException(xex.getMessage());
+    } catch (NumberFormatException nex) {
+      throw new ImproperXMLException("Invalid size attribute: "
+                                     + nex.getMessage());
+    }
+  }
+
+  /**
+   * Reads a chromosome element, the parser is positioned at its start tag.
+   * Afterwards, the parser is positioned at its end tag.
+   */
+  private IChromosome readChromosome()
+      throws IOException, XmlPullParserException, ImproperXMLException,
+      InvalidConfigurationException, UnsupportedRepresentationException,
+      GeneCreationException {
+    List<Gene> genes = new ArrayList<Gene>();
+    boolean genesFound = false;
+    while (m_parser.nextTag() == XmlPullParser.START_TAG) {
+      if (!XMLManager.GENES_TAG.equals(m_parser.getName())) {
+        skipElement();
+        continue;
+      }
+      genesFound = true;
+      while (m_parser.nextTag() == XmlPullParser.START_TAG) {
+        if (!XMLManager.GENE_TAG.equals(m_parser.getName())) {
+          skipElement();
+          continue;
+        }
+        genes.add(readGene());
+      }
+    }
+    if (!genesFound) {
+      throw new ImproperXMLException(
+          "Unable to build Chromosome instance from XML Element: "
+          + "'genes' sub-element not found.");
+    }
+    return new Chromosome(m_conf, genes.toArray(new Gene[genes.size()]));
+  }
+
+  /**
+   * Reads a gene element, the parser is positioned at its start tag.
+   * Afterwards, the parser is positioned at its end tag.
+   */
+  private Gene readGene()
+      throws IOException, XmlPullParserException, ImproperXMLException,
+      UnsupportedRepresentationException, GeneCreationException {
+    Gene gene = XMLManager.createGene(m_conf, m_parser.getAttributeValue(null,
+        XMLManager.CLASS_ATTRIBUTE));
+    String allele = null;
+    StringBuffer text = null;
+    int event;
+    while ( (event = m_parser.next()) != XmlPullParser.END_TAG) {
+      if (event == XmlPullParser.START_TAG) {
+        if (XMLManager.ALLELE_TAG.equals(m_parser.getName())) {
+          allele = m_parser.getAttributeValue(null,
+                                              XMLManager.VALUE_ATTRIBUTE);
+        }
+        skipElement();
+      }
+      else if (event == XmlPullParser.TEXT) {
+        // Older documents hold the allele as text.
+        // ----------------------------------------
+        if (text == null) {
+          text = new StringBuffer();
+        }
+        text.append(m_parser.getText());
+      }
+    }
+    if (allele == null && text != null && text.toString().trim().length() > 0) {
+      allele = text.toString();
+    }
+    XMLManager.setAllele(gene, allele);
+    return gene;
+  }
+
+  /**
+   * Skips the current element including its content.
+   */
+  private void skipElement()
+      throws IOException, XmlPullParserException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = m_parser.next();
+      if (event == XmlPullParser.START_TAG) {
+        depth++;
+      }
+      else if (event == XmlPullParser.END_TAG) {
+        depth--;
+      }
+    }
+  }
+
+  private static IOException wrap(Exception a_ex) {
+    IOException iex = new IOException(a_ex.getMessage());
+    iex.initCause(a_ex);
+    return iex;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.xml;
+
+import java.io.*;
+
+import org.jgap.*;
+
+/**
+ * Writes a genotype in the XML format of XMLManager, one chromosome at a
+ * time. No document is built in memory, so populations of any size can be
+ * written with constant memory. Each instance is independent of others, thus
+ * several threads may write at the same time.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GenotypeXMLWriter {
+  private Writer m_out;
+
+  private boolean m_genotypeStarted;
+
+  /**
+   * @param a_out the stream to write to, encoded as UTF-8
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GenotypeXMLWriter(OutputStream a_out) {
+    this(new BufferedWriter(new OutputStreamWriter(a_out,
+        java.nio.charset.Charset.forName("UTF-8"))));
+  }
+
+  /**
+   * @param a_out the writer to write to. The XML declaration states UTF-8 as
+   * encoding
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public GenotypeXMLWriter(Writer a_out) {
+    m_out = a_out;
+  }
+
+  /**
+   * Writes the start of the genotype element.
+   *
+   * @param a_size the number of chromosomes that will be written, negative if
+   * unknown
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void startGenotype(int a_size)
+      throws IOException {
+    if (m_genotypeStarted) {
+      throw new IllegalStateException("Genotype already started!");
+    }
+    m_out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    m_out.write("<" + XMLManager.GENOTYPE_TAG);
+    if (a_size >= 0) {
+      writeAttribute(XMLManager.SIZE_ATTRIBUTE, Integer.toString(a_size));
+    }
+    m_out.write(">\n");
+    m_genotypeStarted = true;
+  }
+
+  /**
+   * Writes a chromosome with its genes.
+   *
+   * @param a_chrom the chromosome to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeChromosome(IChromosome a_chrom)
+      throws IOException {
+    m_out.write("<" + XMLManager.CHROMOSOME_TAG);
+    writeAttribute(XMLManager.SIZE_ATTRIBUTE, Integer.toString(a_chrom.size()));
+    m_out.write("><" + XMLManager.GENES_TAG + ">");
+    Gene[] genes = a_chrom.getGenes();
+    for (int i = 0; i < genes.length; i++) {
+      String className = genes[i].getClass().getName();
+      m_out.write("<" + XMLManager.GENE_TAG);
+      writeAttribute(XMLManager.CLASS_ATTRIBUTE, className);
+      m_out.write("><" + XMLManager.ALLELE_TAG);
+      writeAttribute(XMLManager.CLASS_ATTRIBUTE, className);
+      writeAttribute(XMLManager.VALUE_ATTRIBUTE,
+                     genes[i].getPersistentRepresentation());
+      m_out.write("/></" + XMLManager.GENE_TAG + ">");
+    }
+    m_out.write("</" + XMLManager.GENES_TAG + "></"
+                + XMLManager.CHROMOSOME_TAG + ">\n");
+  }
+
+  /**
+   * Writes the end of the genotype element and flushes the stream.
+   *
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void endGenotype()
+      throws IOException {
+    if (!m_genotypeStarted) {
+      throw new IllegalStateException("Genotype not started!");
+    }
+    m_out.write("</" + XMLManager.GENOTYPE_TAG + ">\n");
+    m_genotypeStarted = false;
+    m_out.flush();
+  }
+
+  /**
+   * Writes the population of a genotype.
+   *
+   * @param a_genotype the genotype to write
+   * @throws IOException
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void writeGenotype(Genotype a_genotype)
+      throws IOException {
+    Population pop = a_genotype.getPopulation();
+    int size = pop.size();
+    startGenotype(size);
+    for (int i = 0; i < size; i++) {
+      writeChromosome(pop.getChromosome(i));
+    }
+    endGenotype();
+  }
+
+  public void flush()
+      throws IOException {
+    m_out.flush();
+  }
+
+  public void close()
+      throws IOException {
+    m_out.close();
+  }
+
+  private void writeAttribute(String a_name, String a_value)
+      throws IOException {
+    m_out.write(' ');
+    m_out.write(a_name);
+    m_out.write("=\"");
+    int len = a_value.length();
+    for (int i = 0; i < len; i++) {
+      char c = a_value.charAt(i);
+      switch (c) {
+        case '&':
+          m_out.write("&amp;");
+          break;
+        case '<':
+          m_out.write("&lt;");
+          break;
+        case '>':
+          m_out.write("&gt;");
+          break;
+        case '"':
+          m_out.write("&quot;");
+          break;
+        case '\n':
+        case '\r':
+        case '\t':
+          // Would be normalized to blanks when parsed otherwise.
+          // ----------------------------------------------------
+          m_out.write("&#" + (int) c + ";");
+          break;
+        default:
+          m_out.write(c);
+      }
+    }
+    m_out.write('"');
+  }
+}
@@ -25,6 +25,9 @@ import org.w3c.dom.*;
  * (such as Chromosomes and Genotypes) to XML representations of those
  * entities, as well as unmarshalling. All of the methods in this class are
  * static, so no construction is required (or allowed).
+ * <p>
+ * For large populations, use GenotypeXMLWriter and GenotypeXMLReader, which
+ * stream the same format one chromosome at a time.
  *
  * @author Neil Rotstan
  * @author Klaus Meffert
@@ -34,62 +37,56 @@ public class XMLManager {
   /**
    * Constant representing the name of the genotype XML element tag.
    */
-  private static final String GENOTYPE_TAG = "genotype";
+  static final String GENOTYPE_TAG = "genotype";
 
   /**
    * Constant representing the name of the chromosome XML element tag.
    */
-  private static final String CHROMOSOME_TAG = "chromosome";
+  static final String CHROMOSOME_TAG = "chromosome";
 
   /**
    * Constant representing the name of the gene XML element tag.
    */
-  private static final String GENES_TAG = "genes";
+  static final String GENES_TAG = "genes";
 
   /**
    * Constant representing the name of the gene XML element tag.
    */
-  private static final String GENE_TAG = "gene";
+  static final String GENE_TAG = "gene";
 
-  private static final String ALLELE_TAG = "allele";
+  static final String ALLELE_TAG = "allele";
+
+  static final String VALUE_ATTRIBUTE = "value";
 
   /**
    * Constant representing the name of the size XML attribute that is
    * added to genotype and chromosome elements to describe their size.
    */
-  private static final String SIZE_ATTRIBUTE = "size";
+  static final String SIZE_ATTRIBUTE = "size";
 
   /**
    * Constant representing the fully-qualified name of the concrete
    * Gene class that was marshalled.
    */
-  private static final String CLASS_ATTRIBUTE = "class";
-
-  /**
-   * Shared DocumentBuilder, which is used to create new DOM Document
-   * instances.
-   */
-  private static final DocumentBuilder m_documentCreator;
+  static final String CLASS_ATTRIBUTE = "class";
 
   /**
-   * Shared lock object used for synchronization purposes.
+   * DocumentBuilder per thread, which is used to create new DOM Document
+   * instances and to parse files. DocumentBuilders do not have to be thread
+   * safe, holding one per thread avoids a global lock.
    */
-  private static final Object m_lock = new Object();
-
-  /**
-   * @author Neil Rotstan
-   * @since 1.0
-   */
-  static {
-    try {
-      m_documentCreator =
-          DocumentBuilderFactory.newInstance().newDocumentBuilder();
-    } catch (ParserConfigurationException parserError) {
-      throw new RuntimeException(
-          "XMLManager: Unable to setup DocumentBuilder: "
-          + parserError.getMessage());
+  private static final ThreadLocal<DocumentBuilder> m_documentCreator =
+      new ThreadLocal<DocumentBuilder>() {
+    protected DocumentBuilder initialValue() {
+      try {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+      } catch (ParserConfigurationException parserError) {
+        throw new RuntimeException(
+            "XMLManager: Unable to setup DocumentBuilder: "
+            + parserError.getMessage());
+      }
     }
-  }
+  };
 
   /**
    * Private constructor. All methods in this class are static, so no
@@ -111,13 +108,7 @@ public class XMLManager {
    */
   public static Document representChromosomeAsDocument(final IChromosome
       a_subject) {
-    // DocumentBuilders do not have to be thread safe, so we have to
-    // protect creation of the Document with a synchronized block.
-    // -------------------------------------------------------------
-    Document chromosomeDocument;
-    synchronized (m_lock) {
-      chromosomeDocument = m_documentCreator.newDocument();
-    }
+    Document chromosomeDocument = m_documentCreator.get().newDocument();
     Element chromosomeElement =
         representChromosomeAsElement(a_subject, chromosomeDocument);
     chromosomeDocument.appendChild(chromosomeElement);
@@ -136,13 +127,7 @@ public class XMLManager {
    * @deprecated use XMLDocumentBuilder instead
    */
   public static Document representGenotypeAsDocument(final Genotype a_subject) {
-    // DocumentBuilders do not have to be thread safe, so we have to
-    // protect creation of the Document with a synchronized block.
-    // -------------------------------------------------------------
-    Document genotypeDocument;
-    synchronized (m_lock) {
-      genotypeDocument = m_documentCreator.newDocument();
-    }
+    Document genotypeDocument = m_documentCreator.get().newDocument();
     Element genotypeElement =
         representGenotypeAsElement(a_subject, genotypeDocument);
     genotypeDocument.appendChild(genotypeElement);
@@ -207,7 +192,8 @@ public class XMLManager {
       final Document a_xmlDocument) {
     Element alleleElement = a_xmlDocument.createElement(ALLELE_TAG);
     alleleElement.setAttribute("class", a_gene.getClass().getName());
-    alleleElement.setAttribute("value", a_gene.getPersistentRepresentation());
+    alleleElement.setAttribute(VALUE_ATTRIBUTE,
+                               a_gene.getPersistentRepresentation());
     return alleleElement;
   }
 
@@ -347,26 +333,7 @@ public class XMLManager {
       // --------------------------------------------------------
       String geneClassName =
           thisGeneElement.getAttribute(CLASS_ATTRIBUTE);
-      Gene thisGeneObject;
-      Class geneClass = null;
-      try {
-        geneClass = Class.forName(geneClassName);
-        try {
-          Constructor constr = geneClass.getConstructor(new Class[] {
-              Configuration.class});
-          thisGeneObject = (Gene) constr.newInstance(new Object[] {
-              a_activeConfiguration});
-        } catch (NoSuchMethodException nsme) {
-          // Try it by calling method newGeneInternal.
-          // -----------------------------------------
-          Constructor constr = geneClass.getConstructor(new Class[] {});
-          thisGeneObject = (Gene) constr.newInstance(new Object[] {});
-          thisGeneObject = (Gene) PrivateAccessor.invoke(thisGeneObject,
-              "newGeneInternal", new Class[] {}, new Object[] {});
-        }
-      } catch (Throwable e) {
-        throw new GeneCreationException(geneClass, e);
-      }
+      Gene thisGeneObject = createGene(a_activeConfiguration, geneClassName);
       // Find the text node and fetch the string representation of
       // the allele.
       // ---------------------------------------------------------
@@ -376,7 +343,7 @@ public class XMLManager {
       for (int j = 0; j < childrenSize; j++) {
         Element alleleElem = (Element) children.item(j);
         if (alleleElem.getTagName().equals(ALLELE_TAG)) {
-          alleleRepresentation = alleleElem.getAttribute("value");
+          alleleRepresentation = alleleElem.getAttribute(VALUE_ATTRIBUTE);
         }
         if (children.item(j).getNodeType() == Node.TEXT_NODE) {
           // We found the text node. Extract the representation.
@@ -385,24 +352,7 @@ public class XMLManager {
           break;
         }
       }
-      // Sanity check: Make sure the representation isn't null.
-      // ------------------------------------------------------
-      if (alleleRepresentation == null) {
-        throw new ImproperXMLException(
-            "Unable to build Gene instance from XML Element: " +
-            "value (allele) is missing representation.");
-      }
-      // Now set the value of the gene to that reflect the
-      // string representation.
-      // -------------------------------------------------
-      try {
-        thisGeneObject.setValueFromPersistentRepresentation(
-            alleleRepresentation);
-      } catch (UnsupportedOperationException e) {
-        throw new GeneCreationException(
-            "Unable to build Gene because it does not support the " +
-            "setValueFromPersistentRepresentation() method.");
-      }
+      setAllele(thisGeneObject, alleleRepresentation);
       // Finally, add the current gene object to the list of genes.
       // ----------------------------------------------------------
       genes.add(thisGeneObject);
@@ -410,6 +360,82 @@ public class XMLManager {
     return (Gene[]) genes.toArray(new Gene[genes.size()]);
   }
 
+  /**
+   * Creates a gene of the given class, as named in the class attribute of a
+   * gene element.
+   *
+   * @param a_activeConfiguration current Configuration object
+   * @param a_geneClassName fully-qualified name of the gene class
+   * @return the new gene, without allele set
+   *
+   * @throws GeneCreationException if the gene could not be created
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  static Gene createGene(Configuration a_activeConfiguration,
+                         String a_geneClassName)
+      throws GeneCreationException {
+    Gene thisGeneObject;
+    Class geneClass = null;
+    try {
+      geneClass = Class.forName(a_geneClassName);
+      try {
+        Constructor constr = geneClass.getConstructor(new Class[] {
+            Configuration.class});
+        thisGeneObject = (Gene) constr.newInstance(new Object[] {
+            a_activeConfiguration});
+      } catch (NoSuchMethodException nsme) {
+        // Try it by calling method newGeneInternal.
+        // -----------------------------------------
+        Constructor constr = geneClass.getConstructor(new Class[] {});
+        thisGeneObject = (Gene) constr.newInstance(new Object[] {});
+        thisGeneObject = (Gene) PrivateAccessor.invoke(thisGeneObject,
+            "newGeneInternal", new Class[] {}, new Object[] {});
+      }
+    } catch (Throwable e) {
+      throw new GeneCreationException(geneClass, e);
+    }
+    return thisGeneObject;
+  }
+
+  /**
+   * Sets the allele of a gene from its persistent representation.
+   *
+   * @param a_gene the gene to set the allele for
+   * @param a_alleleRepresentation the persistent representation
+   *
+   * @throws ImproperXMLException if the representation is null
+   * @throws UnsupportedRepresentationException if the gene does not support
+   * the representation
+   * @throws GeneCreationException if the gene does not support setting its
+   * value from a persistent representation
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  static void setAllele(Gene a_gene, String a_alleleRepresentation)
+      throws ImproperXMLException, UnsupportedRepresentationException,
+      GeneCreationException {
+    // Sanity check: Make sure the representation isn't null.
+    // ------------------------------------------------------
+    if (a_alleleRepresentation == null) {
+      throw new ImproperXMLException(
+          "Unable to build Gene instance from XML Element: " +
+          "value (allele) is missing representation.");
+    }
+    // Now set the value of the gene to that reflect the
+    // string representation.
+    // -------------------------------------------------
+    try {
+      a_gene.setValueFromPersistentRepresentation(a_alleleRepresentation);
+    } catch (UnsupportedOperationException e) {
+      throw new GeneCreationException(
+          "Unable to build Gene because it does not support the " +
+          "setValueFromPersistentRepresentation() method.");
+    }
+  }
+
   /**
    * Unmarshall a Chromosome instance from a given XML Element
    * representation.
@@ -620,7 +646,7 @@ public class XMLManager {
    */
   public static Document readFile(File file)
       throws IOException, org.xml.sax.SAXException {
-    return m_documentCreator.parse(file);
+    return m_documentCreator.get().parse(file);
   }
 
   /**
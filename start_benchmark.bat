@@ -0,0 +1,2 @@
+java -Xms200M -Xmx800M -classpath ".;jgap-examples.jar;jgap.jar;lib/log4j.jar;lib/commons-lang-2.1.jar" examples.benchmark.JGAPBenchmarks -o benchmark.json %* 
+pause
\ No newline at end of file
@@ -30,6 +30,9 @@ public class AllBaseTests
     suite.addTest(DeltaFitnessEvaluatorTest.suite());
     suite.addTest(FitnessFunctionTest.suite());
     suite.addTest(GenotypeTest.suite());
+    suite.addTest(GenotypeCheckpointTest.suite());
+    suite.addTest(IncrementalFitnessFunctionTest.suite());
+    suite.addTest(IslandGenotypeTest.suite());
     suite.addTest(PopulationTest.suite());
     return suite;
   }
@@ -626,6 +626,87 @@ public class ChromosomeTest
     assertEquals(copy, chrom);
   }
 
+  /**
+   * Cloning takes over a chromosome released to the pool.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testClone_9()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    ChromosomePool pool = new ChromosomePool();
+    conf.setChromosomePool(pool);
+    Chromosome chrom = new Chromosome(conf, new IntegerGene(conf, 1, 10), 3);
+    for (int i = 0; i < 3; i++) {
+      chrom.getGene(i).setAllele(new Integer(i + 4));
+    }
+    Chromosome recycled = new Chromosome(conf, new IntegerGene(conf, 1, 10), 3);
+    recycled.setFitnessValue(7.5d);
+    recycled.increaseAge();
+    recycled.increaseOperatedOn();
+    recycled.cleanup();
+    IChromosome copy = (IChromosome) chrom.clone();
+    assertSame(recycled, copy);
+    assertEquals(chrom, copy);
+    assertEquals(0, copy.getAge());
+    assertEquals(0, recycled.operatedOn());
+    assertEquals(FitnessFunction.NO_FITNESS_VALUE,
+                 copy.getFitnessValueDirectly(), DELTA);
+    assertNull(pool.acquireChromosome());
+  }
+
+  /**
+   * A pooled chromosome with another structure is not used for cloning.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testClone_10()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    ChromosomePool pool = new ChromosomePool();
+    conf.setChromosomePool(pool);
+    Chromosome chrom = new Chromosome(conf, new IntegerGene(conf, 1, 10), 3);
+    Chromosome other = new Chromosome(conf, new IntegerGene(conf, 1, 10), 2);
+    other.cleanup();
+    IChromosome copy = (IChromosome) chrom.clone();
+    assertNotSame(other, copy);
+    assertEquals(chrom, copy);
+    other = new Chromosome(conf, new DoubleGene(conf, 1, 10), 3);
+    other.cleanup();
+    copy = (IChromosome) chrom.clone();
+    assertNotSame(other, copy);
+    assertEquals(chrom, copy);
+  }
+
+  /**
+   * Objective values are kept by clones and removed by cleanup.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testClone_11()
+      throws Exception {
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    Chromosome chrom = new Chromosome(conf, new IntegerGene(conf, 1, 10), 3);
+    assertNull(chrom.getObjectives());
+    double[] objectives = new double[] {1.0d, 2.0d};
+    chrom.setObjectives(objectives);
+    Chromosome copy = (Chromosome) chrom.clone();
+    assertSame(objectives, copy.getObjectives());
+    chrom.cleanup();
+    assertNull(chrom.getObjectives());
+  }
+
   private final static int MAX_CHROMOSOME_TO_TEST = 1000;
 
   private final static int MAX_GENES_TO_TEST = 25;
@@ -1622,6 +1703,67 @@ public class ChromosomeTest
                  chrom2.getPersistentRepresentation());
   }
 
+  /**
+   * Binary representation, business key and content hash.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    Gene[] genes1 = new Gene[2];
+    genes1[0] = new IntegerGene(conf, 0, 10);
+    genes1[0].setAllele(new Integer(7));
+    genes1[1] = new StringGene(conf, 0, 5, "ab");
+    genes1[1].setAllele("abba");
+    Chromosome chrom = new Chromosome(conf, genes1);
+    chrom.setFitnessValueDirectly(3.5);
+    Chromosome chrom2 = new Chromosome(conf);
+    doBinaryCopy(chrom, chrom2);
+    assertEquals(chrom, chrom2);
+    assertEquals(3.5, chrom2.getFitnessValueDirectly(), DELTA);
+    assertEquals(chrom.getBusinessKey(), chrom2.getBusinessKey());
+    assertEquals(chrom.getContentHash(), chrom2.getContentHash());
+    // The fitness value is not part of the content.
+    // ---------------------------------------------
+    chrom2.setFitnessValueDirectly(1.0);
+    assertEquals(chrom.getContentHash(), chrom2.getContentHash());
+    chrom2.getGene(1).setAllele("ab");
+    assertFalse(chrom.getBusinessKey().equals(chrom2.getBusinessKey()));
+    assertFalse(chrom.getContentHash() == chrom2.getContentHash());
+  }
+
+  /**
+   * Strings longer than 64 KB are supported by the business key and the
+   * binary representation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_1()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    StringBuffer value = new StringBuffer();
+    for (int i = 0; i < 70000; i++) {
+      value.append(i % 2 == 0 ? 'a' : 'b');
+    }
+    Gene[] genes1 = new Gene[1];
+    genes1[0] = new StringGene(conf, 0, 70000, "ab");
+    genes1[0].setAllele(value.toString());
+    Chromosome chrom = new Chromosome(conf, genes1);
+    assertTrue(chrom.getBusinessKey().length() > 70000);
+    Chromosome chrom2 = new Chromosome(conf);
+    doBinaryCopy(chrom, chrom2);
+    assertEquals(value.toString(), chrom2.getGene(0).getAllele());
+    assertEquals(chrom.getBusinessKey(), chrom2.getBusinessKey());
+    assertEquals(chrom.getContentHash(), chrom2.getContentHash());
+  }
+
   /**
    *
    * @throws Exception
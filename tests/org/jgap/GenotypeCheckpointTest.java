@@ -0,0 +1,254 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.io.*;
+
+import org.jgap.impl.*;
+import junit.framework.*;
+
+/**
+ * Tests the GenotypeCheckpoint class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GenotypeCheckpointTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(GenotypeCheckpointTest.class);
+    return suite;
+  }
+
+  private File m_file;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_file = File.createTempFile("jgapcp", ".bin");
+      m_file.delete();
+    } catch (IOException iex) {
+      throw new RuntimeException(iex);
+    }
+  }
+
+  public void tearDown()
+      throws Exception {
+    m_file.delete();
+    new File(m_file.getPath() + ".tmp").delete();
+    super.tearDown();
+  }
+
+  private Configuration createConfiguration()
+      throws Exception {
+    Configuration.reset();
+    Configuration conf = new DefaultConfiguration();
+    conf.setRandomGenerator(new StockRandomGenerator());
+    ( (StockRandomGenerator) conf.getRandomGenerator()).setSeed(4711);
+    Gene[] genes = new Gene[] {
+        new IntegerGene(conf, 0, 100),
+        new StringGene(conf, 0, 8, "abcd"),
+        new DoubleGene(conf, 0, 10)};
+    conf.setSampleChromosome(new Chromosome(conf, genes));
+    conf.setPopulationSize(20);
+    conf.setFitnessFunction(new TestFitnessFunction());
+    return conf;
+  }
+
+  private void assertSamePopulation(Genotype a_expected, Genotype a_actual) {
+    Population expected = a_expected.getPopulation();
+    Population actual = a_actual.getPopulation();
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      IChromosome chrom = expected.getChromosome(i);
+      IChromosome restored = actual.getChromosome(i);
+      assertEquals(chrom.size(), restored.size());
+      for (int j = 0; j < chrom.size(); j++) {
+        assertEquals(chrom.getGene(j).getAllele(),
+                     restored.getGene(j).getAllele());
+      }
+      assertEquals(chrom.getFitnessValueDirectly(),
+                   restored.getFitnessValueDirectly(), DELTA);
+      assertEquals(chrom.getAge(), restored.getAge());
+    }
+  }
+
+  /**
+   * Full and incremental checkpoints restore the latest population.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRestore_0()
+      throws Exception {
+    Configuration conf = createConfiguration();
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    GenotypeCheckpoint cp = new GenotypeCheckpoint(m_file);
+    for (int i = 0; i < 4; i++) {
+      genotype.evolve();
+      cp.save(genotype);
+    }
+    assertEquals(4, cp.getRecordCount());
+    assertEquals(conf.getGenerationNr(), cp.getGenerationNr());
+    GenotypeCheckpoint cp2 = new GenotypeCheckpoint(m_file);
+    Configuration conf2 = createConfiguration();
+    Genotype restored = cp2.restore(conf2);
+    assertEquals(4, cp2.getRecordCount());
+    assertEquals(conf.getGenerationNr(), conf2.getGenerationNr());
+    assertSamePopulation(genotype, restored);
+  }
+
+  /**
+   * An evolution resumed from a checkpoint continues like the original one,
+   * including the random numbers.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRestore_1()
+      throws Exception {
+    Configuration conf = createConfiguration();
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    genotype.evolve(2);
+    GenotypeCheckpoint cp = new GenotypeCheckpoint(m_file);
+    cp.save(genotype);
+    Configuration conf2 = createConfiguration();
+    Genotype restored = new GenotypeCheckpoint(m_file).restore(conf2);
+    assertEquals(conf.getRandomGenerator().nextInt(),
+                 conf2.getRandomGenerator().nextInt());
+    genotype.evolve(3);
+    restored.evolve(3);
+    assertSamePopulation(genotype, restored);
+  }
+
+  /**
+   * An incomplete checkpoint at the end of the file is discarded, the
+   * previous one is restored and further checkpoints are appended after it.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRestore_2()
+      throws Exception {
+    Configuration conf = createConfiguration();
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    GenotypeCheckpoint cp = new GenotypeCheckpoint(m_file);
+    genotype.evolve();
+    cp.save(genotype);
+    long length = m_file.length();
+    int generation = conf.getGenerationNr();
+    genotype.evolve();
+    cp.save(genotype);
+    RandomAccessFile raf = new RandomAccessFile(m_file, "rw");
+    raf.setLength(m_file.length() - 3);
+    raf.close();
+    Configuration conf2 = createConfiguration();
+    GenotypeCheckpoint cp2 = new GenotypeCheckpoint(m_file);
+    Genotype restored = cp2.restore(conf2);
+    assertEquals(1, cp2.getRecordCount());
+    assertEquals(generation, conf2.getGenerationNr());
+    assertEquals(length, m_file.length());
+    restored.evolve();
+    cp2.save(restored);
+    Configuration conf3 = createConfiguration();
+    Genotype restored2 = new GenotypeCheckpoint(m_file).restore(conf3);
+    assertSamePopulation(restored, restored2);
+  }
+
+  /**
+   * Memory-mapped incremental checkpoints and regular full ones.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRestore_3()
+      throws Exception {
+    Configuration conf = createConfiguration();
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    GenotypeCheckpoint cp = new GenotypeCheckpoint(m_file);
+    cp.setMemoryMapped(true);
+    cp.setFullInterval(3);
+    for (int i = 0; i < 5; i++) {
+      genotype.evolve();
+      cp.save(genotype);
+    }
+    // The fourth checkpoint was a full one.
+    // -------------------------------------
+    assertEquals(2, cp.getRecordCount());
+    Configuration conf2 = createConfiguration();
+    Genotype restored = new GenotypeCheckpoint(m_file).restore(conf2);
+    assertSamePopulation(genotype, restored);
+  }
+
+  /**
+   * No checkpoint written yet.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRestore_4()
+      throws Exception {
+    assertNull(new GenotypeCheckpoint(m_file).restore(createConfiguration()));
+  }
+
+  /**
+   * Genes with string values longer than 64 KB.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRestore_5()
+      throws Exception {
+    Configuration.reset();
+    Configuration conf = new DefaultConfiguration();
+    conf.setSampleChromosome(new Chromosome(conf, new Gene[] {
+        new StringGene(conf, 70000, 70000, "ab")}));
+    conf.setPopulationSize(3);
+    conf.setFitnessFunction(new TestFitnessFunction());
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    GenotypeCheckpoint cp = new GenotypeCheckpoint(m_file);
+    cp.save(genotype);
+    Configuration.reset();
+    Configuration conf2 = new DefaultConfiguration();
+    conf2.setSampleChromosome(new Chromosome(conf2, new Gene[] {
+        new StringGene(conf2, 70000, 70000, "ab")}));
+    conf2.setPopulationSize(3);
+    conf2.setFitnessFunction(new TestFitnessFunction());
+    Genotype restored = new GenotypeCheckpoint(m_file).restore(conf2);
+    assertSamePopulation(genotype, restored);
+    assertEquals(70000, ( (String) restored.getPopulation().getChromosome(0).
+                         getGene(0).getAllele()).length());
+  }
+
+  /**
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSetFullInterval_0() {
+    try {
+      new GenotypeCheckpoint(m_file).setFullInterval(0);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+}
@@ -877,6 +877,40 @@ public class GenotypeTest
     assertTrue(uniqueChromosomes(genotype.getPopulation()));
   }
 
+  /**
+   * Discarded chromosomes are recycled via the chromosome pool.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_11()
+      throws Exception {
+    Configuration config = new ConfigurationForTesting();
+    GABreeder breeder = new GABreeder();
+    breeder.setRecycleChromosomes(true);
+    config.setBreeder(breeder);
+    ChromosomePool pool = new ChromosomePool();
+    config.setChromosomePool(pool);
+    Genotype genotype = Genotype.randomInitialGenotype(config);
+    genotype.evolve(10);
+    Population pop = genotype.getPopulation();
+    assertEquals(config.getPopulationSize(), pop.size());
+    assertTrue(pool.size() > 0);
+    // No pooled chromosome must still be part of the population.
+    // -----------------------------------------------------------
+    IChromosome pooled;
+    while ( (pooled = pool.acquireChromosome()) != null) {
+      for (int i = 0; i < pop.size(); i++) {
+        assertNotSame(pooled, pop.getChromosome(i));
+      }
+    }
+    for (int i = 0; i < pop.size(); i++) {
+      assertTrue(pop.getChromosome(i).getFitnessValue() >= 0);
+    }
+  }
+
 
   /**
    * @throws Exception
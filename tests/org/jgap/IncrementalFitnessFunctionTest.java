@@ -0,0 +1,288 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import java.util.*;
+
+import org.jgap.impl.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the IncrementalFitnessFunction and ChangeSet classes.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class IncrementalFitnessFunctionTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(IncrementalFitnessFunctionTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testChangeSet_0()
+      throws Exception {
+    Chromosome parent = createChromosome(new int[] {1, 2, 3});
+    parent.setFitnessValueDirectly(6);
+    ChangeSet changes = new ChangeSet(parent);
+    assertSame(parent, changes.getParent());
+    assertEquals(6, changes.getParentFitness(), DELTA);
+    assertEquals(0, changes.size());
+    for (int i = 9; i >= 0; i--) {
+      changes.add(i);
+      changes.add(i);
+    }
+    assertEquals(10, changes.size());
+    assertTrue(changes.contains(7));
+    assertFalse(changes.contains(10));
+    int[] loci = changes.getLoci();
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, loci[i]);
+    }
+    assertTrue(changes.isParentFitnessValid());
+    parent.setFitnessValueDirectly(7);
+    assertFalse(changes.isParentFitnessValid());
+  }
+
+  /**
+   * No fitness value of the parent known.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testChangeSet_1()
+      throws Exception {
+    Chromosome parent = createChromosome(new int[] {1, 2, 3});
+    ChangeSet changes = new ChangeSet(parent);
+    assertEquals(FitnessFunction.NO_FITNESS_VALUE, changes.getParentFitness(),
+                 DELTA);
+    assertFalse(changes.isParentFitnessValid());
+  }
+
+  /**
+   * Without change set the fitness is evaluated fully.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvaluate_0()
+      throws Exception {
+    SumFitnessFunction fitFunc = new SumFitnessFunction();
+    assertEquals(7, fitFunc.getFitnessValue(createChromosome(new int[] {1, 2,
+        3})), DELTA);
+    assertEquals(1, fitFunc.m_full);
+    assertEquals(0, fitFunc.m_incremental);
+  }
+
+  /**
+   * The fitness is computed from the parent and the change set is consumed.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvaluate_1()
+      throws Exception {
+    SumFitnessFunction fitFunc = new SumFitnessFunction();
+    Chromosome parent = createChromosome(new int[] {1, 2, 3, 4});
+    parent.setFitnessValueDirectly(fitFunc.getFitnessValue(parent));
+    Chromosome child = (Chromosome) parent.clone();
+    child.getGene(1).setAllele(new Integer(5));
+    child.getGene(3).setAllele(new Integer(0));
+    ChangeSet changes = new ChangeSet(parent);
+    changes.add(3);
+    changes.add(1);
+    child.setChangeSet(changes);
+    assertEquals(10, fitFunc.getFitnessValue(child), DELTA);
+    assertEquals(1, fitFunc.m_full);
+    assertEquals(1, fitFunc.m_incremental);
+    assertNull(child.getChangeSet());
+    assertEquals(10, fitFunc.getFitnessValue(child), DELTA);
+    assertEquals(2, fitFunc.m_full);
+  }
+
+  /**
+   * Fitness of the parent changed after recording: full evaluation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvaluate_2()
+      throws Exception {
+    SumFitnessFunction fitFunc = new SumFitnessFunction();
+    Chromosome parent = createChromosome(new int[] {1, 2});
+    parent.setFitnessValueDirectly(4);
+    Chromosome child = (Chromosome) parent.clone();
+    child.getGene(0).setAllele(new Integer(3));
+    ChangeSet changes = new ChangeSet(parent);
+    changes.add(0);
+    child.setChangeSet(changes);
+    parent.setFitnessValueDirectly(FitnessFunction.NO_FITNESS_VALUE);
+    assertEquals(6, fitFunc.getFitnessValue(child), DELTA);
+    assertEquals(1, fitFunc.m_full);
+    assertEquals(0, fitFunc.m_incremental);
+  }
+
+  /**
+   * Too many changed loci: full evaluation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvaluate_3()
+      throws Exception {
+    SumFitnessFunction fitFunc = new SumFitnessFunction();
+    fitFunc.setMaxChangedLoci(1);
+    assertEquals(1, fitFunc.getMaxChangedLoci());
+    Chromosome parent = createChromosome(new int[] {1, 2});
+    parent.setFitnessValueDirectly(4);
+    Chromosome child = (Chromosome) parent.clone();
+    ChangeSet changes = new ChangeSet(parent);
+    changes.add(0);
+    changes.add(1);
+    child.setChangeSet(changes);
+    assertEquals(4, fitFunc.getFitnessValue(child), DELTA);
+    assertEquals(1, fitFunc.m_full);
+    assertEquals(0, fitFunc.m_incremental);
+  }
+
+  /**
+   * A wrong incremental result is detected by verification.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvaluate_4()
+      throws Exception {
+    SumFitnessFunction fitFunc = new SumFitnessFunction();
+    fitFunc.m_error = 1;
+    fitFunc.setVerificationRate(2);
+    assertEquals(2, fitFunc.getVerificationRate());
+    Chromosome parent = createChromosome(new int[] {1, 2});
+    parent.setFitnessValueDirectly(4);
+    Chromosome child = (Chromosome) parent.clone();
+    child.setChangeSet(new ChangeSet(parent));
+    assertEquals(5, fitFunc.getFitnessValue(child), DELTA);
+    child.setChangeSet(new ChangeSet(parent));
+    try {
+      fitFunc.getFitnessValue(child);
+      fail();
+    }
+    catch (IllegalStateException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Mutated chromosomes are evaluated incrementally with the same result as
+   * the full evaluation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testMutation_0()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    SumFitnessFunction fitFunc = new SumFitnessFunction();
+    conf.setFitnessFunction(fitFunc);
+    conf.setPopulationSize(20);
+    Population pop = new Population(conf);
+    for (int i = 0; i < 20; i++) {
+      int[] values = new int[10];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = conf.getRandomGenerator().nextInt(100);
+      }
+      Chromosome chrom = createChromosome(values);
+      chrom.getFitnessValue();
+      pop.addChromosome(chrom);
+    }
+    List candidates = new Vector();
+    new MutationOperator(conf, 5).operate(pop, candidates);
+    new SwappingMutationOperator(conf, 5).operate(pop, candidates);
+    assertTrue(candidates.size() > 0);
+    fitFunc.m_full = 0;
+    for (int i = 0; i < candidates.size(); i++) {
+      Chromosome child = (Chromosome) candidates.get(i);
+      assertNotNull(child.getChangeSet());
+      child.setFitnessValueDirectly(FitnessFunction.NO_FITNESS_VALUE);
+      double fitness = child.getFitnessValue();
+      assertEquals(fitFunc.evaluateFully(child), fitness, DELTA);
+    }
+    assertEquals(candidates.size(), fitFunc.m_incremental);
+    assertEquals(candidates.size(), fitFunc.m_full);
+  }
+
+  private Chromosome createChromosome(int[] a_values)
+      throws Exception {
+    Gene[] genes = new Gene[a_values.length];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(conf, 0, 100);
+      genes[i].setAllele(new Integer(a_values[i]));
+    }
+    return new Chromosome(conf, genes);
+  }
+
+  /**
+   * Fitness is one plus the sum of all integer alleles.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private class SumFitnessFunction
+      extends IncrementalFitnessFunction {
+    public int m_full;
+
+    public int m_incremental;
+
+    public double m_error;
+
+    protected double evaluateFully(IChromosome a_subject) {
+      m_full++;
+      double sum = 1;
+      for (int i = 0; i < a_subject.size(); i++) {
+        sum += ( (Integer) a_subject.getGene(i).getAllele()).intValue();
+      }
+      return sum;
+    }
+
+    protected double evaluateDelta(IChromosome a_parent,
+                                   IChromosome a_subject, int[] a_loci) {
+      m_incremental++;
+      double delta = m_error;
+      for (int i = 0; i < a_loci.length; i++) {
+        delta += ( (Integer) a_subject.getGene(a_loci[i]).getAllele()).
+            intValue()
+            - ( (Integer) a_parent.getGene(a_loci[i]).getAllele()).intValue();
+      }
+      return delta;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap;
+
+import junit.framework.*;
+import org.jgap.impl.*;
+
+/**
+ * Tests the IslandGenotype class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class IslandGenotypeTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(IslandGenotypeTest.class);
+    return suite;
+  }
+
+  /**
+   * Synchronous migration with best-k to ring neighbour.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_0()
+      throws Exception {
+    IslandGenotype islands = new IslandGenotype(3, new IslandFactory("a"));
+    assertEquals(3, islands.getIslandCount());
+    assertTrue(islands.isSynchronousMigration());
+    assertTrue(islands.getMigrationPolicy() instanceof
+               BestToRingMigrationPolicy);
+    islands.setMigrationInterval(2);
+    islands.setMigrationSize(2);
+    islands.setThreads(2);
+    islands.evolve(5);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(5, islands.getGenerations(i));
+    }
+    // Two migrations, each 3 islands times 2 emigrants.
+    // -------------------------------------------------
+    assertEquals(12, islands.getMigrantCount());
+    assertFalse(islands.isStopped());
+    // Immigrants are bound to the configuration of the receiving island.
+    // ------------------------------------------------------------------
+    for (int i = 0; i < 3; i++) {
+      Genotype island = islands.getIsland(i);
+      for (IChromosome chrom : island.getPopulation().getChromosomes()) {
+        assertSame(island.getConfiguration(), chrom.getConfiguration());
+      }
+    }
+    IChromosome best = islands.getFittestChromosome();
+    assertNotNull(best);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(islands.getIsland(i).getFittestChromosome().getFitnessValue()
+                 <= best.getFitnessValue());
+    }
+  }
+
+  /**
+   * Asynchronous migration with random replacement.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_1()
+      throws Exception {
+    IslandGenotype islands = new IslandGenotype(3, new IslandFactory("b"));
+    islands.setSynchronousMigration(false);
+    islands.setMigrationPolicy(new RandomReplacementMigrationPolicy());
+    islands.setMigrationInterval(2);
+    islands.setMigrationSize(2);
+    islands.setThreads(3);
+    islands.evolve(5);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(5, islands.getGenerations(i));
+    }
+    // Emigrants of the last migration possibly have not been picked up.
+    // -----------------------------------------------------------------
+    assertTrue(islands.getMigrantCount() <= 12);
+    assertNotNull(islands.getFittestChromosome());
+  }
+
+  /**
+   * Reaching the target fitness stops all islands.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testStop_0()
+      throws Exception {
+    IslandGenotype islands = new IslandGenotype(2, new IslandFactory("c"));
+    islands.setTargetFitness(1.0d);
+    islands.evolve(20);
+    assertTrue(islands.isStopped());
+    for (int i = 0; i < 2; i++) {
+      assertTrue(islands.getGenerations(i) <= 1);
+    }
+  }
+
+  /**
+   * Islands sharing a configuration are not allowed.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0()
+      throws Exception {
+    final Genotype gen = new IslandFactory("d").createIsland(0);
+    try {
+      new IslandGenotype(2, new IIslandFactory() {
+        public Genotype createIsland(int a_index)
+            throws InvalidConfigurationException {
+          return new Genotype(gen.getConfiguration(), gen.getPopulation());
+        }
+      });
+      fail();
+    } catch (InvalidConfigurationException iex) {
+      ; //this is OK
+    }
+  }
+
+  class IslandFactory
+      implements IIslandFactory {
+    private String m_prefix;
+
+    public IslandFactory(String a_prefix) {
+      m_prefix = a_prefix;
+    }
+
+    public Genotype createIsland(int a_index)
+        throws InvalidConfigurationException {
+      String id = "IslandGenotypeTest_" + m_prefix + a_index;
+      Configuration conf = new DefaultConfiguration(id, id);
+      conf.setFitnessFunction(new SumFitness());
+      Gene[] genes = new Gene[3];
+      for (int i = 0; i < genes.length; i++) {
+        genes[i] = new IntegerGene(conf, 0, 20);
+      }
+      conf.setSampleChromosome(new Chromosome(conf, genes));
+      conf.setPopulationSize(20);
+      return Genotype.randomInitialGenotype(conf);
+    }
+  }
+
+  class SumFitness
+      extends FitnessFunction {
+    protected double evaluate(IChromosome a_subject) {
+      double sum = 1.0d;
+      for (int i = 0; i < a_subject.size(); i++) {
+        sum += ( (Integer) a_subject.getGene(i).getAllele()).intValue();
+      }
+      return sum;
+    }
+  }
+}
@@ -164,6 +164,32 @@ public abstract class JGAPTestCase
     return result;
   }
 
+  /**
+   * Writes the binary representation of an object and reads it into another
+   * one.
+   *
+   * @param a_source the object to write
+   * @param a_target the object to read into
+   * @return number of bytes written
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public int doBinaryCopy(IBinaryRepresentation a_source,
+                          IBinaryRepresentation a_target)
+      throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    a_source.writeTo(out);
+    out.flush();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.
+        toByteArray()));
+    a_target.readFrom(in);
+    assertEquals( -1, in.read());
+    return bytes.size();
+  }
+
   /**
    * Retrieves a nested (private) field, that is field2 from "field1.field2".
    *
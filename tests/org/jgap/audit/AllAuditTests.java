@@ -22,9 +22,12 @@ public class AllAuditTests
   public static Test suite() {
     TestSuite suite = new TestSuite("AllAuditTests");
     suite.addTest(EvaluatorTest.suite());
+    suite.addTest(EvolutionMetricsTest.suite());
+    suite.addTest(ExperimentRunnerTest.suite());
     suite.addTest(KeyedValueTest.suite());
     suite.addTest(KeyedValuesTest.suite());
     suite.addTest(KeyedValues2DTest.suite());
+    suite.addTest(LineageLogTest.suite());
     suite.addTest(PermutingConfigurationTest.suite());
     return suite;
   }
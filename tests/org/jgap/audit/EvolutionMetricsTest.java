@@ -0,0 +1,202 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import java.lang.management.*;
+import javax.management.*;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+import junit.framework.*;
+
+/**
+ * Tests the EvolutionMetrics class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class EvolutionMetricsTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(EvolutionMetricsTest.class);
+    return suite;
+  }
+
+  /**
+   * Timers sum up the time and count the calls per phase.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddTime_0()
+      throws Exception {
+    EvolutionMetrics metrics = new EvolutionMetrics();
+    assertEquals(0, metrics.getTotalNanos("a"));
+    assertEquals(0, metrics.getCalls("a"));
+    metrics.addTime("a", 100);
+    metrics.addTime("a", 50);
+    metrics.addTime("b", 7);
+    assertEquals(150, metrics.getTotalNanos("a"));
+    assertEquals(2, metrics.getCalls("a"));
+    assertEquals(7, metrics.getTotalNanos("b"));
+    String[] phases = metrics.getPhases();
+    assertEquals(2, phases.length);
+    assertEquals("a", phases[0]);
+    assertEquals("b", phases[1]);
+  }
+
+  /**
+   * Counters, gauges and the cache hit rate derived from the counters.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddCount_0()
+      throws Exception {
+    EvolutionMetrics metrics = new EvolutionMetrics();
+    assertTrue(Double.isNaN(metrics.getCacheHitRate()));
+    assertTrue(Double.isNaN(metrics.getGauge("g")));
+    metrics.addCount(IEvolutionMetrics.COUNT_CACHE_HITS, 3);
+    metrics.addCount(IEvolutionMetrics.COUNT_CACHE_MISSES, 1);
+    metrics.setGauge("g", 0.5d);
+    metrics.setGauge("g", 0.25d);
+    assertEquals(3, metrics.getCount(IEvolutionMetrics.COUNT_CACHE_HITS));
+    assertEquals(0.75d, metrics.getCacheHitRate(), DELTA);
+    assertEquals(0.25d, metrics.getGauge("g"), DELTA);
+    assertEquals(2, metrics.getCounters().length);
+    assertEquals(1, metrics.getGauges().length);
+    assertTrue(metrics.getReport().indexOf("g: 0.25") >= 0);
+    metrics.reset();
+    assertEquals(0, metrics.getCount(IEvolutionMetrics.COUNT_CACHE_HITS));
+    assertEquals(0, metrics.getCounters().length);
+    assertEquals(0, metrics.getGauges().length);
+  }
+
+  /**
+   * Diversity is only sampled every n-th generation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testIsDiversitySampled_0()
+      throws Exception {
+    EvolutionMetrics metrics = new EvolutionMetrics();
+    assertFalse(metrics.isDiversitySampled(0));
+    metrics.setDiversityInterval(3);
+    assertEquals(3, metrics.getDiversityInterval());
+    assertTrue(metrics.isDiversitySampled(0));
+    assertFalse(metrics.isDiversitySampled(1));
+    assertTrue(metrics.isDiversitySampled(6));
+  }
+
+  /**
+   * The metrics are accessible via the platform MBean server.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRegisterMBean_0()
+      throws Exception {
+    EvolutionMetrics metrics = new EvolutionMetrics();
+    String name = "org.jgap:type=EvolutionMetrics,name=test";
+    metrics.registerMBean(name);
+    try {
+      metrics.addCount("c", 4);
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      Object result = server.invoke(new ObjectName(name), "getCount",
+                                    new Object[] {"c"},
+                                    new String[] {String.class.getName()});
+      assertEquals(new Long(4), result);
+      try {
+        metrics.registerMBean(name);
+        fail();
+      } catch (IllegalStateException iex) {
+        ; //this is OK
+      }
+    } finally {
+      metrics.unregisterMBean();
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+        new ObjectName(name)));
+  }
+
+  /**
+   * Evolving with metrics registered records the phases of the breeder,
+   * evaluations, cache hits and diversity.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_0()
+      throws Exception {
+    Configuration.reset();
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new CachedFitnessFunction() {
+      protected double evaluate(IChromosome a_subject) {
+        return ( (Integer) a_subject.getGene(0).getAllele()).intValue() + 1;
+      }
+    });
+    conf.setSampleChromosome(new Chromosome(conf, new Gene[] {
+                                            new IntegerGene(conf, 0, 3)}));
+    conf.setPopulationSize(20);
+    EvolutionMetrics metrics = new EvolutionMetrics(1);
+    conf.setEvolutionMetrics(metrics);
+    assertSame(metrics, conf.getEvolutionMetrics());
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    genotype.evolve(3);
+    assertEquals(3, metrics.getCalls(IEvolutionMetrics.PHASE_GENERATION));
+    assertEquals(3, metrics.getCalls(IEvolutionMetrics.PHASE_SELECTION_AFTER));
+    assertEquals(6, metrics.getCalls(IEvolutionMetrics.PHASE_EVALUATION));
+    assertEquals(3, metrics.getCalls(IEvolutionMetrics.PHASE_OPERATOR
+                                     + CrossoverOperator.class.getName()));
+    assertTrue(metrics.getCount(IEvolutionMetrics.COUNT_EVALUATIONS) > 0);
+    assertTrue(metrics.getCount(IEvolutionMetrics.COUNT_CREATED) > 0);
+    // Only four different chromosomes exist, so the cache must be hit.
+    // ----------------------------------------------------------------
+    assertTrue(metrics.getCount(IEvolutionMetrics.COUNT_CACHE_HITS) > 0);
+    double diversity = metrics.getGauge(IEvolutionMetrics.GAUGE_DIVERSITY);
+    assertTrue(diversity > 0 && diversity <= 1);
+    assertEquals(genotype.getPopulation().size(),
+                 metrics.getGauge(IEvolutionMetrics.GAUGE_POPULATION_SIZE),
+                 DELTA);
+  }
+
+  /**
+   * Without metrics nothing is recorded.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_1()
+      throws Exception {
+    Configuration.reset();
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    conf.setSampleChromosome(new Chromosome(conf, new Gene[] {
+                                            new IntegerGene(conf, 0, 3)}));
+    conf.setPopulationSize(10);
+    assertNull(conf.getEvolutionMetrics());
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    genotype.evolve(2);
+    assertEquals(2, conf.getGenerationNr());
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+import junit.framework.*;
+
+/**
+ * Tests the ExperimentRunner class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ExperimentRunnerTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ExperimentRunnerTest.class);
+    return suite;
+  }
+
+  private Evaluator m_evaluator;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      Configuration.reset();
+      conf = new DefaultConfiguration();
+      PermutingConfiguration pconf = new PermutingConfiguration(conf);
+      pconf.addGeneticOperatorSlot(new CrossoverOperator(conf));
+      pconf.addGeneticOperatorSlot(new MutationOperator(conf));
+      pconf.addNaturalSelectorSlot(new BestChromosomesSelector(conf));
+      pconf.addRandomGeneratorSlot(new StockRandomGenerator());
+      pconf.addFitnessFunctionSlot(new TestFitnessFunction());
+      m_evaluator = new Evaluator(pconf);
+    } catch (InvalidConfigurationException iex) {
+      throw new RuntimeException(iex);
+    }
+  }
+
+  /**
+   * Permutation 0 reaches fitness 1 only, the others 10.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private class Factory
+      implements IExperimentFactory {
+    public Genotype createGenotype(Configuration a_permutation,
+                                   int a_permutationIndex, int a_run,
+                                   String a_id)
+        throws InvalidConfigurationException {
+      Configuration conf = new DefaultConfiguration(a_id, null);
+      final double fitness = a_permutationIndex == 0 ? 1 : 10;
+      conf.setFitnessFunction(new FitnessFunction() {
+        protected double evaluate(IChromosome a_subject) {
+          return fitness;
+        }
+      });
+      Gene[] genes = new Gene[] {
+          new IntegerGene(conf, 0, 10)};
+      conf.setSampleChromosome(new Chromosome(conf, genes));
+      conf.setPopulationSize(10);
+      return Genotype.randomInitialGenotype(conf);
+    }
+  }
+
+  /**
+   * All runs of all permutations are stored.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRun_0()
+      throws Exception {
+    ExperimentRunner runner = new ExperimentRunner(m_evaluator, new Factory(),
+        4, 5);
+    runner.setThreads(3);
+    runner.setSampleInterval(2);
+    runner.run();
+    assertEquals(3, runner.getPermutationCount());
+    for (int p = 0; p < 3; p++) {
+      assertFalse(runner.isStopped(p));
+      assertEquals(4, runner.getCompletedRuns(p));
+      assertEquals(4, m_evaluator.getNumberOfRuns(p));
+      double expected = p == 0 ? 1 : 10;
+      assertEquals(expected, runner.getMeanFitness(p), DELTA);
+      for (int run = 0; run < 4; run++) {
+        assertEquals(expected, m_evaluator.getValue(p, run, new Integer(p),
+            new Integer(2)).doubleValue(), DELTA);
+        assertEquals(expected, m_evaluator.getValue(p, run, new Integer(p),
+            new Integer(5)).doubleValue(), DELTA);
+        assertNull(m_evaluator.getValue(p, run, new Integer(p),
+                                        new Integer(3)));
+        assertEquals(5, m_evaluator.retrieveGenotype(p, run).generation);
+      }
+      assertEquals(expected, m_evaluator.calcPerformance(p).bestFitnessValue,
+                   DELTA);
+    }
+  }
+
+  /**
+   * The inferior permutation is stopped early.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRun_1()
+      throws Exception {
+    ExperimentRunner runner = new ExperimentRunner(m_evaluator, new Factory(),
+        20, 2);
+    runner.setThreads(2);
+    runner.setEarlyStopping(3, 2.0d);
+    runner.run();
+    assertTrue(runner.isStopped(0));
+    assertTrue(runner.getCompletedRuns(0) < 20);
+    assertEquals(runner.getCompletedRuns(0), m_evaluator.getNumberOfRuns(0));
+    assertNotNull(m_evaluator.calcPerformance(0));
+    for (int p = 1; p < 3; p++) {
+      assertFalse(runner.isStopped(p));
+      assertEquals(20, runner.getCompletedRuns(p));
+    }
+  }
+
+  /**
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSetEarlyStopping_0() {
+    ExperimentRunner runner = new ExperimentRunner(m_evaluator, new Factory(),
+        1, 1);
+    try {
+      runner.setEarlyStopping(1, 2.0d);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+}
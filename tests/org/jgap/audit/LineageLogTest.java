@@ -0,0 +1,227 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.audit;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+import junit.framework.*;
+
+/**
+ * Tests the LineageLog class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class LineageLogTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(LineageLogTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0()
+      throws Exception {
+    try {
+      new LineageLog(0);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    LineageLog log = new LineageLog(5);
+    assertEquals(5, log.getCapacity());
+    assertEquals(0, log.size());
+    assertEquals(0, log.getWritten());
+    assertNull(log.getParents(1));
+  }
+
+  /**
+   * Records are retained and queried by sequence number and ID.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRecord_0()
+      throws Exception {
+    LineageLog log = new LineageLog(10);
+    int op = log.getOperatorID(new Object());
+    assertEquals(0, op);
+    assertEquals("java.lang.Object", log.getOperatorName(op));
+    assertEquals(op, log.getOperatorID(new Object()));
+    assertEquals(1, log.getOperatorID("x"));
+    log.record(3, 1, 2, op, 7);
+    log.record(4, 3, LineageLog.NONE, 1, 8);
+    assertEquals(2, log.size());
+    assertEquals(3, log.getChildID(0));
+    assertEquals(1, log.getParentID(0, 1));
+    assertEquals(2, log.getParentID(0, 2));
+    assertEquals(op, log.getOperatorID(0));
+    assertEquals(7, log.getGeneration(0));
+    assertEquals(1, log.getOperatorID(1));
+    long[] parents = log.getParents(4);
+    assertEquals(3, parents[0]);
+    assertEquals(LineageLog.NONE, parents[1]);
+    long[] children = log.getChildren(3);
+    assertEquals(1, children.length);
+    assertEquals(4, children[0]);
+    Set<Long> ancestors = log.getAncestors(4);
+    assertEquals(3, ancestors.size());
+    assertTrue(ancestors.contains(new Long(1)));
+    assertTrue(ancestors.contains(new Long(2)));
+    assertTrue(ancestors.contains(new Long(3)));
+    try {
+      log.getChildID(2);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    try {
+      log.getParentID(0, 3);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * When the buffer is full, the oldest records are overwritten.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRecord_1()
+      throws Exception {
+    LineageLog log = new LineageLog(3);
+    for (int i = 1; i <= 5; i++) {
+      log.record(i + 10, i, LineageLog.NONE, 0, i);
+    }
+    assertEquals(5, log.getWritten());
+    assertEquals(3, log.size());
+    assertEquals(2, log.getFirst());
+    assertEquals(13, log.getChildID(2));
+    assertEquals(15, log.getChildID(4));
+    assertNull(log.getParents(12));
+    assertEquals(3, log.getParents(13)[0]);
+    try {
+      log.getChildID(1);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * IDs are assigned on first use and reset on cleanup.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetID_0()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    Chromosome chrom1 = new Chromosome(conf, new Gene[] {
+                                       new IntegerGene(conf)});
+    Chromosome chrom2 = (Chromosome) chrom1.clone();
+    LineageLog log = new LineageLog(3);
+    assertEquals(LineageLog.NONE, log.getID(null));
+    assertEquals(0, chrom1.getLineageID());
+    assertEquals(1, log.getID(chrom1));
+    assertEquals(1, log.getID(chrom1));
+    assertEquals(2, log.getID(chrom2));
+    assertEquals(1, chrom1.getLineageID());
+    chrom1.cleanup();
+    assertEquals(0, chrom1.getLineageID());
+  }
+
+  /**
+   * A memory-mapped log retains its records in the file.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRecord_2()
+      throws Exception {
+    File file = File.createTempFile("lineage", ".log");
+    try {
+      LineageLog log = new LineageLog(file, 4);
+      log.record(5, 6, 7, 0, 1);
+      assertEquals(6, log.getParents(5)[0]);
+      log.close();
+      assertEquals(4 * LineageLog.RECORD_SIZE, file.length());
+      DataInputStream in = new DataInputStream(new FileInputStream(file));
+      try {
+        assertEquals(5, in.readLong());
+        assertEquals(6, in.readLong());
+        assertEquals(7, in.readLong());
+      } finally {
+        in.close();
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Genetic operators record each offspring during evolution.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_0()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    conf.setSampleChromosome(new Chromosome(conf, new Gene[] {
+                                            new IntegerGene(conf, 0, 100),
+                                            new IntegerGene(conf, 0, 100)}));
+    conf.setPopulationSize(20);
+    LineageLog log = new LineageLog(10000);
+    conf.setLineageLog(log);
+    assertSame(log, conf.getLineageLog());
+    assertFalse(conf.isUniqueKeysActive());
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    genotype.evolve(3);
+    assertTrue(log.size() > 0);
+    int crossovers = 0;
+    for (long seq = log.getFirst(); seq < log.getWritten(); seq++) {
+      assertTrue(log.getChildID(seq) != LineageLog.NONE);
+      assertTrue(log.getParentID(seq, 1) != LineageLog.NONE);
+      assertTrue(log.getGeneration(seq) >= 0
+                 && log.getGeneration(seq) < 3);
+      if (log.getOperatorName(log.getOperatorID(seq)).equals(
+          CrossoverOperator.class.getName())) {
+        crossovers++;
+        assertTrue(log.getParentID(seq, 2) != LineageLog.NONE);
+      }
+    }
+    assertTrue(crossovers > 0);
+  }
+}
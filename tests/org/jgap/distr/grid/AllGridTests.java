@@ -10,6 +10,8 @@
 package org.jgap.distr.grid;
 
 import junit.framework.*;
+import org.jgap.distr.grid.gp.*;
+import org.jgap.distr.grid.local.*;
 
 /**
  * Test suite for all tests of package org.jgap.distr.grid.
@@ -22,6 +24,8 @@ public class AllGridTests
   public static Test suite() {
     TestSuite suite = new TestSuite("AllGridTests");
     suite.addTest(DefaultGenotypeInitializerTest.suite());
+    suite.addTest(AllGridGPTests.suite());
+    suite.addTest(AllGridLocalTests.suite());
     return suite;
   }
 }
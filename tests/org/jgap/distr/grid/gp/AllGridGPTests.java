@@ -0,0 +1,29 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import junit.framework.*;
+
+/**
+ * Test suite for all tests of package org.jgap.distr.grid.gp.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class AllGridGPTests
+    extends TestSuite {
+  public static Test suite() {
+    TestSuite suite = new TestSuite("AllGridGPTests");
+    suite.addTest(BinaryGridCodecTest.suite());
+    suite.addTest(EliteReturnStrategyGPTest.suite());
+    suite.addTest(EliteArchiveGPTest.suite());
+    return suite;
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+import org.homedns.dade.jcgrid.client.*;
+import org.homedns.dade.jcgrid.message.*;
+import org.jgap.distr.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+import org.jgap.gp.impl.*;
+import org.jgap.gp.terminal.*;
+import org.jgap.impl.*;
+import org.jgap.util.*;
+
+/**
+ * Tests the BinaryGridCodec class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class BinaryGridCodecTest
+    extends GPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(BinaryGridCodecTest.class);
+    return suite;
+  }
+
+  private GridConfig m_gridConfig;
+
+  private GridCodecDictionary m_dict;
+
+  private GPPopulation m_pop;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_gpconf.setPopulationSize(20);
+      m_gpconf.setGPFitnessEvaluator(new DeltaGPFitnessEvaluator());
+      m_gpconf.setFitnessFunction(new ConstantFitness());
+      m_gpconf.setRandomGenerator(new StockRandomGenerator());
+      Class[] types = new Class[] {
+          CommandGene.DoubleClass};
+      Class[][] argTypes = new Class[][] { {}
+      };
+      CommandGene[][] nodeSets = new CommandGene[][] { {
+          new Add(m_gpconf, CommandGene.DoubleClass),
+          new Multiply(m_gpconf, CommandGene.DoubleClass),
+          new Terminal(m_gpconf, CommandGene.DoubleClass, 1.0d, 100.0d),
+      }
+      };
+      m_gridConfig = new GridConfig();
+      m_gridConfig.setConfiguration(m_gpconf);
+      m_gridConfig.setNodeSets(nodeSets);
+      m_dict = new GridCodecDictionary();
+      m_dict.register("conf1", m_gridConfig);
+      GPGenotype gen = GPGenotype.randomInitialGenotype(m_gpconf, types,
+          argTypes, nodeSets, 30, false);
+      m_pop = gen.getGPPopulation();
+      m_pop.getGPProgram(2).setFitnessValue(7.5d);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private Object roundTrip(IGridCodec a_codec, Object a_obj)
+      throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    a_codec.encode(a_obj, bytes);
+    return a_codec.decode(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  private void assertSamePrograms(GPPopulation a_pop, GPPopulation a_pop2)
+      throws Exception {
+    assertEquals(a_pop.size(), a_pop2.size());
+    for (int i = 0; i < a_pop.size(); i++) {
+      assertEquals(a_pop.getGPProgram(i).toStringNorm(0),
+                   a_pop2.getGPProgram(i).toStringNorm(0));
+    }
+  }
+
+  /**
+   * A request wrapped in a grid message. The configuration is taken from the
+   * dictionary.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRequest_0()
+      throws Exception {
+    BinaryGridCodec codec = new BinaryGridCodec(m_dict);
+    JGAPRequestGP req = new JGAPRequestGP("session", "id1", 3, m_gridConfig,
+                                          m_pop);
+    req.setTitle("title");
+    req.setMinFitness(2.0d);
+    req.setRequestDate(new Date(12345L));
+    req.setRequesterInfo(new MasterInfo(false));
+    GridMessageWorkRequest msg = (GridMessageWorkRequest) roundTrip(codec,
+        new GridMessageWorkRequest(req));
+    JGAPRequestGP req2 = (JGAPRequestGP) msg.getWorkRequest();
+    assertSame(m_gridConfig, req2.getGridConfiguration());
+    assertEquals("session", req2.getSessionName());
+    assertEquals("id1", req2.getID());
+    assertEquals(3, req2.getChunk());
+    assertEquals("title", req2.getTitle());
+    assertNull(req2.getDescription());
+    assertEquals(2.0d, req2.getMinFitness(), DELTA);
+    assertEquals(12345L, req2.getRequestDate().getTime());
+    assertTrue(req2.getWorkerEvolveStrategy() instanceof
+               DefaultEvolveStrategyGP);
+    assertNotNull(req2.getRequesterInfo());
+    assertSamePrograms(m_pop, req2.getPopulation());
+  }
+
+  /**
+   * A compressed result including the fittest program.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testResult_0()
+      throws Exception {
+    BinaryGridCodec codec = new BinaryGridCodec(m_dict);
+    codec.setCompress(true);
+    assertTrue(codec.isCompress());
+    JGAPResultGP res = new JGAPResultGP("session", "id2", 1, m_pop, 20);
+    res.setFittest(m_pop.getGPProgram(2));
+    res.setDurationComputation(500);
+    res.setGenericData("data");
+    JGAPResultGP res2 = (JGAPResultGP) roundTrip(codec, res);
+    assertEquals("id2", res2.getID());
+    assertEquals(1, res2.getChunk());
+    assertEquals(20, res2.getUnitDone());
+    assertEquals(500, res2.getDurationComputation());
+    assertEquals("data", res2.getGenericData());
+    assertNull(res2.getResponseDate());
+    assertSamePrograms(m_pop, res2.getPopulation());
+    assertEquals(m_pop.getGPProgram(2).toStringNorm(0),
+                 res2.getFittest().toStringNorm(0));
+    assertEquals(7.5d, ( (GPProgram) res2.getFittest()).
+                 getFitnessValueDirectly(), DELTA);
+  }
+
+  /**
+   * The binary format is much smaller than the string representation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSize_0()
+      throws Exception {
+    JGAPResultGP res = new JGAPResultGP("session", "id2", 1, m_pop, 20);
+    BinaryGridCodec codec = new BinaryGridCodec(m_dict);
+    ByteArrayOutputStream bin = new ByteArrayOutputStream();
+    codec.encode(res, bin);
+    assertTrue(bin.size() < m_pop.getPersistentRepresentation().length() / 4);
+    codec.setCompress(true);
+    ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+    codec.encode(res, zipped);
+    assertTrue(zipped.size() < bin.size());
+  }
+
+  /**
+   * Data not in the binary format as well as unsupported objects are handled
+   * by the fallback codec.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testFallback_0()
+      throws Exception {
+    SerializingCodec fallback = new SerializingCodec();
+    BinaryGridCodec codec = new BinaryGridCodec(m_dict, fallback);
+    assertSame(fallback, codec.getFallback());
+    MasterInfo info = new MasterInfo(false);
+    info.m_IPAddress = "1.2.3.4";
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    fallback.encode(info, bytes);
+    MasterInfo info2 = (MasterInfo) codec.decode(new ByteArrayInputStream(
+        bytes.toByteArray()));
+    assertEquals("1.2.3.4", info2.m_IPAddress);
+    info2 = (MasterInfo) roundTrip(codec, info);
+    assertEquals("1.2.3.4", info2.m_IPAddress);
+    assertEquals(2, fallback.m_decoded);
+    // Binary data is not passed to the fallback.
+    // ------------------------------------------
+    roundTrip(codec, new JGAPResultGP("session", "id2", 1, m_pop, 20));
+    assertEquals(2, fallback.m_decoded);
+  }
+
+  /**
+   * Configurations not registered cannot be written or read.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testDictionary_0()
+      throws Exception {
+    BinaryGridCodec codec = new BinaryGridCodec(m_dict);
+    JGAPRequestGP req = new JGAPRequestGP("session", "id1", 3, new
+                                          GridConfig());
+    try {
+      codec.encode(req, new ByteArrayOutputStream());
+      fail();
+    } catch (NotSerializableException nex) {
+      ; //this is OK
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    codec.encode(new JGAPRequestGP("session", "id1", 3, m_gridConfig), bytes);
+    try {
+      new BinaryGridCodec(new GridCodecDictionary()).decode(new
+          ByteArrayInputStream(bytes.toByteArray()));
+      fail();
+    } catch (InvalidObjectException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Files written via PersistableObject with the codec of the grid
+   * configuration.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPersistable_0()
+      throws Exception {
+    SerializingCodec fallback = new SerializingCodec();
+    BinaryGridCodec codec = new BinaryGridCodec(m_dict, fallback);
+    m_gridConfig.setGridCodec(codec);
+    assertSame(codec, m_gridConfig.getGridCodec());
+    File f = File.createTempFile("jgap", ".jgap");
+    try {
+      PersistableObject po = new PersistableObject(f,
+          m_gridConfig.getGridCodec());
+      po.setObject(new JGAPResultGP("session", "id2", 1, m_pop, 20));
+      po.save(false, JGAPClientGP.FIELDSTOSKIP);
+      DataInputStream in = new DataInputStream(new FileInputStream(f));
+      try {
+        assertEquals(BinaryGridCodec.MAGIC, in.readInt());
+      } finally {
+        in.close();
+      }
+      JGAPResultGP result = (JGAPResultGP) new PersistableObject(f, codec).
+          load();
+      assertSamePrograms(m_pop, result.getPopulation());
+      assertEquals(0, fallback.m_decoded);
+      // Objects not supported by the binary format go to the fallback.
+      // ---------------------------------------------------------------
+      MasterInfo info = new MasterInfo(false);
+      info.m_IPAddress = "1.2.3.4";
+      po.setObject(info);
+      po.save();
+      info = (MasterInfo) new PersistableObject(f, codec).load();
+      assertEquals("1.2.3.4", info.m_IPAddress);
+      assertEquals(1, fallback.m_decoded);
+      // Unreadable files result in null, as without a codec.
+      // -----------------------------------------------------
+      f.delete();
+      assertNull(new PersistableObject(f, codec).load());
+    } finally {
+      f.delete();
+    }
+  }
+
+  class ConstantFitness
+      extends GPFitnessFunction {
+    protected double evaluate(IGPProgram a_subject) {
+      return 1.0d;
+    }
+  }
+
+  class SerializingCodec
+      implements IGridCodec {
+    int m_decoded;
+
+    public void encode(Object a_obj, OutputStream a_out)
+        throws Exception {
+      ObjectOutputStream oos = new ObjectOutputStream(a_out);
+      oos.writeObject(a_obj);
+      oos.flush();
+    }
+
+    public Object decode(InputStream a_in)
+        throws Exception {
+      m_decoded++;
+      return new ObjectInputStream(a_in).readObject();
+    }
+  }
+
+  public static class GridConfig
+      extends GridConfigurationGPBase {
+    public void initialize(GridNodeClientConfig a_gridconfig) {
+    }
+
+    public void validate() {
+    }
+  }
+}
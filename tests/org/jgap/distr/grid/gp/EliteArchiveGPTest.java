@@ -0,0 +1,144 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.util.*;
+
+import junit.framework.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+import org.jgap.gp.impl.*;
+import org.jgap.gp.terminal.*;
+import org.jgap.impl.*;
+
+/**
+ * Tests the EliteArchiveGP and MigrantSplitStrategyGP classes.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class EliteArchiveGPTest
+    extends GPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(EliteArchiveGPTest.class);
+    return suite;
+  }
+
+  private GPPopulation m_pop;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_gpconf.setPopulationSize(20);
+      m_gpconf.setGPFitnessEvaluator(new DeltaGPFitnessEvaluator());
+      m_gpconf.setFitnessFunction(new ConstantFitness());
+      m_gpconf.setRandomGenerator(new StockRandomGenerator());
+      Class[] types = new Class[] {
+          CommandGene.DoubleClass};
+      Class[][] argTypes = new Class[][] { {}
+      };
+      CommandGene[][] nodeSets = new CommandGene[][] { {
+          new Add(m_gpconf, CommandGene.DoubleClass),
+          new Multiply(m_gpconf, CommandGene.DoubleClass),
+          new Terminal(m_gpconf, CommandGene.DoubleClass, 1.0d, 100.0d),
+      }
+      };
+      // The archive holds equal programs only once, thus make sure that all
+      // programs are distinct.
+      // ---------------------------------------------------------------------
+      Set<String> keys = new HashSet<String>();
+      do {
+        GPGenotype gen = GPGenotype.randomInitialGenotype(m_gpconf, types,
+            argTypes, nodeSets, 30, false);
+        m_pop = gen.getGPPopulation();
+        keys.clear();
+        for (int i = 0; i < m_pop.size(); i++) {
+          keys.add(m_pop.getGPProgram(i).toStringNorm(0));
+        }
+      } while (keys.size() < m_pop.size());
+      // Lower fitness is better, the last program is the fittest.
+      // ---------------------------------------------------------
+      for (int i = 0; i < m_pop.size(); i++) {
+        m_pop.getGPProgram(i).setFitnessValue(m_pop.size() - i);
+      }
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * The archive keeps the fittest distinct programs.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAdd_0()
+      throws Exception {
+    EliteArchiveGP archive = new EliteArchiveGP(m_gpconf, 3);
+    assertNull(archive.getFittest());
+    assertNull(archive.getPopulation());
+    assertTrue(archive.add(m_pop.getGPProgram(10)));
+    assertFalse(archive.add(m_pop.getGPProgram(10)));
+    JGAPResultGP res = new JGAPResultGP("session", "id", 0, m_pop, 1);
+    res.setStatistics(new GPPopulationStatistics(m_pop));
+    archive.add(res);
+    assertEquals(3, archive.size());
+    assertSame(res.getStatistics(), archive.getLastStatistics());
+    IGPProgram[] programs = archive.getPrograms();
+    assertSame(m_pop.getGPProgram(19), programs[0]);
+    assertSame(m_pop.getGPProgram(18), programs[1]);
+    assertSame(m_pop.getGPProgram(17), programs[2]);
+    assertSame(programs[0], archive.getFittest());
+    assertFalse(archive.add(m_pop.getGPProgram(0)));
+    GPPopulation pop = archive.getPopulation();
+    assertEquals(3, pop.size());
+    assertSame(programs[2], pop.getGPProgram(2));
+  }
+
+  /**
+   * Each request gets the fittest program plus different further migrants.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSplit_0()
+      throws Exception {
+    JGAPRequestGP req = new JGAPRequestGP("session", "id", 0,
+        new BinaryGridCodecTest.GridConfig(), m_pop);
+    req.setConfiguration(m_gpconf);
+    JGAPRequestGP[] requests = new MigrantSplitStrategyGP(4, 3).split(req);
+    assertEquals(4, requests.length);
+    for (int j = 0; j < requests.length; j++) {
+      assertEquals("id_" + j, requests[j].getID());
+      assertEquals(j, requests[j].getChunk());
+      GPPopulation pop = requests[j].getPopulation();
+      assertEquals(3, pop.size());
+      assertSame(m_pop.getGPProgram(19), pop.getGPProgram(0));
+      assertSame(m_pop.getGPProgram(18 - 2 * j), pop.getGPProgram(1));
+      assertSame(m_pop.getGPProgram(17 - 2 * j), pop.getGPProgram(2));
+    }
+    // Without population, the workers initialize all programs.
+    // --------------------------------------------------------
+    req.setPopulation(null);
+    requests = new MigrantSplitStrategyGP(2, 3).split(req);
+    assertTrue(requests[1].getPopulation().isFirstEmpty());
+  }
+
+  class ConstantFitness
+      extends GPFitnessFunction {
+    protected double evaluate(IGPProgram a_subject) {
+      return 1.0d;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.gp;
+
+import java.io.*;
+
+import junit.framework.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+import org.jgap.gp.impl.*;
+import org.jgap.gp.terminal.*;
+import org.jgap.impl.*;
+
+/**
+ * Tests the EliteReturnStrategyGP and GPPopulationStatistics classes.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class EliteReturnStrategyGPTest
+    extends GPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(EliteReturnStrategyGPTest.class);
+    return suite;
+  }
+
+  private GPPopulation m_pop;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_gpconf.setPopulationSize(20);
+      m_gpconf.setGPFitnessEvaluator(new DeltaGPFitnessEvaluator());
+      m_gpconf.setFitnessFunction(new ConstantFitness());
+      m_gpconf.setRandomGenerator(new StockRandomGenerator());
+      Class[] types = new Class[] {
+          CommandGene.DoubleClass};
+      Class[][] argTypes = new Class[][] { {}
+      };
+      CommandGene[][] nodeSets = new CommandGene[][] { {
+          new Add(m_gpconf, CommandGene.DoubleClass),
+          new Multiply(m_gpconf, CommandGene.DoubleClass),
+          new Terminal(m_gpconf, CommandGene.DoubleClass, 1.0d, 100.0d),
+      }
+      };
+      GPGenotype gen = GPGenotype.randomInitialGenotype(m_gpconf, types,
+          argTypes, nodeSets, 30, false);
+      m_pop = gen.getGPPopulation();
+      // Lower fitness is better, the last program is the fittest.
+      // ---------------------------------------------------------
+      for (int i = 0; i < m_pop.size(); i++) {
+        m_pop.getGPProgram(i).setFitnessValue(m_pop.size() - i);
+      }
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Only the fittest programs are returned, plus statistics of the whole
+   * population.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAssembleResult_0()
+      throws Exception {
+    JGAPRequestGP req = new JGAPRequestGP("session", "id1", 4,
+        new BinaryGridCodecTest.GridConfig(), m_pop);
+    EliteReturnStrategyGP strategy = new EliteReturnStrategyGP(3);
+    assertEquals(3, strategy.getEliteSize());
+    JGAPResultGP res = strategy.assembleResult(req, null);
+    assertEquals("id1", res.getID());
+    assertEquals(4, res.getChunk());
+    GPPopulation elite = res.getPopulation();
+    assertEquals(3, elite.size());
+    for (int i = 0; i < 3; i++) {
+      assertSame(m_pop.getGPProgram(19 - i), elite.getGPProgram(i));
+    }
+    // The population itself is not reordered.
+    // ---------------------------------------
+    assertEquals(20.0d, m_pop.getGPProgram(0).getFitnessValue(), DELTA);
+    GPPopulationStatistics stats = res.getStatistics();
+    assertEquals(20, stats.getSize());
+    assertEquals(20, stats.getEvaluated());
+    assertEquals(1.0d, stats.getBestFitness(), DELTA);
+    assertEquals(20.0d, stats.getWorstFitness(), DELTA);
+    assertEquals(10.5d, stats.getMeanFitness(), DELTA);
+    assertEquals(Math.sqrt(399 / 12.0d), stats.getFitnessDeviation(), DELTA);
+    assertTrue(stats.getMeanNodes() >= 1);
+  }
+
+  /**
+   * Populations with empty slots and missing populations.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAssembleResult_1()
+      throws Exception {
+    GPPopulation pop = new GPPopulation(m_gpconf, 5);
+    pop.setGPProgram(0, m_pop.getGPProgram(0));
+    pop.setGPProgram(1, m_pop.getGPProgram(1));
+    JGAPRequestGP req = new JGAPRequestGP("session", "id1", 4,
+        new BinaryGridCodecTest.GridConfig(), pop);
+    JGAPResultGP res = new EliteReturnStrategyGP(10).assembleResult(req, null);
+    assertEquals(2, res.getPopulation().size());
+    assertSame(m_pop.getGPProgram(1), res.getPopulation().getGPProgram(0));
+    assertEquals(2, res.getStatistics().getSize());
+    req.setPopulation(null);
+    res = new EliteReturnStrategyGP(10).assembleResult(req, null);
+    assertNull(res.getPopulation());
+    assertNull(res.getStatistics());
+    try {
+      new EliteReturnStrategyGP(0);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * The statistics are kept by the binary codec.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testCodec_0()
+      throws Exception {
+    BinaryGridCodecTest.GridConfig gridConfig = new BinaryGridCodecTest.
+        GridConfig();
+    gridConfig.setConfiguration(m_gpconf);
+    gridConfig.setNodeSets(m_pop.getGPProgram(0).getNodeSets());
+    GridCodecDictionary dict = new GridCodecDictionary();
+    dict.register("conf", gridConfig);
+    JGAPRequestGP req = new JGAPRequestGP("session", "id1", 4, gridConfig,
+                                          m_pop);
+    JGAPResultGP res = new EliteReturnStrategyGP(2).assembleResult(req, null);
+    BinaryGridCodec codec = new BinaryGridCodec(dict);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    codec.encode(res, bytes);
+    JGAPResultGP res2 = (JGAPResultGP) codec.decode(new ByteArrayInputStream(
+        bytes.toByteArray()));
+    assertEquals(2, res2.getPopulation().size());
+    assertEquals(20, res2.getStatistics().getSize());
+    assertEquals(1.0d, res2.getStatistics().getBestFitness(), DELTA);
+  }
+
+  class ConstantFitness
+      extends GPFitnessFunction {
+    protected double evaluate(IGPProgram a_subject) {
+      return 1.0d;
+    }
+  }
+}
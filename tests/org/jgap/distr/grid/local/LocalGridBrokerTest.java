@@ -0,0 +1,374 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.util.*;
+
+import org.homedns.dade.jcgrid.*;
+import org.homedns.dade.jcgrid.message.*;
+import org.homedns.dade.jcgrid.worker.*;
+import org.jgap.*;
+import org.jgap.distr.grid.*;
+import org.jgap.distr.grid.gp.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the LocalGridBroker class together with GridBrokerClientMediator and
+ * GridBrokerWorkers.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class LocalGridBrokerTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    return new TestSuite(LocalGridBrokerTest.class);
+  }
+
+  public void setUp() {
+    super.setUp();
+    FailingWorker.m_failures = 1;
+  }
+
+  /**
+   * A request is handed out only once as long as it is leased.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testLease_0()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker("test");
+    String key = broker.submitRequest(new byte[] {1, 2});
+    assertEquals(1, broker.listRequests().size());
+    GridBrokerEntry entry = broker.takeRequest("w1", 100, 60000);
+    assertEquals(key, entry.getKey());
+    assertEquals(1, entry.getDeliveries());
+    assertEquals(2, entry.getData()[1]);
+    assertNull(broker.takeRequest("w1", 10, 60000));
+    // Released requests are handed out again.
+    // ---------------------------------------
+    broker.releaseRequest(key, "w1");
+    entry = broker.takeRequest("w1", 100, 60000);
+    assertEquals(2, entry.getDeliveries());
+    // Submitting the result completes the request.
+    // --------------------------------------------
+    broker.submitResult(key, new byte[] {3});
+    assertEquals(0, broker.listRequests().size());
+    assertEquals(1, broker.listResults().size());
+    broker.releaseRequest(key, "w1");
+    assertNull(broker.takeRequest("w1", 10, 60000));
+  }
+
+  /**
+   * Requests with expired lease are handed out again.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testLease_1()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker();
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 30));
+    GridBrokerEntry entry = broker.takeRequest("w1", 2000, 30);
+    assertEquals(key, entry.getKey());
+    assertEquals(2, entry.getDeliveries());
+  }
+
+  /**
+   * A worker whose lease expired cannot release the lease of the worker
+   * computing the request now.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testLease_2()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker();
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 30));
+    assertNotNull(broker.takeRequest("w2", 2000, 60000));
+    broker.releaseRequest(key, "w1");
+    assertNull(broker.takeRequest("w3", 10, 60000));
+    broker.releaseRequest(key, "w2");
+    assertEquals(3, broker.takeRequest("w3", 100, 60000).getDeliveries());
+  }
+
+  /**
+   * Requests released too often are given up, late results still accepted.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testFailed_0()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker();
+    assertEquals(LocalGridBroker.DEFAULT_MAX_DELIVERIES,
+                 broker.getMaxDeliveries());
+    broker.setMaxDeliveries(2);
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 60000));
+    broker.releaseRequest(key, "w1");
+    assertEquals(0, broker.listFailedRequests().size());
+    assertEquals(2, broker.takeRequest("w1", 100, 60000).getDeliveries());
+    broker.releaseRequest(key, "w1");
+    assertNull(broker.takeRequest("w1", 10, 60000));
+    assertEquals(0, broker.listRequests().size());
+    assertEquals(Arrays.asList(new String[] {key}),
+                 broker.listFailedRequests());
+    broker.submitResult(key, new byte[] {2});
+    assertEquals(0, broker.listFailedRequests().size());
+    assertEquals(1, broker.listResults().size());
+  }
+
+  /**
+   * Requests whose lease expired too often are given up.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testFailed_1()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker();
+    broker.setMaxDeliveries(1);
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 30));
+    assertNull(broker.takeRequest("w1", 200, 30));
+    assertEquals(Arrays.asList(new String[] {key}),
+                 broker.listFailedRequests());
+    assertTrue(broker.remove(key));
+    assertEquals(0, broker.listFailedRequests().size());
+  }
+
+  /**
+   * Results must be acknowledged, otherwise they are handed out again.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testResult_0()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker();
+    String key1 = broker.submitRequest(new byte[] {1});
+    String key2 = broker.submitRequest(new byte[] {2});
+    broker.submitResult(key2, new byte[] {12});
+    broker.submitResult(key1, new byte[] {11});
+    // Duplicate results are ignored.
+    // ------------------------------
+    broker.submitResult(key1, new byte[] {99});
+    assertEquals(Arrays.asList(new String[] {key2, key1}),
+                 broker.listResults());
+    GridBrokerEntry entry = broker.takeResult(key1, 20);
+    assertEquals(11, entry.getData()[0]);
+    assertNull(broker.takeResult(key1, 20));
+    entry = broker.takeResult(100, 20);
+    assertEquals(key2, entry.getKey());
+    broker.acknowledgeResult(key2);
+    entry = broker.takeResult(2000, 20);
+    assertEquals(key1, entry.getKey());
+    assertEquals(2, entry.getDeliveries());
+    assertTrue(broker.remove(key1));
+    assertFalse(broker.remove(key1));
+    assertNull(broker.takeResult(100, 20));
+    assertEquals(0, broker.listResults().size());
+  }
+
+  /**
+   * Requests sent via the mediator are computed by the workers.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWorkers_0()
+      throws Exception {
+    LocalGridBroker broker = new LocalGridBroker();
+    runWorkers(broker, broker);
+  }
+
+  /**
+   * A request failing on every worker is given up after the maximum number of
+   * deliveries and reported via the mediator.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWorkers_1()
+      throws Exception {
+    FailingWorker.m_failures = Integer.MAX_VALUE;
+    LocalGridBroker broker = new LocalGridBroker();
+    broker.setMaxDeliveries(3);
+    IGridCodec codec = new SerializationGridCodec();
+    GridBrokerClientMediator mediator = new GridBrokerClientMediator(broker,
+        codec);
+    GridBrokerWorkers workers = new GridBrokerWorkers(broker, codec,
+        FailingWorker.class, 2);
+    workers.setPollMillis(50);
+    workers.start();
+    try {
+      MessageContext context = new MessageContext(JGAPClientGP.MODULE_CS,
+          JGAPClientGP.CONTEXT_WORK_REQUEST, JGAPClientGP.CONTEXT_ID_EMPTY);
+      mediator.send(new GridMessageWorkRequest(new SquareRequest(3)), context,
+                    null);
+      context = new MessageContext(JGAPClientGP.MODULE_WS,
+                                   JGAPClientGP.CONTEXT_WORK_RESULT,
+                                   JGAPClientGP.CONTEXT_ID_EMPTY);
+      assertNull(mediator.getGridMessage(context, null, 1, 0, true));
+      assertEquals(1, mediator.listFailedRequests().size());
+      assertEquals(0, broker.listRequests().size());
+    } finally {
+      workers.stop();
+    }
+    assertEquals(3, workers.getFailedCount());
+    assertEquals(0, workers.getProcessedCount());
+  }
+
+  /**
+   * Results backed up by the mediator can be decoded again.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBackupResult_0()
+      throws Exception {
+    File dir = File.createTempFile("jgapbackup", "");
+    dir.delete();
+    IGridCodec codec = new SerializationGridCodec();
+    GridBrokerClientMediator mediator = new GridBrokerClientMediator(new
+        LocalGridBroker(), codec);
+    mediator.setBackupDirectory(dir.getPath());
+    try {
+      mediator.backupResult(new SquareResult(49), "good", "fitness_1");
+      mediator.backupResult(new SquareResult(64), "good", "fitness_1");
+      File[] files = new File(dir, "good").listFiles();
+      assertEquals(2, files.length);
+      int sum = 0;
+      for (File file : files) {
+        assertTrue(file.getName().startsWith("fitness_1_"));
+        InputStream in = new FileInputStream(file);
+        try {
+          sum += ( (SquareResult) codec.decode(in)).m_square;
+        } finally {
+          in.close();
+        }
+        file.delete();
+      }
+      assertEquals(113, sum);
+    } finally {
+      new File(dir, "good").delete();
+      dir.delete();
+    }
+    // Backups can be switched off.
+    // ----------------------------
+    mediator.setBackupDirectory(null);
+    mediator.backupResult(new SquareResult(1), "good", "fitness_1");
+    assertFalse(dir.exists());
+  }
+
+  static void runWorkers(IGridBroker a_clientBroker,
+                         IGridBroker a_workerBroker)
+      throws Exception {
+    IGridCodec codec = new SerializationGridCodec();
+    GridBrokerClientMediator mediator = new GridBrokerClientMediator(
+        a_clientBroker, codec);
+    GridBrokerWorkers workers = new GridBrokerWorkers(a_workerBroker, codec,
+        FailingWorker.class, 3);
+    workers.setPollMillis(50);
+    workers.start();
+    try {
+      MessageContext context = new MessageContext(JGAPClientGP.MODULE_CS,
+          JGAPClientGP.CONTEXT_WORK_REQUEST, JGAPClientGP.CONTEXT_ID_EMPTY);
+      for (int i = 0; i < 10; i++) {
+        mediator.send(new GridMessageWorkRequest(new SquareRequest(i)), context,
+                      null);
+      }
+      context = new MessageContext(JGAPClientGP.MODULE_WS,
+                                   JGAPClientGP.CONTEXT_WORK_RESULT,
+                                   JGAPClientGP.CONTEXT_ID_EMPTY);
+      int sum = 0;
+      for (int i = 0; i < 10; i++) {
+        GridMessageWorkResult msg = (GridMessageWorkResult) mediator.
+            getGridMessage(context, null, 10, 0, true);
+        assertNotNull(msg);
+        sum += ( (SquareResult) msg.getWorkResult()).m_square;
+      }
+      assertEquals(285, sum);
+      assertEquals(0, mediator.listRequests(context, null, null).size());
+      assertEquals(0, mediator.listResults(context, null, null).size());
+    } finally {
+      workers.stop();
+    }
+    assertEquals(10, workers.getProcessedCount());
+    // The failed request was computed again.
+    // --------------------------------------
+    assertEquals(1, workers.getFailedCount());
+  }
+
+  public static class SquareRequest
+      extends WorkRequest {
+    int m_value;
+
+    public SquareRequest(int a_value) {
+      super("test", 0);
+      m_value = a_value;
+    }
+  }
+
+  public static class SquareResult
+      extends WorkResult {
+    int m_square;
+
+    public SquareResult(int a_square) {
+      super("test", 0);
+      m_square = a_square;
+    }
+
+    public long getUnitDone() {
+      return 1;
+    }
+  }
+
+  public static class FailingWorker
+      implements Worker {
+    static int m_failures;
+
+    public WorkResult doWork(WorkRequest a_req, String a_workDir)
+        throws Exception {
+      synchronized (FailingWorker.class) {
+        if (m_failures > 0) {
+          m_failures--;
+          throw new Exception("Failure for testing");
+        }
+      }
+      int value = ( (SquareRequest) a_req).m_value;
+      return new SquareResult(value * value);
+    }
+  }
+}
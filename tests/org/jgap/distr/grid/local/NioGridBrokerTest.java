@@ -0,0 +1,210 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.homedns.dade.jcgrid.*;
+import org.homedns.dade.jcgrid.message.*;
+import org.homedns.dade.jcgrid.worker.*;
+import org.jgap.*;
+import org.jgap.distr.grid.gp.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the classes NioGridBrokerServer and NioGridBroker.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NioGridBrokerTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    return new TestSuite(NioGridBrokerTest.class);
+  }
+
+  private NioGridBrokerServer m_server;
+
+  private NioGridBroker m_client;
+
+  public void setUp() {
+    super.setUp();
+    LocalGridBrokerTest.FailingWorker.m_failures = 1;
+    try {
+      m_server = new NioGridBrokerServer(new LocalGridBroker(), 0);
+      m_server.start();
+      m_client = new NioGridBroker("127.0.0.1", m_server.getPort());
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  public void tearDown()
+      throws Exception {
+    m_client.close();
+    m_server.stop();
+    super.tearDown();
+  }
+
+  /**
+   * All operations work via the socket.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperations_0()
+      throws Exception {
+    byte[] large = new byte[100000];
+    large[99999] = 7;
+    String key = m_client.submitRequest(large);
+    assertEquals(1, m_client.listRequests().size());
+    assertEquals(key, m_client.listRequests().get(0));
+    GridBrokerEntry entry = m_client.takeRequest("w1", 1000, 60000);
+    assertEquals(key, entry.getKey());
+    assertEquals(100000, entry.getData().length);
+    assertEquals(7, entry.getData()[99999]);
+    assertNull(m_client.takeRequest("w1", 10, 60000));
+    m_client.releaseRequest(key, "w1");
+    entry = m_client.takeRequest("w1", 1000, 60000);
+    assertEquals(2, entry.getDeliveries());
+    m_client.submitResult(key, new byte[] {5});
+    assertEquals(0, m_client.listRequests().size());
+    assertEquals(1, m_client.listResults().size());
+    entry = m_client.takeResult(key, 60000);
+    assertEquals(5, entry.getData()[0]);
+    assertNull(m_client.takeResult(100, 60000));
+    m_client.acknowledgeResult(key);
+    assertEquals(0, m_client.listResults().size());
+    assertFalse(m_client.remove(key));
+    assertEquals(0, m_client.listFailedRequests().size());
+  }
+
+  /**
+   * Client and workers with separate connections, workers waiting for
+   * requests concurrently.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWorkers_0()
+      throws Exception {
+    NioGridBroker workerClient = new NioGridBroker("127.0.0.1",
+        m_server.getPort());
+    try {
+      LocalGridBrokerTest.runWorkers(m_client, workerClient);
+    } finally {
+      workerClient.close();
+    }
+  }
+
+  /**
+   * Stopping the workers while they compute requests neither loses the
+   * requests nor the connection: a worker ignoring the interrupt submits its
+   * result, one aborting gives the request back.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testStop_0()
+      throws Exception {
+    NioGridBroker workerClient = new NioGridBroker("127.0.0.1",
+        m_server.getPort());
+    try {
+      IGridCodec codec = new SerializationGridCodec();
+      SlowWorker.m_started = new CountDownLatch(2);
+      GridBrokerWorkers workers = new GridBrokerWorkers(workerClient, codec,
+          SlowWorker.class, 2);
+      workers.setPollMillis(50);
+      workers.start();
+      String[] keys = new String[2];
+      for (int i = 0; i < keys.length; i++) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.encode(new GridMessageWorkRequest(new LocalGridBrokerTest.
+            SquareRequest(i)), bytes);
+        keys[i] = m_client.submitRequest(bytes.toByteArray());
+      }
+      assertTrue(SlowWorker.m_started.await(10, TimeUnit.SECONDS));
+      workers.stop();
+      // Request 0 was computed despite the interrupt.
+      // ---------------------------------------------
+      GridBrokerEntry result = m_client.takeResult(keys[0], 60000);
+      assertNotNull(result);
+      GridMessageWorkResult msg = (GridMessageWorkResult) codec.decode(new
+          ByteArrayInputStream(result.getData()));
+      assertEquals(0, ( (LocalGridBrokerTest.SquareResult) msg.getWorkResult()).
+                   m_square);
+      // Request 1 was aborted and is available again.
+      // ---------------------------------------------
+      assertEquals(1, m_client.listRequests().size());
+      GridBrokerEntry entry = m_client.takeRequest("w9", 1000, 60000);
+      assertEquals(keys[1], entry.getKey());
+      assertEquals(2, entry.getDeliveries());
+      assertEquals(0, workers.getFailedCount());
+      // The connection of the workers is still usable.
+      // ----------------------------------------------
+      assertEquals(1, workerClient.listResults().size());
+    } finally {
+      workerClient.close();
+    }
+  }
+
+  /**
+   * Calls fail after the connection was closed.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testClose_0()
+      throws Exception {
+    m_server.stop();
+    try {
+      m_client.takeRequest("w1", 5000, 1000);
+      fail();
+    } catch (java.io.IOException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Computes until interrupted. For request 0 the interrupt is ignored and
+   * the computation continues for a while, request 1 is aborted.
+   */
+  public static class SlowWorker
+      implements Worker {
+    static CountDownLatch m_started;
+
+    public WorkResult doWork(WorkRequest a_req, String a_workDir)
+        throws Exception {
+      int value = ( (LocalGridBrokerTest.SquareRequest) a_req).m_value;
+      m_started.countDown();
+      while (!Thread.currentThread().isInterrupted()) {
+        Thread.yield();
+      }
+      if (value != 0) {
+        throw new InterruptedException("Stopped");
+      }
+      long end = System.currentTimeMillis() + 200;
+      while (System.currentTimeMillis() < end) {
+        Thread.yield();
+      }
+      return new LocalGridBrokerTest.SquareResult(value * value);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.distr.grid.local;
+
+import java.util.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the WorkStealingGridBroker class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class WorkStealingGridBrokerTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    return new TestSuite(WorkStealingGridBrokerTest.class);
+  }
+
+  public void setUp() {
+    super.setUp();
+    LocalGridBrokerTest.FailingWorker.m_failures = 1;
+  }
+
+  /**
+   * Requests are assigned to the known worker, idle workers steal the
+   * youngest ones.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSchedule_0()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker("test");
+    assertNull(broker.takeRequest("w1", 0, 60000));
+    String key1 = broker.submitRequest(new byte[] {1});
+    broker.submitRequest(new byte[] {2});
+    String key3 = broker.submitRequest(new byte[] {3});
+    assertEquals(3, broker.listRequests().size());
+    assertEquals(key3, broker.takeRequest("w2", 0, 60000).getKey());
+    assertEquals(key1, broker.takeRequest("w1", 0, 60000).getKey());
+    assertEquals(2, broker.getWorkerIds().size());
+    // New requests go to the worker with the shortest queue.
+    // ------------------------------------------------------
+    String key4 = broker.submitRequest(new byte[] {4});
+    assertEquals(key4, broker.takeRequest("w2", 0, 60000).getKey());
+    assertNotNull(broker.takeRequest("w1", 0, 60000));
+    assertNull(broker.takeRequest("w1", 0, 60000));
+    assertEquals(4, broker.listRequests().size());
+  }
+
+  /**
+   * Requests with expired or released lease are handed out again.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testLease_0()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker();
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 30));
+    GridBrokerEntry entry = broker.takeRequest("w2", 2000, 60000);
+    assertEquals(key, entry.getKey());
+    assertEquals(2, entry.getDeliveries());
+    broker.releaseRequest(key, "w2");
+    entry = broker.takeRequest("w1", 100, 60000);
+    assertEquals(3, entry.getDeliveries());
+    broker.submitResult(key, new byte[] {2});
+    assertEquals(0, broker.listRequests().size());
+    assertEquals(1, broker.listResults().size());
+    broker.releaseRequest(key, "w1");
+    assertNull(broker.takeRequest("w1", 10, 60000));
+  }
+
+  /**
+   * A worker whose lease expired cannot release the lease of the worker
+   * computing the request now.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testLease_1()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker();
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 30));
+    assertNotNull(broker.takeRequest("w2", 2000, 60000));
+    broker.releaseRequest(key, "w1");
+    assertNull(broker.takeRequest("w3", 10, 60000));
+    broker.releaseRequest(key, "w2");
+    GridBrokerEntry entry = broker.takeRequest("w3", 100, 60000);
+    assertEquals(key, entry.getKey());
+    broker.submitResult(key, new byte[] {2});
+    // The duration is measured for w3 only.
+    // -------------------------------------
+    assertEquals(0, broker.getAverageDuration("w1"), DELTA);
+    assertEquals(0, broker.getAverageDuration("w2"), DELTA);
+  }
+
+  /**
+   * Requests released or expired too often are given up, late results are
+   * still accepted.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testFailed_0()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker();
+    broker.setMaxDeliveries(2);
+    assertEquals(2, broker.getMaxDeliveries());
+    String key = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 30));
+    assertNotNull(broker.takeRequest("w1", 2000, 60000));
+    broker.releaseRequest(key, "w1");
+    assertNull(broker.takeRequest("w1", 10, 60000));
+    assertEquals(0, broker.listRequests().size());
+    assertEquals(Arrays.asList(new String[] {key}),
+                 broker.listFailedRequests());
+    broker.submitResult(key, new byte[] {2});
+    assertEquals(0, broker.listFailedRequests().size());
+    assertEquals(1, broker.listResults().size());
+  }
+
+  /**
+   * Requests running much longer than average are handed out to an idle
+   * worker, the first result wins.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testStraggler_0()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker();
+    broker.setStragglerFactor(2);
+    broker.setMinStragglerMillis(0);
+    String key1 = broker.submitRequest(new byte[] {1});
+    assertNotNull(broker.takeRequest("w1", 100, 60000));
+    Thread.sleep(20);
+    broker.submitResult(key1, new byte[] {11});
+    assertTrue(broker.getAverageDuration("w1") >= 20);
+    String key2 = broker.submitRequest(new byte[] {2});
+    assertNotNull(broker.takeRequest("w1", 100, 60000));
+    // Not a straggler yet.
+    // --------------------
+    assertNull(broker.takeRequest("w2", 0, 60000));
+    Thread.sleep( (long) (broker.getAverageDuration() * 2) + 50);
+    // A worker does not get a copy of its own request.
+    // ------------------------------------------------
+    assertNull(broker.takeRequest("w1", 0, 60000));
+    GridBrokerEntry entry = broker.takeRequest("w2", 0, 60000);
+    assertEquals(key2, entry.getKey());
+    assertEquals(2, entry.getDeliveries());
+    assertNull(broker.takeRequest("w3", 0, 60000));
+    broker.submitResult(key2, new byte[] {22});
+    broker.submitResult(key2, new byte[] {99});
+    assertEquals(0, broker.listRequests().size());
+    assertEquals(22, broker.takeResult(key2, 60000).getData()[0]);
+    assertEquals(2, broker.listResults().size());
+  }
+
+  /**
+   * The recommended request size follows the measured durations, changing by
+   * a factor of two at most.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRecommendedRequestSize_0()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker();
+    assertEquals(10, broker.getRecommendedRequestSize(10, 1000));
+    String key = broker.submitRequest(new byte[] {1});
+    broker.takeRequest("w1", 100, 60000);
+    Thread.sleep(10);
+    broker.submitResult(key, new byte[] {2});
+    assertEquals(20, broker.getRecommendedRequestSize(10, 1000000));
+    assertEquals(5, broker.getRecommendedRequestSize(10, 0));
+    assertEquals(1, broker.getRecommendedRequestSize(1, 0));
+  }
+
+  /**
+   * Requests sent via the mediator are computed by the workers.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWorkers_0()
+      throws Exception {
+    WorkStealingGridBroker broker = new WorkStealingGridBroker();
+    LocalGridBrokerTest.runWorkers(broker, broker);
+  }
+}
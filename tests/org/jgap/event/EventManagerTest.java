@@ -113,6 +113,174 @@ public class EventManagerTest
     assertEquals(genEvent, listener.m_event);
   }
 
+  /**
+   * Asynchronous listener is notified by another thread in the order of
+   * firing.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddAsyncEventListener_0()
+      throws Exception {
+    EventManager man = new EventManager();
+    RecordingListener listener = new RecordingListener(null);
+    man.addAsyncEventListener("testeventname", listener, 100,
+                              EventManager.OVERFLOW_BLOCK);
+    for (int i = 0; i < 50; i++) {
+      man.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(i)));
+    }
+    assertTrue(man.flush(5000));
+    assertEquals(50, listener.m_sources.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(new Integer(i), listener.m_sources.get(i));
+    }
+    assertNotSame(Thread.currentThread(), listener.m_thread);
+    assertEquals(0, man.getDroppedEvents());
+    man.shutdown();
+  }
+
+  /**
+   * Overflow policies drop and coalesce.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddAsyncEventListener_1()
+      throws Exception {
+    assertEquals("[0, 1, 2]", fireWhileBlocked(EventManager.OVERFLOW_DROP));
+    assertEquals("[0, 3, 4]", fireWhileBlocked(EventManager.OVERFLOW_COALESCE));
+  }
+
+  /**
+   * Overflow policy block.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddAsyncEventListener_2()
+      throws Exception {
+    final EventManager man = new EventManager();
+    final RecordingListener listener = new RecordingListener(new Object());
+    man.addAsyncEventListener("testeventname", listener, 2,
+                              EventManager.OVERFLOW_BLOCK);
+    Thread firing = new Thread() {
+      public void run() {
+        for (int i = 0; i < 5; i++) {
+          man.fireGeneticEvent(new GeneticEvent("testeventname",
+              new Integer(i)));
+        }
+      }
+    };
+    firing.start();
+    listener.awaitStarted();
+    firing.join(200);
+    // Still blocked because of the full queue.
+    // ----------------------------------------
+    assertTrue(firing.isAlive());
+    listener.release();
+    firing.join(5000);
+    assertTrue(man.flush(5000));
+    assertEquals("[0, 1, 2, 3, 4]", listener.m_sources.toString());
+    assertEquals(0, man.getDroppedEvents());
+    man.shutdown();
+  }
+
+  /**
+   * Removing, cloning and illegal parameters.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddAsyncEventListener_3()
+      throws Exception {
+    EventManager man = new EventManager();
+    RecordingListener listener = new RecordingListener(null);
+    man.addAsyncEventListener("testeventname", listener, 10,
+                              EventManager.OVERFLOW_DROP);
+    EventManager man2 = (EventManager) man.clone();
+    man.removeEventListener("testeventname", listener);
+    man.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(1)));
+    assertTrue(man.flush(5000));
+    assertEquals(0, listener.m_sources.size());
+    man2.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(2)));
+    assertTrue(man2.flush(5000));
+    assertEquals("[2]", listener.m_sources.toString());
+    man2.shutdown();
+    try {
+      man.addAsyncEventListener("testeventname", listener, 0,
+                                EventManager.OVERFLOW_DROP);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    try {
+      man.addAsyncEventListener("testeventname", listener, 1, 3);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * A failing asynchronous listener does not stop delivery.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAddAsyncEventListener_4()
+      throws Exception {
+    EventManager man = new EventManager();
+    RecordingListener listener = new RecordingListener(null);
+    man.addAsyncEventListener("testeventname", new GeneticEventListener() {
+      public void geneticEventFired(GeneticEvent a_firedEvent) {
+        throw new RuntimeException("Intended for testing");
+      }
+    }, 10, EventManager.OVERFLOW_DROP);
+    man.addAsyncEventListener("testeventname", listener, 10,
+                              EventManager.OVERFLOW_DROP);
+    man.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(1)));
+    man.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(2)));
+    assertTrue(man.flush(5000));
+    assertEquals("[1, 2]", listener.m_sources.toString());
+    man.shutdown();
+  }
+
+  /**
+   * Fires an event, waits until the listener blocks while processing it and
+   * then fires four more events into a queue of capacity two.
+   *
+   * @param a_policy the overflow policy to use
+   * @return the sources of the events received by the listener
+   *
+   * @throws Exception
+   */
+  private String fireWhileBlocked(int a_policy)
+      throws Exception {
+    EventManager man = new EventManager();
+    RecordingListener listener = new RecordingListener(new Object());
+    man.addAsyncEventListener("testeventname", listener, 2, a_policy);
+    man.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(0)));
+    listener.awaitStarted();
+    for (int i = 1; i < 5; i++) {
+      man.fireGeneticEvent(new GeneticEvent("testeventname", new Integer(i)));
+    }
+    assertEquals(2, man.getDroppedEvents());
+    listener.release();
+    assertTrue(man.flush(5000));
+    man.shutdown();
+    return listener.m_sources.toString();
+  }
+
   /**
    *
    * @author Klaus Meffert
@@ -128,4 +296,59 @@ public class EventManagerTest
       m_event = a_firedEvent;
     }
   }
+
+  /**
+   * Records the sources of the events received. Optionally blocks on
+   * the first event until released.
+   */
+  private class RecordingListener
+      implements GeneticEventListener {
+    private List m_sources = new Vector();
+
+    private volatile Thread m_thread;
+
+    private Object m_lock;
+
+    private boolean m_started;
+
+    private boolean m_released;
+
+    public RecordingListener(Object a_lock) {
+      m_lock = a_lock;
+    }
+
+    public void geneticEventFired(GeneticEvent a_firedEvent) {
+      m_thread = Thread.currentThread();
+      if (m_lock != null) {
+        synchronized (m_lock) {
+          m_started = true;
+          m_lock.notifyAll();
+          while (!m_released) {
+            try {
+              m_lock.wait();
+            } catch (InterruptedException iex) {
+              return;
+            }
+          }
+        }
+      }
+      m_sources.add(a_firedEvent.getSource());
+    }
+
+    public void awaitStarted()
+        throws InterruptedException {
+      synchronized (m_lock) {
+        while (!m_started) {
+          m_lock.wait();
+        }
+      }
+    }
+
+    public void release() {
+      synchronized (m_lock) {
+        m_released = true;
+        m_lock.notifyAll();
+      }
+    }
+  }
 }
@@ -25,10 +25,13 @@ public class AllGPImplTests
     suite.addTest(BranchTypingCrossTest.suite());
     suite.addTest(DefaultGPFitnessEvaluatorTest.suite());
     suite.addTest(DeltaGPFitnessEvaluatorTest.suite());
+    suite.addTest(ExecutionBudgetTest.suite());
     suite.addTest(GPConfigurationTest.suite());
     suite.addTest(GPGenotypeTest.suite());
+    suite.addTest(GPIslandGenotypeTest.suite());
     suite.addTest(GPPopulationTest.suite());
     suite.addTest(GPProgramTest.suite());
+    suite.addTest(GPProgramStreamTest.suite());
     suite.addTest(ProgramChromosomeTest.suite());
     return suite;
   }
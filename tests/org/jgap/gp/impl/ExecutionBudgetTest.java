@@ -0,0 +1,218 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+import junit.framework.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+
+/**
+ * Tests the ExecutionBudget class and its usage during fitness evaluation.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ExecutionBudgetTest
+    extends GPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ExecutionBudgetTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConsume_0()
+      throws Exception {
+    ExecutionBudget budget = new ExecutionBudget();
+    budget.start(3, 0);
+    budget.consume();
+    budget.consume();
+    budget.consume();
+    assertEquals(3, budget.getNodeEvaluations());
+    try {
+      budget.consume();
+      fail();
+    } catch (ExecutionBudgetExceededException bex) {
+      ; //this is OK
+    }
+    assertTrue(budget.isExceeded());
+    // The budget stays exhausted until stopped.
+    // -----------------------------------------
+    try {
+      budget.consume();
+      fail();
+    } catch (ExecutionBudgetExceededException bex) {
+      ; //this is OK
+    }
+    assertEquals(4, budget.getNodeEvaluations());
+    budget.stop();
+    budget.consume();
+    budget.start(3, 0);
+    assertFalse(budget.isExceeded());
+    budget.consume();
+  }
+
+  /**
+   * Inactive budget does not restrict anything.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConsume_1()
+      throws Exception {
+    ExecutionBudget budget = new ExecutionBudget();
+    budget.start(1, 0);
+    budget.stop();
+    for (int i = 0; i < 10; i++) {
+      budget.consume();
+    }
+    assertEquals(0, budget.getNodeEvaluations());
+  }
+
+  /**
+   * Exceeding the budget during fitness evaluation leads to the penalty.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testFitness_0()
+      throws Exception {
+    GPProgram prog = createProgram();
+    m_gpconf.setMaxNodeEvaluations(100);
+    m_gpconf.setExecutionBudgetPenalty(0.5d);
+    assertEquals(0.5d, new LoopingFitness(1000).getFitnessValue(prog), DELTA);
+    // Budget is detached after evaluation.
+    // ------------------------------------
+    assertNull(prog.getChromosome(0).getExecutionBudget());
+    assertEquals(3, prog.getChromosome(0).execute_int(new Object[0]));
+    // Within the budget.
+    // ------------------
+    assertEquals(10.0d, new LoopingFitness(10).getFitnessValue(prog), DELTA);
+  }
+
+  /**
+   * A fitness function catching IllegalStateException and executing the
+   * program again neither escapes the budget nor the penalty.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testFitness_1()
+      throws Exception {
+    GPProgram prog = createProgram();
+    m_gpconf.setMaxNodeEvaluations(100);
+    m_gpconf.setExecutionBudgetPenalty(0.5d);
+    CatchingFitness fitness = new CatchingFitness();
+    assertEquals(0.5d, fitness.getFitnessValue(prog), DELTA);
+    // Each further execution was aborted immediately.
+    // -----------------------------------------------
+    assertEquals(5, fitness.m_aborted);
+    assertEquals(101, ExecutionBudget.getCurrent().getNodeEvaluations());
+  }
+
+  /**
+   * Without explicit penalty the worst fitness according to the evaluator is
+   * used.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPenalty_0()
+      throws Exception {
+    m_gpconf.setGPFitnessEvaluator(new DefaultGPFitnessEvaluator());
+    assertEquals(0.0d, m_gpconf.getExecutionBudgetPenalty(), DELTA);
+    m_gpconf.setGPFitnessEvaluator(new DeltaGPFitnessEvaluator());
+    assertEquals(GPFitnessFunction.MAX_FITNESS_VALUE,
+                 m_gpconf.getExecutionBudgetPenalty(), DELTA);
+  }
+
+  /**
+   * ADF recursion is restricted by an explicit depth counter.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testADFDepth_0()
+      throws Exception {
+    ADF adf = new ADF(m_gpconf, 1, 0);
+    m_gpconf.setMaxADFDepth(2);
+    ExecutionBudget budget = ExecutionBudget.getCurrent();
+    assertTrue(adf.isValid(null));
+    budget.enterADF();
+    assertTrue(adf.isValid(null));
+    budget.enterADF();
+    assertFalse(adf.isValid(null));
+    budget.leaveADF();
+    budget.leaveADF();
+    assertEquals(0, budget.getADFDepth());
+  }
+
+  private GPProgram createProgram()
+      throws Exception {
+    GPProgram prog = new GPProgram(m_gpconf, 1);
+    ProgramChromosome pc = new ProgramChromosome(m_gpconf, 10, prog);
+    pc.getFunctions()[0] = CMD_ADD;
+    pc.getFunctions()[1] = CMD_CONST1;
+    pc.getFunctions()[2] = CMD_CONST2;
+    pc.redepth();
+    prog.setChromosome(0, pc);
+    return prog;
+  }
+
+  class CatchingFitness
+      extends GPFitnessFunction {
+    int m_aborted;
+
+    protected double evaluate(IGPProgram a_subject) {
+      for (int sample = 0; sample < 5; sample++) {
+        try {
+          for (int i = 0; i < 1000; i++) {
+            a_subject.execute_int(0, new Object[0]);
+          }
+        } catch (IllegalStateException iex) {
+          ; // Skip the sample, like e.g. the Fibonacci example does.
+        } catch (RuntimeException rex) {
+          m_aborted++;
+        }
+      }
+      return 10.0d;
+    }
+  }
+
+  class LoopingFitness
+      extends GPFitnessFunction {
+    private int m_count;
+
+    public LoopingFitness(int a_count) {
+      m_count = a_count;
+    }
+
+    protected double evaluate(IGPProgram a_subject) {
+      for (int i = 0; i < m_count; i++) {
+        a_subject.execute_int(0, new Object[0]);
+      }
+      return m_count;
+    }
+  }
+}
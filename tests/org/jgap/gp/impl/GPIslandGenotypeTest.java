@@ -0,0 +1,176 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+import junit.framework.*;
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+import org.jgap.gp.terminal.*;
+
+/**
+ * Tests the GPIslandGenotype class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GPIslandGenotypeTest
+    extends GPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(GPIslandGenotypeTest.class);
+    return suite;
+  }
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_gpconf.setPopulationSize(20);
+      m_gpconf.setMaxInitDepth(3);
+      m_gpconf.setGPFitnessEvaluator(new DeltaGPFitnessEvaluator());
+      m_gpconf.setFitnessFunction(new TargetFitness());
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Programs migrate between islands with ring topology.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_0()
+      throws Exception {
+    GPIslandGenotype islands = new GPIslandGenotype(m_gpconf, 3,
+        new IslandFactory());
+    assertEquals(3, islands.getIslandCount());
+    assertEquals(GPIslandGenotype.TOPOLOGY_RING, islands.getTopology());
+    islands.setMigrationInterval(2);
+    islands.setMigrationSize(3);
+    islands.setThreads(2);
+    islands.evolve(3);
+    assertEquals(3, islands.getGenerations());
+    // Migration after the second generation, 3 islands times 3 emigrants.
+    // -------------------------------------------------------------------
+    assertEquals(9, islands.getMigrantCount());
+    islands.evolve(1);
+    // Mailboxes are asynchronous: an island may already receive emigrants of
+    // islands that were evolved before it within the same generation.
+    // ----------------------------------------------------------------------
+    assertTrue(islands.getMigrantCount() >= 9);
+    assertTrue(islands.getMigrantCount() <= 18);
+    islands.evolve(1);
+    assertEquals(18, islands.getMigrantCount());
+    // Each island owns its configuration.
+    // -----------------------------------
+    assertNotSame(islands.getIsland(0).getGPConfiguration(),
+                  islands.getIsland(1).getGPConfiguration());
+    // Immigrants are bound to the configuration of the receiving island.
+    // ------------------------------------------------------------------
+    for (int i = 0; i < islands.getIslandCount(); i++) {
+      GPGenotype island = islands.getIsland(i);
+      GPPopulation pop = island.getGPPopulation();
+      for (int j = 0; j < pop.size(); j++) {
+        assertSame(island.getGPConfiguration(),
+                   pop.getGPProgram(j).getGPConfiguration());
+      }
+    }
+    IGPProgram best = islands.getAllTimeBest();
+    assertNotNull(best);
+    for (int i = 0; i < islands.getIslandCount(); i++) {
+      assertFalse(m_gpconf.getGPFitnessEvaluator().isFitter(islands.
+          getIsland(i).getAllTimeBest(), best));
+    }
+  }
+
+  /**
+   * Fully connected topology sends emigrants to all other islands.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_1()
+      throws Exception {
+    GPIslandGenotype islands = new GPIslandGenotype(m_gpconf, 3,
+        new IslandFactory());
+    islands.setTopology(GPIslandGenotype.TOPOLOGY_FULLY_CONNECTED);
+    islands.setMigrationInterval(1);
+    islands.setMigrationSize(1);
+    islands.evolve(2);
+    assertTrue(islands.getMigrantCount() >= 6);
+    assertTrue(islands.getMigrantCount() <= 12);
+    islands.setMigrationSize(0);
+    islands.evolve(1);
+    assertEquals(12, islands.getMigrantCount());
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetTargets_0()
+      throws Exception {
+    GPIslandGenotype islands = new GPIslandGenotype(m_gpconf, 4,
+        new IslandFactory());
+    org.jgap.RandomGenerator random = m_gpconf.getRandomGenerator();
+    assertEquals(1, islands.getTargets(0, random)[0]);
+    assertEquals(0, islands.getTargets(3, random)[0]);
+    islands.setTopology(GPIslandGenotype.TOPOLOGY_FULLY_CONNECTED);
+    int[] targets = islands.getTargets(2, random);
+    assertEquals(3, targets.length);
+    assertEquals(0, targets[0]);
+    assertEquals(1, targets[1]);
+    assertEquals(3, targets[2]);
+    islands.setTopology(GPIslandGenotype.TOPOLOGY_RANDOM);
+    for (int i = 0; i < 50; i++) {
+      targets = islands.getTargets(1, random);
+      assertEquals(1, targets.length);
+      assertTrue(targets[0] != 1);
+      assertTrue(targets[0] >= 0 && targets[0] < 4);
+    }
+    try {
+      islands.setTopology(3);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  class IslandFactory
+      implements IGPIslandFactory {
+    public GPGenotype createIsland(GPConfiguration a_conf, int a_index)
+        throws InvalidConfigurationException {
+      Class[] types = {CommandGene.DoubleClass};
+      Class[][] argTypes = { {}
+      };
+      CommandGene[][] nodeSets = { {
+          new Add(a_conf, CommandGene.DoubleClass),
+          new Multiply(a_conf, CommandGene.DoubleClass),
+          new Terminal(a_conf, CommandGene.DoubleClass, 1.0d, 10.0d),
+      }
+      };
+      return GPGenotype.randomInitialGenotype(a_conf, types, argTypes,
+          nodeSets, 50, false);
+    }
+  }
+
+  class TargetFitness
+      extends GPFitnessFunction {
+    protected double evaluate(IGPProgram a_subject) {
+      return Math.abs(a_subject.execute_double(0, new Object[0]) - 42.0d);
+    }
+  }
+}
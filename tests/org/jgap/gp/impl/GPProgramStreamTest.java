@@ -0,0 +1,240 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.gp.impl;
+
+import java.io.*;
+
+import junit.framework.*;
+import org.jgap.*;
+import org.jgap.gp.*;
+import org.jgap.gp.function.*;
+import org.jgap.gp.terminal.*;
+import org.jgap.impl.*;
+
+/**
+ * Tests the classes GPProgramOutputStream and GPProgramInputStream.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GPProgramStreamTest
+    extends GPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(GPProgramStreamTest.class);
+    return suite;
+  }
+
+  private Class[] m_types;
+
+  private Class[][] m_argTypes;
+
+  private CommandGene[][] m_nodeSets;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_gpconf.setPopulationSize(25);
+      m_gpconf.setGPFitnessEvaluator(new DeltaGPFitnessEvaluator());
+      m_gpconf.setFitnessFunction(new ConstantFitness());
+      m_gpconf.setRandomGenerator(new StockRandomGenerator());
+      m_types = new Class[] {
+          CommandGene.DoubleClass, CommandGene.DoubleClass};
+      m_argTypes = new Class[][] { {}, {CommandGene.DoubleClass}
+      };
+      m_nodeSets = new CommandGene[][] { {
+          new Add(m_gpconf, CommandGene.DoubleClass),
+          new Multiply(m_gpconf, CommandGene.DoubleClass),
+          new Terminal(m_gpconf, CommandGene.DoubleClass, 1.0d, 100.0d),
+          new Constant(m_gpconf, CommandGene.DoubleClass, new Double(2.5d)),
+          new ADF(m_gpconf, 1, 1),
+      }, {
+          new Subtract(m_gpconf, CommandGene.DoubleClass),
+          new Terminal(m_gpconf, CommandGene.DoubleClass, -5.0d, 5.0d),
+      }
+      };
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Writes a population and reads it back.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRoundTrip_0()
+      throws Exception {
+    GPGenotype gen = GPGenotype.randomInitialGenotype(m_gpconf, m_types,
+        m_argTypes, m_nodeSets, 50, false);
+    GPPopulation pop = gen.getGPPopulation();
+    pop.getGPProgram(3).setFitnessValue(12.5d);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GPProgramOutputStream out = new GPProgramOutputStream(bytes);
+    out.writePopulation(pop);
+    out.close();
+    GPProgramInputStream in = new GPProgramInputStream(new
+        ByteArrayInputStream(bytes.toByteArray()), m_gpconf, m_nodeSets);
+    assertEquals(GPProgramOutputStream.VERSION, in.getVersion());
+    GPPopulation pop2 = in.readPopulation();
+    assertEquals(pop.size(), pop2.size());
+    for (int i = 0; i < pop.size(); i++) {
+      IGPProgram prog = pop.getGPProgram(i);
+      IGPProgram prog2 = pop2.getGPProgram(i);
+      assertEquals(prog.size(), prog2.size());
+      assertEquals(prog.toStringNorm(0), prog2.toStringNorm(0));
+      for (int j = 0; j < prog.size(); j++) {
+        assertEquals(prog.getChromosome(j).size(),
+                     prog2.getChromosome(j).size());
+        assertEquals(prog.getChromosome(j).getDepth(0),
+                     prog2.getChromosome(j).getDepth(0));
+      }
+      assertEquals(prog.execute_double(0, new Object[0]),
+                   prog2.execute_double(0, new Object[0]), DELTA);
+    }
+    assertEquals(12.5d, ( (GPProgram) pop2.getGPProgram(3)).
+                 getFitnessValueDirectly(), DELTA);
+    // The binary format must be much smaller than the string representation.
+    // ----------------------------------------------------------------------
+    assertTrue(bytes.size() < pop.getPersistentRepresentation().length() / 4);
+  }
+
+  /**
+   * Several programs in one stream share the dictionary of commands.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRoundTrip_1()
+      throws Exception {
+    GPGenotype gen = GPGenotype.randomInitialGenotype(m_gpconf, m_types,
+        m_argTypes, m_nodeSets, 50, false);
+    IGPProgram prog1 = gen.getGPPopulation().getGPProgram(0);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GPProgramOutputStream out = new GPProgramOutputStream(bytes);
+    out.writeProgram(prog1);
+    out.flush();
+    int size1 = bytes.size();
+    out.writeProgram(prog1);
+    out.close();
+    // Second occurence needs no definitions of commands any more.
+    // -----------------------------------------------------------
+    assertTrue(bytes.size() - size1 < size1);
+    GPProgramInputStream in = new GPProgramInputStream(new
+        ByteArrayInputStream(bytes.toByteArray()), m_gpconf, m_nodeSets);
+    assertEquals(prog1.toStringNorm(0), in.readProgram().toStringNorm(0));
+    assertEquals(prog1.toStringNorm(0), in.readProgram().toStringNorm(0));
+  }
+
+  /**
+   * Terminals with different bounds in different node sets must be restored
+   * with their respective bounds.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRoundTrip_2()
+      throws Exception {
+    GPGenotype gen = GPGenotype.randomInitialGenotype(m_gpconf, m_types,
+        m_argTypes, m_nodeSets, 50, false);
+    GPPopulation pop = gen.getGPPopulation();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GPProgramOutputStream out = new GPProgramOutputStream(bytes);
+    out.writePopulation(pop);
+    out.close();
+    GPProgramInputStream in = new GPProgramInputStream(new
+        ByteArrayInputStream(bytes.toByteArray()), m_gpconf, m_nodeSets);
+    GPPopulation pop2 = in.readPopulation();
+    int found0 = 0;
+    int found1 = 0;
+    for (int i = 0; i < pop2.size(); i++) {
+      IGPProgram prog = pop2.getGPProgram(i);
+      for (int j = 0; j < prog.size(); j++) {
+        ProgramChromosome chrom = prog.getChromosome(j);
+        for (int k = 0; k < chrom.size(); k++) {
+          CommandGene node = chrom.getGene(k);
+          if (! (node instanceof Terminal)) {
+            continue;
+          }
+          Terminal terminal = (Terminal) node;
+          if (j == 0) {
+            assertEquals(1.0d, terminal.getLowerBounds(), DELTA);
+            assertEquals(100.0d, terminal.getUpperBounds(), DELTA);
+            found0++;
+          }
+          else {
+            assertEquals(-5.0d, terminal.getLowerBounds(), DELTA);
+            assertEquals(5.0d, terminal.getUpperBounds(), DELTA);
+            found1++;
+          }
+        }
+      }
+    }
+    assertTrue(found0 > 0);
+    assertTrue(found1 > 0);
+  }
+
+  /**
+   * A terminal not contained in the node sets is created with the bounds
+   * stored in the stream.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRoundTrip_3()
+      throws Exception {
+    Terminal terminal = (Terminal) m_nodeSets[1][1];
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GPProgramOutputStream out = new GPProgramOutputStream(bytes);
+    out.writeCommand(terminal);
+    out.close();
+    GPProgramInputStream in = new GPProgramInputStream(new
+        ByteArrayInputStream(bytes.toByteArray()), m_gpconf, null);
+    Terminal terminal2 = (Terminal) in.readCommand();
+    assertNotSame(terminal, terminal2);
+    assertEquals(-5.0d, terminal2.getLowerBounds(), DELTA);
+    assertEquals(5.0d, terminal2.getUpperBounds(), DELTA);
+    assertFalse(terminal2.isWholeNumbers());
+  }
+
+  /**
+   * Invalid header must be detected.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testInvalidHeader_0()
+      throws Exception {
+    try {
+      new GPProgramInputStream(new ByteArrayInputStream(new byte[] {1, 2, 3,
+          4, 5}), m_gpconf, m_nodeSets);
+      fail();
+    } catch (StreamCorruptedException sex) {
+      ; //this is OK
+    }
+  }
+
+  class ConstantFitness
+      extends GPFitnessFunction {
+    protected double evaluate(IGPProgram a_subject) {
+      return 1.0d;
+    }
+  }
+}
@@ -53,11 +53,16 @@ public class AllImplTests
     suite.addTest(JGAPFactoryTest.suite());
     suite.addTest(MapGeneTest.suite());
     suite.addTest(MutationOperatorTest.suite());
+    suite.addTest(NonDominatedSorterTest.suite());
+    suite.addTest(NSGA2SelectorTest.suite());
     suite.addTest(SwappingMutationOperatorTest.suite());
     suite.addTest(NumberGeneTest.suite());
+    suite.addTest(PermutationGeneTest.suite());
     suite.addTest(PoolTest.suite());
+    suite.addTest(RandomReplacementMigrationPolicyTest.suite());
     suite.addTest(SeededRandomGeneratorTest.suite());
     suite.addTest(SetGeneTest.suite());
+    suite.addTest(SteadyStateBreederTest.suite());
     suite.addTest(StockRandomGeneratorTest.suite());
     suite.addTest(StringGeneTest.suite());
     suite.addTest(ThresholdSelectorTest.suite());
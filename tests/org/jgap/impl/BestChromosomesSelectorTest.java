@@ -336,6 +336,48 @@ public class BestChromosomesSelectorTest
     assertEquals(bestChrom, bestChroms[3]);
   }
 
+  /**
+   * Only a part of many equally fit chromosomes is selected. The result
+   * equals the one of sorting all chromosomes.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSelect_5()
+      throws Exception {
+    BestChromosomesSelector selector = new BestChromosomesSelector(conf);
+    selector.setDoubletteChromosomesAllowed(false);
+    selector.setOriginalRate(0.25d);
+    Random rand = new Random(17);
+    List<IChromosome> added = new Vector<IChromosome>();
+    for (int i = 0; i < 100; i++) {
+      Chromosome chrom = new Chromosome(conf, new IntegerGene(conf), 1);
+      chrom.getGene(0).setAllele(new Integer(i));
+      chrom.setFitnessValue(1 + rand.nextInt(5));
+      chrom.setAge(rand.nextInt(3));
+      selector.add(chrom);
+      added.add(chrom);
+    }
+    Collections.sort(added, selector.new FitnessAgeValueComparator());
+    Population pop = new Population(conf);
+    selector.select(40, null, pop);
+    assertEquals(10, pop.size());
+    for (int i = 0; i < 10; i++) {
+      assertSame(added.get(i), pop.getChromosome(i));
+    }
+    // Selecting more afterwards extends the order determined.
+    // -------------------------------------------------------
+    selector.setOriginalRate(1.0d);
+    pop.getChromosomes().clear();
+    selector.select(30, null, pop);
+    assertEquals(30, pop.size());
+    for (int i = 0; i < 30; i++) {
+      assertSame(added.get(i), pop.getChromosome(i));
+    }
+  }
+
   /**
    * @throws Exception
    *
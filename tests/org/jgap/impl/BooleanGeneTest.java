@@ -685,6 +685,30 @@ public class BooleanGeneTest
     assertEquals("null", s);
   }
 
+  /**
+   * Binary representation of all values.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    BooleanGene gene1 = new BooleanGene(conf);
+    BooleanGene gene2 = new BooleanGene(conf, true);
+    assertEquals(1, doBinaryCopy(gene1, gene2));
+    assertNull(gene2.getAllele());
+    gene1.setAllele(Boolean.TRUE);
+    doBinaryCopy(gene1, gene2);
+    assertEquals(Boolean.TRUE, gene2.getAllele());
+    gene1.setAllele(Boolean.FALSE);
+    doBinaryCopy(gene1, gene2);
+    assertEquals(Boolean.FALSE, gene2.getAllele());
+    assertFalse(new BooleanGene(conf, true).getContentHash()
+                == gene2.getContentHash());
+  }
+
   /**
    * @throws Exception
    *
@@ -43,6 +43,21 @@ public class ChromosomePoolTest
     assertNotNull(p);
   }
 
+  /**
+   * Negative capacity per thread is not allowed.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_1() {
+    try {
+      new ChromosomePool( -1);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
   /**
    * @author Klaus Meffert
    * @since 2.0
@@ -83,4 +98,41 @@ public class ChromosomePoolTest
     conf.setSampleChromosome(chrom);
     pool.releaseChromosome(chrom);
   }
+
+  /**
+   * Released chromosomes are only available to the releasing thread as long
+   * as its pool is not full.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testAquireChromosome_1()
+      throws Exception {
+    final ChromosomePool pool = new ChromosomePool(1);
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    Chromosome chrom1 = new Chromosome(conf, new IntegerGene(conf, 1, 10), 3);
+    Chromosome chrom2 = new Chromosome(conf, new IntegerGene(conf, 1, 10), 3);
+    pool.releaseChromosome(chrom1);
+    // The second chromosome overflows into the shared pool.
+    // -----------------------------------------------------
+    pool.releaseChromosome(chrom2);
+    assertEquals(2, pool.size());
+    final IChromosome[] acquired = new IChromosome[2];
+    Thread other = new Thread() {
+      public void run() {
+        acquired[0] = pool.acquireChromosome();
+        acquired[1] = pool.acquireChromosome();
+      }
+    };
+    other.start();
+    other.join();
+    assertSame(chrom2, acquired[0]);
+    assertNull(acquired[1]);
+    assertSame(chrom1, pool.acquireChromosome());
+    assertNull(pool.acquireChromosome());
+    assertEquals(0, pool.size());
+  }
 }
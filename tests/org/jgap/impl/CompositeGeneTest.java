@@ -544,6 +544,36 @@ public class CompositeGeneTest
     assertEquals(pres1, pres2);
   }
 
+  /**
+   * Binary representation, contained genes of the same class are reused.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    CompositeGene gene1 = new CompositeGene(conf);
+    gene1.addGene(new IntegerGene(conf, 1, 5));
+    gene1.addGene(new StringGene(conf, 1, 5, "xyz"));
+    gene1.addGene(new DoubleGene(conf, 0, 1));
+    gene1.setToRandomValue(new StockRandomGenerator());
+    CompositeGene gene2 = new CompositeGene(conf);
+    IntegerGene reused = new IntegerGene(conf);
+    gene2.addGene(reused);
+    gene2.addGene(new BooleanGene(conf));
+    gene2.addGene(new DoubleGene(conf));
+    gene2.addGene(new DoubleGene(conf));
+    doBinaryCopy(gene1, gene2);
+    assertEquals(3, gene2.size());
+    assertSame(reused, gene2.geneAt(0));
+    assertEquals(gene1, gene2);
+    assertEquals(gene1.getPersistentRepresentation(),
+                 gene2.getPersistentRepresentation());
+    assertEquals(gene1.getContentHash(), gene2.getContentHash());
+  }
+
   /**
    * Use special characters in alphabet.
    *
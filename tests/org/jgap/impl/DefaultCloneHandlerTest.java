@@ -168,6 +168,49 @@ public class DefaultCloneHandlerTest
     }
   }
 
+  /**
+   * Plain Cloneable with public clone method, resolved only once.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPerform_7()
+      throws Exception {
+    DefaultCloneHandler handler = new DefaultCloneHandler();
+    MyCloneableForTesting orig = new MyCloneableForTesting();
+    orig.m_value = 5;
+    for (int i = 0; i < 3; i++) {
+      MyCloneableForTesting clone = (MyCloneableForTesting) handler.perform(
+          orig, null, null);
+      assertNotSame(orig, clone);
+      assertEquals(5, clone.m_value);
+    }
+    assertSame(handler.getCloneMethod(MyCloneableForTesting.class),
+               handler.getCloneMethod(MyCloneableForTesting.class));
+    assertNull(handler.getCloneMethod(MyCloneHandlerForTesting.class));
+  }
+
+  /**
+   * Cloneable without public clone method.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPerform_8()
+      throws Exception {
+    IHandler handler = new DefaultCloneHandler();
+    try {
+      handler.perform(new MyCloneHandlerForTesting(), null, null);
+      fail();
+    } catch (IllegalStateException iex) {
+      ; //this is OK
+    }
+  }
+
   class MyAppDataForTesting
       implements Cloneable {
     public int compareTo(Object o) {
@@ -184,4 +227,13 @@ public class DefaultCloneHandlerTest
   }
   class MyClassForTesting {
   }
+  class MyCloneableForTesting
+      implements Cloneable {
+    int m_value;
+
+    public Object clone()
+        throws CloneNotSupportedException {
+      return super.clone();
+    }
+  }
 }
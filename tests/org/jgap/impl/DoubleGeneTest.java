@@ -441,6 +441,26 @@ public class DoubleGeneTest
     assertEquals(pres1, pres2);
   }
 
+  /**
+   * Binary representation incl. bounds.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    DoubleGene gene1 = new DoubleGene(conf, 2.05, 7.53);
+    gene1.setAllele(new Double(4.5));
+    DoubleGene gene2 = new DoubleGene(conf);
+    doBinaryCopy(gene1, gene2);
+    assertEquals(gene1, gene2);
+    assertEquals(2.05, gene2.getLowerBound(), DELTA);
+    assertEquals(7.53, gene2.getUpperBound(), DELTA);
+    assertEquals(gene1.getContentHash(), gene2.getContentHash());
+  }
+
   /**
    *
    * @throws Exception
@@ -774,6 +774,45 @@ public class FixedBinaryGeneTest
     assertTrue(gene.getBit(3));
   }
 
+  /**
+   * Binary representation spanning more than one int.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    FixedBinaryGene gene1 = new FixedBinaryGene(conf, 40);
+    gene1.setBit(0, true);
+    gene1.setBit(33, true);
+    gene1.setBit(39, true);
+    FixedBinaryGene gene2 = new FixedBinaryGene(conf, 40);
+    assertEquals(4 + 2 * 4, doBinaryCopy(gene1, gene2));
+    assertEquals(gene1, gene2);
+    assertEquals(gene1.getContentHash(), gene2.getContentHash());
+  }
+
+  /**
+   * Lengths must match.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_1()
+      throws Exception {
+    try {
+      doBinaryCopy(new FixedBinaryGene(conf, 40), new FixedBinaryGene(conf,
+          39));
+      fail();
+    } catch (UnsupportedRepresentationException uex) {
+      ; //this is OK
+    }
+  }
+
   /**
    * @throws Exception
    *
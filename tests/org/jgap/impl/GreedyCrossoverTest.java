@@ -437,6 +437,136 @@ public class GreedyCrossoverTest
     return new Chromosome(conf, ig);
   }
 
+  /**
+   * Chromosomes consisting of a PermutationGene produce the same children as
+   * chromosomes with one gene per city.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperate_7()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    GreedyCrossover op = new GreedyCrossover(conf) {
+      public double distance(Object a_from, Object a_to) {
+        return distance( ( (IntegerGene) a_from).intValue(),
+                        ( (IntegerGene) a_to).intValue());
+      }
+
+      protected double distance(int a_from, int a_to) {
+        return (a_from * 7 + a_to * 13) % 17 + Math.abs(a_from - a_to);
+      }
+    };
+    RandomGenerator random = new StockRandomGenerator();
+    for (int run = 0; run < 20; run++) {
+      PermutationGene gene1 = new PermutationGene(conf, 60, 1);
+      PermutationGene gene2 = new PermutationGene(conf, 60, 1);
+      gene1.setToRandomValue(random);
+      gene2.setToRandomValue(random);
+      Chromosome chrom1 = new Chromosome(conf, new Gene[] {gene1});
+      Chromosome chrom2 = new Chromosome(conf, new Gene[] {gene2});
+      Chromosome cities1 = createCities(conf, gene1.getPermutation());
+      Chromosome cities2 = createCities(conf, gene2.getPermutation());
+      op.operate(chrom1, chrom2);
+      op.operate(cities1, cities2);
+      int[] tour1 = gene1.getPermutation();
+      int[] tour2 = gene2.getPermutation();
+      assertEquals(0, tour1[0]);
+      for (int i = 0; i < 60; i++) {
+        assertEquals(tour1[i], ( (IntegerGene) cities1.getGene(i)).intValue());
+        assertEquals(tour2[i], ( (IntegerGene) cities2.getGene(i)).intValue());
+      }
+    }
+  }
+
+  /**
+   * Permutations differing in the fixed part are rejected.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperate_8()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    GreedyCrossover op = new GreedyCrossover(conf);
+    PermutationGene gene1 = new PermutationGene(conf, 4, 0);
+    PermutationGene gene2 = new PermutationGene(conf, 4, 0);
+    gene2.setAllele(new int[] {1, 0, 2, 3});
+    // AssertionFailedError is an Error, too, so fail outside the try block.
+    // ---------------------------------------------------------------------
+    try {
+      op.operate(new Chromosome(conf, new Gene[] {gene1}),
+                 new Chromosome(conf, new Gene[] {gene2}));
+    } catch (Error e) {
+      return;
+    }
+    fail();
+  }
+
+  /**
+   * The start offset of PermutationGenes is respected if greater than the
+   * one of the operator.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperate_9()
+      throws Exception {
+    Configuration conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    GreedyCrossover op = new GreedyCrossover(conf);
+    assertEquals(1, op.getStartOffset());
+    RandomGenerator random = new StockRandomGenerator();
+    for (int run = 0; run < 20; run++) {
+      PermutationGene gene1 = new PermutationGene(conf, 30, 3);
+      PermutationGene gene2 = new PermutationGene(conf, 30, 3);
+      gene1.setAllele(new int[] {0, 7, 3, 1, 2, 4, 5, 6, 8, 9, 10, 11, 12, 13,
+                      14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27,
+                      28, 29});
+      gene2.setAllele(gene1.getPermutation());
+      gene1.setToRandomValue(random);
+      gene2.setToRandomValue(random);
+      op.operate(new Chromosome(conf, new Gene[] {gene1}),
+                 new Chromosome(conf, new Gene[] {gene2}));
+      int[][] tours = new int[][] {gene1.getPermutation(),
+          gene2.getPermutation()};
+      for (int i = 0; i < tours.length; i++) {
+        assertEquals(0, tours[i][0]);
+        assertEquals(7, tours[i][1]);
+        assertEquals(3, tours[i][2]);
+      }
+    }
+    // Each child keeps the prefix of its first parent.
+    // ------------------------------------------------
+    PermutationGene gene1 = new PermutationGene(conf, 5, 3);
+    PermutationGene gene2 = new PermutationGene(conf, 5, 3);
+    gene2.setAllele(new int[] {0, 2, 1, 4, 3});
+    op.operate(new Chromosome(conf, new Gene[] {gene1}),
+               new Chromosome(conf, new Gene[] {gene2}));
+    assertEquals(1, gene1.getPermutation()[1]);
+    assertEquals(2, gene1.getPermutation()[2]);
+    assertEquals(2, gene2.getPermutation()[1]);
+    assertEquals(1, gene2.getPermutation()[2]);
+  }
+
+  private Chromosome createCities(Configuration a_conf, int[] a_tour)
+      throws Exception {
+    Gene[] genes = new Gene[a_tour.length];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(a_conf, 0, a_tour.length - 1);
+      genes[i].setAllele(new Integer(a_tour[i]));
+    }
+    return new Chromosome(a_conf, genes);
+  }
+
   /**
    * @throws Exception
    *
@@ -366,6 +366,47 @@ public class IntegerGeneTest
     assertEquals(pres1, pres2);
   }
 
+  /**
+   * Binary representation incl. bounds.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    IntegerGene gene1 = new IntegerGene(conf, 2, 753);
+    gene1.setAllele(new Integer(45));
+    IntegerGene gene2 = new IntegerGene(conf);
+    doBinaryCopy(gene1, gene2);
+    assertEquals(gene1, gene2);
+    assertEquals(2, gene2.getLowerBounds());
+    assertEquals(753, gene2.getUpperBounds());
+    assertEquals(gene1.getPersistentRepresentation(),
+                 gene2.getPersistentRepresentation());
+    assertEquals(gene1.getContentHash(), gene2.getContentHash());
+    gene2.setAllele(new Integer(46));
+    assertFalse(gene1.getContentHash() == gene2.getContentHash());
+  }
+
+  /**
+   * Null allele.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_1()
+      throws Exception {
+    IntegerGene gene1 = new IntegerGene(conf, 2, 753);
+    IntegerGene gene2 = new IntegerGene(conf, 2, 753);
+    gene2.setAllele(new Integer(45));
+    doBinaryCopy(gene1, gene2);
+    assertNull(gene2.getAllele());
+  }
+
   /**
    * Should be possible without exception.
    * @throws Exception
@@ -238,6 +238,62 @@ public class JGAPFactoryTest
     assertSame(cloneHandler, factory.getCloneHandlerFor(inst, null));
   }
 
+  /**
+   * Registering a handler invalidates cached results, caching active.
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetCloneHandlerFor_8() {
+    JGAPFactory factory = new JGAPFactory(true);
+    assertNull(factory.getCloneHandlerFor(null, IntegerGene.class));
+    ICloneHandler cloneHandler = new GeneCloneHandlerForTesting();
+    int index = factory.registerCloneHandler(cloneHandler);
+    assertSame(cloneHandler, factory.getCloneHandlerFor(null, IntegerGene.class));
+    assertSame(cloneHandler, factory.getCloneHandlerFor(null, IntegerGene.class));
+    assertNull(factory.getCloneHandlerFor(null, String.class));
+    factory.removeCloneHandler(index);
+    assertNull(factory.getCloneHandlerFor(null, IntegerGene.class));
+  }
+
+  /**
+   * Cached handler depends on the class of the object as well.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetCloneHandlerFor_9()
+      throws Exception {
+    JGAPFactory factory = new JGAPFactory(true);
+    ICloneHandler cloneHandler = factory.getCloneHandlerFor(new Chromosome(conf),
+        null);
+    assertNotNull(cloneHandler);
+    assertSame(cloneHandler, factory.getCloneHandlerFor(new Chromosome(conf),
+        null));
+    assertNull(factory.getCloneHandlerFor(new IntegerGene(conf), null));
+    assertNull(factory.getCloneHandlerFor(null, null));
+  }
+
+  /**
+   * Caching works after deserialization.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetCloneHandlerFor_10()
+      throws Exception {
+    JGAPFactory factory = new JGAPFactory(true);
+    factory.registerCloneHandler(new GeneCloneHandlerForTesting());
+    assertNotNull(factory.getCloneHandlerFor(null, IntegerGene.class));
+    JGAPFactory factory2 = (JGAPFactory) doSerialize(factory);
+    assertNotNull(factory2.getCloneHandlerFor(null, IntegerGene.class));
+    assertNull(factory2.getCloneHandlerFor(null, String.class));
+  }
+
   /**
    * Ensures JGAPFactory is implementing Serializable.
    *
@@ -268,4 +324,14 @@ public class JGAPFactoryTest
     assertEquals(o, inst);
   }
 
+  static class GeneCloneHandlerForTesting
+      implements ICloneHandler, java.io.Serializable {
+    public boolean isHandlerFor(Object a_obj, Class a_class) {
+      return a_class != null && Gene.class.isAssignableFrom(a_class);
+    }
+
+    public Object perform(Object a_obj, Class a_class, Object a_params) {
+      return ( (Gene) a_obj).newGene();
+    }
+  }
 }
@@ -0,0 +1,280 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the NSGA2Selector class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NSGA2SelectorTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(NSGA2SelectorTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0()
+      throws Exception {
+    NSGA2Selector selector = new NSGA2Selector(conf);
+    assertSame(conf, selector.getConfiguration());
+    assertTrue(selector.returnsUniqueChromosomes());
+    assertTrue(selector.isRankFitness());
+    assertFalse(selector.getDoubletteChromosomesAllowed());
+  }
+
+  /**
+   * First fronts are selected completely, of the last front the extreme
+   * chromosomes are preferred.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSelect_0()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    NSGA2Selector selector = new NSGA2Selector(conf);
+    Population pop = new Population(conf);
+    double[][] objectives = new double[][] { {5, 5}, {1, 4}, {4, 1},
+        {2, 5}, {3, 3}, {5, 2}, {4, 3}};
+    for (int i = 0; i < objectives.length; i++) {
+      Chromosome chrom = new Chromosome(conf, new IntegerGene(conf, 0, 9), 1);
+      chrom.setObjectives(objectives[i]);
+      pop.addChromosome(chrom);
+    }
+    Population toPop = new Population(conf);
+    selector.select(5, pop, toPop);
+    assertEquals(5, toPop.size());
+    // Front 0: 1, 2, 4. Front 1: 3, 5, 6 of which 6 is least crowded.
+    // ---------------------------------------------------------------
+    Set<IChromosome> selected = new HashSet<IChromosome>(toPop.
+        getChromosomes());
+    for (int i = 0; i < objectives.length; i++) {
+      boolean expected = i != 0 && i != 6;
+      assertEquals(expected, selected.contains(pop.getChromosome(i)));
+      assertEquals(expected, pop.getChromosome(i).isSelectedForNextGeneration());
+    }
+    // Rank fitness: members of the first front are fittest.
+    // -----------------------------------------------------
+    assertEquals(5.0d, toPop.getChromosome(0).getFitnessValueDirectly(), DELTA);
+    assertEquals(1.0d, toPop.getChromosome(4).getFitnessValueDirectly(), DELTA);
+    IChromosome fittest = toPop.determineFittestChromosome();
+    double[] best = ( (Chromosome) fittest).getObjectives();
+    assertTrue(best == objectives[1] || best == objectives[2]
+               || best == objectives[4]);
+  }
+
+  /**
+   * Objective values given as list of multi-objectives, lower fitness values
+   * being fitter and more chromosomes requested than available.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSelect_1()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    conf.resetProperty(Configuration.PROPERTY_FITEVAL_INST);
+    conf.setFitnessEvaluator(new DeltaFitnessEvaluator());
+    NSGA2Selector selector = new NSGA2Selector(conf);
+    Population pop = new Population(conf);
+    for (int i = 0; i < 3; i++) {
+      Chromosome chrom = new Chromosome(conf, new IntegerGene(conf, 0, 9), 1);
+      List objectives = new Vector();
+      objectives.add(new Double(i));
+      objectives.add(new Double(i));
+      chrom.setMultiObjectives(objectives);
+      pop.addChromosome(chrom);
+    }
+    Population toPop = new Population(conf);
+    selector.select(5, pop, toPop);
+    assertEquals(3, toPop.size());
+    for (int i = 0; i < 3; i++) {
+      assertSame(pop.getChromosome(i), toPop.getChromosome(i));
+      assertEquals(i + 1, toPop.getChromosome(i).getFitnessValueDirectly(),
+                   DELTA);
+    }
+  }
+
+  /**
+   * Chromosomes without objective values cannot be selected.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSelect_2()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    NSGA2Selector selector = new NSGA2Selector(conf);
+    Population pop = new Population(conf);
+    pop.addChromosome(new Chromosome(conf, new IntegerGene(conf, 0, 9), 1));
+    try {
+      selector.select(1, pop, new Population(conf));
+      fail();
+    } catch (IllegalStateException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Without rank fitness the fitness values remain untouched.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSelect_3()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new RandomFitnessFunction());
+    NSGA2Selector selector = new NSGA2Selector(conf);
+    selector.setRankFitness(false);
+    Population pop = new Population(conf);
+    for (int i = 0; i < 4; i++) {
+      Chromosome chrom = new Chromosome(conf, new IntegerGene(conf, 0, 9), 1);
+      chrom.setObjectives(new double[] {i, 3 - i});
+      chrom.setFitnessValueDirectly(7.0d);
+      pop.addChromosome(chrom);
+    }
+    Population toPop = new Population(conf);
+    selector.select(2, pop, toPop);
+    assertEquals(2, toPop.size());
+    assertSame(pop.getChromosome(0), toPop.getChromosome(0));
+    assertSame(pop.getChromosome(3), toPop.getChromosome(1));
+    assertEquals(7.0d, toPop.getChromosome(0).getFitnessValueDirectly(),
+                 DELTA);
+    selector.empty();
+    toPop = new Population(conf);
+    selector.select(1, null, toPop);
+    assertEquals(0, toPop.size());
+  }
+
+  /**
+   * Evolves the Schaffer problem with a fixed seed: the first front
+   * converges to the Pareto set 0 <= x <= 2 and the fittest chromosome is
+   * not dominated by any other one.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_0()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    StockRandomGenerator randGen = new StockRandomGenerator();
+    randGen.setSeed(4711);
+    conf.setRandomGenerator(randGen);
+    conf.setFitnessFunction(new SchafferFunction());
+    conf.removeNaturalSelectors(false);
+    conf.addNaturalSelector(new NSGA2Selector(conf), false);
+    conf.setPopulationSize(40);
+    conf.setSampleChromosome(new Chromosome(conf, new DoubleGene(conf, -10.0d,
+        10.0d), 1));
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    int initial = getParetoMembers(genotype.getPopulation());
+    genotype.evolve(30);
+    // Most of the population must have converged to the Pareto set.
+    // --------------------------------------------------------------
+    int evolved = getParetoMembers(genotype.getPopulation());
+    assertTrue("members=" + evolved, evolved >= 32);
+    assertTrue(evolved > initial);
+    IChromosome fittest = genotype.getFittestChromosome();
+    double[] best = ( (Chromosome) fittest).getObjectives();
+    assertEquals(2, best.length);
+    Iterator it = genotype.getPopulation().getChromosomes().iterator();
+    while (it.hasNext()) {
+      double[] other = ( (Chromosome) it.next()).getObjectives();
+      assertFalse(NonDominatedSorter.dominates(other, best));
+    }
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testClone_0()
+      throws Exception {
+    NSGA2Selector selector = new NSGA2Selector(conf);
+    selector.setRankFitness(false);
+    NSGA2Selector clone = (NSGA2Selector) selector.clone();
+    assertNotSame(selector, clone);
+    assertEquals(selector, clone);
+    assertFalse(clone.isRankFitness());
+  }
+
+  /**
+   * @param a_pop the population to examine
+   * @return number of members of the first front lying in the Pareto set of
+   * the Schaffer problem, with a tolerance of 0.1
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  private int getParetoMembers(Population a_pop) {
+    int size = a_pop.size();
+    double[][] objectives = new double[size][];
+    for (int i = 0; i < size; i++) {
+      objectives[i] = new SchafferFunction().evaluateObjectives(a_pop.
+          getChromosome(i));
+    }
+    int[] front = NonDominatedSorter.sortFronts(objectives)[0];
+    int inside = 0;
+    for (int i = 0; i < front.length; i++) {
+      IChromosome chrom = a_pop.getChromosome(front[i]);
+      double x = ( (Double) chrom.getGene(0).getAllele()).doubleValue();
+      if (x >= -0.1d && x <= 2.1d) {
+        inside++;
+      }
+    }
+    return inside;
+  }
+
+  /**
+   * Minimizes x^2 and (x-2)^2.
+   */
+  class SchafferFunction
+      extends ObjectiveVectorFitnessFunction {
+    public double[] evaluateObjectives(IChromosome a_subject) {
+      double x = ( (Double) a_subject.getGene(0).getAllele()).doubleValue();
+      return new double[] {x * x, (x - 2) * (x - 2)};
+    }
+  }
+}
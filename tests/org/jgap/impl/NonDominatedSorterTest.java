@@ -0,0 +1,209 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the NonDominatedSorter class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class NonDominatedSorterTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(NonDominatedSorterTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSortFronts_0()
+      throws Exception {
+    double[][] objectives = new double[][] { {1, 5}, {2, 3}, {4, 1}, {3, 4},
+        {5, 5}, {2, 3}};
+    int[][] fronts = NonDominatedSorter.sortFronts(objectives);
+    assertEquals(3, fronts.length);
+    assertEquals(new int[] {0, 1, 5, 2}, fronts[0]);
+    assertEquals(new int[] {3}, fronts[1]);
+    assertEquals(new int[] {4}, fronts[2]);
+  }
+
+  /**
+   * Empty input and single objective.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSortFronts_1()
+      throws Exception {
+    assertEquals(0, NonDominatedSorter.sortFronts(new double[0][]).length);
+    int[][] fronts = NonDominatedSorter.sortFronts(new double[][] { {3}, {1},
+        {3}, {2}});
+    assertEquals(3, fronts.length);
+    assertEquals(new int[] {1}, fronts[0]);
+    assertEquals(new int[] {3}, fronts[1]);
+    assertEquals(new int[] {0, 2}, fronts[2]);
+  }
+
+  /**
+   * Vectors of different length are not allowed.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSortFronts_2()
+      throws Exception {
+    try {
+      NonDominatedSorter.sortFronts(new double[][] { {1, 2}, {1, 2, 3}});
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Compares with a naive sort for two to five objectives, with many
+   * duplicate values.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSortFronts_3()
+      throws Exception {
+    Random random = new Random(47);
+    for (int numObjectives = 2; numObjectives <= 5; numObjectives++) {
+      for (int run = 0; run < 20; run++) {
+        int size = 1 + random.nextInt(200);
+        double[][] objectives = new double[size][numObjectives];
+        for (int i = 0; i < size; i++) {
+          for (int m = 0; m < numObjectives; m++) {
+            objectives[i][m] = random.nextInt(10);
+          }
+        }
+        int[] expected = naiveFronts(objectives);
+        int[][] fronts = NonDominatedSorter.sortFronts(objectives);
+        int total = 0;
+        for (int k = 0; k < fronts.length; k++) {
+          for (int j = 0; j < fronts[k].length; j++) {
+            assertEquals(expected[fronts[k][j]], k);
+          }
+          total += fronts[k].length;
+        }
+        assertEquals(size, total);
+      }
+    }
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testCrowdingDistances_0()
+      throws Exception {
+    double[][] objectives = new double[][] { {0, 4}, {9, 9}, {1, 2}, {4, 0},
+        {2, 1}};
+    double[] distances = NonDominatedSorter.crowdingDistances(objectives,
+        new int[] {0, 2, 4, 3});
+    assertEquals(4, distances.length);
+    assertTrue(Double.isInfinite(distances[0]));
+    assertEquals(2.0d / 4 + 3.0d / 4, distances[1], DELTA);
+    assertEquals(3.0d / 4 + 2.0d / 4, distances[2], DELTA);
+    assertTrue(Double.isInfinite(distances[3]));
+  }
+
+  /**
+   * Small fronts and objectives without range.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testCrowdingDistances_1()
+      throws Exception {
+    double[][] objectives = new double[][] { {1, 1}, {1, 2}, {1, 3}};
+    double[] distances = NonDominatedSorter.crowdingDistances(objectives,
+        new int[] {2, 0});
+    assertTrue(Double.isInfinite(distances[0]));
+    assertTrue(Double.isInfinite(distances[1]));
+    distances = NonDominatedSorter.crowdingDistances(objectives,
+        new int[] {0, 1, 2});
+    assertEquals(1.0d, distances[1], DELTA);
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testDominates_0()
+      throws Exception {
+    assertTrue(NonDominatedSorter.dominates(new double[] {1, 2},
+                                            new double[] {1, 3}));
+    assertFalse(NonDominatedSorter.dominates(new double[] {1, 2},
+                                             new double[] {1, 2}));
+    assertFalse(NonDominatedSorter.dominates(new double[] {1, 4},
+                                             new double[] {2, 3}));
+  }
+
+  private void assertEquals(int[] a_expected, int[] a_actual) {
+    assertEquals(a_expected.length, a_actual.length);
+    for (int i = 0; i < a_expected.length; i++) {
+      assertEquals(a_expected[i], a_actual[i]);
+    }
+  }
+
+  private int[] naiveFronts(double[][] a_objectives) {
+    int size = a_objectives.length;
+    int[] result = new int[size];
+    Arrays.fill(result, -1);
+    int assigned = 0;
+    for (int k = 0; assigned < size; k++) {
+      List<Integer> front = new ArrayList<Integer>();
+      for (int i = 0; i < size; i++) {
+        if (result[i] >= 0) {
+          continue;
+        }
+        boolean dominated = false;
+        for (int j = 0; j < size && !dominated; j++) {
+          dominated = result[j] < 0 && NonDominatedSorter.dominates(
+              a_objectives[j], a_objectives[i]);
+        }
+        if (!dominated) {
+          front.add(new Integer(i));
+        }
+      }
+      for (Integer i : front) {
+        result[i.intValue()] = k;
+      }
+      assigned += front.size();
+    }
+    return result;
+  }
+}
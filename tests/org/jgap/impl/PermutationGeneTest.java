@@ -0,0 +1,209 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.io.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the PermutationGene class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class PermutationGeneTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(PermutationGeneTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 4, 1);
+    assertEquals(4, gene.size());
+    assertEquals(1, gene.getStartOffset());
+    assertEquals("PermutationGene[0, 1, 2, 3]", gene.toString());
+    try {
+      new PermutationGene(conf, 0, 0);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    try {
+      new PermutationGene(conf, 3, 4);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Only permutations are accepted as allele, which is copied.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSetAllele_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 3, 0);
+    int[] allele = new int[] {2, 0, 1};
+    gene.setAllele(allele);
+    allele[0] = 1;
+    assertEquals(2, gene.getPermutation()[0]);
+    int[][] invalid = new int[][] { {0, 1}, {0, 1, 1}, {0, 1, 3}};
+    for (int i = 0; i < invalid.length; i++) {
+      try {
+        gene.setAllele(invalid[i]);
+        fail();
+      } catch (IllegalArgumentException iex) {
+        ; //this is OK
+      }
+    }
+  }
+
+  /**
+   * Randomization and mutation keep the permutation and the start offset.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testSetToRandomValue_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 50, 2);
+    RandomGenerator random = new StockRandomGenerator();
+    gene.setToRandomValue(random);
+    for (int i = 0; i < 50; i++) {
+      gene.applyMutation(i, random.nextDouble() * 2 - 1);
+    }
+    int[] permutation = gene.getPermutation();
+    assertEquals(0, permutation[0]);
+    assertEquals(1, permutation[1]);
+    // The allele is checked to be a permutation.
+    // ------------------------------------------
+    gene.setAllele(permutation.clone());
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testApplyMutation_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 5, 1);
+    gene.applyMutation(0, 0.9d);
+    gene.applyMutation(1, 0.0d);
+    assertEquals("PermutationGene[0, 1, 2, 3, 4]", gene.toString());
+    gene.applyMutation(1, 0.5d);
+    assertEquals("PermutationGene[0, 3, 2, 1, 4]", gene.toString());
+    gene.applyMutation(4, 0.4d);
+    assertEquals("PermutationGene[0, 4, 2, 1, 3]", gene.toString());
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPersistentRepresentation_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 4, 1);
+    gene.setAllele(new int[] {0, 3, 1, 2});
+    String repr = gene.getPersistentRepresentation();
+    assertEquals("1:[0,3,1,2]", repr);
+    PermutationGene gene2 = new PermutationGene(conf, 4, 1);
+    gene2.setValueFromPersistentRepresentation(repr);
+    assertEquals(gene, gene2);
+    String[] invalid = new String[] {null, "1:[0,3,1]", "0:[0,3,1,2]",
+        "1:[0,3,1,1]", "1:0,3,1,2", "x:[0,3,1,2]"};
+    for (int i = 0; i < invalid.length; i++) {
+      try {
+        gene2.setValueFromPersistentRepresentation(invalid[i]);
+        fail(invalid[i]);
+      } catch (UnsupportedRepresentationException uex) {
+        ; //this is OK
+      }
+    }
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWriteTo_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 4, 0);
+    gene.setAllele(new int[] {3, 0, 2, 1});
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    gene.writeTo(new DataOutputStream(bytes));
+    PermutationGene gene2 = new PermutationGene(conf, 4, 0);
+    gene2.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.
+        toByteArray())));
+    assertEquals(gene, gene2);
+    assertEquals(gene.hashCode(), gene2.hashCode());
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testCompareTo_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 3, 0);
+    PermutationGene gene2 = new PermutationGene(conf, 3, 0);
+    assertEquals(0, gene.compareTo(gene2));
+    assertEquals(1, gene.compareTo(null));
+    gene2.setAllele(new int[] {0, 2, 1});
+    assertEquals( -1, gene.compareTo(gene2));
+    assertEquals(1, gene2.compareTo(gene));
+    assertEquals( -1, gene.compareTo(new PermutationGene(conf, 4, 0)));
+    assertFalse(gene.equals(gene2));
+  }
+
+  /**
+   * Cloning a chromosome copies the permutation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testNewGene_0()
+      throws Exception {
+    PermutationGene gene = new PermutationGene(conf, 6, 1);
+    gene.setToRandomValue(new StockRandomGenerator());
+    Chromosome chrom = new Chromosome(conf, new Gene[] {gene});
+    Chromosome copy = (Chromosome) chrom.clone();
+    PermutationGene geneCopy = (PermutationGene) copy.getGene(0);
+    assertNotSame(gene.getPermutation(), geneCopy.getPermutation());
+    assertEquals(gene, geneCopy);
+    assertEquals(1, geneCopy.getStartOffset());
+  }
+}
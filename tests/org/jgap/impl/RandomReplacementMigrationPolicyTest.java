@@ -0,0 +1,90 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import java.util.*;
+
+import junit.framework.*;
+import org.jgap.*;
+
+/**
+ * Tests the RandomReplacementMigrationPolicy class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class RandomReplacementMigrationPolicyTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(RandomReplacementMigrationPolicyTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetTargets_0()
+      throws Exception {
+    RandomReplacementMigrationPolicy policy = new
+        RandomReplacementMigrationPolicy();
+    RandomGenerator random = new StockRandomGenerator();
+    for (int i = 0; i < 50; i++) {
+      int[] targets = policy.getTargets(2, 4, random);
+      assertEquals(1, targets.length);
+      assertTrue(targets[0] != 2);
+      assertTrue(targets[0] >= 0 && targets[0] < 4);
+    }
+  }
+
+  /**
+   * The fittest chromosome is never replaced, and each immigrant replaces a
+   * different chromosome.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testInsertImmigrants_0()
+      throws Exception {
+    conf.setFitnessFunction(new TestFitnessFunction());
+    Population pop = new Population(conf);
+    for (int i = 0; i < 5; i++) {
+      pop.addChromosome(createChromosome(i + 1));
+    }
+    List<IChromosome> immigrants = new Vector<IChromosome>();
+    for (int i = 0; i < 4; i++) {
+      immigrants.add(createChromosome(0.5d));
+    }
+    new RandomReplacementMigrationPolicy().insertImmigrants(pop, immigrants,
+        new StockRandomGenerator());
+    assertEquals(5, pop.size());
+    assertEquals(5.0d, pop.getChromosome(0).getFitnessValueDirectly(), DELTA);
+    for (int i = 0; i < immigrants.size(); i++) {
+      boolean found = false;
+      for (int j = 1; j < 5; j++) {
+        if (pop.getChromosome(j) == immigrants.get(i)) {
+          found = true;
+        }
+      }
+      assertTrue(found);
+    }
+  }
+
+  private IChromosome createChromosome(double a_fitness)
+      throws Exception {
+    IChromosome chrom = new Chromosome(conf, new Gene[] {new IntegerGene(conf)});
+    chrom.setFitnessValueDirectly(a_fitness);
+    return chrom;
+  }
+}
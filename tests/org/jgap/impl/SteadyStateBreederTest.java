@@ -0,0 +1,223 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl;
+
+import junit.framework.*;
+import org.jgap.*;
+import org.jgap.event.*;
+
+/**
+ * Tests the SteadyStateBreeder class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class SteadyStateBreederTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(SteadyStateBreederTest.class);
+    return suite;
+  }
+
+  public void setUp() {
+    super.setUp();
+    Configuration.reset();
+  }
+
+  /**
+   * Population size stays constant, the fittest chromosome never gets lost
+   * with REPLACE_WORST.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_0()
+      throws Exception {
+    SteadyStateBreeder breeder = new SteadyStateBreeder(3);
+    Genotype gen = createGenotype(breeder);
+    final int[] events = new int[1];
+    conf.getEventManager().addEventListener(GeneticEvent.
+        GENOTYPE_EVOLVED_EVENT, new GeneticEventListener() {
+      public void geneticEventFired(GeneticEvent a_firedEvent) {
+        events[0]++;
+      }
+    });
+    try {
+      double best = 0.0d;
+      for (int i = 0; i < 5; i++) {
+        gen.evolve();
+        assertEquals(20, gen.getPopulation().size());
+        double fitness = gen.getFittestChromosome().getFitnessValue();
+        assertTrue(fitness >= best);
+        best = fitness;
+        for (IChromosome chrom : gen.getPopulation().getChromosomes()) {
+          assertTrue(chrom.getFitnessValueDirectly() > 0.0d);
+        }
+      }
+      assertEquals(5, conf.getGenerationNr());
+      assertEquals(5, events[0]);
+      assertSame(gen.getPopulation(), breeder.getLastPopulation());
+      // Workers keep evaluating across virtual generations.
+      // ---------------------------------------------------
+      assertTrue(breeder.getPendingEvaluations() <= 3);
+    } finally {
+      breeder.shutdown();
+    }
+    assertEquals(0, breeder.getPendingEvaluations());
+  }
+
+  /**
+   * Replacement of tournament losers with small virtual generations.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolve_1()
+      throws Exception {
+    SteadyStateBreeder breeder = new SteadyStateBreeder(2);
+    breeder.setReplacement(SteadyStateBreeder.REPLACE_TOURNAMENT_LOSER);
+    breeder.setTournamentSize(3);
+    breeder.setGenerationSize(5);
+    Genotype gen = createGenotype(breeder);
+    try {
+      gen.evolve(4);
+      assertEquals(4, conf.getGenerationNr());
+      assertEquals(20, gen.getPopulation().size());
+    } finally {
+      breeder.shutdown();
+    }
+  }
+
+  /**
+   * Tournament losers never include the fittest chromosome if it is to be
+   * preserved.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testInsert_0()
+      throws Exception {
+    SteadyStateBreeder breeder = new SteadyStateBreeder(1);
+    breeder.setReplacement(SteadyStateBreeder.REPLACE_TOURNAMENT_LOSER);
+    breeder.setTournamentSize(1);
+    setUpConfiguration(breeder, 3);
+    conf.setPreservFittestIndividual(true);
+    try {
+      Population pop = new Population(conf, 3);
+      double[] fitness = new double[] {1.0d, 50.0d, 3.0d};
+      for (int i = 0; i < fitness.length; i++) {
+        IChromosome chrom = Chromosome.randomInitialChromosome(conf);
+        chrom.setFitnessValueDirectly(fitness[i]);
+        pop.addChromosome(chrom);
+      }
+      IChromosome best = pop.getChromosome(1);
+      for (int i = 0; i < 50; i++) {
+        IChromosome child = Chromosome.randomInitialChromosome(conf);
+        child.setFitnessValueDirectly(0.5d);
+        breeder.insert(conf, pop, child);
+        assertEquals(3, pop.size());
+        assertSame(best, pop.getChromosome(1));
+      }
+    } finally {
+      breeder.shutdown();
+    }
+  }
+
+  /**
+   * With a population of one, the fittest chromosome is only replaced by a
+   * fitter one if it is to be preserved.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testInsert_1()
+      throws Exception {
+    SteadyStateBreeder breeder = new SteadyStateBreeder(1);
+    setUpConfiguration(breeder, 1);
+    conf.setPreservFittestIndividual(true);
+    try {
+      Population pop = new Population(conf, 1);
+      IChromosome chrom = Chromosome.randomInitialChromosome(conf);
+      chrom.setFitnessValueDirectly(10.0d);
+      pop.addChromosome(chrom);
+      IChromosome child = Chromosome.randomInitialChromosome(conf);
+      child.setFitnessValueDirectly(5.0d);
+      breeder.insert(conf, pop, child);
+      assertSame(chrom, pop.getChromosome(0));
+      child = Chromosome.randomInitialChromosome(conf);
+      child.setFitnessValueDirectly(20.0d);
+      breeder.insert(conf, pop, child);
+      assertSame(child, pop.getChromosome(0));
+    } finally {
+      breeder.shutdown();
+    }
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testClone_0()
+      throws Exception {
+    SteadyStateBreeder breeder = new SteadyStateBreeder(4);
+    breeder.setGenerationSize(7);
+    breeder.setReplacement(SteadyStateBreeder.REPLACE_TOURNAMENT_LOSER);
+    SteadyStateBreeder clone = (SteadyStateBreeder) breeder.clone();
+    assertEquals(4, clone.getWorkers());
+    assertEquals(7, clone.getGenerationSize());
+    assertEquals(SteadyStateBreeder.REPLACE_TOURNAMENT_LOSER,
+                 clone.getReplacement());
+    try {
+      breeder.setReplacement(2);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  private Genotype createGenotype(IBreeder a_breeder)
+      throws Exception {
+    setUpConfiguration(a_breeder, 20);
+    return Genotype.randomInitialGenotype(conf);
+  }
+
+  private void setUpConfiguration(IBreeder a_breeder, int a_popSize)
+      throws Exception {
+    conf.setBreeder(a_breeder);
+    conf.setFitnessFunction(new SumFitness());
+    Gene[] genes = new Gene[4];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(conf, 0, 50);
+    }
+    conf.setSampleChromosome(new Chromosome(conf, genes));
+    conf.setPopulationSize(a_popSize);
+  }
+
+  class SumFitness
+      extends FitnessFunction {
+    protected double evaluate(IChromosome a_subject) {
+      double sum = 1.0d;
+      for (int i = 0; i < a_subject.size(); i++) {
+        sum += ( (Integer) a_subject.getGene(i).getAllele()).intValue();
+      }
+      return sum;
+    }
+  }
+}
@@ -566,6 +566,52 @@ public class StringGeneTest
     assertEquals(pres1, pres2);
   }
 
+  /**
+   * Binary representation incl. characters to be encoded in the
+   * persistent representation.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_0()
+      throws Exception {
+    StringGene gene1 = new StringGene(conf, 0, 10, "ab:<>#%");
+    gene1.setAllele("a:<#%b");
+    StringGene gene2 = new StringGene(conf);
+    doBinaryCopy(gene1, gene2);
+    assertEquals("a:<#%b", gene2.getAllele());
+    assertEquals("ab:<>#%", gene2.getAlphabet());
+    assertEquals(10, gene2.getMaxLength());
+    assertEquals(gene1.getPersistentRepresentation(),
+                 gene2.getPersistentRepresentation());
+    assertEquals(gene1.getContentHash(), gene2.getContentHash());
+  }
+
+  /**
+   * A value not matching the alphabet read is rejected.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBinaryRepresentation_1()
+      throws Exception {
+    StringGene gene1 = new StringGene(conf, 0, 10, "ab");
+    gene1.setAllele("ab");
+    gene1.setAlphabet("xy");
+    StringGene gene2 = new StringGene(conf);
+    try {
+      doBinaryCopy(gene1, gene2);
+      fail();
+    } catch (UnsupportedRepresentationException uex) {
+      ; //this is OK
+    }
+    assertNull(gene2.getAllele());
+  }
+
   /**
    * @throws Exception
    *
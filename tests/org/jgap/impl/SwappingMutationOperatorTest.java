@@ -339,6 +339,104 @@ public class SwappingMutationOperatorTest
     assertTrue(isSerializable(op));
   }
 
+  /**
+   * With an IncrementalFitnessFunction configured, exactly the swapped loci
+   * are recorded.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperate_6()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new IncrementalFitnessFunction() {
+      protected double evaluateFully(IChromosome a_subject) {
+        return 1;
+      }
+
+      protected double evaluateDelta(IChromosome a_parent,
+                                     IChromosome a_subject, int[] a_loci) {
+        return 0;
+      }
+    });
+    SwappingMutationOperator op = new SwappingMutationOperator(conf, 3);
+    Gene[] genes = new Gene[30];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(conf, 0, genes.length - 1);
+      genes[i].setAllele(new Integer(i));
+    }
+    Chromosome parent = new Chromosome(conf, genes);
+    for (int n = 0; n < 20; n++) {
+      Chromosome child = (Chromosome) op.operate(parent, 3,
+          conf.getRandomGenerator());
+      if (child == null) {
+        continue;
+      }
+      ChangeSet changes = child.getChangeSet();
+      assertNotNull(changes);
+      assertSame(parent, changes.getParent());
+      for (int i = 0; i < genes.length; i++) {
+        if (!child.getGene(i).equals(parent.getGene(i))) {
+          assertTrue(changes.contains(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * The loci recorded for an incremental fitness function are the ones
+   * reported by getSwapPartner.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperate_7()
+      throws Exception {
+    Configuration.reset();
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new IncrementalFitnessFunction() {
+      protected double evaluateFully(IChromosome a_subject) {
+        return 1;
+      }
+
+      protected double evaluateDelta(IChromosome a_parent,
+                                     IChromosome a_subject, int[] a_loci) {
+        return 0;
+      }
+    });
+    SwappingMutationOperator op = new SwappingMutationOperator(conf, 1) {
+      protected int getSwapPartner(RandomGenerator a_generator,
+                                   int a_target_gene, Gene[] a_genes) {
+        return a_genes.length - 1;
+      }
+    };
+    Gene[] genes = new Gene[6];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(conf, 0, genes.length - 1);
+      genes[i].setAllele(new Integer(i));
+    }
+    Chromosome parent = new Chromosome(conf, genes);
+    Chromosome child = (Chromosome) op.operate(parent, 1,
+        conf.getRandomGenerator());
+    ChangeSet changes = child.getChangeSet();
+    assertNotNull(changes);
+    int[] loci = changes.getLoci();
+    assertEquals(5, loci.length);
+    for (int i = 0; i < loci.length; i++) {
+      assertEquals(i + 1, loci[i]);
+    }
+    assertFalse(changes.contains(0));
+    // The last gene moved to locus 1, the others were shifted by one.
+    // ---------------------------------------------------------------
+    assertEquals(new Integer(5), child.getGene(1).getAllele());
+    assertEquals(new Integer(4), child.getGene(5).getAllele());
+  }
+
   /**
    * Ensures that the operator and all objects contained implement Serializable
    * @throws Exception
@@ -23,6 +23,7 @@ public class AllJobTests
   public static Test suite() {
     TestSuite suite = new TestSuite("AllJobTests");
     suite.addTest(EvolveDataTest.suite());
+    suite.addTest(JobExecutorTest.suite());
     return suite;
   }
 }
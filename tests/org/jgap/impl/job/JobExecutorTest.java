@@ -0,0 +1,222 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.job;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the JobExecutor class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class JobExecutorTest
+    extends JGAPTestCase {
+  private JobExecutor m_executor;
+
+  public static Test suite() {
+    return new TestSuite(JobExecutorTest.class);
+  }
+
+  public void setUp() {
+    super.setUp();
+    Configuration.reset();
+    m_executor = new JobExecutor(2, 3);
+  }
+
+  public void tearDown() {
+    m_executor.shutdown();
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWaitForAll_0()
+      throws Exception {
+    final List finished = new Vector();
+    m_executor.addJobListener(new IJobListener() {
+      public void jobFinished(IJob a_job, JobResult a_result) {
+        finished.add(a_result);
+      }
+
+      public void jobFailed(IJob a_job, Throwable a_cause) {
+      }
+    });
+    for (int i = 0; i < 10; i++) {
+      m_executor.submit(new SleepJob(i, 5));
+    }
+    List<JobResult> results = m_executor.waitForAll();
+    assertEquals(10, results.size());
+    Set values = new HashSet();
+    for (JobResult result : results) {
+      values.add(new Integer( ( (NumberResult) result).m_value));
+    }
+    assertEquals(10, values.size());
+    assertEquals(10, finished.size());
+    assertEquals(0, m_executor.getActiveJobs());
+    // Nothing pending: returns immediately.
+    // -------------------------------------
+    assertEquals(0, m_executor.waitForAll().size());
+  }
+
+  /**
+   * Failure of a job is reported after all jobs completed.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testWaitForAll_1()
+      throws Exception {
+    m_executor.submit(new SleepJob(1, 0));
+    m_executor.submit(new SleepJob( -1, 0));
+    m_executor.submit(new SleepJob(2, 10));
+    try {
+      m_executor.waitForAll();
+      fail();
+    } catch (ExecutionException eex) {
+      ; //this is OK
+    }
+    assertEquals(0, m_executor.getActiveJobs());
+  }
+
+  /**
+   * A job exceeding its timeout is cancelled.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testTimeout_0()
+      throws Exception {
+    final List failed = new Vector();
+    m_executor.addJobListener(new IJobListener() {
+      public void jobFinished(IJob a_job, JobResult a_result) {
+      }
+
+      public void jobFailed(IJob a_job, Throwable a_cause) {
+        failed.add(a_cause);
+      }
+    });
+    Future<JobResult> future = m_executor.submit(new SleepJob(1, 10000), 20);
+    try {
+      m_executor.waitForAll();
+      fail();
+    } catch (CancellationException cex) {
+      ; //this is OK
+    }
+    assertTrue(future.isCancelled());
+    assertEquals(1, failed.size());
+    assertTrue(failed.get(0) instanceof CancellationException);
+  }
+
+  /**
+   * Submitting blocks when the maximum number of pending jobs is reached.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testBackPressure_0()
+      throws Exception {
+    for (int i = 0; i < 3; i++) {
+      m_executor.submit(new SleepJob(i, 200));
+    }
+    long start = System.currentTimeMillis();
+    m_executor.submit(new SleepJob(3, 0));
+    assertTrue(System.currentTimeMillis() - start >= 100);
+    assertEquals(4, m_executor.waitForAll().size());
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testCancelAll_0()
+      throws Exception {
+    m_executor.submit(new SleepJob(1, 10000));
+    m_executor.submit(new SleepJob(2, 10000));
+    m_executor.cancelAll();
+    try {
+      m_executor.waitForAll();
+      fail();
+    } catch (CancellationException cex) {
+      ; //this is OK
+    }
+    assertEquals(0, m_executor.getActiveJobs());
+  }
+
+  /**
+   * Split evolution of a genotype via the executor.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testEvolveGenotype_0()
+      throws Exception {
+    conf.setPreservFittestIndividual(true);
+    conf.setKeepPopulationSizeConstant(false);
+    conf.setSampleChromosome(new Chromosome(conf, new BooleanGene(conf), 8));
+    conf.setPopulationSize(12);
+    conf.setFitnessFunction(new MaxFunction());
+    Genotype genotype = Genotype.randomInitialGenotype(conf);
+    genotype.evolve(new SimplePopulationSplitter(3),
+                    new FittestPopulationMerger(), m_executor);
+    // Three fittest chromosomes of each of the three chunks.
+    // ------------------------------------------------------
+    assertEquals(9, genotype.getPopulation().size());
+    assertNotNull(genotype.getFittestChromosome());
+  }
+
+  class NumberResult
+      extends JobResult {
+    int m_value;
+  }
+
+  class SleepJob
+      extends JobBase {
+    private int m_value;
+
+    private long m_sleep;
+
+    public SleepJob(int a_value, long a_sleep) {
+      super(null);
+      m_value = a_value;
+      m_sleep = a_sleep;
+    }
+
+    public JobResult execute(JobData a_data)
+        throws Exception {
+      Thread.sleep(m_sleep);
+      if (m_value < 0) {
+        throw new IllegalArgumentException("Negative value");
+      }
+      NumberResult result = new NumberResult();
+      result.m_value = m_value;
+      return result;
+    }
+  }
+}
@@ -23,6 +23,8 @@ public class AllSalesmanTests
   public static Test suite() {
     TestSuite suite = new TestSuite("AllSalesmanTests");
     suite.addTestSuite(TravellingSalesmanTest.class);
+    suite.addTestSuite(DistanceMatrixTest.class);
+    suite.addTestSuite(TwoOptOperatorTest.class);
     return suite;
   }
 }
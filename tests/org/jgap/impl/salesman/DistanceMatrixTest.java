@@ -0,0 +1,121 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.salesman;
+
+import java.io.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the DistanceMatrix class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class DistanceMatrixTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(DistanceMatrixTest.class);
+    return suite;
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0()
+      throws Exception {
+    try {
+      new DistanceMatrix(0, false);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    try {
+      new DistanceMatrix(50000, true);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+
+  /**
+   * Distances held as doubles and floats, not symmetric.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetDistance_0()
+      throws Exception {
+    DistanceMatrix doubles = new DistanceMatrix(3, false);
+    DistanceMatrix floats = new DistanceMatrix(3, true);
+    assertEquals(3, doubles.getSize());
+    doubles.setDistance(0, 2, 1.1d);
+    floats.setDistance(0, 2, 1.1d);
+    assertEquals(1.1d, doubles.getDistance(0, 2), 0.0d);
+    assertEquals(0.0d, doubles.getDistance(2, 0), 0.0d);
+    assertEquals( (float) 1.1d, floats.getDistance(0, 2), 0.0d);
+    assertEquals(0.0d, floats.getDistance(2, 0), 0.0d);
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetTourLength_0()
+      throws Exception {
+    DistanceMatrix matrix = new DistanceMatrix(3, false);
+    matrix.setDistance(0, 1, 1.0d);
+    matrix.setDistance(1, 2, 2.0d);
+    matrix.setDistance(2, 0, 4.0d);
+    matrix.setDistance(0, 2, 8.0d);
+    assertEquals(7.0d, matrix.getTourLength(new int[] {0, 1, 2}), DELTA);
+    assertEquals(7.0d, matrix.getTourLength(new int[] {1, 2, 0}), DELTA);
+    assertEquals(8.0d + 0.0d + 0.0d,
+                 matrix.getTourLength(new int[] {0, 2, 1}), DELTA);
+    assertEquals(0.0d, matrix.getTourLength(new int[0]), DELTA);
+  }
+
+  /**
+   * Distances in a memory-mapped file are kept when mapping it again.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testMapped_0()
+      throws Exception {
+    File file = File.createTempFile("jgap", ".dist");
+    try {
+      DistanceMatrix matrix = new DistanceMatrix(file, 10);
+      matrix.setDistance(9, 3, 2.5d);
+      assertEquals(2.5d, matrix.getDistance(9, 3), 0.0d);
+      matrix.close();
+      assertEquals(400, file.length());
+      matrix = new DistanceMatrix(file, 10);
+      assertEquals(2.5d, matrix.getDistance(9, 3), 0.0d);
+      matrix.close();
+      matrix = new DistanceMatrix(file, 5);
+      assertEquals(100, file.length());
+      matrix.close();
+    } finally {
+      file.delete();
+    }
+  }
+}
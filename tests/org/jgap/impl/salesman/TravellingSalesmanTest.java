@@ -75,6 +75,144 @@ public class TravellingSalesmanTest
     assertEquals(47, t.getStartOffset());
   }
 
+  /**
+   * Tours as PermutationGene with precomputed distances and 2-opt local
+   * search: cities on a circle are visited in order.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPermutation_0()
+      throws Exception {
+    final int cities = 30;
+    Salesman t = new Salesman() {
+      public double distance(Gene a_from, Gene a_to) {
+        throw new UnsupportedOperationException();
+      }
+
+      public IChromosome createSampleChromosome(Object a_initial_data) {
+        try {
+          return new Chromosome(getConfiguration(), new Gene[] {
+                                new PermutationGene(getConfiguration(),
+              cities, getStartOffset())});
+        } catch (InvalidConfigurationException iex) {
+          throw new IllegalStateException(iex.getMessage());
+        }
+      }
+
+      public Configuration createConfiguration(Object a_initial_data)
+          throws InvalidConfigurationException {
+        Configuration config = super.createConfiguration(a_initial_data);
+        config.addGeneticOperator(new TwoOptOperator(config, this, 1, 100));
+        return config;
+      }
+    };
+    DistanceMatrix matrix = new DistanceMatrix(cities, true);
+    for (int i = 0; i < cities; i++) {
+      for (int j = 0; j < cities; j++) {
+        matrix.setDistance(i, j, 2 * Math.abs(Math.sin(Math.PI * (i - j)
+            / cities)));
+      }
+    }
+    t.setDistanceMatrix(matrix);
+    t.setPopulationSize(10);
+    t.setMaxEvolution(5);
+    IChromosome optimal = t.findOptimalPath(null);
+    int[] tour = ( (PermutationGene) optimal.getGene(0)).getPermutation();
+    assertEquals(0, tour[0]);
+    assertEquals(cities * 2 * Math.sin(Math.PI / cities),
+                 t.getTourLength(tour), 1E-4);
+  }
+
+  /**
+   * Swapped cities are evaluated incrementally with the same result as the
+   * full evaluation, also at the ends of the tour.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testIncremental_0()
+      throws Exception {
+    SalesmanFitnessFunction fitFunc = new SalesmanFitnessFunction(
+        new TravellingSalesmanForTesting());
+    Gene[] genes = new Gene[40];
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(conf, 0, genes.length - 1);
+      genes[i].setAllele(new Integer( (i * 7) % genes.length));
+    }
+    Chromosome parent = new Chromosome(conf, genes);
+    parent.setFitnessValueDirectly(fitFunc.getFitnessValue(parent));
+    int[][] swaps = new int[][] { {3, 17}, {5, 6}, {0, 39}, {39, 1}, {8, 8}};
+    for (int i = 0; i < swaps.length; i++) {
+      Chromosome child = (Chromosome) parent.clone();
+      Gene[] childGenes = child.getGenes();
+      Gene t = childGenes[swaps[i][0]];
+      childGenes[swaps[i][0]] = childGenes[swaps[i][1]];
+      childGenes[swaps[i][1]] = t;
+      ChangeSet changes = new ChangeSet(parent);
+      changes.add(swaps[i][0]);
+      changes.add(swaps[i][1]);
+      child.setChangeSet(changes);
+      assertTrue(fitFunc.isIncremental(child, changes));
+      assertEquals(fitFunc.evaluateFully(child), fitFunc.getFitnessValue(child),
+                   DELTA);
+    }
+  }
+
+  /**
+   * Evolution with incremental evaluation of swapped tours, each incremental
+   * result being verified.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testIncremental_1()
+      throws Exception {
+    final int[] incremental = new int[1];
+    Salesman t = new Salesman() {
+      public IChromosome createSampleChromosome(Object a_initial_data) {
+        try {
+          Gene[] genes = new Gene[40];
+          for (int i = 0; i < genes.length; i++) {
+            genes[i] = new IntegerGene(getConfiguration(), 0, genes.length - 1);
+            genes[i].setAllele(new Integer(i));
+          }
+          return new Chromosome(getConfiguration(), genes);
+        } catch (InvalidConfigurationException iex) {
+          throw new IllegalStateException(iex.getMessage());
+        }
+      }
+
+      public double distance(Gene a_from, Gene a_to) {
+        return Math.abs( ( (IntegerGene) a_from).intValue()
+                        - ( (IntegerGene) a_to).intValue());
+      }
+
+      public FitnessFunction createFitnessFunction(Object a_initial_data) {
+        SalesmanFitnessFunction fitFunc = new SalesmanFitnessFunction(this) {
+          protected double evaluateDelta(IChromosome a_parent,
+                                         IChromosome a_subject, int[] a_loci) {
+            incremental[0]++;
+            return super.evaluateDelta(a_parent, a_subject, a_loci);
+          }
+        };
+        fitFunc.setVerificationRate(1);
+        return fitFunc;
+      }
+    };
+    t.setPopulationSize(20);
+    t.setMaxEvolution(10);
+    IChromosome optimal = t.findOptimalPath(null);
+    assertTrue(optimal.getFitnessValue() > 0);
+    assertTrue(incremental[0] > 0);
+  }
+
   /**
    * Explains how to use JGap extensions, needed to solve the task group,
    * known as the <i>Problem of the travelling salesman</i>. The extensions are
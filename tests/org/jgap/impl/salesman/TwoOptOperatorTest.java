@@ -0,0 +1,187 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.impl.salesman;
+
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the TwoOptOperator class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class TwoOptOperatorTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(TwoOptOperatorTest.class);
+    return suite;
+  }
+
+  public void setUp() {
+    super.setUp();
+    Configuration.reset();
+  }
+
+  /**
+   * Cities on a circle: 2-opt finds the optimal tour.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testImprove_0()
+      throws Exception {
+    CircleSalesman salesman = new CircleSalesman(40);
+    TwoOptOperator op = new TwoOptOperator(conf, salesman, 1, 100);
+    PermutationGene gene = new PermutationGene(conf, 40, 1);
+    gene.setToRandomValue(new StockRandomGenerator());
+    int[] tour = (int[]) gene.getPermutation().clone();
+    double before = salesman.getTourLength(tour);
+    assertTrue(op.improve(tour));
+    assertEquals(0, tour[0]);
+    double optimal = salesman.getTourLength( ( (PermutationGene) gene.
+        newGene()).getPermutation());
+    assertTrue(before > optimal);
+    assertEquals(optimal, salesman.getTourLength(tour), 1E-9);
+    assertFalse(op.improve(tour));
+  }
+
+  /**
+   * Chromosomes with one gene per city and with a PermutationGene are
+   * improved as copies.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testOperate_0()
+      throws Exception {
+    conf = new DefaultConfiguration();
+    conf.setFitnessFunction(new TestFitnessFunction());
+    conf.setPopulationSize(2);
+    CircleSalesman salesman = new CircleSalesman(6);
+    TwoOptOperator op = new TwoOptOperator(conf, salesman, 2, 10);
+    Gene[] genes = new Gene[6];
+    int[] tour = new int[] {0, 3, 1, 4, 2, 5};
+    for (int i = 0; i < genes.length; i++) {
+      genes[i] = new IntegerGene(conf, 0, 5);
+      genes[i].setAllele(new Integer(tour[i]));
+    }
+    Chromosome cities = new Chromosome(conf, genes);
+    PermutationGene gene = new PermutationGene(conf, 6, 1);
+    gene.setAllele(tour);
+    Chromosome perm = new Chromosome(conf, new Gene[] {gene});
+    Population pop = new Population(conf, new IChromosome[] {cities, perm});
+    List candidates = new Vector();
+    op.operate(pop, candidates);
+    assertEquals(2, candidates.size());
+    assertEquals(3, ( (IntegerGene) cities.getGene(1)).intValue());
+    assertEquals(3, gene.getPermutation()[1]);
+    for (int i = 0; i < 2; i++) {
+      IChromosome chrom = (IChromosome) candidates.get(i);
+      int[] improved;
+      if (chrom.size() == 1) {
+        improved = ( (PermutationGene) chrom.getGene(0)).getPermutation();
+      }
+      else {
+        improved = new int[6];
+        for (int j = 0; j < 6; j++) {
+          improved[j] = salesman.getCityIndex(chrom.getGene(j));
+        }
+      }
+      assertEquals(6.0d * 2 * Math.sin(Math.PI / 6),
+                   salesman.getTourLength(improved), 1E-9);
+    }
+  }
+
+  /**
+   * The start offset of a PermutationGene is respected if greater than the
+   * one of the salesman.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testImprove_1()
+      throws Exception {
+    CircleSalesman salesman = new CircleSalesman(8);
+    TwoOptOperator op = new TwoOptOperator(conf, salesman, 1, 10);
+    PermutationGene gene = new PermutationGene(conf, 8, 3);
+    gene.setAllele(new int[] {0, 5, 2, 7, 1, 4, 6, 3});
+    Chromosome chrom = new Chromosome(conf, new Gene[] {gene});
+    assertTrue(op.improve(chrom));
+    int[] tour = gene.getPermutation();
+    assertEquals(0, tour[0]);
+    assertEquals(5, tour[1]);
+    assertEquals(2, tour[2]);
+    // With the offset of the salesman only, the prefix is changed.
+    // -------------------------------------------------------------
+    int[] tour2 = new int[] {0, 5, 2, 7, 1, 4, 6, 3};
+    assertTrue(op.improve(tour2));
+    assertFalse(tour2[1] == 5 && tour2[2] == 2);
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0()
+      throws Exception {
+    try {
+      new TwoOptOperator(conf, new CircleSalesman(3), 0, 1);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    TwoOptOperator op = new TwoOptOperator(conf, new CircleSalesman(3));
+    assertEquals(0, op.compareTo(new TwoOptOperator(conf,
+        new CircleSalesman(3), 1, 10)));
+    assertEquals(1, op.compareTo(null));
+  }
+
+  /**
+   * Cities evenly spread on the unit circle, with a precomputed distance
+   * matrix.
+   */
+  class CircleSalesman
+      extends Salesman {
+    private int m_cities;
+
+    public CircleSalesman(int a_cities) {
+      m_cities = a_cities;
+      DistanceMatrix matrix = new DistanceMatrix(a_cities, false);
+      for (int i = 0; i < a_cities; i++) {
+        for (int j = 0; j < a_cities; j++) {
+          double angle = 2 * Math.PI * (i - j) / a_cities;
+          matrix.setDistance(i, j, 2 * Math.abs(Math.sin(angle / 2)));
+        }
+      }
+      setDistanceMatrix(matrix);
+    }
+
+    public double distance(Gene a_from, Gene a_to) {
+      return distance(getCityIndex(a_from), getCityIndex(a_to));
+    }
+
+    public IChromosome createSampleChromosome(Object a_initial_data) {
+      return null;
+    }
+  }
+}
@@ -22,7 +22,10 @@ public class AllUtilTests
 
   public static Test suite() {
     TestSuite suite = new TestSuite("AllUtilTests");
+    suite.addTest(ChromosomeRankingTest.suite());
+    suite.addTest(ContentHashTest.suite());
     suite.addTest(FileKitTest.suite());
+    suite.addTest(JournalMapTest.suite());
     suite.addTest(NumberKitTest.suite());
     suite.addTest(PluginDiscovererTest.suite());
     return suite;
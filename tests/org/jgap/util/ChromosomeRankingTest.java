@@ -0,0 +1,175 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.util.*;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the ChromosomeRanking class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ChromosomeRankingTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    return new TestSuite(ChromosomeRankingTest.class);
+  }
+
+  /**
+   * Creates chromosomes with few distinct fitness values and ages, so that
+   * there are many ties.
+   */
+  private List<IChromosome> createChromosomes(int a_count, long a_seed)
+      throws Exception {
+    conf.setFitnessFunction(new StaticFitnessFunction(1));
+    Random rand = new Random(a_seed);
+    List<IChromosome> result = new Vector<IChromosome>();
+    for (int i = 0; i < a_count; i++) {
+      Chromosome chrom = new Chromosome(conf, new IntegerGene(conf), 1);
+      chrom.setFitnessValueDirectly(rand.nextInt(8));
+      chrom.setAge(rand.nextInt(3));
+      result.add(chrom);
+    }
+    return result;
+  }
+
+  private void assertRanked(List a_expected, List a_actual, int a_count) {
+    assertEquals(a_expected.size(), a_actual.size());
+    for (int i = 0; i < a_count; i++) {
+      assertSame("Index " + i, a_expected.get(i), a_actual.get(i));
+    }
+  }
+
+  /**
+   * The fittest chromosomes equal those of a stable sort, the others keep
+   * their order.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRankFittest_0()
+      throws Exception {
+    Comparator comp = new ChromosomeFitnessComparator();
+    for (int count = 1; count <= 60; count += 7) {
+      List<IChromosome> chroms = createChromosomes(60, count);
+      List<IChromosome> rest = new Vector<IChromosome>(chroms);
+      List<IChromosome> expected = new Vector<IChromosome>(chroms);
+      Collections.sort(expected, comp);
+      new ChromosomeRanking(comp, false).rankFittest(chroms, count,
+          new DefaultFitnessEvaluator());
+      assertRanked(expected, chroms, count);
+      Map<IChromosome, Boolean> top = new IdentityHashMap<IChromosome,
+          Boolean>();
+      for (int i = 0; i < count; i++) {
+        top.put(chroms.get(i), Boolean.TRUE);
+      }
+      int index = count;
+      for (IChromosome chrom : rest) {
+        if (!top.containsKey(chrom)) {
+          assertSame(chrom, chroms.get(index++));
+        }
+      }
+      assertEquals(chroms.size(), index);
+    }
+  }
+
+  /**
+   * Fitness evaluator preferring small values, ties resolved by age.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRankFittest_1()
+      throws Exception {
+    conf.resetProperty(Configuration.PROPERTY_FITEVAL_INST);
+    conf.setFitnessEvaluator(new DeltaFitnessEvaluator());
+    NaturalSelector sel = new BestChromosomesSelector(conf);
+    Comparator comp = sel.new FitnessAgeValueComparator();
+    List<IChromosome> chroms = createChromosomes(100, 47);
+    List<IChromosome> expected = new Vector<IChromosome>(chroms);
+    Collections.sort(expected, comp);
+    ChromosomeRanking ranking = new ChromosomeRanking(comp, true);
+    ranking.rankFittest(chroms, 10, conf.getFitnessEvaluator());
+    assertRanked(expected, chroms, 10);
+    assertEquals(0.0d, chroms.get(0).getFitnessValue(), DELTA);
+    // Ranking all chromosomes equals a full sort.
+    // -------------------------------------------
+    ranking.rankFittest(chroms, 200, conf.getFitnessEvaluator());
+    assertRanked(expected, chroms, 100);
+  }
+
+  /**
+   * An unknown fitness evaluator is considered via the comparator.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRankFittest_2()
+      throws Exception {
+    FitnessEvaluator eval = new DefaultFitnessEvaluator() {
+      public boolean isFitter(IChromosome a_chrom1, IChromosome a_chrom2) {
+        return a_chrom1.getAge() > a_chrom2.getAge();
+      }
+    };
+    Comparator comp = new ChromosomeFitnessComparator(eval);
+    List<IChromosome> chroms = createChromosomes(50, 11);
+    List<IChromosome> expected = new Vector<IChromosome>(chroms);
+    Collections.sort(expected, comp);
+    new ChromosomeRanking(comp, false).rankFittest(chroms, 20, eval);
+    assertRanked(expected, chroms, 20);
+    assertEquals(2, chroms.get(0).getAge());
+  }
+
+  /**
+   * Nothing to rank.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRankFittest_3()
+      throws Exception {
+    ChromosomeRanking ranking = new ChromosomeRanking(new
+        ChromosomeFitnessComparator(), false);
+    List<IChromosome> chroms = new Vector<IChromosome>();
+    ranking.rankFittest(chroms, 3, new DefaultFitnessEvaluator());
+    assertEquals(0, chroms.size());
+    chroms = createChromosomes(3, 5);
+    List<IChromosome> expected = new Vector<IChromosome>(chroms);
+    ranking.rankFittest(chroms, 0, new DefaultFitnessEvaluator());
+    assertEquals(expected, chroms);
+  }
+
+  /**
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testConstruct_0() {
+    try {
+      new ChromosomeRanking(null, false);
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.io.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the ContentHash class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class ContentHashTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    return new TestSuite(ContentHashTest.class);
+  }
+
+  private void writeData(DataOutput a_out)
+      throws IOException {
+    a_out.writeInt(4711);
+    a_out.writeLong( -1L);
+    a_out.writeDouble(0.5);
+    a_out.writeBoolean(true);
+    a_out.writeUTF("a\u00e4\u20ac\u0000");
+    a_out.write(new byte[] {1, 2, 3}, 1, 2);
+  }
+
+  /**
+   * Hashing directly yields the same as hashing the bytes written to a
+   * DataOutputStream.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetValue_0()
+      throws Exception {
+    ContentHash hash = new ContentHash();
+    writeData(hash);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    writeData(out);
+    out.flush();
+    ContentHash hash2 = new ContentHash();
+    hash2.write(bytes.toByteArray());
+    assertEquals(hash2.getValue(), hash.getValue());
+  }
+
+  /**
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testGetValue_1()
+      throws Exception {
+    ContentHash hash = new ContentHash();
+    long empty = hash.getValue();
+    hash.writeInt(1);
+    long one = hash.getValue();
+    assertFalse(empty == one);
+    hash.reset();
+    assertEquals(empty, hash.getValue());
+    hash.writeInt(2);
+    assertFalse(one == hash.getValue());
+  }
+}
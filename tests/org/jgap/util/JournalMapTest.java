@@ -0,0 +1,198 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.util;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgap.*;
+
+import junit.framework.*;
+
+/**
+ * Tests the JournalMap class.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class JournalMapTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    return new TestSuite(JournalMapTest.class);
+  }
+
+  private File m_file;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      m_file = File.createTempFile("jgapjournal", ".jnl");
+      m_file.delete();
+    } catch (IOException iex) {
+      throw new RuntimeException(iex);
+    }
+  }
+
+  public void tearDown()
+      throws Exception {
+    m_file.delete();
+    new File(m_file.getPath() + ".tmp").delete();
+    super.tearDown();
+  }
+
+  /**
+   * Modifications are restored when reopening the journal.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testReopen_0()
+      throws Exception {
+    JournalMap<String> map = new JournalMap<String>(m_file);
+    assertTrue(map.isEmpty());
+    map.put("a", "1");
+    map.put("b", "2");
+    map.put("c", "3");
+    map.put("a", "4");
+    map.remove("b");
+    map.remove("x");
+    Iterator<String> it = map.keySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().equals("c")) {
+        it.remove();
+      }
+    }
+    map.put("d", null);
+    map.close();
+    assertEquals(7, map.getRecordCount());
+    map = new JournalMap<String>(m_file);
+    assertEquals(2, map.size());
+    assertEquals("4", map.get("a"));
+    assertTrue(map.containsKey("d"));
+    assertNull(map.get("d"));
+    assertFalse(map.containsKey("b"));
+    assertFalse(map.containsKey("c"));
+    map.clear();
+    map.close();
+    map = new JournalMap<String>(m_file);
+    assertTrue(map.isEmpty());
+    map.close();
+  }
+
+  /**
+   * Incomplete records at the end of the journal are discarded.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRecovery_0()
+      throws Exception {
+    JournalMap<String> map = new JournalMap<String>(m_file);
+    map.put("a", "1");
+    map.flush();
+    long len = m_file.length();
+    map.put("b", "2");
+    map.close();
+    // Simulate a crash while writing the last record.
+    // -----------------------------------------------
+    RandomAccessFile raf = new RandomAccessFile(m_file, "rw");
+    raf.setLength(m_file.length() - 3);
+    raf.close();
+    map = new JournalMap<String>(m_file);
+    assertEquals(1, map.size());
+    assertEquals("1", map.get("a"));
+    assertEquals(len, m_file.length());
+    // Appending after recovery works.
+    // -------------------------------
+    map.put("c", "3");
+    map.close();
+    map = new JournalMap<String>(m_file);
+    assertEquals(2, map.size());
+    assertEquals("3", map.get("c"));
+    map.close();
+  }
+
+  /**
+   * Corrupt records are discarded.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testRecovery_1()
+      throws Exception {
+    JournalMap<String> map = new JournalMap<String>(m_file);
+    map.put("a", "1");
+    map.put("b", "2");
+    map.close();
+    RandomAccessFile raf = new RandomAccessFile(m_file, "rw");
+    raf.seek(m_file.length() - 1);
+    raf.write(0x55);
+    raf.close();
+    map = new JournalMap<String>(m_file);
+    assertEquals(1, map.size());
+    assertEquals("1", map.get("a"));
+    map.close();
+  }
+
+  /**
+   * The journal is compacted when holding too many obsolete records.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testCompact_0()
+      throws Exception {
+    JournalMap<Integer> map = new JournalMap<Integer>(m_file);
+    map.setSync(true);
+    assertTrue(map.isSync());
+    for (int i = 0; i < 3000; i++) {
+      map.put("key" + (i % 10), new Integer(i));
+    }
+    assertTrue(map.getRecordCount() <= 1001);
+    map.close();
+    map = new JournalMap<Integer>(m_file);
+    assertEquals(10, map.size());
+    assertEquals(new Integer(2999), map.get("key9"));
+    assertEquals(new Integer(2990), map.get("key0"));
+    map.compact();
+    assertEquals(10, map.getRecordCount());
+    map.close();
+    assertFalse(new File(m_file.getPath() + ".tmp").exists());
+  }
+
+  /**
+   * Values must be serializable.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testPut_0()
+      throws Exception {
+    JournalMap<Object> map = new JournalMap<Object>(m_file);
+    try {
+      map.put("a", new Object());
+      fail();
+    } catch (IllegalArgumentException iex) {
+      ; //this is OK
+    }
+    assertTrue(map.isEmpty());
+    map.close();
+  }
+}
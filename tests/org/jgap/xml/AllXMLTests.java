@@ -24,6 +24,7 @@ public class AllXMLTests
     TestSuite suite = new TestSuite("AllXMLTests");
     suite.addTest(XMLDocumentBuilderTest.suite());
     suite.addTest(XMLManagerTest.suite());
+    suite.addTest(GenotypeXMLReaderTest.suite());
     return suite;
   }
 }
@@ -0,0 +1,182 @@
+/*
+ * This file is part of JGAP.
+ *
+ * JGAP offers a dual license model containing the LGPL as well as the MPL.
+ *
+ * For licensing information please see the file license.txt included with JGAP
+ * or have a look at the top of class org.jgap.Chromosome which representatively
+ * includes the JGAP license policy applicable for any file delivered with JGAP.
+ */
+package org.jgap.xml;
+
+import java.io.*;
+
+import org.jgap.*;
+import org.jgap.impl.*;
+import org.w3c.dom.*;
+import junit.framework.*;
+
+/**
+ * Tests the GenotypeXMLReader and GenotypeXMLWriter classes.
+ *
+ * @author Klaus Meffert
+ * @since 3.7
+ */
+public class GenotypeXMLReaderTest
+    extends JGAPTestCase {
+  public static Test suite() {
+    TestSuite suite = new TestSuite(GenotypeXMLReaderTest.class);
+    return suite;
+  }
+
+  private Genotype m_genotype;
+
+  public void setUp() {
+    super.setUp();
+    try {
+      Configuration.reset();
+      conf = new DefaultConfiguration();
+      Gene[] genes = new Gene[] {
+          new IntegerGene(conf, 0, 100),
+          new StringGene(conf, 0, 20, "abcd<>&\"\n\t"),
+          new DoubleGene(conf, 0, 10)};
+      conf.setSampleChromosome(new Chromosome(conf, genes));
+      conf.setPopulationSize(10);
+      conf.setFitnessFunction(new TestFitnessFunction());
+      m_genotype = Genotype.randomInitialGenotype(conf);
+      // Characters to be escaped.
+      // -------------------------
+      m_genotype.getPopulation().getChromosome(0).getGene(1).setAllele(
+          "a<b>&\"c\"\n\td");
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private String write(Genotype a_genotype)
+      throws Exception {
+    StringWriter out = new StringWriter();
+    new GenotypeXMLWriter(out).writeGenotype(a_genotype);
+    return out.toString();
+  }
+
+  /**
+   * A genotype written by the streaming writer is read back equally.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testReadGenotype_0()
+      throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new GenotypeXMLWriter(bytes).writeGenotype(m_genotype);
+    GenotypeXMLReader reader = new GenotypeXMLReader(conf,
+        new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(10, reader.getDeclaredSize());
+    Genotype genotype = reader.readGenotype();
+    assertEquals("a<b>&\"c\"\n\td", genotype.getPopulation().getChromosome(0).
+                 getGene(1).getAllele());
+    assertEquals(m_genotype, genotype);
+    assertNull(reader.nextChromosome());
+  }
+
+  /**
+   * Chromosomes are read one after the other, the format is compatible with
+   * the DOM methods of XMLManager.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testNextChromosome_0()
+      throws Exception {
+    // Written via DOM, read via stream.
+    // ---------------------------------
+    File file = File.createTempFile("jgap", ".xml");
+    try {
+      XMLManager.writeFile(XMLManager.representGenotypeAsDocument(m_genotype),
+                           file);
+      GenotypeXMLReader reader = new GenotypeXMLReader(conf,
+          new FileInputStream(file));
+      Population pop = m_genotype.getPopulation();
+      for (int i = 0; i < pop.size(); i++) {
+        assertEquals(pop.getChromosome(i), reader.nextChromosome());
+      }
+      assertNull(reader.nextChromosome());
+      reader.close();
+      // Written via stream, read via DOM.
+      // ---------------------------------
+      FileOutputStream out = new FileOutputStream(file);
+      GenotypeXMLWriter writer = new GenotypeXMLWriter(out);
+      writer.startGenotype( -1);
+      for (int i = 0; i < pop.size(); i++) {
+        writer.writeChromosome(pop.getChromosome(i));
+      }
+      writer.endGenotype();
+      writer.close();
+      Document doc = XMLManager.readFile(file);
+      assertEquals(m_genotype, XMLManager.getGenotypeFromDocument(conf, doc));
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Documents holding a single chromosome, and alleles given as text.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testNextChromosome_1()
+      throws Exception {
+    String xml = "<chromosome size=\"1\"><genes><gene class=\""
+        + IntegerGene.class.getName()
+        + "\">17:0:100</gene></genes></chromosome>";
+    GenotypeXMLReader reader = new GenotypeXMLReader(conf,
+        new StringReader(xml));
+    assertEquals( -1, reader.getDeclaredSize());
+    IChromosome chrom = reader.nextChromosome();
+    assertEquals(1, chrom.size());
+    assertEquals(new Integer(17), chrom.getGene(0).getAllele());
+    assertNull(reader.nextChromosome());
+  }
+
+  /**
+   * Improper documents are rejected.
+   *
+   * @throws Exception
+   *
+   * @author Klaus Meffert
+   * @since 3.7
+   */
+  public void testNextChromosome_2()
+      throws Exception {
+    try {
+      new GenotypeXMLReader(conf, new StringReader("<genes/>")).
+          nextChromosome();
+      fail();
+    } catch (ImproperXMLException iex) {
+      ; //this is OK
+    }
+    try {
+      new GenotypeXMLReader(conf, new StringReader(
+          "<genotype><chromosome></chromosome></genotype>")).nextChromosome();
+      fail();
+    } catch (ImproperXMLException iex) {
+      ; //this is OK
+    }
+    String xml = write(m_genotype);
+    try {
+      new GenotypeXMLReader(conf, new StringReader(xml.substring(0,
+          xml.length() / 2))).readGenotype();
+      fail();
+    } catch (EOFException eex) {
+      ; //this is OK
+    }
+  }
+}